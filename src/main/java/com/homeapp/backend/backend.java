@@ -1,36 +1,30 @@
 package com.homeapp.backend;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.homeapp.backend.models.bike.Part;
 import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
 import org.jsoup.select.Elements;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Optional;
 
 @SpringBootApplication(scanBasePackages = "com.homeapp.backend")
+@EnableScheduling
 public class backend implements CommandLineRunner {
-    private static final String LINKS_FILE = "src/main/resources/links.json";
-    private static final ObjectMapper om = new ObjectMapper();
     private static final InfoLogger infoLogger = new InfoLogger();
     private static final WarnLogger warnLogger = new WarnLogger();
     private static final ErrorLogger errorLogger = new ErrorLogger();
 
     public static void main(String[] args) {
-        checkAllLinks();
         SpringApplication.run(backend.class, args);
     }
 
@@ -40,129 +34,141 @@ public class backend implements CommandLineRunner {
     }
 
     /**
-     * A method that runs through the manually updated list of links in the links.json file.
-     * Collects all problem links and sends these to reporter
+     * Sets bike parts price and name on the part that is passed-in.
+     * Single method used to access website and skim information. This is then used to populate Part Object.
+     * BikeParts Object on instance is then updated with the new Part object.
+     * The page is fetched once, any non 200 response is reported as a failure.
+     *
+     * @param part the part that is to updated
+     * @return true if the part was updated from its link
      */
-    public static void checkAllLinks() {
-        List<Part> allParts = readLinksFile();
-        LinkedList<String> problemLinks = new LinkedList<>();
-        LinkedList<Part> partListToWriteToFile = new LinkedList<>();
-        for (Part part : allParts) {
-            try {
-                int statusCode = Jsoup.connect(part.getLink()).execute().statusCode();
-                if (statusCode == 200) {
-                    setPartAttributesFromLink(part);
-                    partListToWriteToFile.add(part);
-                } else {
-                    problemLinks.add(part.getLink());
-                    partListToWriteToFile.add(part);
-                }
-            } catch (IOException e) {
-                problemLinks.add(part.getLink());
+    public static boolean setPartAttributesFromLink(Part part) {
+        try {
+            Document doc = Jsoup.connect(part.getLink()).timeout(5000).get();
+            if (!setPartAttributesFromDocument(part, doc)) {
+                errorLogger.log("An Error occurred !!Connecting to link: " + part.getLink() + "!!For bike Component: " + part.getComponent());
+                return false;
             }
+            warnLogger.log("Found Frame: " + part.getName());
+            warnLogger.log("For price: " + part.getPrice());
+            warnLogger.log("Frame link: " + part.getLink());
+            return true;
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from: getPartFromLink!!See error message: " + e.getMessage() + "!!For bike Component: " + part.getComponent());
+            return false;
         }
-        writePartsToFile(partListToWriteToFile);
-        errorLogger.log("**** Please check the following links ****");
-        errorLogger.log("You have " + problemLinks.size() + " links with issues");
-        problemLinks.forEach(entry -> errorLogger.log("Issue with link: " + entry));
-        errorLogger.log("**** Checking links complete ****");
-        infoLogger.log("Finished checking links!");
     }
 
     /**
-     * Writes unique list of Parts back to file, to allow information to be retrieved directly from file later.
+     * Sets bike parts price and name on the part that is passed-in, from a product page as it streams in.
+     * Parsing stops as soon as the retailer's product panel has closed, so the rest of the page is never read or built into a DOM.
+     * If the panel is missing, or the name and price are not inside it, the rest of the page is parsed and the full document used instead.
      *
-     * @param updatedParts unique list of Parts to be written back to File.
+     * @param part   the part that is to updated
+     * @param parser the stream parser over the product page for the part's link
+     * @return true if the product panel was found and the part was updated
+     * @throws IOException if the page cannot be read
      */
-    private static void writePartsToFile(LinkedList<Part> updatedParts) {
-        infoLogger.log("Writing updated Bike Parts to file");
-        try {
-            om.writeValue(new File(LINKS_FILE), updatedParts);
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from method: writePartsBackFile!!See error message: " + e.getMessage() + "!!From: " + backend.class);
+    public static boolean setPartAttributesFromStream(Part part, StreamParser parser) throws IOException {
+        String panel = panelSelectorOf(part.getLink());
+        if (panel == null) {
+            return false;
         }
-    }
-
-    private static List<Part> readLinksFile() {
-        infoLogger.log("Reading all Links from File");
-        try {
-            return om.readValue(new File(LINKS_FILE), new TypeReference<>() {
-            });
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from method: readLinksFile!!See error message: " + e.getMessage() + "!!From: " + backend.class);
+        if (parser.selectFirst(panel) != null && setPartAttributesFromDocument(part, parser.document())) {
+            return true;
         }
-        return new ArrayList<>();
+        parser.complete();
+        return setPartAttributesFromDocument(part, parser.document());
     }
 
     /**
-     * Sets bike parts price and name on the part that is passed-in.
-     * Single method used to access website and skim information. This is then used to populate Part Object.
-     * BikeParts Object on instance is then updated with the new Part object.
+     * Sets bike parts price and name on the part that is passed-in, from an already fetched product page.
+     * Kept separate from the fetch, and free of logging, so the extraction can be checked and benchmarked against saved pages.
      *
      * @param part the part that is to updated
+     * @param doc  the product page for the part's link
+     * @return true if the product panel was found and the part was updated
      */
-    static void setPartAttributesFromLink(Part part) {
-        try {
-            Document doc = Jsoup.connect(part.getLink()).timeout(5000).get();
-            String today = LocalDate.now().toString();
-            Optional<Elements> e;
-            String name = "";
-            String price = "";
-            if (part.getLink().contains("dolan-bikes")) {
-                e = Optional.of(doc.select("div.productBuy > div.productPanel"));
-                if (e.get().isEmpty()) {
-                    errorLogger.log("An Error occurred !!Connecting to link: " + part.getLink() + "!!For bike Component: " + part.getComponent());
-                    return;
-                } else {
-                    name = e.get().select("h1").first().text();
-                    price = e.get().select("div.price").select("span.price").first().text();
-                }
-            } else if (part.getLink().contains("genesisbikes")) {
-                e = Optional.of(doc.select("div.product-info-main-header"));
-                if (e.get().isEmpty()) {
-                    errorLogger.log("An Error occurred !!Connecting to link: " + part.getLink() + "!!For bike Component: " + part.getComponent());
-                    return;
-                } else {
-                    name = e.get().select("h1.page-title").text();
-                    price = e.get().select("div.product-info-price > div.price-final_price").first().select("span").text();
-                }
-            } else if (part.getLink().contains("wiggle") || part.getLink().contains("chainreactioncycles")) {
-                e = Optional.of(doc.select("div.ProductDetail_container__FX6xF"));
-                if (e.get().isEmpty()) {
-                    errorLogger.log("An Error occurred !!Connecting to link: " + part.getLink() + "!!For bike Component: " + part.getComponent());
-                    return;
-                } else {
-                    name = e.get().select("h1").first().text();
-                    price = e.get().select("div.ProductPrice_productPrice__Fg1nA").select("p").first().text();
-                }
-            } else if (part.getLink().contains("halo")) {
-                e = Optional.of(doc.select("div.ProductDetail_container__FX6xF"));
-                if (e.get().isEmpty()) {
-                    errorLogger.log("An Error occurred !!Connecting to link: " + part.getLink() + "!!For bike Component: " + part.getComponent());
-                    return;
-                } else {
-                    name = e.get().select("h1").first().text();
-                    if (e.get().select("div.priceSummary").select("ins").first() != null) {
-                        price = e.get().select("div.priceSummary").select("ins").select("span").first().text().replace("£", "").split(" ")[0];
-                    } else {
-                        price = e.get().select("div.priceSummary").select("span").first().text().replace("£", "").split(" ")[0];
-                    }
-                    e.get().select("div.priceSummary").select("ins").first();
-                }
+    public static boolean setPartAttributesFromDocument(Part part, Document doc) {
+        String panel = panelSelectorOf(part.getLink());
+        if (panel == null) {
+            return false;
+        }
+        Elements e = doc.select(panel);
+        if (e.isEmpty()) {
+            return false;
+        }
+        String name;
+        String price;
+        if (part.getLink().contains("dolan-bikes")) {
+            Element title = e.select("h1").first();
+            Element priceTag = e.select("div.price").select("span.price").first();
+            if (title == null || priceTag == null) {
+                return false;
             }
-            price = price.replaceAll("[^\\d.]", "");
-            price = price.split("\\.")[0] + "." + price.split("\\.")[1].substring(0, 2);
-            if (!price.contains(".")) {
-                price = price + ".00";
+            name = title.text();
+            price = priceTag.text();
+        } else if (part.getLink().contains("genesisbikes")) {
+            Element priceBox = e.select("div.product-info-price > div.price-final_price").first();
+            if (priceBox == null) {
+                return false;
             }
-            warnLogger.log("Found Frame: " + name);
-            warnLogger.log("For price: " + price);
-            warnLogger.log("Frame link: " + part.getLink());
-            part.setDateLastUpdated(today);
-            part.setName(name);
-            part.setPrice(price);
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from: getPartFromLink!!See error message: " + e.getMessage() + "!!For bike Component: " + part.getComponent());
+            name = e.select("h1.page-title").text();
+            price = priceBox.select("span").text();
+        } else if (part.getLink().contains("wiggle") || part.getLink().contains("chainreactioncycles")) {
+            Element title = e.select("h1").first();
+            Element priceTag = e.select("div.ProductPrice_productPrice__Fg1nA").select("p").first();
+            if (title == null || priceTag == null) {
+                return false;
+            }
+            name = title.text();
+            price = priceTag.text();
+        } else {
+            Element title = e.select("h1").first();
+            Element priceTag = e.select("div.priceSummary").select("ins").first() != null
+                    ? e.select("div.priceSummary").select("ins").select("span").first()
+                    : e.select("div.priceSummary").select("span").first();
+            if (title == null || priceTag == null) {
+                return false;
+            }
+            name = title.text();
+            price = priceTag.text().replace("£", "").split(" ")[0];
+        }
+        part.setDateLastUpdated(LocalDate.now().toString());
+        part.setName(name);
+        part.setPrice(formatPrice(price));
+        return true;
+    }
+
+    /**
+     * Gets the CSS selector for the product panel holding the name and price, for the retailer of the passed-in link.
+     *
+     * @param link the product link
+     * @return the panel selector, null if the retailer is unknown
+     */
+    static String panelSelectorOf(String link) {
+        if (link.contains("dolan-bikes")) {
+            return "div.productBuy > div.productPanel";
+        } else if (link.contains("genesisbikes")) {
+            return "div.product-info-main-header";
+        } else if (link.contains("wiggle") || link.contains("chainreactioncycles") || link.contains("halo")) {
+            return "div.ProductDetail_container__FX6xF";
+        }
+        return null;
+    }
+
+    /**
+     * Strips currency symbols and thousand separators from a scraped price, and pads/trims it to two decimal places.
+     *
+     * @param price the price as shown on the product page
+     * @return the price as a plain two decimal String
+     */
+    static String formatPrice(String price) {
+        price = price.replaceAll("[^\\d.]", "");
+        if (!price.contains(".")) {
+            price = price + ".00";
         }
+        String[] split = price.split("\\.");
+        return split[0] + "." + (split.length > 1 ? split[1] + "00" : "00").substring(0, 2);
     }
 }
\ No newline at end of file
@@ -1,21 +1,36 @@
 package com.homeapp.backend.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.BikeConfigKey;
 import com.homeapp.backend.models.bike.BikeParts;
 import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.PricedBuild;
 import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.services.BikePartsService;
-import com.homeapp.backend.services.FullBikeService;
+import com.homeapp.backend.services.BuildOptimizerService;
+import com.homeapp.backend.services.PartsCatalogService;
+import com.homeapp.backend.store.DesignSessionStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
  * The Bike Parts Controller. Houses API for Bike Parts.
  * Used to return Bike Parts for design Bike. Complete with part name, price and link.
  * The parts have the prices summed into a total for display on FE.
+ * The parts follow from the bike's configuration and the parts catalog alone, so responses are kept in the Response Cache
+ * until the catalog changes.
  */
 @RestController
 @RequestMapping("FullBike/")
@@ -24,43 +39,104 @@ public class BikePartsController {
 
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
+    private static final ObjectMapper om = new ObjectMapper();
     private final ErrorLogger errorLogger = new ErrorLogger();
     private final BikePartsService bikePartsService;
-    private final FullBikeService fullBikeService;
+    private final DesignSessionStore designSessionStore;
+    private final PartsCatalogService partsCatalogService;
+    private final ResponseCache responseCache;
+    private final BuildOptimizerService buildOptimizerService;
 
     /**
      * Instantiates a new Bike Parts Controller.
-     * Autowires in Full Bike and Bike Parts Services to allow access to their methods.
+     * Autowires in the Bike Parts Service, the Design Session Store, the Parts Catalog Service, the Response Cache and the Build Optimizer
+     * Service to allow access to their methods.
      *
-     * @param bikePartsService the bike parts service
-     * @param fullBikeService  the full bike service
+     * @param bikePartsService      the bike parts service
+     * @param designSessionStore    the design session store
+     * @param partsCatalogService   the parts catalog service, for its version
+     * @param responseCache         the response cache
+     * @param buildOptimizerService the build optimizer service
      */
     @Autowired
-    public BikePartsController(BikePartsService bikePartsService, FullBikeService fullBikeService) {
+    public BikePartsController(BikePartsService bikePartsService, DesignSessionStore designSessionStore,
+                               PartsCatalogService partsCatalogService, ResponseCache responseCache, BuildOptimizerService buildOptimizerService) {
         this.bikePartsService = bikePartsService;
-        this.fullBikeService = fullBikeService;
+        this.designSessionStore = designSessionStore;
+        this.partsCatalogService = partsCatalogService;
+        this.responseCache = responseCache;
+        this.buildOptimizerService = buildOptimizerService;
     }
 
     /**
      * Gets all parts for passed-in bike.
+     * The bike is set up as getting its parts does before the Response Cache is looked in, and the request is recorded against each of
+     * its Parts, so a cached answer leaves the same bike and the same demand as one worked out afresh.
+     * The bike is kept as the design bike of the caller's design session.
      *
-     * @param bike the design bike
+     * @param bike           the design bike
+     * @param token          the X-Design-Token header, the HTTP session is used if not sent
+     * @param acceptEncoding the Accept-Encoding header, the parts are sent gzipped if it allows
+     * @param request        the request
      * @return the Bike Parts
      * @return HTTP status - ACCEPTED if no errors were encountered from Bike links
      * @return HTTP status - OK if errors were encountered from Bike links
      */
     @PostMapping("GetAllParts")
-    public ResponseEntity<BikeParts> getAllParts(@RequestBody FullBike bike) {
+    public ResponseEntity<byte[]> getAllParts(@RequestBody FullBike bike,
+                                              @RequestHeader(value = DesignSessions.TOKEN_HEADER, required = false) String token,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                              HttpServletRequest request) {
         infoLogger.log("Get Bike Parts, API");
-        fullBikeService.setBike(bike);
-        BikeParts bikeParts = bikePartsService.getBikePartsForBike();
-        if (bikeParts.getErrorMessages().size() == 0) {
-            warnLogger.log("Returning Parts with ZERO errors!");
-            return new ResponseEntity<>(bikeParts, HttpStatus.ACCEPTED);
-        } else {
-            warnLogger.log("Returning Parts with some errors..." + bikeParts);
-            errorLogger.log("Returning Parts with some errors..." + bikeParts);
-            return new ResponseEntity<>(bikeParts, HttpStatus.OK);
+        bikePartsService.normalize(bike);
+        bikePartsService.recordDemand(bike);
+        designSessionStore.put(DesignSessions.key(token, request), bike);
+        String version = Long.toString(partsCatalogService.getVersion());
+        return responseCache.respond("FullBike/GetAllParts", BikeConfigKey.of(bike), version, acceptEncoding, () -> {
+            BikeParts bikeParts = bikePartsService.getBikePartsForBike(bike);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            if (bikeParts.getErrorMessages().size() == 0) {
+                warnLogger.log("Returning Parts with ZERO errors!");
+                return new ResponseEntity<>(serialize(bikeParts), headers, HttpStatus.ACCEPTED);
+            } else {
+                warnLogger.log("Returning Parts with some errors..." + bikeParts);
+                errorLogger.log("Returning Parts with some errors..." + bikeParts);
+                return new ResponseEntity<>(serialize(bikeParts), headers, HttpStatus.OK);
+            }
+        });
+    }
+
+    /**
+     * Gets the cheapest complete builds for a partial design bike, cheapest first.
+     * With a budget, gets the most expensive builds that cost no more than it instead, the best that can be had for the money.
+     * e.g. a bike with just a Gravel frame and Hydraulic Disc brakes chosen gets the cheapest valid Gravel bikes with Hydraulic Disc brakes.
+     *
+     * @param bike   the partial design bike
+     * @param limit  the most builds to return
+     * @param budget the most a build may cost, not sent for the cheapest builds
+     * @return the Priced Builds
+     * @return HTTP status - OK
+     * @return HTTP status - BAD_REQUEST if the limit is less than 1
+     */
+    @PostMapping("CheapestBuilds")
+    public ResponseEntity<List<PricedBuild>> getCheapestBuilds(@RequestBody FullBike bike,
+                                                               @RequestParam(defaultValue = "5") int limit,
+                                                               @RequestParam(required = false) BigDecimal budget) {
+        infoLogger.log("Get Cheapest Builds, API");
+        if (limit < 1) {
+            warnLogger.log("Cheapest builds asked for with a limit of: " + limit);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(buildOptimizerService.getBuilds(bike, limit, budget), HttpStatus.OK);
+    }
+
+    private byte[] serialize(BikeParts bikeParts) {
+        try {
+            return om.writeValueAsBytes(bikeParts);
+        } catch (JsonProcessingException e) {
+            errorLogger.log("A JsonProcessingException occurred from: serialize!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
         }
     }
-}
\ No newline at end of file
+}
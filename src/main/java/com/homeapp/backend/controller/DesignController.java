@@ -0,0 +1,111 @@
+package com.homeapp.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.CombinedData;
+import com.homeapp.backend.models.bike.Options;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.services.DesignSnapshotService;
+import com.homeapp.backend.services.DesignSnapshotService.DesignSnapshot;
+import com.homeapp.backend.store.DesignSessionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The Design Controller.
+ * Houses the API the bike designer calls on each change to a design, in place of calling Update Bike, Get Options, Get Images and
+ * Get All Parts one after another.
+ */
+@RestController
+@RequestMapping("Design/")
+@CrossOrigin(origins = "http://localhost:3000")
+public class DesignController {
+
+    private static final ObjectMapper om = new ObjectMapper();
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final DesignSnapshotService designSnapshotService;
+    private final DesignSessionStore designSessionStore;
+
+    /**
+     * Instantiates a new Design Controller.
+     * Autowires in the Design Snapshot Service and the Design Session Store to allow access to their methods.
+     *
+     * @param designSnapshotService the design snapshot service
+     * @param designSessionStore    the design session store
+     */
+    @Autowired
+    public DesignController(DesignSnapshotService designSnapshotService, DesignSessionStore designSessionStore) {
+        this.designSnapshotService = designSnapshotService;
+        this.designSessionStore = designSessionStore;
+    }
+
+    /**
+     * Gets a snapshot of the passed-in design bike, as one JSON document: {"bike": ..., "options": ..., "images": [...], "parts": ...}.
+     * The bike is normalized once and the Options, images and parts are worked out at the same time.
+     * The document is streamed, the parts last, so the bike, Options and images are sent without waiting for the parts.
+     * The Options and images are waited for before the response starts, so a failure in either is sent as an error status rather than
+     * cutting off a document already sent as OK; parts that cannot be got are sent in the document as Bike Parts holding the error.
+     * The normalized bike is kept as the design bike of the caller's design session.
+     *
+     * @param combinedData the design bike and the Options the FE has, the Options can be left out
+     * @param save         whether to save the bike, as Update Bike does
+     * @param parts        whether to get the bike's parts, left out of the document if not
+     * @param token        the X-Design-Token header, the HTTP session is used if not sent
+     * @param request      the request
+     * @return the snapshot, streamed
+     * @return HTTP - Status OK
+     * @return HTTP - Status INTERNAL_SERVER_ERROR if the Options or images could not be worked out
+     */
+    @PostMapping("Snapshot")
+    public ResponseEntity<StreamingResponseBody> getSnapshot(@RequestBody CombinedData combinedData,
+                                                             @RequestParam(defaultValue = "false") boolean save,
+                                                             @RequestParam(defaultValue = "true") boolean parts,
+                                                             @RequestHeader(value = DesignSessions.TOKEN_HEADER, required = false) String token,
+                                                             HttpServletRequest request) {
+        infoLogger.log("Get Design Snapshot, API");
+        DesignSnapshot snapshot = designSnapshotService.snapshot(combinedData, save, parts);
+        designSessionStore.put(DesignSessions.key(token, request), snapshot.bike());
+        Options options;
+        byte[] images;
+        try {
+            options = snapshot.options().join();
+            images = snapshot.images().join();
+        } catch (CompletionException e) {
+            errorLogger.log("An Exception occurred from: getSnapshot!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        StreamingResponseBody body = out -> {
+            write(out, "{\"bike\":");
+            out.write(om.writeValueAsBytes(snapshot.bike()));
+            write(out, ",\"options\":");
+            out.write(om.writeValueAsBytes(options));
+            write(out, ",\"images\":");
+            out.write(images);
+            if (snapshot.parts() != null) {
+                out.flush();
+                write(out, ",\"parts\":");
+                out.write(om.writeValueAsBytes(snapshot.parts().join()));
+            }
+            write(out, "}");
+        };
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    private static void write(OutputStream out, String json) throws IOException {
+        out.write(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,33 @@
+package com.homeapp.backend.controller;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * The Design Sessions helper.
+ * Works out which design session a request belongs to, for the Design Session Store.
+ */
+final class DesignSessions {
+
+    /**
+     * The request header a FE can send to name its design session, instead of relying on the session cookie.
+     */
+    static final String TOKEN_HEADER = "X-Design-Token";
+
+    private DesignSessions() {
+    }
+
+    /**
+     * Gets the design session key for a request.
+     * A design token is used if one was sent, otherwise the HTTP session, which is started if the request does not have one yet.
+     *
+     * @param token   the X-Design-Token header, null if not sent
+     * @param request the request
+     * @return the session key
+     */
+    static String key(String token, HttpServletRequest request) {
+        if (token != null && !token.isBlank()) {
+            return "token:" + token;
+        }
+        return "session:" + request.getSession(true).getId();
+    }
+}
@@ -1,14 +1,26 @@
 package com.homeapp.backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.transfer.ImportProgress;
+import com.homeapp.backend.services.BulkTransferService;
 import com.homeapp.backend.services.FullBikeService;
+import com.homeapp.backend.store.DesignSessionStore;
+import com.homeapp.backend.store.Page;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -17,52 +29,119 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("FullBike/")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = {ListResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class FullBikeController {
 
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int MAX_SIMILAR_BIKES = 50;
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
     private final FullBikeService fullBikeService;
+    private final BulkTransferService bulkTransferService;
+    private final DesignSessionStore designSessionStore;
+    private final VersionedResponses allBikes = new VersionedResponses("bikes");
 
     /**
      * Instantiates a new Full bike controller.
-     * Autowires in a Full Bike Service for access to the methods.
+     * Autowires in a Full Bike Service, Bulk Transfer Service and Design Session Store for access to the methods.
      *
-     * @param fullBikeService the full bike service
+     * @param fullBikeService     the full bike service
+     * @param bulkTransferService the bulk transfer service
+     * @param designSessionStore  the design session store
      */
     @Autowired
-    public FullBikeController(FullBikeService fullBikeService) {
+    public FullBikeController(FullBikeService fullBikeService, BulkTransferService bulkTransferService, DesignSessionStore designSessionStore) {
         this.fullBikeService = fullBikeService;
+        this.bulkTransferService = bulkTransferService;
+        this.designSessionStore = designSessionStore;
     }
 
     /**
      * Gets list of bikes.
+     * With no cursor, limit or filter every bike is returned, as before.
+     * Otherwise a page of bikes in ID order is returned, with the cursor for the next page in the X-Next-Cursor header.
+     * Fields cuts each bike down to just the named fields, e.g. fields=fullBikeId,bikeName for a list view.
+     * Responses carry an ETag from the bikes version; sending it back in If-None-Match gets Not Modified until a bike changes.
      *
+     * @param ifNoneMatch the ETag of the list the FE already has
+     * @param cursor      the X-Next-Cursor from the previous page, not sent for the first page
+     * @param limit       the most bikes to return
+     * @param frameStyle  only return bikes with this frame style
+     * @param brakeType   only return bikes with this brake type
+     * @param fields      only return these fields of each bike
      * @return the bikes
      * @return HTTP - Status ACCEPTED
+     * @return HTTP - Status NOT_MODIFIED if the FE already has this list
      */
     @GetMapping("GetAll")
-    public ResponseEntity<List<FullBike>> getallBikes() {
+    public ResponseEntity<byte[]> getallBikes(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                              @RequestParam(required = false) Long cursor,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) FrameStyle frameStyle,
+                                              @RequestParam(required = false) BrakeType brakeType,
+                                              @RequestParam(required = false) List<String> fields) {
         infoLogger.log("Get all Bikes, API");
-        List<FullBike> bikeList = fullBikeService.getAllFullBikes();
-        warnLogger.log("Returning " + bikeList.size() + " bikes to FE");
-        return new ResponseEntity<>(bikeList, HttpStatus.ACCEPTED);
+        long version = fullBikeService.getBikesVersion();
+        boolean unfiltered = cursor == null && limit == null && frameStyle == null && brakeType == null;
+        String query = unfiltered && fields == null ? null : cursor + "&" + limit + "&" + frameStyle + "&" + brakeType + "&" + fields;
+        String etag = allBikes.etag(version, query);
+        if (VersionedResponses.matches(ifNoneMatch, etag)) {
+            warnLogger.log("Bikes unchanged since FE last asked, returning Not Modified");
+            return VersionedResponses.notModified(etag);
+        }
+        if (query == null) {
+            byte[] body = allBikes.cachedBody(version, fullBikeService::getAllFullBikes);
+            return VersionedResponses.json(body, etag, new HttpHeaders(), HttpStatus.ACCEPTED);
+        }
+        if (unfiltered) {
+            List<FullBike> bikeList = fullBikeService.getAllFullBikes();
+            warnLogger.log("Returning " + bikeList.size() + " bikes to FE");
+            return VersionedResponses.json(allBikes.serialize(ListResponses.project(bikeList, fields)), etag, new HttpHeaders(), HttpStatus.ACCEPTED);
+        }
+        Page<FullBike> page = fullBikeService.getFullBikesPage(cursor == null ? Long.MIN_VALUE : cursor, ListResponses.pageSize(limit), frameStyle, brakeType);
+        warnLogger.log("Returning page of " + page.items().size() + " bikes to FE");
+        return VersionedResponses.json(allBikes.serialize(ListResponses.project(page.items(), fields)), etag,
+                ListResponses.cursorHeaders(page), HttpStatus.ACCEPTED);
     }
 
     /**
      * Starts/returns a new bike.
+     * The new bike becomes the design bike of the caller's design session.
      *
+     * @param token   the X-Design-Token header, the HTTP session is used if not sent
+     * @param request the request
      * @return the response entity
      * @return HTTP - Status ACCEPTED
      */
     @GetMapping("StartNewBike")
-    public ResponseEntity<FullBike> startNewBike() {
+    public ResponseEntity<FullBike> startNewBike(@RequestHeader(value = DesignSessions.TOKEN_HEADER, required = false) String token,
+                                                 HttpServletRequest request) {
         infoLogger.log("Starting new Bike, API");
         FullBike bike = fullBikeService.startNewBike();
+        designSessionStore.put(DesignSessions.key(token, request), bike);
         warnLogger.log("Returning new Bike to FE: " + bike);
         return new ResponseEntity<>(bike, HttpStatus.ACCEPTED);
     }
 
+    /**
+     * Gets the design bike of the caller's design session, as last started or sent for parts.
+     *
+     * @param token   the X-Design-Token header, the HTTP session is used if not sent
+     * @param request the request
+     * @return the design bike
+     * @return HTTP - Status OK
+     * @return HTTP - Status NO_CONTENT if the session has no design bike, or it has expired
+     */
+    @GetMapping("DesignBike")
+    public ResponseEntity<FullBike> getDesignBike(@RequestHeader(value = DesignSessions.TOKEN_HEADER, required = false) String token,
+                                                  HttpServletRequest request) {
+        infoLogger.log("Get design Bike, API");
+        return designSessionStore.get(DesignSessions.key(token, request))
+                .map(bike -> new ResponseEntity<>(bike, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
     /**
      * Adds Full Bike to File.
      *
@@ -93,6 +172,65 @@ public class FullBikeController {
         return new ResponseEntity<>(updatedBike, HttpStatus.ACCEPTED);
     }
 
+    /**
+     * Checks whether the passed-in bike can be built as designed.
+     *
+     * @param bike the bike
+     * @return the design rule checks the bike fails, empty if it can be built
+     * @return HTTP - Status OK
+     */
+    @PostMapping("Validate")
+    public ResponseEntity<List<String>> validateBike(@RequestBody FullBike bike) {
+        infoLogger.log("Validating Bike, API");
+        return new ResponseEntity<>(fullBikeService.validateBike(bike), HttpStatus.OK);
+    }
+
+    /**
+     * Gets the saved bikes most like the passed-in bike, for "designs like this one" suggestions.
+     * The bike can be a design not yet saved.
+     * No more than 50 bikes are returned, whatever the limit.
+     *
+     * @param bike  the bike
+     * @param limit the most bikes to return, up to 50
+     * @return the similar bikes, most alike first
+     * @return HTTP - Status OK
+     * @return HTTP - Status BAD_REQUEST if the limit is less than 1
+     */
+    @PostMapping("Similar")
+    public ResponseEntity<List<FullBike>> getSimilarBikes(@RequestBody FullBike bike, @RequestParam(defaultValue = "5") int limit) {
+        infoLogger.log("Getting Similar Bikes, API");
+        if (limit < 1) {
+            warnLogger.log("Similar bikes limit too small: " + limit);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(fullBikeService.getSimilarBikes(bike, Math.min(limit, MAX_SIMILAR_BIKES)), HttpStatus.OK);
+    }
+
+    /**
+     * Patches Full Bike already on file, sending only the fields to change as a JSON Merge Patch.
+     * e.g. {"brakeType": "HYDRAULIC_DISC"} or {"frame": {"frameStyle": "GRAVEL"}}.
+     * Only the checks that depend on the changed fields are run, and the whole normalized bike is returned.
+     *
+     * @param bikeId the bike id
+     * @param patch  the JSON Merge Patch
+     * @return the normalized bike
+     * @return HTTP - Status ACCEPTED
+     * @return HTTP - Status NOT_FOUND if there is no bike with that ID
+     * @return HTTP - Status BAD_REQUEST if the patch does not leave a valid bike
+     */
+    @PatchMapping(value = "PatchBike/{bikeId}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<FullBike> patchBike(@PathVariable long bikeId, @RequestBody JsonNode patch) {
+        infoLogger.log("Patching Bike, API");
+        try {
+            return fullBikeService.patchBike(bikeId, patch)
+                    .map(bike -> new ResponseEntity<>(bike, HttpStatus.ACCEPTED))
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            warnLogger.log("Bike patch turned down: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * Deletes Full Bike from file, using the bike ID.
      *
@@ -106,4 +244,61 @@ public class FullBikeController {
         fullBikeService.deleteBike(bike.getFullBikeId());
         return new ResponseEntity<>(HttpStatus.ACCEPTED);
     }
-}
\ No newline at end of file
+
+    /**
+     * Exports every bike as NDJSON, one bike per line, lowest ID first.
+     * The bikes are streamed out a page at a time, so the whole list is never serialized at once.
+     *
+     * @return the bikes, streamed
+     * @return HTTP - Status OK
+     */
+    @GetMapping("Export")
+    public ResponseEntity<StreamingResponseBody> exportBikes() {
+        infoLogger.log("Exporting bikes, Export API");
+        StreamingResponseBody body = out -> bulkTransferService.exportBikes(out);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(NDJSON);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Imports bikes from NDJSON, or a JSON array, as made by Export.
+     * Bikes are checked one at a time and saved in batches; each bike keeps its ID, replacing any bike with the same ID.
+     *
+     * @param in the bikes
+     * @return the Import Progress once the import has finished
+     * @return HTTP - Status OK if every record was read
+     * @return HTTP - Status UNPROCESSABLE_ENTITY if the input stopped being valid JSON, batches already saved are kept
+     * @return HTTP - Status INTERNAL_SERVER_ERROR if a batch could not be saved, batches already saved are kept
+     * @return HTTP - Status CONFLICT if an import of bikes is already running
+     */
+    @PostMapping("Import")
+    public ResponseEntity<ImportProgress> importBikes(InputStream in) {
+        infoLogger.log("Importing bikes, Import API");
+        return bulkTransferService.importBikes(in)
+                .map(progress -> new ResponseEntity<>(progress, importStatus(progress.getState())))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.CONFLICT));
+    }
+
+    /**
+     * Gets the progress of the running bike import, or of the last one to finish.
+     *
+     * @return the Import Progress
+     * @return HTTP - Status OK
+     * @return HTTP - Status NO_CONTENT if there has not been an import of bikes
+     */
+    @GetMapping("ImportProgress")
+    public ResponseEntity<ImportProgress> getImportProgress() {
+        return bulkTransferService.getProgress(BulkTransferService.BIKES)
+                .map(progress -> new ResponseEntity<>(progress, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+    private static HttpStatus importStatus(ImportProgress.ImportState state) {
+        return switch (state) {
+            case DONE -> HttpStatus.OK;
+            case ERROR -> HttpStatus.INTERNAL_SERVER_ERROR;
+            default -> HttpStatus.UNPROCESSABLE_ENTITY;
+        };
+    }
+}
@@ -1,17 +1,16 @@
 package com.homeapp.backend.controller;
 
+import com.homeapp.backend.models.bike.BikeConfigKey;
 import com.homeapp.backend.models.bike.FullBike;
-import com.homeapp.backend.models.bike.Image;
 import com.homeapp.backend.models.logger.InfoLogger;
-import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.services.ImageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * The Image controller.
  * Houses API relating to FE Images.
@@ -22,32 +21,39 @@ import java.util.List;
 public class ImageController {
 
     private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
     private final ImageService imageService;
+    private final ResponseCache responseCache;
 
     /**
      * Instantiates a new Image controller.
-     * Autowires in a Full Bike Service for access to the methods.
+     * Autowires in an Image Service and the Response Cache for access to the methods.
      *
-     * @param imageService the image service
+     * @param imageService  the image service
+     * @param responseCache the response cache
      */
     @Autowired
-    public ImageController(ImageService imageService) {
+    public ImageController(ImageService imageService, ResponseCache responseCache) {
         this.imageService = imageService;
+        this.responseCache = responseCache;
     }
 
     /**
      * Gets list of Images for passed-in bike.
+     * The list's JSON is already written by the Image Service, so it is returned as it is, from the Response Cache once it has been asked for.
      *
-     * @param bike the bike
-     * @return the options
+     * @param bike           the bike
+     * @param acceptEncoding the Accept-Encoding header, the images are sent gzipped if it allows
+     * @return the JSON list of images
      * @return HTTP - Status OK
      */
     @PostMapping("GetImages")
-    public ResponseEntity<List<Image>> getImages(@RequestBody FullBike bike) {
+    public ResponseEntity<byte[]> getImages(@RequestBody FullBike bike,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         infoLogger.log("Getting Images for Bike: " + bike);
-        List<Image> imageList = imageService.getImages(bike);
-        warnLogger.log("Returning Images to FE: " + imageList);
-        return new ResponseEntity<>(imageList, HttpStatus.OK);
+        return responseCache.respond("Image/GetImages", BikeConfigKey.of(bike), "images", acceptEncoding, () -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            return new ResponseEntity<>(imageService.getImagesJson(bike), headers, HttpStatus.OK);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.homeapp.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.homeapp.backend.store.Page;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+/**
+ * The List Responses helper.
+ * Shared handling of the paging and projection query parameters on the GetAll APIs.
+ */
+final class ListResponses {
+
+    /**
+     * The response header holding the cursor for the next page, only sent when there is one.
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final ObjectMapper om = new ObjectMapper();
+
+    private ListResponses() {
+    }
+
+    /**
+     * Gets the page size to use for the limit asked for.
+     *
+     * @param limit the limit query parameter, null if not sent
+     * @return the limit, kept between 1 and the largest page size, or the default page size if not sent
+     */
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Gets the headers for a page, holding the next cursor if there is a next page.
+     *
+     * @param page the page
+     * @return the headers
+     */
+    static HttpHeaders cursorHeaders(Page<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        }
+        return headers;
+    }
+
+    /**
+     * Cuts each item down to only the fields asked for, by their JSON names.
+     * Only the items being returned are converted, so the cost scales with the page.
+     *
+     * @param items  the items
+     * @param fields the fields query parameter, null or empty to keep every field
+     * @return the items as they are, or each item as a JSON object of just those fields
+     */
+    static List<?> project(List<?> items, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return items;
+        }
+        return items.stream().map(item -> ((ObjectNode) om.valueToTree(item)).retain(fields)).toList();
+    }
+}
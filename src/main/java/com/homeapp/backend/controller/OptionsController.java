@@ -1,37 +1,60 @@
 package com.homeapp.backend.controller;
 
+import com.homeapp.backend.models.bike.BikeConfigKey;
 import com.homeapp.backend.models.bike.CombinedData;
 import com.homeapp.backend.models.bike.Options;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.services.OptionsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 /**
  * The type Options controller.
  * Houses multiple APIs relating to a Bike Options for FE.
+ * Options responses carry their version in X-Options-Version; sending it back in X-Options-Base gets only what changed.
+ * What changed since a version follows from that version and the bike's configuration alone, so those responses are kept in the Response Cache.
  */
 @RestController
 @RequestMapping("Options/")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = OptionsController.VERSION_HEADER)
 public class OptionsController {
 
+    /**
+     * The response header holding the version of the Options sent.
+     */
+    static final String VERSION_HEADER = "X-Options-Version";
+    /**
+     * The request header a FE sends holding the version of the Options it has, to be sent only what changed.
+     */
+    static final String BASE_HEADER = "X-Options-Base";
+    private static final MediaType MERGE_PATCH = MediaType.parseMediaType("application/merge-patch+json");
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
     private final OptionsService optionsService;
+    private final OptionsDeltas optionsDeltas;
+    private final ResponseCache responseCache;
 
     /**
      * Instantiates a new Options Controller.
-     * Autowires in an Options Service for access to the methods.
+     * Autowires in an Options Service and the Response Cache for access to the methods.
      *
      * @param optionsService the options service
+     * @param responseCache  the response cache
+     * @param maxStates      the most distinct Options kept to send deltas against
      */
     @Autowired
-    public OptionsController(OptionsService optionsService) {
+    public OptionsController(OptionsService optionsService, ResponseCache responseCache, @Value("${options.deltas.max-states:1000}") int maxStates) {
         this.optionsService = optionsService;
+        this.responseCache = responseCache;
+        this.optionsDeltas = new OptionsDeltas(maxStates);
     }
 
     /**
@@ -41,25 +64,61 @@ public class OptionsController {
      * @return HTTP - Status OK
      */
     @GetMapping("StartNewBike")
-    public ResponseEntity<Options> startingNewBike() {
+    public ResponseEntity<byte[]> startingNewBike() {
         infoLogger.log("Get Options for new bike.");
         Options o = optionsService.startNewBike();
         warnLogger.log("Returning Options to FE: " + o);
-        return new ResponseEntity<>(o, HttpStatus.OK);
+        return full(optionsDeltas.state(o));
     }
 
     /**
      * Updates Options.
+     * A FE sending X-Options-Base, the version of the Options it has, is sent a JSON merge patch of only what changed,
+     * with the application/merge-patch+json content type. If that version is no longer held, the full Options are sent instead.
+     * With a known X-Options-Base the Options can be left out of the body, the held ones are used, and the response is kept for the next
+     * bike with the same configuration sent against that version.
      *
-     * @param combinedData the combined data of a Full Bike and Options
-     * @return the Options
-     * @return HTTP - Status OK
+     * @param base           the version of the Options the FE has, null if not sent
+     * @param acceptEncoding the Accept-Encoding header, a kept response is sent gzipped if it allows
+     * @param combinedData   the combined data of a Full Bike and Options
+     * @return the Options, or what changed in them
+     * @return HTTP - Status OK, or PRECONDITION_FAILED if no Options were sent and the base version is not held
      */
     @PostMapping("GetOptions")
-    public ResponseEntity<Options> getOptions(@RequestBody CombinedData combinedData) {
+    public ResponseEntity<byte[]> getOptions(@RequestHeader(value = BASE_HEADER, required = false) String base,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             @RequestBody CombinedData combinedData) {
         infoLogger.log("Updating Options for Bike!");
+        Optional<OptionsDeltas.State> from = optionsDeltas.state(base);
+        if (combinedData.getOptions() == null) {
+            if (from.isEmpty()) {
+                warnLogger.log("No Options sent and base version not held: " + base);
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+            combinedData.setOptions(from.get().options());
+            return responseCache.respond("Options/GetOptions", BikeConfigKey.of(combinedData.getBike()), from.get().version(), acceptEncoding,
+                    () -> update(from, combinedData));
+        }
+        return update(from, combinedData);
+    }
+
+    private ResponseEntity<byte[]> update(Optional<OptionsDeltas.State> from, CombinedData combinedData) {
         Options o = optionsService.updateOptions(combinedData);
         warnLogger.log("Returning Options to FE: " + o);
-        return new ResponseEntity<>(o, HttpStatus.OK);
+        OptionsDeltas.State to = optionsDeltas.state(o);
+        if (from.isEmpty()) {
+            return full(to);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MERGE_PATCH);
+        headers.set(VERSION_HEADER, to.version());
+        return new ResponseEntity<>(optionsDeltas.delta(from.get(), to), headers, HttpStatus.OK);
+    }
+
+    private ResponseEntity<byte[]> full(OptionsDeltas.State state) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(VERSION_HEADER, state.version());
+        return new ResponseEntity<>(state.body(), headers, HttpStatus.OK);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.homeapp.backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.homeapp.backend.models.bike.Options;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.store.MergePatch;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The Options Deltas helper.
+ * Lets the FE send back the version of the Options it holds and get only what has changed since, as a JSON merge patch.
+ * <p>
+ * The Options a design can have are few, so each distinct Options is kept once as a state, with a version, its JSON and its JSON bytes,
+ * and equal Options share the same state. A full response is the state's bytes and a delta is the difference of two states' JSON,
+ * so neither serializes a whole Options again.
+ * The states are bounded, the least recently used dropped first; a version no longer held is answered with the full Options.
+ * Versions carry when this instance started, so a version from before a restart is never mistaken for a new one.
+ */
+final class OptionsDeltas {
+
+    private static final String INSTANCE = Long.toString(System.currentTimeMillis(), 36);
+    private static final ObjectMapper om = new ObjectMapper();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final Map<Options, State> states;
+    private final Map<String, State> byVersion = new HashMap<>();
+    private long nextVersion;
+
+    /**
+     * One distinct Options, with its version and its JSON.
+     *
+     * @param version the version
+     * @param options the Options, never changed once held
+     * @param json    the Options as JSON
+     * @param body    the Options as JSON bytes
+     */
+    record State(String version, Options options, ObjectNode json, byte[] body) {
+    }
+
+    /**
+     * Instantiates new Options Deltas.
+     *
+     * @param maxStates the most states held at once
+     */
+    OptionsDeltas(int maxStates) {
+        this.states = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Options, State> eldest) {
+                if (size() > Math.max(1, maxStates)) {
+                    byVersion.remove(eldest.getValue().version());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the state of an Options, holding it as a new state if no equal Options is held.
+     *
+     * @param options the Options, which must not be changed afterwards
+     * @return the state
+     */
+    synchronized State state(Options options) {
+        State state = states.get(options);
+        if (state == null) {
+            ObjectNode json = om.valueToTree(options);
+            state = new State("options-" + INSTANCE + "-" + nextVersion++, options, json, serialize(json));
+            states.put(options, state);
+            byVersion.put(state.version(), state);
+        }
+        return state;
+    }
+
+    /**
+     * Gets the state held for a version.
+     *
+     * @param version the version, null if none was sent
+     * @return the state, empty if the version is not held
+     */
+    synchronized Optional<State> state(String version) {
+        State state = version == null ? null : byVersion.get(version);
+        if (state != null) {
+            //counts as a use, so states the FE still holds are kept
+            states.get(state.options());
+        }
+        return Optional.ofNullable(state);
+    }
+
+    /**
+     * Gets the changes from one state to another as a JSON merge patch, an empty object if they are the same.
+     *
+     * @param from the state the FE holds
+     * @param to   the new state
+     * @return the JSON bytes of the patch
+     */
+    byte[] delta(State from, State to) {
+        return serialize(from == to ? om.createObjectNode() : MergePatch.diff(from.json(), to.json()));
+    }
+
+    private byte[] serialize(ObjectNode json) {
+        try {
+            return om.writeValueAsBytes(json);
+        } catch (JsonProcessingException e) {
+            errorLogger.log("A JsonProcessingException occurred from: serialize!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
+        }
+    }
+}
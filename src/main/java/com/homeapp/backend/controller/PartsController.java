@@ -0,0 +1,96 @@
+package com.homeapp.backend.controller;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.bike.PartSwap;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.services.PartCompatibilityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The Parts Controller.
+ * Houses APIs for finding which Parts of the catalog work together, for swapping Parts of a build.
+ * Parts are named by their link, as in the parts catalog.
+ */
+@RestController
+@RequestMapping("Parts/")
+@CrossOrigin(origins = "http://localhost:3000")
+public class PartsController {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final PartCompatibilityService partCompatibilityService;
+
+    /**
+     * Instantiates a new Parts Controller.
+     * Autowires in a Part Compatibility Service for access to the methods.
+     *
+     * @param partCompatibilityService the part compatibility service
+     */
+    @Autowired
+    public PartsController(PartCompatibilityService partCompatibilityService) {
+        this.partCompatibilityService = partCompatibilityService;
+    }
+
+    /**
+     * Gets the Parts that work with a Part, e.g. every Cassette that works with a Chain.
+     *
+     * @param link      the link of the Part
+     * @param component only return Parts of this component, every component if not sent
+     * @return the compatible Parts
+     * @return HTTP - Status OK
+     * @return HTTP - Status NOT_FOUND if the Part is not in the compatibility graph
+     */
+    @GetMapping("Compatible")
+    public ResponseEntity<List<Part>> getCompatibleParts(@RequestParam String link, @RequestParam(required = false) String component) {
+        infoLogger.log("Getting Parts compatible with: " + link + ", Compatible API");
+        return partCompatibilityService.getCompatibleParts(link, component)
+                .map(parts -> new ResponseEntity<>(parts, HttpStatus.OK))
+                .orElseGet(() -> notFound(link));
+    }
+
+    /**
+     * Gets the Parts of the same component that could take a Part's place in a build, working with every other Part of it.
+     *
+     * @param link  the link of the Part
+     * @param build the links of the Parts of the build
+     * @return the alternative Parts
+     * @return HTTP - Status OK
+     * @return HTTP - Status NOT_FOUND if the Part is not in the compatibility graph
+     */
+    @PostMapping("Alternatives")
+    public ResponseEntity<List<Part>> getAlternatives(@RequestParam String link, @RequestBody List<String> build) {
+        infoLogger.log("Getting alternatives to: " + link + ", Alternatives API");
+        return partCompatibilityService.getAlternatives(link, build)
+                .map(parts -> new ResponseEntity<>(parts, HttpStatus.OK))
+                .orElseGet(() -> notFound(link));
+    }
+
+    /**
+     * Checks whether one Part of a build can be swapped for another, and which Parts of the build the new Part clashes with if not.
+     *
+     * @param from  the link of the Part taken out
+     * @param to    the link of the Part put in
+     * @param build the links of the Parts of the build
+     * @return the Part Swap
+     * @return HTTP - Status OK
+     * @return HTTP - Status NOT_FOUND if the new Part is not in the compatibility graph
+     */
+    @PostMapping("CheckSwap")
+    public ResponseEntity<PartSwap> checkSwap(@RequestParam String from, @RequestParam String to, @RequestBody List<String> build) {
+        infoLogger.log("Checking swap of: " + from + ", for: " + to + ", CheckSwap API");
+        return partCompatibilityService.checkSwap(from, to, build)
+                .map(swap -> new ResponseEntity<>(swap, HttpStatus.OK))
+                .orElseGet(() -> notFound(to));
+    }
+
+    private <T> ResponseEntity<T> notFound(String link) {
+        warnLogger.log("Part not in the compatibility graph: " + link);
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+}
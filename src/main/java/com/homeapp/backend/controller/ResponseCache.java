@@ -0,0 +1,216 @@
+package com.homeapp.backend.controller;
+
+import com.homeapp.backend.models.ResponseCacheStats;
+import com.homeapp.backend.models.bike.BikeConfigKey;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The Response Cache.
+ * Keeps the finished responses of APIs whose answer follows from the bike's configuration and a data version alone,
+ * keyed by the API, the Bike Config Key and the version, so a repeat request is answered from the kept bytes without
+ * working anything out or serializing anything again.
+ * <p>
+ * A client sending Accept-Encoding: gzip is sent the body gzipped, once it is big enough to be worth it; the gzipped bytes
+ * are made the first time they are asked for and kept with the entry.
+ * The cache is bounded by the bytes it holds, the least recently used entries dropped first. A bike with no Bike Config Key is
+ * never kept, and neither is a response that is not a success.
+ */
+@Component
+public class ResponseCache {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private final int gzipMinBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long bytes;
+
+    /**
+     * What a response is kept under.
+     *
+     * @param endpoint  the API
+     * @param configKey the Bike Config Key
+     * @param version   the version of the data the response was made from
+     */
+    record Key(String endpoint, int configKey, String version) {
+    }
+
+    /**
+     * A kept response. The gzipped body is only made once a client asks for it.
+     */
+    private static final class Entry {
+        private final byte[] body;
+        private final HttpHeaders headers;
+        private final HttpStatus status;
+        private byte[] gzipped;
+        private boolean kept;
+
+        private Entry(byte[] body, HttpHeaders headers, HttpStatus status) {
+            this.body = body;
+            this.headers = headers;
+            this.status = status;
+        }
+
+        private long size() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+
+    /**
+     * Instantiates a new Response Cache.
+     *
+     * @param maxBytes     the most bytes of responses kept, gzipped copies included
+     * @param gzipMinBytes the smallest body sent gzipped
+     */
+    @Autowired
+    public ResponseCache(@Value("${responses.cache.max-bytes:16777216}") long maxBytes,
+                         @Value("${responses.cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.maxBytes = maxBytes;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    /**
+     * Gets the kept response for a request, making it and keeping it if there is none.
+     * Two requests missing the same key at once may both make the response; the last one made is kept.
+     *
+     * @param endpoint       the API
+     * @param configKey      the Bike Config Key of the request's bike
+     * @param version        the version of the data the response is made from
+     * @param acceptEncoding the request's Accept-Encoding header, null if not sent
+     * @param make           makes the response, with a body of bytes
+     * @return the response
+     */
+    ResponseEntity<byte[]> respond(String endpoint, int configKey, String version, String acceptEncoding, Supplier<ResponseEntity<byte[]>> make) {
+        Key key = new Key(endpoint, configKey, version);
+        Entry entry = configKey == BikeConfigKey.NONE ? null : get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            ResponseEntity<byte[]> made = make.get();
+            if (configKey == BikeConfigKey.NONE || !made.getStatusCode().is2xxSuccessful() || made.getBody() == null) {
+                return made;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(made.getHeaders());
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            entry = new Entry(made.getBody(), HttpHeaders.readOnlyHttpHeaders(headers), made.getStatusCode());
+            put(key, entry);
+        } else {
+            hits.incrementAndGet();
+        }
+        if (acceptsGzip(acceptEncoding) && entry.body.length >= gzipMinBytes) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(entry.headers);
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(gzipped(entry), headers, entry.status);
+        }
+        return new ResponseEntity<>(entry.body, entry.headers, entry.status);
+    }
+
+    /**
+     * Gets the cache's hits, misses and evictions so far, and what it holds now.
+     *
+     * @return the Response Cache Stats
+     */
+    public synchronized ResponseCacheStats getStats() {
+        return new ResponseCacheStats(hits.get(), misses.get(), evictions.get(), entries.size(), bytes);
+    }
+
+    /**
+     * Drops every kept response.
+     */
+    public synchronized void clear() {
+        entries.values().forEach(entry -> entry.kept = false);
+        entries.clear();
+        bytes = 0;
+        infoLogger.log("Response cache cleared");
+    }
+
+    private synchronized Entry get(Key key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            old.kept = false;
+            bytes -= old.size();
+        }
+        entry.kept = true;
+        bytes += entry.size();
+        evict();
+    }
+
+    private byte[] gzipped(Entry entry) {
+        synchronized (this) {
+            if (entry.gzipped != null) {
+                return entry.gzipped;
+            }
+        }
+        byte[] gzipped = gzip(entry.body);
+        synchronized (this) {
+            if (entry.gzipped == null) {
+                entry.gzipped = gzipped;
+                if (entry.kept) {
+                    bytes += gzipped.length;
+                    evict();
+                }
+            }
+            return entry.gzipped;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            entry.kept = false;
+            bytes -= entry.size();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from: gzip!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package com.homeapp.backend.controller;
+
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.scraper.HostStatus;
+import com.homeapp.backend.models.scraper.PartChange;
+import com.homeapp.backend.services.PartsJournalService;
+import com.homeapp.backend.services.ScraperService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The Scraper Controller.
+ * Houses APIs for checking on the scraper that keeps Part prices up to date, and the changes it has made.
+ */
+@RestController
+@RequestMapping("Scraper/")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
+public class ScraperController {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ScraperService scraperService;
+    private final PartsJournalService partsJournalService;
+    private final VersionedResponses partChanges = new VersionedResponses("parts");
+
+    /**
+     * Instantiates a new Scraper Controller.
+     * Autowires in a Scraper Service and Parts Journal Service for access to the methods.
+     *
+     * @param scraperService      the scraper service
+     * @param partsJournalService the parts journal service
+     */
+    @Autowired
+    public ScraperController(ScraperService scraperService, PartsJournalService partsJournalService) {
+        this.scraperService = scraperService;
+        this.partsJournalService = partsJournalService;
+    }
+
+    /**
+     * Gets the circuit breaker status of every retailer host scraped so far.
+     *
+     * @return the list of Host Statuses
+     * @return HTTP - Status OK
+     */
+    @GetMapping("Status")
+    public ResponseEntity<List<HostStatus>> getStatus() {
+        infoLogger.log("Getting scraper host statuses, Status API");
+        return new ResponseEntity<>(scraperService.getHostStatuses(), HttpStatus.OK);
+    }
+
+    /**
+     * Gets every change the refresh has made to the parts catalog after the passed-in sequence number.
+     * A cache of the catalog passes the sequence number of the last change it applied, to catch up incrementally.
+     * The ETag comes from the journal's latest sequence number, the parts catalog version, so asking again before the next refresh gets Not Modified.
+     *
+     * @param ifNoneMatch the ETag of the changes already fetched
+     * @param since       the last sequence number already seen, 0 for every change
+     * @return the list of Part Changes, oldest first
+     * @return HTTP - Status OK
+     * @return HTTP - Status NOT_MODIFIED if nothing has been journalled since those changes were fetched
+     * @return HTTP - Status GONE if changes after since have been compacted out of the journal, so the whole catalog must be fetched again
+     */
+    @GetMapping("Changes")
+    public ResponseEntity<byte[]> getChanges(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestParam(defaultValue = "0") long since) {
+        infoLogger.log("Getting Part changes since sequence: " + since + ", Changes API");
+        String etag = partChanges.etag(partsJournalService.getLatestSequence(), "since=" + since);
+        if (VersionedResponses.matches(ifNoneMatch, etag)) {
+            return VersionedResponses.notModified(etag);
+        }
+        if (since + 1 < partsJournalService.getFirstSequence() && since < partsJournalService.getLatestSequence()) {
+            warnLogger.log("Part changes since sequence: " + since + " have been compacted away, oldest kept: " + partsJournalService.getFirstSequence());
+            return new ResponseEntity<>(HttpStatus.GONE);
+        }
+        List<PartChange> changes = partsJournalService.readSince(since);
+        return VersionedResponses.json(partChanges.serialize(changes), etag, new HttpHeaders(), HttpStatus.OK);
+    }
+
+    /**
+     * Closes every host's circuit breaker, so skipped retailers are tried again on the next refresh.
+     *
+     * @return HTTP - Status ACCEPTED
+     */
+    @PutMapping("ResetBreakers")
+    public ResponseEntity<HttpStatus> resetBreakers() {
+        infoLogger.log("Resetting scraper circuit breakers, ResetBreakers API");
+        scraperService.resetBreakers();
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+}
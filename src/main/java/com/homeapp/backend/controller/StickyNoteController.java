@@ -4,12 +4,19 @@ import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.models.note.DTOnote;
 import com.homeapp.backend.models.note.StickyNote;
+import com.homeapp.backend.models.transfer.ImportProgress;
+import com.homeapp.backend.services.BulkTransferService;
 import com.homeapp.backend.services.StickyNoteService;
+import com.homeapp.backend.store.Page;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -18,35 +25,70 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("StickyNotes/")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = {ListResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class StickyNoteController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
     private final StickyNoteService stickyNoteService;
+    private final BulkTransferService bulkTransferService;
+    private final VersionedResponses allNotes = new VersionedResponses("notes");
 
     /**
      * Instantiates a new Sticky note controller.
-     * Autowires in a Sticky Note Service for access to the methods.
+     * Autowires in a Sticky Note Service and Bulk Transfer Service for access to the methods.
      *
-     * @param stickyNoteService the sticky note service
+     * @param stickyNoteService   the sticky note service
+     * @param bulkTransferService the bulk transfer service
      */
     @Autowired
-    public StickyNoteController(StickyNoteService stickyNoteService) {
+    public StickyNoteController(StickyNoteService stickyNoteService, BulkTransferService bulkTransferService) {
         this.stickyNoteService = stickyNoteService;
+        this.bulkTransferService = bulkTransferService;
     }
 
     /**
      * Gets list of all Sticky Notes.
+     * With no cursor, limit or filter every note is returned, notes still to do first, as before.
+     * Otherwise a page of notes in ID order is returned, with the cursor for the next page in the X-Next-Cursor header.
+     * Fields cuts each note down to just the named fields, e.g. fields=stickyNoteId,title for a list view.
+     * Responses carry an ETag from the notes version; sending it back in If-None-Match gets Not Modified until a note changes.
      *
+     * @param ifNoneMatch the ETag of the list the FE already has
+     * @param cursor      the X-Next-Cursor from the previous page, not sent for the first page
+     * @param limit       the most notes to return
+     * @param complete    only return notes that are complete, or with false still to do
+     * @param fields      only return these fields of each note
      * @return the list of Sticky Notes
      * @return HTTP - Status ACCEPTED
+     * @return HTTP - Status NOT_MODIFIED if the FE already has this list
      */
     @GetMapping("GetAll")
-    public ResponseEntity<List<StickyNote>> getStickyNotes() {
+    public ResponseEntity<byte[]> getStickyNotes(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestParam(required = false) Long cursor,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) Boolean complete,
+                                                 @RequestParam(required = false) List<String> fields) {
         infoLogger.log("Getting all Sticky Notes, GetAll API");
-        List<StickyNote> list = stickyNoteService.retrieveAllNotes();
-        return new ResponseEntity<>(list, HttpStatus.ACCEPTED);
+        long version = stickyNoteService.getNotesVersion();
+        boolean unfiltered = cursor == null && limit == null && complete == null;
+        String query = unfiltered && fields == null ? null : cursor + "&" + limit + "&" + complete + "&" + fields;
+        String etag = allNotes.etag(version, query);
+        if (VersionedResponses.matches(ifNoneMatch, etag)) {
+            return VersionedResponses.notModified(etag);
+        }
+        if (query == null) {
+            byte[] body = allNotes.cachedBody(version, stickyNoteService::retrieveAllNotes);
+            return VersionedResponses.json(body, etag, new HttpHeaders(), HttpStatus.ACCEPTED);
+        }
+        if (unfiltered) {
+            List<StickyNote> list = stickyNoteService.retrieveAllNotes();
+            return VersionedResponses.json(allNotes.serialize(ListResponses.project(list, fields)), etag, new HttpHeaders(), HttpStatus.ACCEPTED);
+        }
+        Page<StickyNote> page = stickyNoteService.retrieveNotesPage(cursor == null ? Long.MIN_VALUE : cursor, ListResponses.pageSize(limit), complete);
+        return VersionedResponses.json(allNotes.serialize(ListResponses.project(page.items(), fields)), etag,
+                ListResponses.cursorHeaders(page), HttpStatus.ACCEPTED);
     }
 
     /**
@@ -103,4 +145,61 @@ public class StickyNoteController {
         warnLogger.log("Editing note: " + note);
         return new ResponseEntity<>(HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    /**
+     * Exports every note as NDJSON, one note per line, lowest ID first.
+     * The notes are streamed out a page at a time, so the whole list is never serialized at once.
+     *
+     * @return the notes, streamed
+     * @return HTTP - Status OK
+     */
+    @GetMapping("Export")
+    public ResponseEntity<StreamingResponseBody> exportNotes() {
+        infoLogger.log("Exporting notes, Export API");
+        StreamingResponseBody body = out -> bulkTransferService.exportNotes(out);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(NDJSON);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Imports notes from NDJSON, or a JSON array, as made by Export.
+     * Notes are checked one at a time and saved in batches; each note keeps its ID, replacing any note with the same ID.
+     *
+     * @param in the notes
+     * @return the Import Progress once the import has finished
+     * @return HTTP - Status OK if every record was read
+     * @return HTTP - Status UNPROCESSABLE_ENTITY if the input stopped being valid JSON, batches already saved are kept
+     * @return HTTP - Status INTERNAL_SERVER_ERROR if a batch could not be saved, batches already saved are kept
+     * @return HTTP - Status CONFLICT if an import of notes is already running
+     */
+    @PostMapping("Import")
+    public ResponseEntity<ImportProgress> importNotes(InputStream in) {
+        infoLogger.log("Importing notes, Import API");
+        return bulkTransferService.importNotes(in)
+                .map(progress -> new ResponseEntity<>(progress, importStatus(progress.getState())))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.CONFLICT));
+    }
+
+    /**
+     * Gets the progress of the running note import, or of the last one to finish.
+     *
+     * @return the Import Progress
+     * @return HTTP - Status OK
+     * @return HTTP - Status NO_CONTENT if there has not been an import of notes
+     */
+    @GetMapping("ImportProgress")
+    public ResponseEntity<ImportProgress> getImportProgress() {
+        return bulkTransferService.getProgress(BulkTransferService.NOTES)
+                .map(progress -> new ResponseEntity<>(progress, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+    private static HttpStatus importStatus(ImportProgress.ImportState state) {
+        return switch (state) {
+            case DONE -> HttpStatus.OK;
+            case ERROR -> HttpStatus.INTERNAL_SERVER_ERROR;
+            default -> HttpStatus.UNPROCESSABLE_ENTITY;
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.homeapp.backend.controller;
 
 import com.homeapp.backend.models.DTOLog;
+import com.homeapp.backend.models.ResponseCacheStats;
 import com.homeapp.backend.models.logger.ErrorLoggerFE;
 import com.homeapp.backend.models.logger.InfoLoggerFE;
 import com.homeapp.backend.models.logger.WarnLoggerFE;
@@ -20,12 +21,17 @@ public class TestController {
     private final InfoLoggerFE infoLogger = new InfoLoggerFE();
     private final WarnLoggerFE warnLogger = new WarnLoggerFE();
     private final ErrorLoggerFE errorLogger = new ErrorLoggerFE();
+    private final ResponseCache responseCache;
 
     /**
      * Instantiates a new Test controller.
+     * Autowires in the Response Cache to report on it.
+     *
+     * @param responseCache the response cache
      */
     @Autowired
-    public TestController() {
+    public TestController(ResponseCache responseCache) {
+        this.responseCache = responseCache;
     }
 
     /**
@@ -55,4 +61,15 @@ public class TestController {
         }
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the Response Cache's hits, misses and evictions so far, and how much it holds.
+     *
+     * @return the Response Cache Stats
+     * @return HTTP - Status OK
+     */
+    @GetMapping("ResponseCache")
+    public ResponseEntity<ResponseCacheStats> getResponseCacheStats() {
+        return new ResponseEntity<>(responseCache.getStats(), HttpStatus.OK);
+    }
+}
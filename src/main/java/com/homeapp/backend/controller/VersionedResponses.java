@@ -0,0 +1,164 @@
+package com.homeapp.backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * The Versioned Responses helper.
+ * Conditional GET support for an API whose response only changes when a store's version does.
+ * The ETag is made from the version, so an If-None-Match still matching is answered with Not Modified before anything is read or serialized.
+ * The body of the plain request, with no query parameters, is serialized once per version and the same bytes returned until the version moves on.
+ * <p>
+ * Callers read the version before reading the data, so a response is never tagged with a newer version than its body.
+ * ETags also carry when this instance started, so an ETag from before a restart never matches a version counted again from 0.
+ * A request with query parameters has the SHA-256 of its query in its ETag, cut to 128 bits, so two queries never share an ETag in practice,
+ * where a 32 bit hash code can, and the ETag never holds a quote or comma from the query.
+ */
+final class VersionedResponses {
+
+    private static final String INSTANCE = Long.toString(System.currentTimeMillis(), 36);
+    private static final ObjectMapper om = new ObjectMapper();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final String name;
+    private volatile CachedBody cachedBody;
+
+    /**
+     * A serialized body and the version it was read at.
+     */
+    private record CachedBody(long version, byte[] body) {
+    }
+
+    /**
+     * Instantiates new Versioned Responses for one API.
+     *
+     * @param name the name put at the start of its ETags
+     */
+    VersionedResponses(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the ETag for a response read at the passed-in version.
+     *
+     * @param version the version the response is read at
+     * @param query   the request's query parameters, null if there are none
+     * @return the quoted ETag
+     */
+    String etag(long version, String query) {
+        String tag = name + "-" + INSTANCE + "-" + version;
+        return "\"" + (query == null ? tag : tag + "-" + digest(query)) + "\"";
+    }
+
+    private static String digest(String query) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Checks whether an If-None-Match header holds the passed-in ETag, or is *.
+     * Weak ETags are compared on their value, as If-None-Match allows.
+     *
+     * @param ifNoneMatch the If-None-Match header, null if not sent
+     * @param etag        the current ETag
+     * @return true if the client already has this response
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String sent : ifNoneMatch.split(",")) {
+            String tag = sent.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets a Not Modified response, with no body.
+     *
+     * @param etag the current ETag
+     * @return HTTP - Status NOT_MODIFIED
+     */
+    static ResponseEntity<byte[]> notModified(String etag) {
+        return new ResponseEntity<>(headers(etag), HttpStatus.NOT_MODIFIED);
+    }
+
+    /**
+     * Gets a JSON response of already serialized bytes.
+     *
+     * @param body   the JSON body
+     * @param etag   the current ETag
+     * @param extra  any other headers to send
+     * @param status the status
+     * @return the response
+     */
+    static ResponseEntity<byte[]> json(byte[] body, String etag, HttpHeaders extra, HttpStatus status) {
+        HttpHeaders headers = headers(etag);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.addAll(extra);
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    /**
+     * Gets the serialized body read at the passed-in version, serializing it only if this version has not been seen before.
+     *
+     * @param version the version the body is read at
+     * @param body    reads the body, only called on a new version
+     * @return the JSON bytes
+     */
+    byte[] cachedBody(long version, Supplier<?> body) {
+        CachedBody cached = cachedBody;
+        if (cached != null && cached.version() == version) {
+            return cached.body();
+        }
+        byte[] serialized = serialize(body.get());
+        if (cached == null || cached.version() < version) {
+            cachedBody = new CachedBody(version, serialized);
+        }
+        return serialized;
+    }
+
+    /**
+     * Serializes a body to JSON.
+     *
+     * @param body the body
+     * @return the JSON bytes
+     */
+    byte[] serialize(Object body) {
+        try {
+            return om.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            errorLogger.log("A JsonProcessingException occurred from: serialize!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HttpHeaders headers(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache());
+        return headers;
+    }
+}
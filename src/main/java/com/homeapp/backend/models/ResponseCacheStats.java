@@ -0,0 +1,117 @@
+package com.homeapp.backend.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The Response Cache Stats class.
+ * A snapshot of how well the response cache is doing, as shown on the response cache endpoint.
+ */
+@JsonIgnoreProperties(value = "hitRate", allowGetters = true)
+public class ResponseCacheStats {
+
+    @JsonProperty("hits")
+    private long hits;
+
+    @JsonProperty("misses")
+    private long misses;
+
+    @JsonProperty("evictions")
+    private long evictions;
+
+    @JsonProperty("entries")
+    private int entries;
+
+    @JsonProperty("bytes")
+    private long bytes;
+
+    /**
+     * Zero argument Constructor to Instantiate new Response Cache Stats.
+     */
+    public ResponseCacheStats() {
+    }
+
+    /**
+     * Instantiates new Response Cache Stats using all fields.
+     *
+     * @param hits      the requests answered from the cache
+     * @param misses    the requests whose response had to be made
+     * @param evictions the responses dropped to stay within the cache's size
+     * @param entries   the responses kept now
+     * @param bytes     the bytes kept now, gzipped copies included
+     */
+    public ResponseCacheStats(long hits, long misses, long evictions, int entries, long bytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Gets hits.
+     *
+     * @return the hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets misses.
+     *
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets evictions.
+     *
+     * @return the evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets entries.
+     *
+     * @return the entries
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets bytes.
+     *
+     * @return the bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the share of requests answered from the cache.
+     *
+     * @return the hit rate, 0 if there have been no requests
+     */
+    @JsonProperty("hitRate")
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", entries=" + entries +
+                ", bytes=" + bytes +
+                '}';
+    }
+}
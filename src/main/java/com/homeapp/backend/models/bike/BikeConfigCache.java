@@ -0,0 +1,138 @@
+package com.homeapp.backend.models.bike;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * The Bike Config Cache.
+ * Remembers a value worked out from a bike's configuration alone, keyed by its Bike Config Key as a primitive int, so a lookup never boxes
+ * the key or walks a chain of equals calls on the bike's fields.
+ * <p>
+ * The entries are held in an open addressing table that is never changed once published: a lookup reads it without a lock, and adding an
+ * entry copies it under a lock. Bikes share a small number of configurations, so entries are added rarely and read on every request.
+ * The cache holds at most its maximum number of entries; once full, values for new keys are worked out but not kept.
+ *
+ * @param <V> the type of value, never null
+ */
+public final class BikeConfigCache<V> {
+
+    private static final int EMPTY = BikeConfigKey.NONE;
+    private final int maxEntries;
+    private volatile Table table = empty(16);
+
+    /**
+     * The keys and values, with an EMPTY key in every free slot.
+     *
+     * @param keys   the keys
+     * @param values the values, in the same slots as their keys
+     * @param size   the number of entries
+     */
+    private record Table(int[] keys, Object[] values, int size) {
+    }
+
+    /**
+     * Instantiates a new Bike Config Cache.
+     *
+     * @param maxEntries the most entries kept
+     */
+    public BikeConfigCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets the value kept for a key.
+     *
+     * @param key the Bike Config Key
+     * @return the value, null if none is kept
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == BikeConfigKey.NONE) {
+            return null;
+        }
+        Table t = table;
+        return (V) t.values()[slot(t.keys(), key)];
+    }
+
+    /**
+     * Gets the value kept for a key, working it out and keeping it if there is none.
+     * Two callers missing the same key at once may both work the value out; the first one kept is returned to both after.
+     * A bike with no key is worked out every time.
+     *
+     * @param key     the Bike Config Key
+     * @param compute works out the value from the key
+     * @return the value
+     */
+    public V computeIfAbsent(int key, IntFunction<V> compute) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = compute.apply(key);
+        if (key != BikeConfigKey.NONE) {
+            synchronized (this) {
+                V kept = get(key);
+                if (kept != null) {
+                    return kept;
+                }
+                if (table.size() < maxEntries) {
+                    table = with(table, key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets how many entries are kept.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Drops every entry, for when what the values were worked out from has changed.
+     */
+    public synchronized void clear() {
+        table = empty(16);
+    }
+
+    private static Table empty(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        return new Table(keys, new Object[capacity], 0);
+    }
+
+    private static Table with(Table t, int key, Object value) {
+        Table copy;
+        if ((t.size() + 1) * 2 <= t.keys().length) {
+            copy = new Table(t.keys().clone(), t.values().clone(), t.size());
+        } else {
+            copy = empty(t.keys().length * 2);
+            for (int i = 0; i < t.keys().length; i++) {
+                if (t.keys()[i] != EMPTY) {
+                    put(copy, t.keys()[i], t.values()[i]);
+                }
+            }
+        }
+        put(copy, key, value);
+        return new Table(copy.keys(), copy.values(), t.size() + 1);
+    }
+
+    private static void put(Table t, int key, Object value) {
+        int slot = slot(t.keys(), key);
+        t.keys()[slot] = key;
+        t.values()[slot] = value;
+    }
+
+    private static int slot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = key * 0x9E3779B9 >>> 16 & mask;
+        while (keys[slot] != key && keys[slot] != EMPTY) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,223 @@
+package com.homeapp.backend.models.bike;
+
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.GroupsetBrand;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
+import com.homeapp.backend.models.bike.Enums.ShifterStyle;
+
+import java.util.Objects;
+
+/**
+ * The Bike Config Key.
+ * Packs everything that the design rules, options and images read from a bike into a single int, so a bike's configuration
+ * can be used as a cache key, compared with one int comparison, and unpacked again without the bike.
+ * The bike's ID, name and frame size are not part of its configuration.
+ * <p>
+ * Bits, lowest first: frame style 3, brake type 3, handlebar type 3, shifter style 2, groupset brand 3, front gears 3, rear gears 4,
+ * disc brake compatible 1, requires front gear cable 1, requires rear gear cable 1, wheel preference 2.
+ * An enum that is not set is stored as the highest value its bits can hold.
+ * A bike with no frame, more than 7 front or 15 rear gears, or a wheel preference other than Cheap or Expensive has no key.
+ */
+public final class BikeConfigKey {
+
+    /**
+     * What is returned for a bike that cannot be packed into a key.
+     */
+    public static final int NONE = -1;
+    private static final int FRAME_STYLE = 0;
+    private static final int BRAKE_TYPE = 3;
+    private static final int HANDLE_BAR_TYPE = 6;
+    private static final int SHIFTER_STYLE = 9;
+    private static final int GROUPSET_BRAND = 11;
+    private static final int FRONT_GEARS = 14;
+    private static final int REAR_GEARS = 17;
+    private static final int DISC_BRAKE_COMPATIBLE = 21;
+    private static final int REQUIRES_FRONT_GEAR_CABLE = 22;
+    private static final int REQUIRES_REAR_GEAR_CABLE = 23;
+    private static final int WHEEL_PREFERENCE = 24;
+    private static final String[] WHEEL_PREFERENCES = {null, "Cheap", "Expensive"};
+
+    private BikeConfigKey() {
+    }
+
+    /**
+     * Gets the key of a bike's configuration.
+     *
+     * @param bike the bike
+     * @return the key, or NONE if the bike cannot be packed into one
+     */
+    public static int of(FullBike bike) {
+        Frame frame = bike.getFrame();
+        int wheelPreference = wheelPreferenceIndex(bike.getWheelPreference());
+        if (frame == null || wheelPreference < 0 || bike.getNumberOfFrontGears() < 0 || bike.getNumberOfFrontGears() > 7
+                || bike.getNumberOfRearGears() < 0 || bike.getNumberOfRearGears() > 15) {
+            return NONE;
+        }
+        return ordinal(frame.getFrameStyle(), 7) << FRAME_STYLE
+                | ordinal(bike.getBrakeType(), 7) << BRAKE_TYPE
+                | ordinal(bike.getHandleBarType(), 7) << HANDLE_BAR_TYPE
+                | ordinal(bike.getShifterStyle(), 3) << SHIFTER_STYLE
+                | ordinal(bike.getGroupsetBrand(), 7) << GROUPSET_BRAND
+                | (int) bike.getNumberOfFrontGears() << FRONT_GEARS
+                | (int) bike.getNumberOfRearGears() << REAR_GEARS
+                | bit(frame.isDiscBrakeCompatible()) << DISC_BRAKE_COMPATIBLE
+                | bit(frame.isRequiresFrontGearCable()) << REQUIRES_FRONT_GEAR_CABLE
+                | bit(frame.isRequiresRearGearCable()) << REQUIRES_REAR_GEAR_CABLE
+                | wheelPreference << WHEEL_PREFERENCE;
+    }
+
+    /**
+     * Unpacks a key into a new bike with a new frame, holding just the configuration; the ID, name and frame size are left unset.
+     *
+     * @param key the key
+     * @return the bike
+     */
+    public static FullBike toBike(int key) {
+        Frame frame = new Frame(frameStyle(key), isDiscBrakeCompatible(key), isRequiresFrontGearCable(key), isRequiresRearGearCable(key));
+        FullBike bike = new FullBike(null, frame, brakeType(key), groupsetBrand(key), handleBarType(key), frontGears(key), rearGears(key), shifterStyle(key));
+        bike.setWheelPreference(wheelPreference(key));
+        return bike;
+    }
+
+    /**
+     * Gets the frame style.
+     *
+     * @param key the key
+     * @return the frame style, null if not set
+     */
+    public static FrameStyle frameStyle(int key) {
+        return value(FrameStyle.values(), key >>> FRAME_STYLE & 7);
+    }
+
+    /**
+     * Gets the brake type.
+     *
+     * @param key the key
+     * @return the brake type, null if not set
+     */
+    public static BrakeType brakeType(int key) {
+        return value(BrakeType.values(), key >>> BRAKE_TYPE & 7);
+    }
+
+    /**
+     * Gets the handlebar type.
+     *
+     * @param key the key
+     * @return the handlebar type, null if not set
+     */
+    public static HandleBarType handleBarType(int key) {
+        return value(HandleBarType.values(), key >>> HANDLE_BAR_TYPE & 7);
+    }
+
+    /**
+     * Gets the shifter style.
+     *
+     * @param key the key
+     * @return the shifter style, null if not set
+     */
+    public static ShifterStyle shifterStyle(int key) {
+        return value(ShifterStyle.values(), key >>> SHIFTER_STYLE & 3);
+    }
+
+    /**
+     * Gets the groupset brand.
+     *
+     * @param key the key
+     * @return the groupset brand, null if not set
+     */
+    public static GroupsetBrand groupsetBrand(int key) {
+        return value(GroupsetBrand.values(), key >>> GROUPSET_BRAND & 7);
+    }
+
+    /**
+     * Gets the number of front gears.
+     *
+     * @param key the key
+     * @return the number of front gears
+     */
+    public static long frontGears(int key) {
+        return key >>> FRONT_GEARS & 7;
+    }
+
+    /**
+     * Gets the number of rear gears.
+     *
+     * @param key the key
+     * @return the number of rear gears
+     */
+    public static long rearGears(int key) {
+        return key >>> REAR_GEARS & 15;
+    }
+
+    /**
+     * Gets whether the frame is disc brake compatible.
+     *
+     * @param key the key
+     * @return true if the frame is disc brake compatible
+     */
+    public static boolean isDiscBrakeCompatible(int key) {
+        return (key >>> DISC_BRAKE_COMPATIBLE & 1) == 1;
+    }
+
+    /**
+     * Gets whether the frame requires a front gear cable.
+     *
+     * @param key the key
+     * @return true if the frame requires a front gear cable
+     */
+    public static boolean isRequiresFrontGearCable(int key) {
+        return (key >>> REQUIRES_FRONT_GEAR_CABLE & 1) == 1;
+    }
+
+    /**
+     * Gets whether the frame requires a rear gear cable.
+     *
+     * @param key the key
+     * @return true if the frame requires a rear gear cable
+     */
+    public static boolean isRequiresRearGearCable(int key) {
+        return (key >>> REQUIRES_REAR_GEAR_CABLE & 1) == 1;
+    }
+
+    /**
+     * Gets the wheel preference.
+     *
+     * @param key the key
+     * @return the wheel preference, null if not set
+     */
+    public static String wheelPreference(int key) {
+        return WHEEL_PREFERENCES[key >>> WHEEL_PREFERENCE & 3];
+    }
+
+    /**
+     * Gets whether the wheel preference is Cheap, a wheel preference that is not set counts as not Cheap.
+     *
+     * @param key the key
+     * @return true if cheap wheels are preferred
+     */
+    public static boolean isCheapWheels(int key) {
+        return (key >>> WHEEL_PREFERENCE & 3) == 1;
+    }
+
+    private static int wheelPreferenceIndex(String wheelPreference) {
+        for (int i = 0; i < WHEEL_PREFERENCES.length; i++) {
+            if (Objects.equals(WHEEL_PREFERENCES[i], wheelPreference)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int ordinal(Enum<?> value, int notSet) {
+        return value == null ? notSet : value.ordinal();
+    }
+
+    private static int bit(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    private static <E> E value(E[] values, int ordinal) {
+        return ordinal < values.length ? values[ordinal] : null;
+    }
+}
@@ -57,6 +57,18 @@ public class Frame {
         this.requiresRearGearCable = requiresRearGearCable;
     }
 
+    /**
+     * Instantiates a new Frame as a copy of another.
+     *
+     * @param other the frame to copy
+     */
+    public Frame(Frame other) {
+        this(other.frameStyle, other.discBrakeCompatible, other.requiresFrontGearCable, other.requiresRearGearCable);
+        this.frameId = other.frameId;
+        this.size = other.size;
+        this.tireClearance = other.tireClearance;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -9,14 +9,14 @@ import javax.persistence.*;
 
 /**
  * The Full bike object, this pulls in all relevant information for a single bike.
- * Bikes are stored in JSON file.
+ * Bikes are stored in JSON file, or in the database when storage.mode is jpa.
+ * The ID is given out by the Bike Store rather than generated by the database, so both modes number bikes the same way.
  */
 @Entity
-@Table(name = ("FullBike"))
+@Table(name = ("FullBike"), indexes = @Index(name = "idx_fullbike_bike_name", columnList = "BikeName"))
 public class FullBike {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(name = "FullBikeId")
     private long fullBikeId;
     @OneToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
@@ -80,6 +80,18 @@ public class FullBike {
         this.shifterStyle = shifterStyle;
     }
 
+    /**
+     * Instantiates a new Full bike as a copy of another, with its own copy of the frame.
+     *
+     * @param other the bike to copy
+     */
+    public FullBike(FullBike other) {
+        this(other.bikeName, other.frame == null ? null : new Frame(other.frame), other.brakeType, other.groupsetBrand, other.handleBarType,
+                other.numberOfFrontGears, other.numberOfRearGears, other.shifterStyle);
+        this.fullBikeId = other.fullBikeId;
+        this.wheelPreference = other.wheelPreference;
+    }
+
     /**
      * Sets full bike id.
      *
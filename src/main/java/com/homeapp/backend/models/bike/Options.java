@@ -2,6 +2,7 @@ package com.homeapp.backend.models.bike;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The Options object. This is used to control the options available to the user on the FE.
@@ -41,6 +42,8 @@ public class Options {
 
     private boolean showWheelPreference = false;
 
+    private boolean deadEnd = false;
+
     /**
      * Instantiates a new Options.
      */
@@ -335,6 +338,38 @@ public class Options {
         this.numberOfRearGears = numberOfRearGears;
     }
 
+    /**
+     * Is dead end boolean.
+     * True when the design bike cannot be completed, nothing left to choose makes it a valid bike.
+     *
+     * @return the boolean
+     */
+    public boolean isDeadEnd() {
+        return deadEnd;
+    }
+
+    /**
+     * Sets dead end.
+     *
+     * @param deadEnd the dead end
+     */
+    public void setDeadEnd(boolean deadEnd) {
+        this.deadEnd = deadEnd;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Options options = (Options) o;
+        return showGroupSetBrand == options.showGroupSetBrand && showFrontGears == options.showFrontGears && showRearGears == options.showRearGears && showFrameSizes == options.showFrameSizes && showFrameStyles == options.showFrameStyles && showBarStyles == options.showBarStyles && showBrakeStyles == options.showBrakeStyles && showWheelPreference == options.showWheelPreference && deadEnd == options.deadEnd && Objects.equals(groupsetBrand, options.groupsetBrand) && Objects.equals(numberOfFrontGears, options.numberOfFrontGears) && Objects.equals(numberOfRearGears, options.numberOfRearGears) && Objects.equals(frameSizes, options.frameSizes) && Objects.equals(frameStyles, options.frameStyles) && Objects.equals(barStyles, options.barStyles) && Objects.equals(brakeStyles, options.brakeStyles) && Objects.equals(wheelPreference, options.wheelPreference);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupsetBrand, showGroupSetBrand, numberOfFrontGears, showFrontGears, numberOfRearGears, showRearGears, frameSizes, showFrameSizes, frameStyles, showFrameStyles, barStyles, showBarStyles, brakeStyles, showBrakeStyles, wheelPreference, showWheelPreference, deadEnd);
+    }
+
     @Override
     public String toString() {
         return "Options{" +
@@ -354,6 +389,7 @@ public class Options {
                 ", showBrakeStyles=" + showBrakeStyles +
                 ", wheelPreference=" + wheelPreference +
                 ", showWheelPreference=" + showWheelPreference +
+                ", deadEnd=" + deadEnd +
                 '}';
     }
 }
\ No newline at end of file
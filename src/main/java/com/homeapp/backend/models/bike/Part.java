@@ -1,17 +1,26 @@
 package com.homeapp.backend.models.bike;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import javax.persistence.Entity;
-import javax.persistence.Id;
+import javax.persistence.*;
 
 /**
  * The Part object, for a single complete Bike part.
+ * The internal reference is not unique, one can have several retailer links, so Parts are keyed in the database by their own ID.
  */
 @Entity
+@Table(name = ("Part"), indexes = {
+        @Index(name = "idx_part_internal_reference", columnList = "internalReference"),
+        @Index(name = "idx_part_link", columnList = "link")})
 public class Part {
 
     @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "partGen")
+    @SequenceGenerator(name = "partGen", sequenceName = "PART_SEQ", allocationSize = 1)
+    @JsonIgnore
+    private Long partId;
+
     @JsonProperty("internalReference")
     private String internalReference;
 
@@ -30,6 +39,9 @@ public class Part {
     @JsonProperty("dateLastUpdated")
     private String dateLastUpdated;
 
+    @JsonProperty("priceChanges")
+    private int priceChanges;
+
     /**
      * Zero argument Constructor to Instantiate a new Part.
      */
@@ -68,6 +80,35 @@ public class Part {
         this.dateLastUpdated = dateLastUpdated;
     }
 
+    /**
+     * Instantiates a new Part as a copy of another.
+     *
+     * @param other the part to copy
+     */
+    public Part(Part other) {
+        this(other.component, other.internalReference, other.name, other.price, other.link, other.dateLastUpdated);
+        this.priceChanges = other.priceChanges;
+        this.partId = other.partId;
+    }
+
+    /**
+     * Gets part id, only set once the Part has been saved to the database.
+     *
+     * @return the part id
+     */
+    public Long getPartId() {
+        return partId;
+    }
+
+    /**
+     * Sets part id.
+     *
+     * @param partId the part id
+     */
+    public void setPartId(Long partId) {
+        this.partId = partId;
+    }
+
     /**
      * Gets component.
      *
@@ -176,6 +217,24 @@ public class Part {
         this.dateLastUpdated = dateLastUpdated;
     }
 
+    /**
+     * Gets the number of times a refresh has found a different price for this Part.
+     *
+     * @return the number of price changes
+     */
+    public int getPriceChanges() {
+        return priceChanges;
+    }
+
+    /**
+     * Sets the number of times a refresh has found a different price for this Part.
+     *
+     * @param priceChanges the number of price changes
+     */
+    public void setPriceChanges(int priceChanges) {
+        this.priceChanges = priceChanges;
+    }
+
     @Override
     public String toString() {
         return "Part{" +
@@ -185,6 +244,7 @@ public class Part {
                 ", price=" + price +
                 ", link='" + link + '\'' +
                 ", dateLastUpdated='" + dateLastUpdated + '\'' +
+                ", priceChanges=" + priceChanges +
                 '}';
     }
 }
\ No newline at end of file
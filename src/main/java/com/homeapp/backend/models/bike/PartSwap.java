@@ -0,0 +1,85 @@
+package com.homeapp.backend.models.bike;
+
+import java.util.List;
+
+/**
+ * The Part Swap object.
+ * Whether one Part of a build can be swapped for another, and the Parts of the build the new Part does not work with if not.
+ */
+public class PartSwap {
+
+    private Part from;
+
+    private Part to;
+
+    private boolean compatible;
+
+    private List<Part> clashes;
+
+    /**
+     * Zero argument Constructor to Instantiate a new Part Swap.
+     */
+    public PartSwap() {
+    }
+
+    /**
+     * Instantiates a new Part Swap.
+     *
+     * @param from       the Part taken out, null if it is not in the parts catalog
+     * @param to         the Part put in
+     * @param compatible whether the swap leaves a build whose Parts all work together
+     * @param clashes    the Parts of the build the new Part does not work with
+     */
+    public PartSwap(Part from, Part to, boolean compatible, List<Part> clashes) {
+        this.from = from;
+        this.to = to;
+        this.compatible = compatible;
+        this.clashes = clashes;
+    }
+
+    /**
+     * Gets from.
+     *
+     * @return the Part taken out
+     */
+    public Part getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets to.
+     *
+     * @return the Part put in
+     */
+    public Part getTo() {
+        return to;
+    }
+
+    /**
+     * Is compatible boolean.
+     *
+     * @return whether the swap leaves a build whose Parts all work together
+     */
+    public boolean isCompatible() {
+        return compatible;
+    }
+
+    /**
+     * Gets clashes.
+     *
+     * @return the Parts of the build the new Part does not work with
+     */
+    public List<Part> getClashes() {
+        return clashes;
+    }
+
+    @Override
+    public String toString() {
+        return "PartSwap{" +
+                "from=" + from +
+                ", to=" + to +
+                ", compatible=" + compatible +
+                ", clashes=" + clashes +
+                '}';
+    }
+}
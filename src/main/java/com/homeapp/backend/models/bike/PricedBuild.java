@@ -0,0 +1,55 @@
+package com.homeapp.backend.models.bike;
+
+/**
+ * The Priced Build object.
+ * A complete design bike that passes every design rule, with the parts it is built from and their total price.
+ */
+public class PricedBuild {
+
+    private FullBike bike;
+
+    private BikeParts bikeParts;
+
+    /**
+     * Zero argument Constructor to Instantiate a new Priced Build.
+     */
+    public PricedBuild() {
+    }
+
+    /**
+     * Instantiates a new Priced Build.
+     *
+     * @param bike      the bike
+     * @param bikeParts the bike's parts, with their total price
+     */
+    public PricedBuild(FullBike bike, BikeParts bikeParts) {
+        this.bike = bike;
+        this.bikeParts = bikeParts;
+    }
+
+    /**
+     * Gets bike.
+     *
+     * @return the bike
+     */
+    public FullBike getBike() {
+        return bike;
+    }
+
+    /**
+     * Gets bike parts.
+     *
+     * @return the bike parts
+     */
+    public BikeParts getBikeParts() {
+        return bikeParts;
+    }
+
+    @Override
+    public String toString() {
+        return "PricedBuild{" +
+                "bike=" + bike +
+                ", bikeParts=" + bikeParts +
+                '}';
+    }
+}
@@ -7,14 +7,13 @@ import java.util.Map;
 /**
  * The Sticky Note object. Uses a HashMap to allow for each individual task to be completed.
  * Single boolean marks that the entire task is completed or not.
+ * The ID is given out by the Note Store rather than generated by the database, so both storage modes number notes the same way.
  */
 @Entity
-@Table(name = ("stickynote"))
+@Table(name = ("stickynote"), indexes = @Index(name = "idx_stickynote_title", columnList = "title"))
 public class StickyNote {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stickyNoteGen")
-    @SequenceGenerator(name = "stickyNoteGen", sequenceName = "NOTE_SEQ", allocationSize = 1)
     private long stickyNoteId;
 
     @Column(nullable = false)
@@ -0,0 +1,128 @@
+package com.homeapp.backend.models.scraper;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The Host Status class.
+ * A snapshot of the scraper's circuit breaker for one retailer host, as shown on the status endpoint.
+ */
+public class HostStatus {
+
+    @JsonProperty("host")
+    private String host;
+
+    @JsonProperty("state")
+    private BreakerState state;
+
+    @JsonProperty("consecutiveFailures")
+    private int consecutiveFailures;
+
+    @JsonProperty("totalSuccesses")
+    private long totalSuccesses;
+
+    @JsonProperty("totalFailures")
+    private long totalFailures;
+
+    @JsonProperty("openUntil")
+    private String openUntil;
+
+    /**
+     * The states a host's circuit breaker can be in.
+     * CLOSED lets requests through, OPEN skips the host until its cool-down ends,
+     * HALF_OPEN lets a single trial request through after the cool-down.
+     */
+    public enum BreakerState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Zero argument Constructor to Instantiate a new Host Status.
+     */
+    public HostStatus() {
+    }
+
+    /**
+     * Instantiates a new Host Status using all fields.
+     *
+     * @param host                the host
+     * @param state               the breaker state
+     * @param consecutiveFailures the consecutive failures since the last success
+     * @param totalSuccesses      the total successful requests
+     * @param totalFailures       the total failed requests
+     * @param openUntil           when the breaker's cool-down ends, null if not open
+     */
+    public HostStatus(String host, BreakerState state, int consecutiveFailures, long totalSuccesses, long totalFailures, String openUntil) {
+        this.host = host;
+        this.state = state;
+        this.consecutiveFailures = consecutiveFailures;
+        this.totalSuccesses = totalSuccesses;
+        this.totalFailures = totalFailures;
+        this.openUntil = openUntil;
+    }
+
+    /**
+     * Gets host.
+     *
+     * @return the host
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Gets breaker state.
+     *
+     * @return the breaker state
+     */
+    public BreakerState getState() {
+        return state;
+    }
+
+    /**
+     * Gets consecutive failures.
+     *
+     * @return the consecutive failures
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Gets total successes.
+     *
+     * @return the total successes
+     */
+    public long getTotalSuccesses() {
+        return totalSuccesses;
+    }
+
+    /**
+     * Gets total failures.
+     *
+     * @return the total failures
+     */
+    public long getTotalFailures() {
+        return totalFailures;
+    }
+
+    /**
+     * Gets when the breaker's cool-down ends.
+     *
+     * @return the end of the cool-down, null if not open
+     */
+    public String getOpenUntil() {
+        return openUntil;
+    }
+
+    @Override
+    public String toString() {
+        return "HostStatus{" +
+                "host='" + host + '\'' +
+                ", state=" + state +
+                ", consecutiveFailures=" + consecutiveFailures +
+                ", totalSuccesses=" + totalSuccesses +
+                ", totalFailures=" + totalFailures +
+                ", openUntil='" + openUntil + '\'' +
+                '}';
+    }
+}
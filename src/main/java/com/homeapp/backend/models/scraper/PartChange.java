@@ -0,0 +1,145 @@
+package com.homeapp.backend.models.scraper;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.homeapp.backend.models.bike.Part;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The Part Change class.
+ * One entry in the links journal: a Part whose name, price or date last updated was changed by a refresh.
+ * Entries are numbered in the order they were written, so a cache can ask for everything after the last one it applied.
+ */
+public class PartChange {
+
+    @JsonProperty("sequence")
+    private long sequence;
+
+    @JsonProperty("changedAt")
+    private String changedAt;
+
+    @JsonProperty("changedFields")
+    private List<String> changedFields;
+
+    @JsonProperty("previous")
+    private Part previous;
+
+    @JsonProperty("current")
+    private Part current;
+
+    /**
+     * Zero argument Constructor to Instantiate a new Part Change.
+     */
+    public PartChange() {
+    }
+
+    /**
+     * Instantiates a new Part Change, not yet numbered.
+     *
+     * @param changedFields the names of the fields that changed
+     * @param previous      the Part before the refresh
+     * @param current       the Part after the refresh
+     */
+    public PartChange(List<String> changedFields, Part previous, Part current) {
+        this.changedFields = changedFields;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    /**
+     * Compares a Part before and after a refresh.
+     *
+     * @param before a copy of the Part taken before the refresh
+     * @param after  the refreshed Part
+     * @return the change, or null if the name, price and date last updated are all the same
+     */
+    public static PartChange between(Part before, Part after) {
+        List<String> fields = new ArrayList<>();
+        if (!Objects.equals(before.getName(), after.getName())) {
+            fields.add("name");
+        }
+        if (!Objects.equals(before.getPrice(), after.getPrice())) {
+            fields.add("price");
+        }
+        if (!Objects.equals(before.getDateLastUpdated(), after.getDateLastUpdated())) {
+            fields.add("dateLastUpdated");
+        }
+        return fields.isEmpty() ? null : new PartChange(fields, before, after);
+    }
+
+    /**
+     * Gets sequence.
+     *
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Sets sequence.
+     *
+     * @param sequence the sequence
+     */
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Gets changed at.
+     *
+     * @return when the change was journalled
+     */
+    public String getChangedAt() {
+        return changedAt;
+    }
+
+    /**
+     * Sets changed at.
+     *
+     * @param changedAt when the change was journalled
+     */
+    public void setChangedAt(String changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    /**
+     * Gets changed fields.
+     *
+     * @return the names of the fields that changed
+     */
+    public List<String> getChangedFields() {
+        return changedFields;
+    }
+
+    /**
+     * Gets previous.
+     *
+     * @return the Part before the refresh
+     */
+    public Part getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Gets current.
+     *
+     * @return the Part after the refresh
+     */
+    public Part getCurrent() {
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "PartChange{" +
+                "sequence=" + sequence +
+                ", changedAt='" + changedAt + '\'' +
+                ", changedFields=" + changedFields +
+                ", previous=" + previous +
+                ", current=" + current +
+                '}';
+    }
+}
@@ -0,0 +1,176 @@
+package com.homeapp.backend.models.transfer;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Import Progress class.
+ * How far a bulk import of bikes or notes has got, as shown on the import progress endpoints and returned once an import finishes.
+ */
+public class ImportProgress {
+
+    @JsonProperty("kind")
+    private String kind;
+
+    @JsonProperty("state")
+    private ImportState state;
+
+    @JsonProperty("read")
+    private long read;
+
+    @JsonProperty("imported")
+    private long imported;
+
+    @JsonProperty("rejected")
+    private long rejected;
+
+    @JsonProperty("batches")
+    private long batches;
+
+    @JsonProperty("errors")
+    private List<String> errors = new ArrayList<>();
+
+    @JsonProperty("startedAt")
+    private String startedAt;
+
+    @JsonProperty("finishedAt")
+    private String finishedAt;
+
+    /**
+     * The states an import can be in.
+     * RUNNING is still reading, DONE read to the end of the input, FAILED stopped early at input that is not valid JSON,
+     * and ERROR stopped early because a batch could not be saved. Both FAILED and ERROR keep the batches already committed.
+     */
+    public enum ImportState {
+        RUNNING, DONE, FAILED, ERROR
+    }
+
+    /**
+     * Zero argument Constructor to Instantiate a new Import Progress.
+     */
+    public ImportProgress() {
+    }
+
+    /**
+     * Instantiates a new Import Progress using all fields.
+     *
+     * @param kind       what is being imported, bikes or notes
+     * @param state      the import state
+     * @param read       the records read so far
+     * @param imported   the records committed so far
+     * @param rejected   the records turned down by validation so far
+     * @param batches    the batches committed so far
+     * @param errors     why records were turned down, only the first few are kept
+     * @param startedAt  when the import started
+     * @param finishedAt when the import finished, null while running
+     */
+    public ImportProgress(String kind, ImportState state, long read, long imported, long rejected, long batches, List<String> errors, String startedAt, String finishedAt) {
+        this.kind = kind;
+        this.state = state;
+        this.read = read;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.batches = batches;
+        this.errors = errors;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    /**
+     * Gets kind.
+     *
+     * @return the kind
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets import state.
+     *
+     * @return the import state
+     */
+    public ImportState getState() {
+        return state;
+    }
+
+    /**
+     * Gets records read.
+     *
+     * @return the records read
+     */
+    public long getRead() {
+        return read;
+    }
+
+    /**
+     * Gets records imported.
+     *
+     * @return the records imported
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Gets records rejected.
+     *
+     * @return the records rejected
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets batches committed.
+     *
+     * @return the batches committed
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Gets errors.
+     *
+     * @return the errors
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets when the import started.
+     *
+     * @return the start time
+     */
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Gets when the import finished.
+     *
+     * @return the finish time, null while running
+     */
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportProgress{" +
+                "kind='" + kind + '\'' +
+                ", state=" + state +
+                ", read=" + read +
+                ", imported=" + imported +
+                ", rejected=" + rejected +
+                ", batches=" + batches +
+                ", errors=" + errors +
+                ", startedAt='" + startedAt + '\'' +
+                ", finishedAt='" + finishedAt + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,59 @@
+package com.homeapp.backend.repository;
+
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.FullBike;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The Full Bike Repository.
+ * Spring Data access to the FullBike table, used when storage.mode is jpa.
+ */
+public interface FullBikeRepository extends JpaRepository<FullBike, Long> {
+
+    /**
+     * Finds the bike with the passed-in name and the lowest ID.
+     *
+     * @param bikeName the bike name
+     * @return the bike, empty if there is none with that name
+     */
+    Optional<FullBike> findFirstByBikeNameOrderByFullBikeIdAsc(String bikeName);
+
+    /**
+     * Finds every bike with the passed-in name.
+     *
+     * @param bikeName the bike name
+     * @return the bikes, lowest ID first
+     */
+    List<FullBike> findAllByBikeNameOrderByFullBikeIdAsc(String bikeName);
+
+    /**
+     * Finds the highest bike ID in use.
+     *
+     * @return the highest ID, 0 if there are no bikes
+     */
+    @Query("select coalesce(max(b.fullBikeId), 0) from FullBike b")
+    long findMaxFullBikeId();
+
+    /**
+     * Finds bikes after the passed-in ID, lowest ID first, optionally only those with a frame style and/or brake type.
+     *
+     * @param after      only bikes with a higher ID are found
+     * @param frameStyle the frame style to keep, null for any
+     * @param brakeType  the brake type to keep, null for any
+     * @param pageable   how many bikes to find
+     * @return the bikes
+     */
+    @Query("select b from FullBike b left join b.frame f where b.fullBikeId > :after"
+            + " and (:frameStyle is null or f.frameStyle = :frameStyle)"
+            + " and (:brakeType is null or b.brakeType = :brakeType)"
+            + " order by b.fullBikeId")
+    List<FullBike> findPage(@Param("after") long after, @Param("frameStyle") FrameStyle frameStyle,
+                            @Param("brakeType") BrakeType brakeType, Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package com.homeapp.backend.repository;
+
+import com.homeapp.backend.models.bike.Part;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * The Part Repository.
+ * Spring Data access to the Part table, the parts catalog, used when storage.mode is jpa.
+ */
+public interface PartRepository extends JpaRepository<Part, Long> {
+
+    /**
+     * Finds every Part, in the order they were added.
+     *
+     * @return the Parts
+     */
+    List<Part> findAllByOrderByPartIdAsc();
+}
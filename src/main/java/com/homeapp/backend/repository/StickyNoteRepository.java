@@ -0,0 +1,46 @@
+package com.homeapp.backend.repository;
+
+import com.homeapp.backend.models.note.StickyNote;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The Sticky Note Repository.
+ * Spring Data access to the stickynote table, used when storage.mode is jpa.
+ */
+public interface StickyNoteRepository extends JpaRepository<StickyNote, Long> {
+
+    /**
+     * Finds the note with the passed-in title and the lowest ID.
+     *
+     * @param title the title
+     * @return the note, empty if there is none with that title
+     */
+    Optional<StickyNote> findFirstByTitleOrderByStickyNoteIdAsc(String title);
+
+    /**
+     * Finds the highest note ID in use.
+     *
+     * @return the highest ID, 0 if there are no notes
+     */
+    @Query("select coalesce(max(n.stickyNoteId), 0) from StickyNote n")
+    long findMaxStickyNoteId();
+
+    /**
+     * Finds notes after the passed-in ID, lowest ID first, optionally only those complete or still to do.
+     *
+     * @param after    only notes with a higher ID are found
+     * @param complete true for only complete notes, false for only notes still to do, null for any
+     * @param pageable how many notes to find
+     * @return the notes
+     */
+    @Query("select n from StickyNote n where n.stickyNoteId > :after"
+            + " and (:complete is null or n.complete = :complete)"
+            + " order by n.stickyNoteId")
+    List<StickyNote> findPage(@Param("after") long after, @Param("complete") Boolean complete, Pageable pageable);
+}
@@ -1,6 +1,9 @@
 package com.homeapp.backend.services;
 
+import com.homeapp.backend.models.bike.BikeConfigCache;
+import com.homeapp.backend.models.bike.BikeConfigKey;
 import com.homeapp.backend.models.bike.BikeParts;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
 import com.homeapp.backend.models.bike.Error;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.bike.Part;
@@ -14,7 +17,12 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
 import java.util.concurrent.CompletableFuture;
 
 import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
@@ -24,6 +32,9 @@ import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
 /**
  * The Bike Parts Service.
  * Houses all methods relating to getting Bike Parts for a given design Bike.
+ * The frame, handlebar and wheel links follow from the bike's configuration alone, so are chosen once per Bike Config Key and remembered.
+ * Getting a bike's parts records no demand for them; callers answering a user record it with Record Demand, so a user asking again for
+ * parts already cached still counts.
  */
 @Service
 @Scope("singleton")
@@ -34,144 +45,193 @@ public class BikePartsService {
     private static final String haloURL = "https://www.halowheels.com/shop/wheels/";
     private static final String dolanURL = "https://www.dolan-bikes.com/";
     private static final String genesisURL = "https://www.genesisbikes.co.uk/";
-    private static FullBike bike;
-    private BikeParts bikeParts;
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
     private final ErrorLogger errorLogger = new ErrorLogger();
-    private final FullBikeService fullBikeService;
     private final ShimanoGroupsetService shimanoGroupsetService;
+    private final BikeConfigCache<PartLinks> partLinks = new BikeConfigCache<>(4096);
 
-    public BikePartsService() {
-        this.fullBikeService = null;
-        this.shimanoGroupsetService = null;
+    /**
+     * The links of the parts chosen from a bike's configuration alone, outside of the groupset.
+     *
+     * @param frame      the frame link
+     * @param handleBars the handlebar link, empty if no handlebars are chosen, null if the bike has no handlebar type
+     * @param wheels     the wheel link
+     */
+    private record PartLinks(String frame, String handleBars, String wheels) {
     }
 
     /**
      * Instantiates a new Bike parts service.
      * This instantiation is Autowired to allow this Service class to use methods from the other Service classes and the Exception Handler.
      *
-     * @param fullBikeService        the Full Bike Service
      * @param shimanoGroupsetService the Shimano Groupset Service
      */
     @Autowired
-    public BikePartsService(FullBikeService fullBikeService, ShimanoGroupsetService shimanoGroupsetService) {
-        this.fullBikeService = fullBikeService;
+    public BikePartsService(ShimanoGroupsetService shimanoGroupsetService) {
         this.shimanoGroupsetService = shimanoGroupsetService;
-        this.bikeParts = new BikeParts();
     }
 
     /**
-     * Gets bike parts for bike, each call of this method uses a new BikeParts object, so has no influence from previous calls.
-     * Bike parts Object is set to this instance. Each update to the Bike Parts object is done on this instance.
-     * Method uses the bike that is currently on the instance of the Full Bike Service.
+     * Gets bike parts for the passed-in bike, each call of this method uses a new BikeParts object, so has no influence from previous calls.
+     * The bike and the Bike Parts are passed to every method rather than kept on the service, so parts for different bikes can be got at the same time.
      * Sets of each individual get part methods, in parallel to save time, then combines the results into a single return Object.
      *
+     * @param bike the design bike
      * @return the Bike Parts Object
      */
-    public BikeParts getBikePartsForBike() {
-        bikeParts = new BikeParts();
-        bike = fullBikeService.getBike();
-        CompletableFuture<Void> handleBarFuture = CompletableFuture.runAsync(this::getHandlebarPartsLink);
-        CompletableFuture<Void> frameFuture = CompletableFuture.runAsync(this::getFramePartsLink);
-        CompletableFuture<Void> gearFuture = CompletableFuture.runAsync(this::getGearSetLink);
-        CompletableFuture<Void> wheelFuture = CompletableFuture.runAsync(this::getWheelsLink);
+    public BikeParts getBikePartsForBike(FullBike bike) {
+        BikeParts bikeParts = new BikeParts();
+        bikeParts.setListOfParts(Collections.synchronizedList(new ArrayList<>()));
+        bikeParts.setErrorMessages(Collections.synchronizedList(new ArrayList<>()));
+        PartLinks links = partLinks(bike);
+        CompletableFuture<Void> handleBarFuture = CompletableFuture.runAsync(() -> getHandlebarPartsLink(links.handleBars(), bikeParts));
+        CompletableFuture<Void> frameFuture = CompletableFuture.runAsync(() -> getFramePartsLink(links.frame(), bikeParts));
+        CompletableFuture<Void> gearFuture = CompletableFuture.runAsync(() -> getGearSetLink(bike, bikeParts));
+        CompletableFuture<Void> wheelFuture = CompletableFuture.runAsync(() -> getWheelsLink(links.wheels(), bikeParts));
         CompletableFuture.allOf(handleBarFuture, frameFuture, gearFuture, wheelFuture).join();
-        calculateTotalPrice();
+        bikeParts.setListOfParts(new ArrayList<>(bikeParts.getListOfParts()));
+        bikeParts.setErrorMessages(new ArrayList<>(bikeParts.getErrorMessages()));
+        calculateTotalPrice(bikeParts);
         return bikeParts;
     }
 
-    private void getWheelsLink() {
-        String ref;
-        bike = fullBikeService.getBike();
-        infoLogger.log("Method for getting Bike Wheels from Web");
-        if (!bike.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
-            // Wheels which require Gears are from Wiggle
-            if (!bike.getBrakeType().equals(RIM)) {
-                if (bike.getWheelPreference().equals("Cheap")) {
-                    ref = wiggleURL + "mavic-allroad-disc-650b-wheelset-845223#colcode=84522303";
-                } else {
-                    ref = wiggleURL + "deda-rs4-db-carbon-tubeless-wheels-836218#colcode=83621890";
-                }
-            } else {
-                if (bike.getWheelPreference().equals("Cheap")) {
-                    ref = wiggleURL + "miche-altur-wheels-846217#colcode=84621703";
-                } else {
-                    ref = wiggleURL + "miche-altur-wheels-846217#colcode=84621703";
-                }
-            }
-        } else {
-            // Wheels for Single Speed are from Halo
-            if (bike.getWheelPreference().equals("Cheap")) {
-                ref = haloURL + "aerorage-track-700c-wheels/";
-            } else {
-                ref = haloURL + "carbaura-crit-700c-wheelset/";
-            }
+    /**
+     * Sets the passed-in bike up as getting its parts does: a Shimano groupset, and no more rear gears than the groupset allows.
+     * Called before a bike's parts are looked up in a cache, so a bike answered from the cache ends up the same as one whose parts were got.
+     *
+     * @param bike the design bike
+     */
+    public void normalize(FullBike bike) {
+        bike.setGroupsetBrand(SHIMANO);
+        long rearGears = ShimanoGroupsetService.rearGearsFor(bike.getNumberOfFrontGears(), bike.getNumberOfRearGears());
+        if (rearGears != bike.getNumberOfRearGears()) {
+            bike.setNumberOfRearGears(rearGears);
+        }
+    }
+
+    /**
+     * Records a request for every Part the passed-in bike gets, so the Parts Refresh Service refreshes them sooner.
+     * Called once for each time a user asks for a bike's parts, whether or not the parts come from a cache.
+     *
+     * @param bike the design bike
+     */
+    public void recordDemand(FullBike bike) {
+        PartLinks links = partLinks(bike);
+        List<String> groupset = bike.getBrakeType() == null || bike.getShifterStyle() == null ? List.of()
+                : ShimanoGroupsetService.groupsetRefs(bike.getBrakeType(), bike.getShifterStyle(), bike.getNumberOfFrontGears(), bike.getNumberOfRearGears());
+        shimanoGroupsetService.recordRequests(Stream.concat(Stream.of(links.frame(), links.handleBars(), links.wheels()), groupset.stream())
+                .filter(link -> link != null && !link.isEmpty())
+                .toList());
+    }
+
+    /**
+     * Gets the links of every Part the passed-in bike gets, without looking any of them up, recording demand or changing the bike.
+     * Links no Part has, such as the handlebars of a bike with none chosen, are left out.
+     *
+     * @param bike the bike
+     * @return the links, empty if the bike needs a Part that has no link, as Get Bike Parts For Bike would return with errors
+     */
+    public Optional<List<String>> getPartLinks(FullBike bike) {
+        PartLinks links = partLinks(bike);
+        if (links.handleBars() == null || bike.getBrakeType() == null || bike.getShifterStyle() == null) {
+            return Optional.empty();
         }
-        shimanoGroupsetService.findPartFromInternalRef(ref);
+        return ShimanoGroupsetService.completeGroupsetRefs(bike.getBrakeType(), bike.getShifterStyle(), bike.getNumberOfFrontGears(), bike.getNumberOfRearGears())
+                .map(groupset -> Stream.concat(Stream.of(links.frame(), links.handleBars(), links.wheels()), groupset.stream())
+                        .filter(link -> !link.isEmpty())
+                        .toList());
     }
 
-    private void getGearSetLink() {
-        bike = fullBikeService.getBike();
+    /**
+     * Gets Bike Parts holding the passed-in Parts, with their prices summed into a total, as Get Bike Parts For Bike does.
+     *
+     * @param parts the Parts, each with a price
+     * @return the Bike Parts
+     */
+    public BikeParts totalParts(List<Part> parts) {
+        BikeParts bikeParts = new BikeParts();
+        bikeParts.setListOfParts(new ArrayList<>(parts));
+        calculateTotalPrice(bikeParts);
+        return bikeParts;
+    }
+
+    private PartLinks partLinks(FullBike bike) {
+        return partLinks.computeIfAbsent(BikeConfigKey.of(bike), key -> key == BikeConfigKey.NONE
+                ? choosePartLinks(bike)
+                : choosePartLinks(BikeConfigKey.toBike(key)));
+    }
+
+    private void getWheelsLink(String ref, BikeParts bikeParts) {
+        infoLogger.log("Method for getting Bike Wheels from Web");
+        shimanoGroupsetService.findPartFromInternalRef(ref, bikeParts);
+    }
+
+    private void getGearSetLink(FullBike bike, BikeParts bikeParts) {
         bike.setGroupsetBrand(SHIMANO);
-        shimanoGroupsetService.getShimanoGroupset(bikeParts);
+        shimanoGroupsetService.getShimanoGroupset(bike, bikeParts);
     }
 
-    private void getHandlebarPartsLink() {
-        String ref = "";
+    private void getHandlebarPartsLink(String ref, BikeParts bikeParts) {
         String component = "HandleBars";
         String method = "GetHandleBarParts";
-        try {
-            bike = fullBikeService.getBike();
-            infoLogger.log("Method for Getting Handlebar Parts from web");
-            switch (bike.getHandleBarType()) {
-                case DROPS -> ref = chainReactionURL + "thomson-alloy-road-drop-bar-aero-top-837837#colcode=83783703";
-                case FLAT -> ref = chainReactionURL + "dmr-odub-handlebar-318mm-clamp-836711#colcode=83671103";
-                case BULLHORNS -> ref = wiggleURL + "deda-crononero-low-rider-tri-bar-836815#colcode=83681503";
-                case FLARE ->
-                        ref = chainReactionURL + "thomson-carbon-dirt-drop-drop-bar-25d-flare-837830#colcode=83783003";
-            }
-            shimanoGroupsetService.findPartFromInternalRef(ref);
-        } catch (Exception e) {
-            bikeParts.getErrorMessages().add(new Error(component, method, e.getMessage()));
-            errorLogger.log("An Exception occurred from: " + method + "!!See error message: " + e.getMessage() + "!!For bike Component: " + component);
+        infoLogger.log("Method for Getting Handlebar Parts from web");
+        if (ref == null) {
+            bikeParts.getErrorMessages().add(new Error(component, method, "No Handlebar type on bike"));
+            errorLogger.log("An Exception occurred from: " + method + "!!See error message: No Handlebar type on bike!!For bike Component: " + component);
+        } else {
+            shimanoGroupsetService.findPartFromInternalRef(ref, bikeParts);
         }
     }
 
-    private void getFramePartsLink() {
-        String ref = "";
-        bike = fullBikeService.getBike();
+    private void getFramePartsLink(String ref, BikeParts bikeParts) {
         infoLogger.log("Method for Getting Frame Parts Link");
-        switch (bike.getFrame().getFrameStyle()) {
-            case ROAD -> {
-                if (bike.getFrame().isDiscBrakeCompatible()) {
-                    ref = dolanURL + "dolan-adx-disc-titanium-road-frameset/";
-                } else {
-                    ref = dolanURL + "adx-titanium-road-frameset/";
-                }
-            }
-            case TOUR -> {
-                if (bike.getFrame().isDiscBrakeCompatible()) {
-                    ref = genesisURL + "genesis-fugio-frameset-vargn22330/";
-                } else {
-                    ref = genesisURL + "genesis-equilibrium-725-frameset-vargn21810";
-                }
-            }
-            case GRAVEL -> {
-                ref = dolanURL + "dolan-gxa2020-aluminium-gravel-frameset/";
-            }
-            case SINGLE_SPEED -> {
-                ref = dolanURL + "dolan-pre-cursa-aluminium-frameset/";
-            }
+        shimanoGroupsetService.findPartFromInternalRef(ref, bikeParts);
+    }
+
+    /**
+     * Chooses the links of the frame, handlebars and wheels for a bike's configuration.
+     * Wheels which require Gears are from Wiggle, wheels for Single Speed are from Halo; a wheel preference not set counts as not Cheap.
+     *
+     * @param bike the bike, only its configuration is read
+     * @return the part links, empty where there is no part to choose
+     */
+    private PartLinks choosePartLinks(FullBike bike) {
+        FrameStyle frameStyle = bike.getFrame() == null ? null : bike.getFrame().getFrameStyle();
+        boolean disc = bike.getFrame() != null && bike.getFrame().isDiscBrakeCompatible();
+        boolean cheap = "Cheap".equals(bike.getWheelPreference());
+        String frame = frameStyle == null ? "" : switch (frameStyle) {
+            case ROAD -> disc ? dolanURL + "dolan-adx-disc-titanium-road-frameset/" : dolanURL + "adx-titanium-road-frameset/";
+            case TOUR -> disc ? genesisURL + "genesis-fugio-frameset-vargn22330/" : genesisURL + "genesis-equilibrium-725-frameset-vargn21810";
+            case GRAVEL -> dolanURL + "dolan-gxa2020-aluminium-gravel-frameset/";
+            case SINGLE_SPEED -> dolanURL + "dolan-pre-cursa-aluminium-frameset/";
+            case NONE_SELECTED -> "";
+        };
+        String handleBars = bike.getHandleBarType() == null ? null : switch (bike.getHandleBarType()) {
+            case DROPS -> chainReactionURL + "thomson-alloy-road-drop-bar-aero-top-837837#colcode=83783703";
+            case FLAT -> chainReactionURL + "dmr-odub-handlebar-318mm-clamp-836711#colcode=83671103";
+            case BULLHORNS -> wiggleURL + "deda-crononero-low-rider-tri-bar-836815#colcode=83681503";
+            case FLARE -> chainReactionURL + "thomson-carbon-dirt-drop-drop-bar-25d-flare-837830#colcode=83783003";
+            case NOT_SELECTED -> "";
+        };
+        String wheels;
+        if (frameStyle == SINGLE_SPEED) {
+            wheels = cheap ? haloURL + "aerorage-track-700c-wheels/" : haloURL + "carbaura-crit-700c-wheelset/";
+        } else if (bike.getBrakeType() != RIM) {
+            wheels = cheap ? wiggleURL + "mavic-allroad-disc-650b-wheelset-845223#colcode=84522303" : wiggleURL + "deda-rs4-db-carbon-tubeless-wheels-836218#colcode=83621890";
+        } else {
+            wheels = wiggleURL + "miche-altur-wheels-846217#colcode=84621703";
         }
-        shimanoGroupsetService.findPartFromInternalRef(ref);
+        return new PartLinks(frame, handleBars, wheels);
     }
 
     /**
-     * Takes the price of each part on the bike parts instance object and sums them to create a total price.
+     * Takes the price of each part on the passed-in bike parts and sums them to create a total price.
      * Restructures the big decimal value into a String for displaying on FE.
+     *
+     * @param bikeParts the bike parts
      */
-    private void calculateTotalPrice() {
+    private void calculateTotalPrice(BikeParts bikeParts) {
         BigDecimal total = new BigDecimal(0);
         for (Part p : bikeParts.getListOfParts()) {
             p.setPrice(p.getPrice().replace(",", ""));
@@ -0,0 +1,278 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.BikeParts;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.bike.PricedBuild;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.services.OptionConstraints.Dimension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.homeapp.backend.services.OptionConstraints.OUT_OF_DOMAIN;
+
+/**
+ * The Build Optimizer Service class.
+ * Finds the cheapest complete builds for a partial design, or the best builds within a budget.
+ * <p>
+ * Every complete design the Option Constraints allow is normalized, checked against the design rules and priced from the parts catalog
+ * once per catalog version; designs that fail a check, that have a part not in the catalog or with no price, are left out.
+ * A design the groupset cannot be got for as it is, such as a 3 by 11, is left out too: its parts are those of the design the groupset
+ * holds it to, which is priced as itself.
+ * A design is priced from the links of its Parts, looked up in the catalog directly, so pricing records no demand for any Part
+ * and does not change the refresh order of the catalog.
+ * The priced builds are ranked cheapest first, and each value of each dimension has a bitset of the ranks of the builds that have it.
+ * A partial design's builds are then the AND of the bitsets of what it has chosen, and the cheapest of them is its lowest set bit:
+ * the bound on every branch is exact, so the search stops as soon as it has found as many builds as were asked for.
+ * Pricing every design takes far longer than a search, so the builds are first priced in the background once the application is ready,
+ * and once the catalog changes they are priced again in the background, searches being answered from the builds priced at the previous
+ * version until that is done. Only a search made before the first pricing is done waits for it.
+ */
+@Service
+public class BuildOptimizerService {
+
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final DesignRuleService designRuleService;
+    private final BikePartsService bikePartsService;
+    private final PartsCatalogService partsCatalogService;
+    private final AtomicBoolean repricing = new AtomicBoolean();
+    private CompletableFuture<Void> firstPricing;
+    private volatile Index index;
+
+    /**
+     * The priced builds at one catalog version.
+     *
+     * @param version the catalog version the builds were priced at
+     * @param builds  the builds, cheapest first
+     * @param prices  the total price of each build, by rank
+     * @param support the ranks of the builds with each value, by dimension ordinal then value index
+     */
+    private record Index(long version, PricedBuild[] builds, BigDecimal[] prices, long[][][] support) {
+    }
+
+    /**
+     * Instantiates a new Build Optimizer Service.
+     * Autowires in the Design Rule Service to normalize and check designs, and the Bike Parts and Parts Catalog Services to price them.
+     *
+     * @param designRuleService   the design rule service
+     * @param bikePartsService    the bike parts service
+     * @param partsCatalogService the parts catalog service
+     */
+    @Autowired
+    public BuildOptimizerService(DesignRuleService designRuleService, BikePartsService bikePartsService, PartsCatalogService partsCatalogService) {
+        this.designRuleService = designRuleService;
+        this.bikePartsService = bikePartsService;
+        this.partsCatalogService = partsCatalogService;
+    }
+
+    /**
+     * Starts pricing every design in the background once the application is ready, so the first search does not wait for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPricing() {
+        firstPricing();
+    }
+
+    /**
+     * Gets the cheapest complete builds that keep everything the partial design has chosen, cheapest first.
+     * With a budget, gets the most expensive builds that cost no more than it instead, most expensive first.
+     *
+     * @param partial the partial design; frame style, handlebars, brakes, gears and wheel preference are kept where chosen
+     * @param limit   the most builds to return
+     * @param budget  the most a build may cost, null for the cheapest builds
+     * @return the builds, empty if no priced build keeps the design's choices
+     */
+    public List<PricedBuild> getBuilds(FullBike partial, int limit, BigDecimal budget) {
+        infoLogger.log("Getting " + (budget == null ? "cheapest builds" : "best builds within " + budget) + " for Bike!");
+        int[] chosen = OptionConstraints.chosen(partial);
+        if (Arrays.stream(chosen).anyMatch(c -> c == OUT_OF_DOMAIN)) {
+            warnLogger.log("Design has a choice no build can have: " + partial);
+            return List.of();
+        }
+        Index ix = index();
+        long[] matches = new long[(ix.builds().length + 63) / 64];
+        Arrays.fill(matches, -1L);
+        for (int d = 0; d < chosen.length; d++) {
+            if (chosen[d] >= 0) {
+                long[] support = ix.support()[d][chosen[d]];
+                for (int w = 0; w < matches.length; w++) {
+                    matches[w] &= support[w];
+                }
+            }
+        }
+        List<PricedBuild> builds = new ArrayList<>();
+        if (budget == null) {
+            for (int rank = nextSetBit(matches, 0, ix.builds().length); rank >= 0 && builds.size() < limit;
+                 rank = nextSetBit(matches, rank + 1, ix.builds().length)) {
+                builds.add(ix.builds()[rank]);
+            }
+        } else {
+            int affordable = affordable(ix.prices(), budget);
+            for (int rank = previousSetBit(matches, affordable - 1); rank >= 0 && builds.size() < limit; rank = previousSetBit(matches, rank - 1)) {
+                builds.add(ix.builds()[rank]);
+            }
+        }
+        return builds;
+    }
+
+    private Index index() {
+        long version = partsCatalogService.getVersion();
+        Index ix = index;
+        if (ix == null) {
+            firstPricing().join();
+            ix = index;
+        }
+        if (ix.version() != version && repricing.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    index = priceDesigns(partsCatalogService.getVersion());
+                } finally {
+                    repricing.set(false);
+                }
+            });
+        }
+        return ix;
+    }
+
+    private synchronized CompletableFuture<Void> firstPricing() {
+        if (firstPricing == null) {
+            firstPricing = CompletableFuture.runAsync(() -> index = priceDesigns(partsCatalogService.getVersion()));
+        }
+        return firstPricing;
+    }
+
+    private Index priceDesigns(long version) {
+        long start = System.nanoTime();
+        List<PricedBuild> priced = new ArrayList<>();
+        List<int[]> designs = new ArrayList<>();
+        for (int i = 0; i < OptionConstraints.designs(); i++) {
+            int[] design = OptionConstraints.design(i);
+            FullBike bike = OptionConstraints.toBike(design);
+            designRuleService.normalize(bike);
+            if (!designRuleService.validate(bike).isEmpty()) {
+                continue;
+            }
+            long rearGears = bike.getNumberOfRearGears();
+            bikePartsService.normalize(bike);
+            if (bike.getNumberOfRearGears() != rearGears) {
+                continue;
+            }
+            BikeParts parts = price(bike);
+            if (parts != null) {
+                priced.add(new PricedBuild(bike, parts));
+                designs.add(design);
+            }
+        }
+        Integer[] order = new Integer[priced.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(i -> priced.get(i).getBikeParts().getTotalBikePrice()));
+        PricedBuild[] builds = new PricedBuild[order.length];
+        BigDecimal[] prices = new BigDecimal[order.length];
+        long[][][] support = new long[DIMENSIONS.length][][];
+        for (Dimension d : DIMENSIONS) {
+            support[d.ordinal()] = new long[Long.bitCount(d.all())][(order.length + 63) / 64];
+        }
+        for (int rank = 0; rank < order.length; rank++) {
+            builds[rank] = priced.get(order[rank]);
+            prices[rank] = builds[rank].getBikeParts().getTotalBikePrice();
+            int[] design = designs.get(order[rank]);
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                support[d][design[d]][rank >> 6] |= 1L << rank;
+            }
+        }
+        infoLogger.log("Priced " + builds.length + " of " + OptionConstraints.designs() + " designs at catalog version " + version
+                + " in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+        return new Index(version, builds, prices, support);
+    }
+
+    /**
+     * Prices a bike from the catalog, from the links of the Parts it gets.
+     * A bike with a link not in the catalog is not priced: its total would leave that Part out, and rank it as cheaper than it is.
+     *
+     * @param bike the normalized bike
+     * @return the bike's parts, null if one of them has no link, is not in the catalog or has no price
+     */
+    private BikeParts price(FullBike bike) {
+        Optional<List<String>> links = bikePartsService.getPartLinks(bike);
+        if (links.isEmpty()) {
+            return null;
+        }
+        List<Part> parts = new ArrayList<>();
+        for (String link : links.get()) {
+            Optional<Part> part = partsCatalogService.findByLink(link);
+            if (part.isEmpty() || part.get().getPrice() == null) {
+                return null;
+            }
+            parts.add(part.get());
+        }
+        try {
+            return bikePartsService.totalParts(parts);
+        } catch (RuntimeException e) {
+            warnLogger.log("Design could not be priced: " + bike + "!!See error message: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static int affordable(BigDecimal[] prices, BigDecimal budget) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid].compareTo(budget) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int nextSetBit(long[] bits, int from, int size) {
+        int w = from >> 6;
+        if (w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & -1L << from;
+        while (true) {
+            if (word != 0) {
+                int bit = (w << 6) + Long.numberOfTrailingZeros(word);
+                return bit < size ? bit : -1;
+            }
+            if (++w == bits.length) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+
+    private static int previousSetBit(long[] bits, int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int w = from >> 6;
+        long word = bits[w] & -1L >>> 63 - (from & 63);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (w-- == 0) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.homeapp.backend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.note.StickyNote;
+import com.homeapp.backend.models.transfer.ImportProgress;
+import com.homeapp.backend.models.transfer.ImportProgress.ImportState;
+import com.homeapp.backend.store.Page;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * The Bulk Transfer Service class.
+ * Streams bikes and notes out as NDJSON, one JSON object per line, and streams them back in, for moving design archives between environments.
+ * Both directions use Jackson's streaming parser and generator, so only one page or one batch is held at a time whatever the size of the archive.
+ * <p>
+ * An import reads one record at a time, checks it, and saves the good ones in batches, each batch committed before the next is read.
+ * A record that cannot be read as a bike or note, or fails the checks, is counted and skipped with the reason kept; a file that is not valid JSON stops
+ * the import as FAILED, and a batch that cannot be saved stops it as ERROR, either way keeping the batches already committed. A JSON array, as in the backup files, is read the same way, element by element.
+ * Progress is published after every batch, and only one import of each kind runs at a time.
+ */
+@Service
+public class BulkTransferService {
+
+    /**
+     * What a bike import or export is called, in progress and logs.
+     */
+    public static final String BIKES = "bikes";
+    /**
+     * What a note import or export is called, in progress and logs.
+     */
+    public static final String NOTES = "notes";
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int MAX_ERRORS_KEPT = 20;
+    private static final ObjectMapper om = new ObjectMapper();
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final FullBikeService fullBikeService;
+    private final StickyNoteService stickyNoteService;
+    private final int batchSize;
+    private final Map<String, ImportProgress> progress = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> importLocks = Map.of(BIKES, new ReentrantLock(), NOTES, new ReentrantLock());
+
+    /**
+     * Saves one batch of checked records.
+     *
+     * @param <T> the type of record
+     */
+    @FunctionalInterface
+    private interface BatchCommit<T> {
+        void commit(List<T> batch) throws IOException;
+    }
+
+    /**
+     * Instantiates a new Bulk Transfer Service.
+     * Autowires in the Full Bike and Sticky Note Services that the records are read from and saved through.
+     *
+     * @param fullBikeService   the full bike service
+     * @param stickyNoteService the sticky note service
+     * @param batchSize         how many records are saved in each batch of an import
+     */
+    @Autowired
+    public BulkTransferService(FullBikeService fullBikeService, StickyNoteService stickyNoteService,
+                               @Value("${transfer.batch-size:500}") int batchSize) {
+        this.fullBikeService = fullBikeService;
+        this.stickyNoteService = stickyNoteService;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Writes every bike to the output as NDJSON, lowest ID first.
+     *
+     * @param out the output, left open
+     * @return the number of bikes written
+     * @throws IOException if the output cannot be written
+     */
+    public long exportBikes(OutputStream out) throws IOException {
+        return export(BIKES, out, after -> fullBikeService.getFullBikesPage(after, EXPORT_PAGE_SIZE, null, null));
+    }
+
+    /**
+     * Writes every note to the output as NDJSON, lowest ID first.
+     *
+     * @param out the output, left open
+     * @return the number of notes written
+     * @throws IOException if the output cannot be written
+     */
+    public long exportNotes(OutputStream out) throws IOException {
+        return export(NOTES, out, after -> stickyNoteService.retrieveNotesPage(after, EXPORT_PAGE_SIZE, null));
+    }
+
+    /**
+     * Imports bikes from NDJSON, or a JSON array of bikes.
+     * A bike needs a name, a frame with a frame style, and a brake type.
+     *
+     * @param in the input
+     * @return the finished import's progress, empty if a bike import is already running
+     */
+    public Optional<ImportProgress> importBikes(InputStream in) {
+        return importRecords(BIKES, in, FullBike.class, this::checkBike, fullBikeService::importBikes);
+    }
+
+    /**
+     * Imports notes from NDJSON, or a JSON array of notes.
+     * A note needs a title and a message map.
+     *
+     * @param in the input
+     * @return the finished import's progress, empty if a note import is already running
+     */
+    public Optional<ImportProgress> importNotes(InputStream in) {
+        return importRecords(NOTES, in, StickyNote.class, this::checkNote, stickyNoteService::importNotes);
+    }
+
+    /**
+     * Gets the progress of the running import of this kind, or of the last one to finish.
+     *
+     * @param kind bikes or notes
+     * @return the progress, empty if there has not been an import of this kind
+     */
+    public Optional<ImportProgress> getProgress(String kind) {
+        return Optional.ofNullable(progress.get(kind));
+    }
+
+    private String checkBike(FullBike bike) {
+        if (bike.getBikeName() == null || bike.getBikeName().isBlank()) {
+            return "bike has no name";
+        }
+        if (bike.getFrame() == null || bike.getFrame().getFrameStyle() == null) {
+            return "bike has no frame style";
+        }
+        if (bike.getBrakeType() == null) {
+            return "bike has no brake type";
+        }
+        return null;
+    }
+
+    private String checkNote(StickyNote note) {
+        if (note.getTitle() == null || note.getTitle().isBlank()) {
+            return "note has no title";
+        }
+        if (note.getMessageMap() == null) {
+            return "note has no message map";
+        }
+        return null;
+    }
+
+    private <T> long export(String kind, OutputStream out, LongFunction<Page<T>> pages) throws IOException {
+        infoLogger.log("Exporting all " + kind + " as NDJSON");
+        long written = 0;
+        try (JsonGenerator generator = om.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Page<T> page = pages.apply(Long.MIN_VALUE);
+            while (true) {
+                for (T item : page.items()) {
+                    generator.writeObject(item);
+                    generator.writeRaw('\n');
+                    written++;
+                }
+                if (page.nextCursor() == null) {
+                    break;
+                }
+                page = pages.apply(page.nextCursor());
+            }
+        }
+        warnLogger.log("Exported " + kind + ", number written: " + written);
+        return written;
+    }
+
+    private <T> Optional<ImportProgress> importRecords(String kind, InputStream in, Class<T> type, Function<T, String> check, BatchCommit<T> commit) {
+        ReentrantLock lock = importLocks.get(kind);
+        if (!lock.tryLock()) {
+            warnLogger.log("An import of " + kind + " is already running, not starting another");
+            return Optional.empty();
+        }
+        try {
+            infoLogger.log("Importing " + kind);
+            String startedAt = Instant.now().toString();
+            long read = 0;
+            long imported = 0;
+            long batches = 0;
+            List<String> errors = new ArrayList<>();
+            List<T> batch = new ArrayList<>(batchSize);
+            boolean committing = false;
+            progress.put(kind, new ImportProgress(kind, ImportState.RUNNING, 0, 0, 0, 0, List.of(), startedAt, null));
+            try (JsonParser parser = om.getFactory().createParser(in)) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    long line = parser.getTokenLocation().getLineNr();
+                    JsonNode node = om.readTree(parser);
+                    read++;
+                    String error;
+                    T record = null;
+                    try {
+                        record = om.treeToValue(node, type);
+                        error = check.apply(record);
+                    } catch (JsonProcessingException | IllegalArgumentException e) {
+                        error = "not a valid record, " + e.getMessage();
+                    }
+                    if (error != null) {
+                        if (errors.size() < MAX_ERRORS_KEPT) {
+                            errors.add("Record " + read + " at line " + line + ": " + error);
+                        }
+                    } else {
+                        batch.add(record);
+                    }
+                    if (batch.size() == batchSize) {
+                        committing = true;
+                        commit.commit(batch);
+                        committing = false;
+                        imported += batch.size();
+                        batches++;
+                        batch = new ArrayList<>(batchSize);
+                        progress.put(kind, new ImportProgress(kind, ImportState.RUNNING, read, imported, read - imported, batches,
+                                List.copyOf(errors), startedAt, null));
+                    }
+                    token = parser.nextToken();
+                }
+                if (!batch.isEmpty()) {
+                    committing = true;
+                    commit.commit(batch);
+                    committing = false;
+                    imported += batch.size();
+                    batches++;
+                }
+                ImportProgress done = new ImportProgress(kind, ImportState.DONE, read, imported, read - imported, batches,
+                        List.copyOf(errors), startedAt, Instant.now().toString());
+                progress.put(kind, done);
+                warnLogger.log("Import finished: " + done);
+                return Optional.of(done);
+            } catch (IOException | CompletionException e) {
+                errorLogger.log("An IOException occurred from method: importRecords!!See error message: " + e.getMessage() + "!!From: " + getClass());
+                errors.add("Import stopped after record " + read + ": " + e.getMessage());
+                long pending = batch.size();
+                ImportProgress failed = new ImportProgress(kind, committing ? ImportState.ERROR : ImportState.FAILED, read, imported, read - imported - pending, batches,
+                        List.copyOf(errors), startedAt, Instant.now().toString());
+                progress.put(kind, failed);
+                return Optional.of(failed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
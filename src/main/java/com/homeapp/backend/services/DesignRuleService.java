@@ -0,0 +1,302 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.BikeConfigCache;
+import com.homeapp.backend.models.bike.BikeConfigKey;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.logger.InfoLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.*;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.*;
+
+/**
+ * The Design Rule Service class.
+ * Holds the design constraints for a bike as declarative rules, each naming the fields it reads and the fields it writes.
+ * Normalizing rules set the fields that follow from others, e.g. the gear cables from the number of gears;
+ * checks report a design that cannot be built, e.g. more than one chainring with hydraulic disc brakes.
+ * <p>
+ * The normalizing rules are sorted once, so that every rule runs after the rules that write the fields it reads,
+ * and then run in that order in a single pass over the bike. As every field a rule reads is part of the Bike Config Key,
+ * the result of the pass and of the checks is worked out once per key and remembered in a Bike Config Cache, so normalizing
+ * or checking a bike that has been seen before is a lookup on an int.
+ */
+@Service
+public class DesignRuleService {
+
+    private static final int MAX_CACHED_KEYS = 4096;
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final List<Rule> rules;
+    private final List<Check> checks;
+    private final EnumSet<Field> ruleFields = EnumSet.noneOf(Field.class);
+    private final BikeConfigCache<Integer> normalizedKeys = new BikeConfigCache<>(MAX_CACHED_KEYS);
+    private final BikeConfigCache<List<String>> violations = new BikeConfigCache<>(MAX_CACHED_KEYS);
+
+    /**
+     * The bike fields the rules read and write, with the JSON path of each.
+     */
+    public enum Field {
+        FRAME_STYLE("frame.frameStyle"),
+        BRAKE_TYPE("brakeType"),
+        HANDLE_BAR_TYPE("handleBarType"),
+        SHIFTER_STYLE("shifterStyle"),
+        FRONT_GEARS("numberOfFrontGears"),
+        REAR_GEARS("numberOfRearGears"),
+        DISC_BRAKE_COMPATIBLE("frame.discBrakeCompatible"),
+        REQUIRES_FRONT_GEAR_CABLE("frame.requiresFrontGearCable"),
+        REQUIRES_REAR_GEAR_CABLE("frame.requiresRearGearCable");
+
+        private final String path;
+
+        Field(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Gets the JSON path of the field on a Full Bike.
+         *
+         * @return the path
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the fields with the passed-in JSON paths, ignoring paths that are not rule fields.
+         *
+         * @param paths the JSON paths
+         * @return the fields
+         */
+        public static Set<Field> fromPaths(Collection<String> paths) {
+            EnumSet<Field> fields = EnumSet.noneOf(Field.class);
+            for (Field field : values()) {
+                if (paths.contains(field.path)) {
+                    fields.add(field);
+                }
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * A normalizing rule: sets the fields it writes from the fields it reads.
+     *
+     * @param name   what the rule does, for logs
+     * @param reads  the fields the rule reads
+     * @param writes the fields the rule writes
+     * @param apply  sets the fields on a bike
+     */
+    public record Rule(String name, Set<Field> reads, Set<Field> writes, Consumer<FullBike> apply) {
+    }
+
+    /**
+     * A check: a bike that does not pass it cannot be built as designed.
+     *
+     * @param message why the bike fails the check
+     * @param reads   the fields the check reads
+     * @param passes  whether a bike passes
+     */
+    public record Check(String message, Set<Field> reads, Predicate<FullBike> passes) {
+    }
+
+    /**
+     * Instantiates a new Design Rule Service with the bike design rules, sorting the rules into the order they run in.
+     */
+    @Autowired
+    public DesignRuleService() {
+        this(defaultRules(), defaultChecks());
+    }
+
+    /**
+     * Instantiates a new Design Rule Service with the passed-in rules and checks.
+     *
+     * @param rules  the normalizing rules, in any order
+     * @param checks the checks
+     * @throws IllegalStateException if two rules write the same field, or the rules depend on each other in a cycle
+     */
+    public DesignRuleService(List<Rule> rules, List<Check> checks) {
+        this.rules = sort(rules);
+        this.checks = List.copyOf(checks);
+        this.rules.forEach(rule -> {
+            ruleFields.addAll(rule.reads());
+            ruleFields.addAll(rule.writes());
+        });
+        infoLogger.log("Design rules compiled, run order: " + this.rules.stream().map(Rule::name).toList());
+    }
+
+    /**
+     * Gets the normalizing rules, in the order they run in.
+     *
+     * @return the rules
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Normalizes a bike in place, setting every field that follows from the others.
+     *
+     * @param bike the bike, with a frame
+     */
+    public void normalize(FullBike bike) {
+        int key = BikeConfigKey.of(bike);
+        if (key == BikeConfigKey.NONE) {
+            rules.forEach(rule -> rule.apply().accept(bike));
+            return;
+        }
+        int normalized = normalizedKeys.computeIfAbsent(key, this::normalizeKey);
+        if (normalized != key) {
+            bike.setShifterStyle(BikeConfigKey.shifterStyle(normalized));
+            bike.setNumberOfFrontGears(BikeConfigKey.frontGears(normalized));
+            bike.setNumberOfRearGears(BikeConfigKey.rearGears(normalized));
+            bike.getFrame().setDiscBrakeCompatible(BikeConfigKey.isDiscBrakeCompatible(normalized));
+            bike.getFrame().setRequiresFrontGearCable(BikeConfigKey.isRequiresFrontGearCable(normalized));
+            bike.getFrame().setRequiresRearGearCable(BikeConfigKey.isRequiresRearGearCable(normalized));
+        }
+    }
+
+    /**
+     * Checks whether a change to the passed-in fields means a bike has to be normalized again.
+     *
+     * A field a rule writes counts as well as one it reads, as the rule sets it back to what follows from the other fields.
+     *
+     * @param changed the changed fields
+     * @return true if any rule reads or writes one of them
+     */
+    public boolean affects(Set<Field> changed) {
+        return changed.stream().anyMatch(ruleFields::contains);
+    }
+
+    /**
+     * Gets why a bike cannot be built as designed.
+     *
+     * @param bike the bike, with a frame
+     * @return the messages of every check the bike fails, empty if it passes them all
+     */
+    public List<String> validate(FullBike bike) {
+        int key = BikeConfigKey.of(bike);
+        if (key == BikeConfigKey.NONE) {
+            return failedChecks(bike);
+        }
+        return violations.computeIfAbsent(key, k -> failedChecks(BikeConfigKey.toBike(k)));
+    }
+
+    private int normalizeKey(int key) {
+        FullBike bike = BikeConfigKey.toBike(key);
+        rules.forEach(rule -> rule.apply().accept(bike));
+        return BikeConfigKey.of(bike);
+    }
+
+    private List<String> failedChecks(FullBike bike) {
+        return checks.stream().filter(check -> !check.passes().test(bike)).map(Check::message).toList();
+    }
+
+    private static List<Rule> sort(List<Rule> rules) {
+        Map<Field, Rule> writers = new EnumMap<>(Field.class);
+        for (Rule rule : rules) {
+            for (Field field : rule.writes()) {
+                if (writers.put(field, rule) != null) {
+                    throw new IllegalStateException("Field " + field + " is written by more than one rule");
+                }
+            }
+        }
+        Map<Rule, Integer> waitingOn = new IdentityHashMap<>();
+        Map<Rule, List<Rule>> runBefore = new IdentityHashMap<>();
+        for (Rule rule : rules) {
+            waitingOn.put(rule, 0);
+            runBefore.put(rule, new ArrayList<>());
+        }
+        for (Rule rule : rules) {
+            for (Field field : rule.reads()) {
+                Rule writer = writers.get(field);
+                if (writer != null && writer != rule) {
+                    runBefore.get(writer).add(rule);
+                    waitingOn.merge(rule, 1, Integer::sum);
+                }
+            }
+        }
+        Deque<Rule> ready = new ArrayDeque<>();
+        rules.stream().filter(rule -> waitingOn.get(rule) == 0).forEach(ready::add);
+        List<Rule> sorted = new ArrayList<>(rules.size());
+        while (!ready.isEmpty()) {
+            Rule rule = ready.poll();
+            sorted.add(rule);
+            for (Rule next : runBefore.get(rule)) {
+                if (waitingOn.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        if (sorted.size() != rules.size()) {
+            throw new IllegalStateException("The design rules depend on each other in a cycle");
+        }
+        return List.copyOf(sorted);
+    }
+
+    private static List<Rule> defaultRules() {
+        return List.of(
+                new Rule("Shifters suit the handlebars and gear cables",
+                        EnumSet.of(Field.HANDLE_BAR_TYPE, Field.REQUIRES_FRONT_GEAR_CABLE, Field.REQUIRES_REAR_GEAR_CABLE), EnumSet.of(Field.SHIFTER_STYLE),
+                        bike -> {
+                            if (bike.getFrame().isRequiresFrontGearCable() || bike.getFrame().isRequiresRearGearCable()) {
+                                if (bike.getHandleBarType() == DROPS || bike.getHandleBarType() == FLARE) {
+                                    bike.setShifterStyle(STI);
+                                } else if (bike.getHandleBarType() == FLAT) {
+                                    bike.setShifterStyle(TRIGGER);
+                                }
+                            } else {
+                                bike.setShifterStyle(NONE);
+                            }
+                        }),
+                new Rule("Single speed frames have one gear",
+                        EnumSet.of(Field.FRAME_STYLE), EnumSet.of(Field.FRONT_GEARS, Field.REAR_GEARS),
+                        bike -> {
+                            if (bike.getFrame().getFrameStyle() == SINGLE_SPEED) {
+                                bike.setNumberOfFrontGears(1);
+                                bike.setNumberOfRearGears(1);
+                            }
+                        }),
+                new Rule("Gear cables are needed for more than one gear",
+                        EnumSet.of(Field.FRONT_GEARS, Field.REAR_GEARS), EnumSet.of(Field.REQUIRES_FRONT_GEAR_CABLE, Field.REQUIRES_REAR_GEAR_CABLE),
+                        bike -> {
+                            bike.getFrame().setRequiresFrontGearCable(bike.getNumberOfFrontGears() > 1);
+                            bike.getFrame().setRequiresRearGearCable(bike.getNumberOfRearGears() > 1);
+                        }),
+                new Rule("Disc brakes need a disc brake compatible frame",
+                        EnumSet.of(Field.BRAKE_TYPE), EnumSet.of(Field.DISC_BRAKE_COMPATIBLE),
+                        bike -> bike.getFrame().setDiscBrakeCompatible(bike.getBrakeType() != RIM && bike.getBrakeType() != NOT_REQUIRED)));
+    }
+
+    private static List<Check> defaultChecks() {
+        return List.of(
+                new Check("Hydraulic disc brakes only come with a single chainring", EnumSet.of(Field.BRAKE_TYPE, Field.FRONT_GEARS),
+                        bike -> bike.getBrakeType() != HYDRAULIC_DISC || bike.getNumberOfFrontGears() <= 1),
+                new Check("Flat handlebars only come with a single chainring", EnumSet.of(Field.HANDLE_BAR_TYPE, Field.FRONT_GEARS),
+                        bike -> bike.getHandleBarType() != FLAT || bike.getNumberOfFrontGears() <= 1),
+                new Check("Single speed frames take rim brakes or none", EnumSet.of(Field.FRAME_STYLE, Field.BRAKE_TYPE),
+                        bike -> bike.getFrame().getFrameStyle() != SINGLE_SPEED || bike.getBrakeType() == RIM
+                                || bike.getBrakeType() == NOT_REQUIRED || bike.getBrakeType() == NO_SELECTION),
+                new Check("The handlebars do not suit the frame style", EnumSet.of(Field.FRAME_STYLE, Field.HANDLE_BAR_TYPE),
+                        bike -> switch (bike.getHandleBarType() == null ? NOT_SELECTED : bike.getHandleBarType()) {
+                            case DROPS, NOT_SELECTED -> true;
+                            case FLAT -> bike.getFrame().getFrameStyle() == SINGLE_SPEED || bike.getFrame().getFrameStyle() == TOUR;
+                            case FLARE -> bike.getFrame().getFrameStyle() == TOUR || bike.getFrame().getFrameStyle() == GRAVEL;
+                            case BULLHORNS -> bike.getFrame().getFrameStyle() == SINGLE_SPEED;
+                        }));
+    }
+}
@@ -0,0 +1,131 @@
+package com.homeapp.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.BikeConfigKey;
+import com.homeapp.backend.models.bike.BikeParts;
+import com.homeapp.backend.models.bike.CombinedData;
+import com.homeapp.backend.models.bike.Error;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Options;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The Design Snapshot Service class.
+ * Works out everything the bike designer shows for a bike in one go: the normalized bike, its Options, its images and its parts.
+ * <p>
+ * The bike is normalized once, then the Options, images and parts are worked out at the same time, each from its own copy of the
+ * normalized bike, so none of them can see a change another makes. The copy is unpacked from the bike's Bike Config Key where it has one.
+ */
+@Service
+public class DesignSnapshotService {
+
+    private static final ObjectMapper om = new ObjectMapper();
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final FullBikeService fullBikeService;
+    private final DesignRuleService designRuleService;
+    private final OptionsService optionsService;
+    private final ImageService imageService;
+    private final BikePartsService bikePartsService;
+
+    /**
+     * Everything the bike designer shows for a bike. The Options, images and parts are still being worked out when it is returned.
+     *
+     * @param bike    the normalized bike
+     * @param options the Options for the bike
+     * @param images  the JSON list of images for the bike
+     * @param parts   the Bike Parts for the bike, null if they were not asked for
+     */
+    public record DesignSnapshot(FullBike bike, CompletableFuture<Options> options, CompletableFuture<byte[]> images,
+                                 CompletableFuture<BikeParts> parts) {
+    }
+
+    /**
+     * Instantiates a new Design Snapshot Service.
+     * Autowires in the services each part of a snapshot comes from.
+     *
+     * @param fullBikeService   the full bike service, to save the bike
+     * @param designRuleService the design rule service, to normalize the bike
+     * @param optionsService    the options service
+     * @param imageService      the image service
+     * @param bikePartsService  the bike parts service
+     */
+    @Autowired
+    public DesignSnapshotService(FullBikeService fullBikeService, DesignRuleService designRuleService, OptionsService optionsService,
+                                 ImageService imageService, BikePartsService bikePartsService) {
+        this.fullBikeService = fullBikeService;
+        this.designRuleService = designRuleService;
+        this.optionsService = optionsService;
+        this.imageService = imageService;
+        this.bikePartsService = bikePartsService;
+    }
+
+    /**
+     * Gets a snapshot of the passed-in design bike.
+     * The bike is normalized, and saved too if asked, as Update Bike would; the Options are updated from the ones sent, as Get Options would,
+     * or from new Options if none are sent.
+     * Parts that cannot be got for the bike are returned as Bike Parts holding the error, so the rest of the snapshot is still sent.
+     * Asking for the parts sets the bike up as Get All Parts does, before it is saved, so the bike sent back and saved is the one the parts are for,
+     * and records a request for each of them.
+     *
+     * @param combinedData the design bike and the Options the FE has
+     * @param save         whether to save the bike
+     * @param withParts    whether to get the bike's parts
+     * @return the Design Snapshot
+     */
+    public DesignSnapshot snapshot(CombinedData combinedData, boolean save, boolean withParts) {
+        infoLogger.log("Getting Design Snapshot for Bike!");
+        FullBike bike = combinedData.getBike();
+        if (withParts) {
+            if (bike.getFrame() != null) {
+                designRuleService.normalize(bike);
+            }
+            bikePartsService.normalize(bike);
+        }
+        if (save) {
+            bike = fullBikeService.updateBike(bike);
+        } else if (bike.getFrame() != null) {
+            designRuleService.normalize(bike);
+        }
+        if (withParts) {
+            bikePartsService.recordDemand(bike);
+        }
+        Supplier<FullBike> copies = copies(bike);
+        Options current = combinedData.getOptions() == null ? new Options() : combinedData.getOptions();
+        CompletableFuture<Options> options = CompletableFuture.supplyAsync(() -> {
+            CombinedData data = new CombinedData();
+            data.setBike(copies.get());
+            data.setOptions(current);
+            return optionsService.updateOptions(data);
+        });
+        CompletableFuture<byte[]> images = CompletableFuture.supplyAsync(() -> imageService.getImagesJson(copies.get()));
+        CompletableFuture<BikeParts> parts = withParts ? CompletableFuture.supplyAsync(() -> getParts(copies.get())) : null;
+        return new DesignSnapshot(bike, options, images, parts);
+    }
+
+    private BikeParts getParts(FullBike bike) {
+        try {
+            return bikePartsService.getBikePartsForBike(bike);
+        } catch (RuntimeException e) {
+            errorLogger.log("An Exception occurred from: getParts!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            BikeParts bikeParts = new BikeParts();
+            bikeParts.getErrorMessages().add(new Error("Parts", "getParts", "Parts could not be got for this bike"));
+            return bikeParts;
+        }
+    }
+
+    private static Supplier<FullBike> copies(FullBike bike) {
+        int key = BikeConfigKey.of(bike);
+        if (key == BikeConfigKey.NONE) {
+            FullBike snapshot = om.convertValue(bike, FullBike.class);
+            return () -> om.convertValue(snapshot, FullBike.class);
+        }
+        return () -> BikeConfigKey.toBike(key);
+    }
+}
@@ -1,21 +1,34 @@
 package com.homeapp.backend.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
 import com.homeapp.backend.models.bike.Frame;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.services.DesignRuleService.Field;
+import com.homeapp.backend.store.BikeStore;
+import com.homeapp.backend.store.MergePatch;
+import com.homeapp.backend.store.Page;
+import com.homeapp.backend.store.SimilarBikeIndex;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
@@ -30,41 +43,46 @@ import static com.homeapp.backend.models.bike.Enums.ShifterStyle.*;
 @Service
 public class FullBikeService {
 
-    private FullBike bike;
     private static final ObjectMapper om = new ObjectMapper();
-    private static final String JSON_BIKES_FILE = "src/main/resources/bikes.json";
     private static final String JSON_BIKES_FILE_BACKUP = "src/main/resources/bikes_backup.json";
-    private List<FullBike> bikeList;
+    private static final int PATCH_LOCK_STRIPES = 64;
+    private final BikeStore bikeStore;
+    private final DesignRuleService designRuleService;
+    private final SimilarBikeIndex similarBikes;
+    private final ReentrantLock[] patchLocks = new ReentrantLock[PATCH_LOCK_STRIPES];
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
     private final ErrorLogger errorLogger = new ErrorLogger();
-    private final ShimanoGroupsetService shimanoGroupsetService;
 
     /**
      * Instantiates a new Full bike service.
-     * This instantiation is Autowired to allow this Service class to use methods from the Shimano Groupset Service class and the Exception Handler.
-     * Sets the bike object on instance to a new FullBike so has no influence from previous calls.
-     * Sets the list of bikes on the instance to a fresh load of the bike file.
+     * Bikes are kept in the Bike Store, the JSON bike file or the database depending on storage.mode.
+     * The service holds no design bike of its own; a bike being designed is passed in with each call, or kept per session in the Design Session Store.
+     * Bikes are normalized by the Design Rule Service before they are saved.
+     * Saved bikes are also kept in a Similar Bike Index, built from the store here and changed along with it.
      *
-     * @param shimanoGroupsetService the Shimano Groupset service
+     * @param bikeStore         the bike store
+     * @param designRuleService the design rule service
+     * @param similarNeighbours the number of similar bikes the index keeps ready for each bike
      */
     @Autowired
-    public FullBikeService(@Lazy ShimanoGroupsetService shimanoGroupsetService) {
-        this.shimanoGroupsetService = shimanoGroupsetService;
-        this.bike = new FullBike();
-        this.bikeList = readBikesFile();
+    public FullBikeService(BikeStore bikeStore, DesignRuleService designRuleService,
+                           @Value("${bikes.similar.neighbours:10}") int similarNeighbours) {
+        this.bikeStore = bikeStore;
+        this.designRuleService = designRuleService;
+        this.similarBikes = new SimilarBikeIndex(similarNeighbours);
+        similarBikes.replaceAll(bikeStore.findAll());
+        for (int i = 0; i < PATCH_LOCK_STRIPES; i++) {
+            patchLocks[i] = new ReentrantLock();
+        }
     }
 
-    private List<FullBike> readBikesFile() {
-        infoLogger.log("Reading Bikes From File");
-        try {
-            File file = new File(JSON_BIKES_FILE);
-            return om.readValue(file, new TypeReference<>() {
-            });
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from method: readBikesFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
-        }
-        return new ArrayList<>();
+    /**
+     * Waits until every change made so far is on disk.
+     * Edits are acknowledged once queued, so callers that must know a change is durable call this afterwards.
+     */
+    public void flush() {
+        bikeStore.flush().join();
     }
 
     /**
@@ -85,138 +103,242 @@ public class FullBikeService {
 
     /**
      * Write bikes to normal bike file.
-     * Sets the bike list on the instance to the passed in list, to avoid an additional call to read the file.
+     * Replaces every bike on file with the passed in list, writing a fresh bike file rather than logging each bike.
      *
      * @param list the list
      */
     public void writeBikesToFile(List<FullBike> list) {
         infoLogger.log("Writing Bikes Back to File");
         try {
-            om.writeValue(new File(JSON_BIKES_FILE), list);
-            bikeList = list;
+            bikeStore.replaceAll(list);
+            similarBikes.replaceAll(list);
         } catch (IOException e) {
             errorLogger.log("An IOException occurred from method: writeBikesToFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
         }
     }
 
-    private List<FullBike> getBikeList() {
-        return bikeList;
+    private void saveBike(FullBike bike) {
+        try {
+            bikeStore.save(bike);
+            similarBikes.put(bike);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: saveBike!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+    }
+
+    private void removeBike(long bikeId) {
+        try {
+            bikeStore.delete(bikeId);
+            similarBikes.remove(bikeId);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: removeBike!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
     }
 
     /**
-     * Gets bike from the instance.
+     * Gets all full bikes on the instance.
+     * For efficiency this method does not read the file.
      *
-     * @return the bike on the instance.
+     * @return a list of full bikes.
      */
-    public FullBike getBike() {
-        return bike;
+    public List<FullBike> getAllFullBikes() {
+        List<FullBike> bikeList = bikeStore.findAll();
+        warnLogger.log("Getting list of all bikes, number returned: " + bikeList.size());
+        return bikeList;
     }
 
     /**
-     * Sets bike to this instance.
+     * Gets the version of the saved bikes, which goes up on every change to them.
      *
-     * @param bike the bike
+     * @return the bikes version
      */
-    public void setBike(FullBike bike) {
-        this.bike = bike;
+    public long getBikesVersion() {
+        return bikeStore.version();
     }
 
     /**
-     * Gets all full bikes on the instance.
-     * For efficiency this method does not read the file.
+     * Gets a page of bikes in ID order, optionally only those with a frame style and/or brake type.
+     * Filtering uses the Bike Store's indexes, so the work done scales with the page rather than with every bike.
      *
-     * @return a list of full bikes.
+     * @param after      the cursor, only bikes with a higher ID are returned
+     * @param limit      the most bikes to return, at least 1
+     * @param frameStyle the frame style to keep, null for any
+     * @param brakeType  the brake type to keep, null for any
+     * @return the page of bikes
      */
-    public List<FullBike> getAllFullBikes() {
-        List<FullBike> bikeList = getBikeList();
-        warnLogger.log("Getting list of all bikes, number returned: " + bikeList.size());
-        return bikeList;
+    public Page<FullBike> getFullBikesPage(long after, int limit, FrameStyle frameStyle, BrakeType brakeType) {
+        Page<FullBike> page = bikeStore.findPage(after, limit, frameStyle, brakeType);
+        warnLogger.log("Getting page of bikes after ID: " + after + ", number returned: " + page.items().size());
+        return page;
     }
 
     /**
      * Create and save a Full Bike to the file.
-     * Bike passed in is given a unique ID before getting saved to the file.
+     * Bike passed in is given a new unique ID, never one already used, before getting saved to the file.
      * Method does not check the existence of this bike, or check for similar bikes. It simply adds this bike to the list.
      *
      * @param bike the bike
      */
     public void create(FullBike bike) {
         infoLogger.log("Adding new bike!");
-        long newId = bikeList.size() + 1;
-        bike.setFullBikeId(newId);
-        bikeList.add(bike);
-        writeBikesToFile(bikeList);
+        bike.setFullBikeId(bikeStore.nextId());
+        saveBike(bike);
+    }
+
+    /**
+     * Saves a batch of imported bikes and waits until the batch is on disk.
+     * Each bike is normalized with the design rules, as an updated bike is, and replaces any bike on file with the same name;
+     * where bikes in the batch share a name, the last one is kept.
+     * Bikes keep their ID, replacing any bike with the same ID. Bikes without an ID are saved after the others and given new IDs,
+     * so a new ID can never be one another bike in the batch already has.
+     *
+     * @param bikes the bikes
+     * @throws IOException if the batch cannot be saved
+     */
+    public void importBikes(List<FullBike> bikes) throws IOException {
+        Map<String, FullBike> byName = new LinkedHashMap<>();
+        for (FullBike bike : bikes) {
+            designRuleService.normalize(bike);
+            byName.remove(bike.getBikeName());
+            byName.put(bike.getBikeName(), bike);
+        }
+        byName.values().forEach(this::removeBikeFromFile);
+        List<FullBike> numbered = byName.values().stream().filter(b -> b.getFullBikeId() > 0).toList();
+        List<FullBike> unnumbered = byName.values().stream().filter(b -> b.getFullBikeId() <= 0).toList();
+        if (!numbered.isEmpty()) {
+            bikeStore.saveAll(numbered).join();
+            numbered.forEach(similarBikes::put);
+        }
+        if (!unnumbered.isEmpty()) {
+            unnumbered.forEach(b -> b.setFullBikeId(bikeStore.nextId()));
+            bikeStore.saveAll(unnumbered).join();
+            unnumbered.forEach(similarBikes::put);
+        }
+        warnLogger.log("Imported batch of bikes, number saved: " + byName.size() + ", replaced by a later bike of the same name: " + (bikes.size() - byName.size()));
     }
 
     /**
      * Update bike full bike.
-     * Checks passed in bike meets with standards for each component.
+     * Normalizes the passed in bike with the design rules, so each component suits the others.
      * If bike with the same name is on file this bike is replaced.
+     * Only the change is logged, the bike file is not rewritten.
      *
      * @param bike the bike
      * @return the full bike
      */
     public FullBike updateBike(FullBike bike) {
         infoLogger.log("Updating bike on File!");
-        setBike(bike);
-        checkBikeShifters(bike);
-        checkFrameStyle(bike);
-        checkBrakeCompatibility(bike);
-        if (getBikeUsingName(bike.getBikeName()).isPresent()) {
-            removeBikeFromFile(bike.getBikeName());
+        designRuleService.normalize(bike);
+        removeBikeFromFile(bike);
+        if (bike.getFullBikeId() <= 0) {
+            bike.setFullBikeId(bikeStore.nextId());
         }
-        bikeList.add(bike);
-        writeBikesToFile(bikeList);
+        saveBike(bike);
         return bike;
     }
 
-    private void removeBikeFromFile(String bikeName) {
-        bikeList.removeIf(i -> i.getBikeName().equals(bikeName));
-        writeBikesToFile(bikeList);
-    }
-
-    private void checkBrakeCompatibility(FullBike bike) {
-        if (bike.getBrakeType().equals(RIM) || bike.getBrakeType().equals(NOT_REQUIRED)) {
-            bike.getFrame().setDiscBrakeCompatible(false);
-        } else {
-            bike.getFrame().setDiscBrakeCompatible(true);
+    /**
+     * Patches a bike on file with a JSON Merge Patch, e.g. {"brakeType": "HYDRAULIC_DISC"} or {"frame": {"frameStyle": "GRAVEL"}}.
+     * The bike is only normalized again if a design rule reads one of the changed fields. Only the fields that end up different are saved.
+     * Patches to the same bike run one at a time, from reading the bike to saving it, so two patches never both start from the same bike
+     * and overwrite each other, whichever store the bikes are kept in.
+     *
+     * @param bikeId the bike id
+     * @param patch  the JSON Merge Patch
+     * @return the patched bike, empty if there is no bike with that ID
+     * @throws IllegalArgumentException if the patch is not a JSON object, changes the bike ID, or does not leave a valid bike
+     */
+    public Optional<FullBike> patchBike(long bikeId, JsonNode patch) {
+        infoLogger.log("Patching bike on File! ID: " + bikeId + ", Patch: " + patch);
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A bike patch must be a JSON object");
+        }
+        if (patch.has("fullBikeId") && patch.get("fullBikeId").asLong() != bikeId) {
+            throw new IllegalArgumentException("The bike ID cannot be patched");
+        }
+        ReentrantLock lock = patchLocks[Long.hashCode(bikeId) & (PATCH_LOCK_STRIPES - 1)];
+        lock.lock();
+        try {
+            return patchStoredBike(bikeId, patch);
+        } finally {
+            lock.unlock();
         }
     }
 
-    private void checkFrameStyle(FullBike bike) {
-        if (bike.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
-            bike.getFrame().setRequiresFrontGearCable(false);
-            bike.getFrame().setRequiresRearGearCable(false);
-            bike.setNumberOfRearGears(1);
-            bike.setNumberOfFrontGears(1);
-        } else if (bike.getFrame().getFrameStyle().equals(GRAVEL)) {
-            bike.getFrame().setDiscBrakeCompatible(true);
-            bike.getFrame().setRequiresFrontGearCable(false);
-        } else if (bike.getFrame().getFrameStyle().equals(TOUR)) {
-            bike.getFrame().setDiscBrakeCompatible(true);
+    private Optional<FullBike> patchStoredBike(long bikeId, JsonNode patch) {
+        Optional<FullBike> stored = bikeStore.findById(bikeId);
+        if (stored.isEmpty()) {
+            warnLogger.log("No bike on File to patch with ID: " + bikeId);
+            return Optional.empty();
         }
-        if (bike.getNumberOfFrontGears() > 1) {
-            bike.getFrame().setRequiresFrontGearCable(true);
-        } else {
-            bike.getFrame().setRequiresFrontGearCable(false);
+        JsonNode before = om.valueToTree(stored.get());
+        FullBike bike;
+        try {
+            bike = om.treeToValue(MergePatch.apply(before, patch), FullBike.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("The patch does not leave a valid bike: " + e.getOriginalMessage());
         }
-        if (bike.getNumberOfRearGears() > 1) {
-            bike.getFrame().setRequiresRearGearCable(true);
-        } else {
-            bike.getFrame().setRequiresRearGearCable(false);
+        Set<String> changed = MergePatch.paths(MergePatch.diff(before, om.valueToTree(bike)));
+        if (changed.isEmpty()) {
+            return Optional.of(bike);
+        }
+        if (bike.getBikeName() == null || bike.getFrame() == null || bike.getFrame().getFrameStyle() == null
+                || bike.getBrakeType() == null || bike.getHandleBarType() == null) {
+            throw new IllegalArgumentException("The patch removes a field every bike needs");
+        }
+        if (designRuleService.affects(Field.fromPaths(changed))) {
+            designRuleService.normalize(bike);
+        }
+        if (changed.contains("bikeName")) {
+            removeBikeFromFile(bike);
+        }
+        ObjectNode delta = MergePatch.diff(before, om.valueToTree(bike));
+        if (delta.isEmpty()) {
+            return Optional.of(bike);
+        }
+        try {
+            bikeStore.patch(bike, delta);
+            similarBikes.put(bike);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: patchBike!!See error message: " + e.getMessage() + "!!From: " + getClass());
         }
+        warnLogger.log("Patched bike with ID: " + bikeId + ", fields saved: " + MergePatch.paths(delta));
+        return Optional.of(bike);
     }
 
-    private void checkBikeShifters(FullBike bike) {
-        if (bike.getFrame().isRequiresFrontGearCable() || bike.getFrame().isRequiresRearGearCable()) {
-            if (bike.getHandleBarType().equals(DROPS) || bike.getHandleBarType().equals(FLARE)) {
-                bike.setShifterStyle(STI);
-            } else if (bike.getHandleBarType().equals(FLAT)) {
-                bike.setShifterStyle(TRIGGER);
-            }
-        } else {
-            bike.setShifterStyle(NONE);
-        }
+    private void removeBikeFromFile(FullBike bike) {
+        bikeStore.findAllByName(bike.getBikeName()).stream()
+                .filter(i -> i.getFullBikeId() != bike.getFullBikeId())
+                .forEach(i -> removeBike(i.getFullBikeId()));
+    }
+
+    /**
+     * Gets the saved bikes most like the passed-in bike, most alike first.
+     * The bike does not need to be saved; if it is, it is left out of its own list.
+     *
+     * @param bike  the bike
+     * @param limit the most bikes to return
+     * @return the similar bikes
+     */
+    public List<FullBike> getSimilarBikes(FullBike bike, int limit) {
+        List<FullBike> similar = similarBikes.nearest(bike, limit).stream()
+                .map(bikeStore::findById)
+                .flatMap(Optional::stream)
+                .toList();
+        warnLogger.log("Getting bikes similar to: " + bike.getBikeName() + ", number returned: " + similar.size());
+        return similar;
+    }
+
+    /**
+     * Gets why the passed-in bike cannot be built as designed.
+     *
+     * @param bike the bike
+     * @return the design rule checks the bike fails, empty if it can be built
+     */
+    public List<String> validateBike(FullBike bike) {
+        List<String> violations = designRuleService.validate(bike);
+        warnLogger.log("Validated bike: " + bike.getBikeName() + ", checks failed: " + violations);
+        return violations;
     }
 
     /**
@@ -224,19 +346,20 @@ public class FullBikeService {
      * Checks there isn't currently a "new bike" using hardcoded bike name, returns bike if there is one.
      * Creates new bike and sets all variable to their version of "not selected".
      * Adds bike to list and returns it.
+     * Each caller gets its own copy of the bike, so a session designing it never changes the bike on file or another session's bike.
      *
-     * @return the full bike
+     * @return a copy of the full bike
      */
     public FullBike startNewBike() {
         infoLogger.log("Starting new bike, service method.");
         Optional<FullBike> b = getBikeUsingName("Your Custom Bike");
         if (b.isPresent()) {
             warnLogger.log("Bike with that name already exists on DB.");
-            return b.get();
+            return new FullBike(b.get());
         } else {
             Frame frame = new Frame();
             frame.setFrameStyle(NONE_SELECTED);
-            bike = new FullBike();
+            FullBike bike = new FullBike();
             bike.setBikeName("Your Custom Bike");
             bike.setFrame(frame);
             bike.setBrakeType(NO_SELECTION);
@@ -247,7 +370,7 @@ public class FullBikeService {
             bike.setNumberOfRearGears(0);
             bike.setWheelPreference("Cheap");
             create(bike);
-            return bike;
+            return new FullBike(bike);
         }
     }
 
@@ -259,9 +382,7 @@ public class FullBikeService {
      */
     public Optional<FullBike> getBikeUsingName(String bikeName) {
         warnLogger.log("Getting single bike with bike name: " + bikeName);
-        return bikeList.stream()
-                .filter(item -> item.getBikeName().equals(bikeName))
-                .findFirst();
+        return bikeStore.findByName(bikeName);
     }
 
     /**
@@ -271,8 +392,7 @@ public class FullBikeService {
      */
     public void deleteBike(long bikeId) {
         warnLogger.log("Deleting Bike with ID: " + bikeId);
-        bikeList.removeIf(i -> i.getFullBikeId() == (bikeId));
-        writeBikesToFile(bikeList);
+        removeBike(bikeId);
     }
 
     /**
@@ -281,6 +401,11 @@ public class FullBikeService {
     public void deleteAllBikes() {
         infoLogger.log("Deleting ALL BIKES on File");
         warnLogger.log("Deleting ALL BIKES on File");
-        writeBikesToFile(new ArrayList<>());
+        try {
+            bikeStore.clear();
+            similarBikes.replaceAll(List.of());
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: deleteAllBikes!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
     }
 }
\ No newline at end of file
@@ -1,68 +1,183 @@
 package com.homeapp.backend.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.bike.Image;
+import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
-import com.homeapp.backend.models.logger.WarnLogger;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import static com.homeapp.backend.models.bike.Enums.BrakeType.NOT_REQUIRED;
 import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.SINGLE_SPEED;
 import static com.homeapp.backend.models.bike.Enums.HandleBarType.FLAT;
 
 /**
  * The Image Service Class.
+ * <p>
+ * The images for a bike follow from its frame style, brakes, handlebars, number of front and rear gears and whether it has cheap wheels.
+ * Every combination of those is worked out once, when the service is created, into a table of unmodifiable image lists in place order,
+ * with each distinct image made once and shared between the lists. Gear counts that all give the same images share an entry.
+ * Getting the images for a bike is then a table lookup, and the JSON of each entry is written the first time it is asked for and kept.
+ * The shared images must not be changed.
  */
 @Service
 public class ImageService {
+
+    private static final ObjectMapper om = new ObjectMapper();
+    private static final FrameStyle[] FRAME_STYLES = FrameStyle.values();
+    private static final BrakeType[] BRAKE_TYPES = BrakeType.values();
+    private static final HandleBarType[] HANDLE_BAR_TYPES = HandleBarType.values();
+    /**
+     * One number of front gears for each set of front gear counts that give the same images.
+     */
+    private static final long[] FRONT_GEARS = {0, 1, 2, 3, 4};
+    /**
+     * One number of rear gears for each set of rear gear counts that give the same images.
+     */
+    private static final long[] REAR_GEARS = {0, 1, 2, 9, 10, 11, 12, 13};
     private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final List<List<Image>> images;
+    private final AtomicReferenceArray<byte[]> imagesJson;
+
+    /**
+     * Instantiates a new Image Service.
+     * Works out the images for every combination of the fields they follow from.
+     */
+    public ImageService() {
+        int size = (FRAME_STYLES.length + 1) * (BRAKE_TYPES.length + 1) * (HANDLE_BAR_TYPES.length + 1) * FRONT_GEARS.length * REAR_GEARS.length * 2;
+        List<List<Image>> table = new ArrayList<>(size);
+        Map<String, Image> distinct = new HashMap<>();
+        for (int f = 0; f <= FRAME_STYLES.length; f++) {
+            for (int b = 0; b <= BRAKE_TYPES.length; b++) {
+                for (int h = 0; h <= HANDLE_BAR_TYPES.length; h++) {
+                    for (long front : FRONT_GEARS) {
+                        for (long rear : REAR_GEARS) {
+                            for (boolean cheap : new boolean[]{false, true}) {
+                                List<Image> list = chooseImages(valueOrNull(FRAME_STYLES, f), valueOrNull(BRAKE_TYPES, b), valueOrNull(HANDLE_BAR_TYPES, h),
+                                        front, rear, cheap);
+                                table.add(list.stream()
+                                        .map(i -> distinct.computeIfAbsent(i.getPlace() + "|" + i.getSrc() + "|" + i.getAltText(), k -> i))
+                                        .sorted(Comparator.comparingLong(Image::getPlace))
+                                        .toList());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        this.images = List.copyOf(table);
+        this.imagesJson = new AtomicReferenceArray<>(size);
+        infoLogger.log("Image lists worked out for " + size + " bike configurations, from " + distinct.size() + " distinct images");
+    }
 
     /**
      * Gets images for passed-in bike.
-     * Method runs the get Image calls in parallel to improve performance.
-     * Each component has a separate method for setting the correct Image information, to keep the logic in this method to a minimum.
+     * The list is looked up, not built, and is in place order; neither it nor its images may be changed.
      *
      * @param b the Full Bike
      * @return the list of images
      */
     public List<Image> getImages(FullBike b) {
-        List<Image> imageList = new ArrayList<>();
         infoLogger.log("Getting Images for Bike!");
-        CompletableFuture<Void> frameImageFuture = CompletableFuture.runAsync(() -> imageList.add(chooseFrameImage(b)));
-        CompletableFuture<Void> barImageFuture = CompletableFuture.runAsync(() -> imageList.add(chooseBarImage(b)));
-        CompletableFuture<Void> brakeImageFuture = CompletableFuture.runAsync(() -> imageList.add(chooseBrakeImage(b)));
-        if (b.getHandleBarType().equals(FLAT) || b.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
-            if (b.getNumberOfRearGears() > 1) {
-                imageList.add(chooseTriggerShiftersImage(b));
+        return images.get(index(b));
+    }
+
+    /**
+     * Gets the images for the passed-in bike as JSON, written once per entry of the table and then reused.
+     *
+     * @param b the Full Bike
+     * @return the JSON bytes of the list of images
+     */
+    public byte[] getImagesJson(FullBike b) {
+        int index = index(b);
+        byte[] json = imagesJson.get(index);
+        if (json == null) {
+            try {
+                json = om.writeValueAsBytes(images.get(index));
+            } catch (JsonProcessingException e) {
+                errorLogger.log("A JsonProcessingException occurred from: getImagesJson!!See error message: " + e.getMessage() + "!!From: " + getClass());
+                throw new UncheckedIOException(e);
+            }
+            imagesJson.compareAndSet(index, null, json);
+        }
+        return json;
+    }
+
+    private static int index(FullBike b) {
+        FrameStyle frameStyle = b.getFrame() == null ? null : b.getFrame().getFrameStyle();
+        int index = ordinalOrLast(frameStyle, FRAME_STYLES.length);
+        index = index * (BRAKE_TYPES.length + 1) + ordinalOrLast(b.getBrakeType(), BRAKE_TYPES.length);
+        index = index * (HANDLE_BAR_TYPES.length + 1) + ordinalOrLast(b.getHandleBarType(), HANDLE_BAR_TYPES.length);
+        index = index * FRONT_GEARS.length + frontGearsCode(b.getNumberOfFrontGears());
+        index = index * REAR_GEARS.length + rearGearsCode(b.getNumberOfRearGears());
+        return index * 2 + ("Cheap".equals(b.getWheelPreference()) ? 1 : 0);
+    }
+
+    private static int frontGearsCode(long gears) {
+        return gears <= 0 ? 0 : (int) Math.min(gears, 4);
+    }
+
+    private static int rearGearsCode(long gears) {
+        if (gears <= 1) {
+            return gears <= 0 ? 0 : 1;
+        }
+        return gears < 9 ? 2 : (int) Math.min(gears, 13) - 6;
+    }
+
+    private static int ordinalOrLast(Enum<?> value, int last) {
+        return value == null ? last : value.ordinal();
+    }
+
+    private static <E> E valueOrNull(E[] values, int ordinal) {
+        return ordinal < values.length ? values[ordinal] : null;
+    }
+
+    private static List<Image> chooseImages(FrameStyle frameStyle, BrakeType brakeType, HandleBarType handleBarType, long front, long rear, boolean cheap) {
+        List<Image> imageList = new ArrayList<>();
+        imageList.add(chooseFrameImage(frameStyle, brakeType));
+        imageList.add(chooseBarImage(handleBarType));
+        imageList.add(chooseBrakeImage(brakeType));
+        if (handleBarType == FLAT || frameStyle == SINGLE_SPEED) {
+            if (rear > 1) {
+                imageList.add(chooseTriggerShiftersImage(rear));
             }
             imageList.add(new Image(4, "Brake-Levers", "brake_lever.png", "Brake Levers"));
         } else {
-            imageList.add(chooseSTIShiftersImage(b));
+            imageList.add(chooseSTIShiftersImage(rear));
         }
-        CompletableFuture<Void> chainImageFuture = CompletableFuture.runAsync(() -> imageList.add(chooseChainImage(b)));
-        CompletableFuture<Void> cassetteImageFuture = CompletableFuture.runAsync(() -> imageList.add(chooseCassetteImage(b)));
-        if (b.getNumberOfRearGears() > 1) {
-            imageList.add(chooseRearDerailleurImage(b));
+        imageList.add(chooseChainImage(rear));
+        imageList.add(chooseCassetteImage(rear));
+        if (rear > 1) {
+            imageList.add(chooseRearDerailleurImage(rear));
         }
-        imageList.add(chooseChainsetImage(b));
-        if (b.getNumberOfFrontGears() > 1) {
-            imageList.add(chooseFrontDerailleurImage(b));
+        imageList.add(chooseChainsetImage(front));
+        if (front > 1) {
+            imageList.add(chooseFrontDerailleurImage(front));
         }
-        CompletableFuture<Void> wheelImageFuture = CompletableFuture.runAsync(() -> imageList.add(chooseWheelImage(b)));
-        CompletableFuture.allOf(frameImageFuture, barImageFuture, brakeImageFuture, chainImageFuture, cassetteImageFuture, wheelImageFuture).join();
-        warnLogger.log("Bike: " + b);
-        warnLogger.log("Returning List: " + imageList);
+        imageList.add(chooseWheelImage(frameStyle, brakeType, cheap));
         return imageList;
     }
 
-    private Image chooseFrameImage(FullBike b) {
+    private static Image chooseFrameImage(FrameStyle frameStyle, BrakeType brakeType) {
         Image i = new Image(0, "Frame", "no_image.png", "No Frame Selected");
-        switch (b.getFrame().getFrameStyle()) {
+        if (frameStyle == null) {
+            return i;
+        }
+        switch (frameStyle) {
             case TOUR -> {
                 i.setSrc("tour_xxx.png");
                 i.setAltText("Tour Frame xxx");
@@ -84,7 +199,7 @@ public class ImageService {
                 i.setAltText("No Frame Selected");
             }
         }
-        if (b.getBrakeType().getName().equals("Rim")) {
+        if (brakeType == RIM) {
             i.setSrc(i.getSrc().replace("xxx", "rim"));
             i.setAltText(i.getAltText().replace("xxx", "Rim"));
         } else {
@@ -94,9 +209,12 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseBarImage(FullBike b) {
+    private static Image chooseBarImage(HandleBarType handleBarType) {
         Image i = new Image(1, "Bars", "no_image.png", "No Bars Selected");
-        switch (b.getHandleBarType()) {
+        if (handleBarType == null) {
+            return i;
+        }
+        switch (handleBarType) {
             case FLARE -> {
                 i.setSrc("flared_bars.png");
                 i.setAltText("Flared Bars");
@@ -121,12 +239,12 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseBrakeImage(FullBike b) {
+    private static Image chooseBrakeImage(BrakeType brakeType) {
         Image i = new Image(2, "Brakes", "shimano_xxx.png", "Shimano xxx Brakes");
-        if (b.getBrakeType().getName().equals("NOT_REQUIRED")) {
+        if (brakeType == NOT_REQUIRED) {
             i.setSrc("no_image.png");
             i.setAltText("No Brakes Required! Brave ->) ");
-        } else if (b.getBrakeType().getName().equals("Rim")) {
+        } else if (brakeType == RIM) {
             i.setSrc(i.getSrc().replace("xxx", "rim"));
             i.setAltText(i.getAltText().replace("xxx", "Rim"));
         } else {
@@ -136,9 +254,9 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseSTIShiftersImage(FullBike b) {
+    private static Image chooseSTIShiftersImage(long rear) {
         Image i = new Image(3, "Shifters", "no_image.png", "No Gears Selected");
-        switch ((int) b.getNumberOfRearGears()) {
+        switch ((int) rear) {
             case 1 -> {
                 i.setSrc("1_STI.png");
                 i.setAltText("Single Speed STI");
@@ -167,9 +285,9 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseTriggerShiftersImage(FullBike b) {
+    private static Image chooseTriggerShiftersImage(long rear) {
         Image i = new Image(3, "Shifters", "no_image.png", "No Gears Selected");
-        switch ((int) b.getNumberOfRearGears()) {
+        switch ((int) rear) {
             case 9 -> {
                 i.setSrc("9_trigger.png");
                 i.setAltText("Nine Speed STI");
@@ -194,9 +312,9 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseRearDerailleurImage(FullBike b) {
+    private static Image chooseRearDerailleurImage(long rear) {
         Image i = new Image(5, "Rear-Dearailleur", "no_image.png", "No Gears Selected");
-        switch ((int) b.getNumberOfRearGears()) {
+        switch ((int) rear) {
             case 9 -> {
                 i.setSrc("9_derailleur.png");
                 i.setAltText("Nine Speed Derailleur");
@@ -221,9 +339,9 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseChainImage(FullBike b) {
+    private static Image chooseChainImage(long rear) {
         Image i = new Image(6, "Chain", "no_image.png", "No Gears Selected");
-        switch ((int) b.getNumberOfRearGears()) {
+        switch ((int) rear) {
             case 1 -> {
                 i.setSrc("1_chain.png");
                 i.setAltText("Single Speed Chain");
@@ -252,9 +370,9 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseCassetteImage(FullBike b) {
+    private static Image chooseCassetteImage(long rear) {
         Image i = new Image(7, "Cassette", "no_image.png", "No Gears Selected");
-        switch ((int) b.getNumberOfRearGears()) {
+        switch ((int) rear) {
             case 1 -> {
                 i.setSrc("1_cassette.png");
                 i.setAltText("Single Speed Cog");
@@ -283,9 +401,9 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseChainsetImage(FullBike b) {
+    private static Image chooseChainsetImage(long front) {
         Image i = new Image(8, "Chain Set", "no_image.png", "No Gears Selected");
-        switch ((int) b.getNumberOfFrontGears()) {
+        switch ((int) front) {
             case 1 -> {
                 i.setSrc("1_chainset.png");
                 i.setAltText("Single Speed Chainset");
@@ -306,9 +424,9 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseFrontDerailleurImage(FullBike b) {
+    private static Image chooseFrontDerailleurImage(long front) {
         Image i = new Image(9, "Front Derailleur", "no_image.png", "No Gears Selected");
-        switch ((int) b.getNumberOfFrontGears()) {
+        switch ((int) front) {
             case 1 -> {
                 i.setSrc("1_derailleur.png");
                 i.setAltText("Chain Catch - Front");
@@ -329,11 +447,11 @@ public class ImageService {
         return i;
     }
 
-    private Image chooseWheelImage(FullBike b) {
+    private static Image chooseWheelImage(FrameStyle frameStyle, BrakeType brakeType, boolean cheap) {
         Image i = new Image(10, "Wheels", "no_image.png", "No Wheel Preference");
-        if (!b.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
-            if (!b.getBrakeType().equals(RIM)) {
-                if (b.getWheelPreference().equals("Cheap")) {
+        if (frameStyle != SINGLE_SPEED) {
+            if (brakeType != RIM) {
+                if (cheap) {
                     i.setSrc("cheap_disc_wheels_g.png");
                     i.setAltText("Cheap Disc Brake Wheels");
                 } else {
@@ -341,7 +459,7 @@ public class ImageService {
                     i.setAltText("Expensive Disc Brake Wheels");
                 }
             } else {
-                if (b.getWheelPreference().equals("Cheap")) {
+                if (cheap) {
                     i.setSrc("cheap_rim_wheels_g.png");
                     i.setAltText("Cheap Rim Brake Wheels");
                 } else {
@@ -350,7 +468,7 @@ public class ImageService {
                 }
             }
         } else {
-            if (b.getWheelPreference().equals("Cheap")) {
+            if (cheap) {
                 i.setSrc("cheap_ss_wheels.png");
                 i.setAltText("Cheap Single Speed Wheels");
             } else {
@@ -360,4 +478,4 @@ public class ImageService {
         }
         return i;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,391 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
+import com.homeapp.backend.models.bike.Enums.ShifterStyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.*;
+
+/**
+ * The Option Constraints.
+ * The bike design space as a constraint model: each dimension of a design has a small domain of values, held as a bitset in an int,
+ * and each rule says which values of one dimension go with each value of another, held as a mask over the other dimension.
+ * The values of a dimension still open to a partial design are its whole domain ANDed with the mask of every value already chosen.
+ * <p>
+ * Every complete design that passes all the rules is listed once, when the class loads, and each value keeps a bitset of the designs
+ * it is part of. A partial design is a dead end, no choice of the values left completes it, when the bitsets of its chosen values
+ * have no design in common.
+ * <p>
+ * The one gear of a single speed is a value of its own in the front gears, apart from the one chainring of a geared bike, as the bars
+ * and brakes that go with each differ. Both are 1 on a bike.
+ */
+public final class OptionConstraints {
+
+    /**
+     * The value index of a dimension not chosen yet.
+     */
+    public static final int NOT_CHOSEN = -1;
+    /**
+     * The value index of a dimension set to a value outside its domain.
+     */
+    public static final int OUT_OF_DOMAIN = -2;
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+    private static final int[][][] MASKS = new int[DIMENSIONS.length][DIMENSIONS.length][];
+    private static final boolean[][] CONSTRAINED = new boolean[DIMENSIONS.length][DIMENSIONS.length];
+    private static final List<?>[][] LISTS = new List<?>[DIMENSIONS.length][];
+    private static final long[][][] SUPPORT = new long[DIMENSIONS.length][][];
+    private static final int[][] INDEXES = new int[DIMENSIONS.length][];
+    private static final int MOST_GEARS = 15;
+    private static final int[][] DESIGNS_BY_INDEX;
+    private static final int DESIGNS;
+
+    /**
+     * A dimension of a design, with its domain in the order its values are offered on the FE.
+     */
+    public enum Dimension {
+        FRAME_STYLE(NONE_SELECTED, SINGLE_SPEED, ROAD, GRAVEL, TOUR),
+        BAR_STYLE(NOT_SELECTED, DROPS, BULLHORNS, FLARE, FLAT),
+        BRAKE_STYLE(NO_SELECTION, RIM, MECHANICAL_DISC, HYDRAULIC_DISC, NOT_REQUIRED),
+        FRONT_GEARS(0L, Gearing.SINGLE_SPEED, 1L, 2L, 3L),
+        REAR_GEARS(0L, 1L, 9L, 10L, 11L),
+        WHEEL_PREFERENCE(null, "Cheap", "Expensive");
+
+        private final Object notChosen;
+        private final Object[] values;
+
+        Dimension(Object notChosen, Object... values) {
+            this.notChosen = notChosen;
+            this.values = values;
+        }
+
+        /**
+         * Gets the domain of the dimension, every value set.
+         *
+         * @return the domain
+         */
+        public int all() {
+            return (1 << values.length) - 1;
+        }
+
+        /**
+         * Gets the value at an index of the domain.
+         *
+         * @param index the index
+         * @return the value, as set on a bike
+         */
+        public Object value(int index) {
+            return values[index];
+        }
+
+        /**
+         * Gets the index of a value in the domain.
+         *
+         * @param value the value, as set on a bike
+         * @return the index, NOT_CHOSEN if the value means nothing is chosen yet, OUT_OF_DOMAIN if it is not in the domain
+         */
+        public int indexOf(Object value) {
+            if (value == null || value.equals(notChosen)) {
+                return NOT_CHOSEN;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].equals(value)) {
+                    return i;
+                }
+            }
+            return OUT_OF_DOMAIN;
+        }
+    }
+
+    /**
+     * The gearing of a bike with no gears to choose, kept apart from the gear numbers a geared bike has.
+     */
+    public enum Gearing {
+        SINGLE_SPEED
+    }
+
+    static {
+        for (Dimension a : DIMENSIONS) {
+            for (Dimension b : DIMENSIONS) {
+                MASKS[a.ordinal()][b.ordinal()] = new int[a.values.length];
+                Arrays.fill(MASKS[a.ordinal()][b.ordinal()], b.all());
+            }
+        }
+        //once any pair of values of two dimensions is allowed, every pair of them not allowed is ruled out
+        allow(Dimension.FRAME_STYLE, SINGLE_SPEED, Dimension.BAR_STYLE, DROPS, BULLHORNS, FLAT);
+        allow(Dimension.FRAME_STYLE, ROAD, Dimension.BAR_STYLE, DROPS);
+        allow(Dimension.FRAME_STYLE, GRAVEL, Dimension.BAR_STYLE, DROPS, FLARE);
+        allow(Dimension.FRAME_STYLE, TOUR, Dimension.BAR_STYLE, DROPS, FLARE, FLAT);
+
+        allow(Dimension.FRAME_STYLE, SINGLE_SPEED, Dimension.BRAKE_STYLE, RIM, NOT_REQUIRED);
+        for (FrameStyle geared : List.of(ROAD, GRAVEL, TOUR)) {
+            allow(Dimension.FRAME_STYLE, geared, Dimension.BRAKE_STYLE, RIM, MECHANICAL_DISC, HYDRAULIC_DISC);
+            allow(Dimension.FRAME_STYLE, geared, Dimension.REAR_GEARS, 9L, 10L, 11L);
+        }
+
+        //a single speed has one gear, whatever its bars
+        allow(Dimension.FRAME_STYLE, SINGLE_SPEED, Dimension.FRONT_GEARS, Gearing.SINGLE_SPEED);
+        allow(Dimension.FRAME_STYLE, SINGLE_SPEED, Dimension.REAR_GEARS, 1L);
+        allow(Dimension.FRAME_STYLE, ROAD, Dimension.FRONT_GEARS, 2L);
+        //could not find active site for 1 by options
+        allow(Dimension.FRAME_STYLE, GRAVEL, Dimension.FRONT_GEARS, 2L);
+        allow(Dimension.FRAME_STYLE, TOUR, Dimension.FRONT_GEARS, 1L, 2L, 3L);
+
+        //could not find active site for 1 by components, so a geared bike only gets a 1 by with flat bars
+        allow(Dimension.BAR_STYLE, DROPS, Dimension.FRONT_GEARS, Gearing.SINGLE_SPEED, 2L, 3L);
+        allow(Dimension.BAR_STYLE, BULLHORNS, Dimension.FRONT_GEARS, Gearing.SINGLE_SPEED);
+        allow(Dimension.BAR_STYLE, FLARE, Dimension.FRONT_GEARS, 2L, 3L);
+        allow(Dimension.BAR_STYLE, FLAT, Dimension.FRONT_GEARS, Gearing.SINGLE_SPEED, 1L);
+        allow(Dimension.BAR_STYLE, DROPS, Dimension.REAR_GEARS, 1L, 9L, 10L, 11L);
+        allow(Dimension.BAR_STYLE, BULLHORNS, Dimension.REAR_GEARS, 1L);
+        allow(Dimension.BAR_STYLE, FLARE, Dimension.REAR_GEARS, 9L, 10L, 11L);
+        allow(Dimension.BAR_STYLE, FLAT, Dimension.REAR_GEARS, 1L, 10L, 11L);
+
+        for (BrakeType cable : List.of(RIM, MECHANICAL_DISC, NOT_REQUIRED)) {
+            allow(Dimension.BRAKE_STYLE, cable, Dimension.FRONT_GEARS, Gearing.SINGLE_SPEED, 1L, 2L, 3L);
+        }
+        allow(Dimension.BRAKE_STYLE, HYDRAULIC_DISC, Dimension.FRONT_GEARS, 1L);
+
+        for (Dimension d : DIMENSIONS) {
+            if (d.notChosen instanceof Enum<?> e) {
+                INDEXES[d.ordinal()] = new int[e.getDeclaringClass().getEnumConstants().length];
+            } else if (d.notChosen instanceof Long) {
+                INDEXES[d.ordinal()] = new int[MOST_GEARS + 1];
+            } else {
+                continue;
+            }
+            Arrays.fill(INDEXES[d.ordinal()], OUT_OF_DOMAIN);
+            INDEXES[d.ordinal()][key(d.notChosen)] = NOT_CHOSEN;
+            for (int i = 0; i < d.values.length; i++) {
+                if (d.values[i].getClass() == d.notChosen.getClass()) {
+                    INDEXES[d.ordinal()][key(d.values[i])] = i;
+                }
+            }
+        }
+
+        for (Dimension d : DIMENSIONS) {
+            LISTS[d.ordinal()] = new List<?>[d.all() + 1];
+            for (int mask = 0; mask <= d.all(); mask++) {
+                List<Object> values = new ArrayList<>();
+                for (int i = 0; i < d.values.length; i++) {
+                    Object value = d.values[i] == Gearing.SINGLE_SPEED ? (Object) 1L : d.values[i] instanceof Enum<?> e ? name(e) : d.values[i];
+                    if ((mask & 1 << i) != 0 && !values.contains(value)) {
+                        values.add(value);
+                    }
+                }
+                LISTS[d.ordinal()][mask] = List.copyOf(values);
+            }
+        }
+
+        List<int[]> designs = new ArrayList<>();
+        addDesigns(new int[DIMENSIONS.length], 0, designs);
+        DESIGNS_BY_INDEX = designs.toArray(new int[0][]);
+        DESIGNS = designs.size();
+        for (Dimension d : DIMENSIONS) {
+            SUPPORT[d.ordinal()] = new long[d.values.length][(DESIGNS + 63) / 64];
+        }
+        for (int i = 0; i < DESIGNS; i++) {
+            int[] design = designs.get(i);
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                SUPPORT[d][design[d]][i >> 6] |= 1L << i;
+            }
+        }
+    }
+
+    private OptionConstraints() {
+    }
+
+    /**
+     * Gets the value index a bike has chosen in each dimension.
+     * The one front gear of a single speed frame is its own value, not a geared 1 by.
+     *
+     * @param bike the bike
+     * @return the value indexes, by dimension ordinal, NOT_CHOSEN or OUT_OF_DOMAIN where there is no index
+     */
+    public static int[] chosen(FullBike bike) {
+        int[] chosen = new int[DIMENSIONS.length];
+        chosen[Dimension.FRAME_STYLE.ordinal()] = index(Dimension.FRAME_STYLE, bike.getFrame() == null ? null : bike.getFrame().getFrameStyle());
+        chosen[Dimension.BAR_STYLE.ordinal()] = index(Dimension.BAR_STYLE, bike.getHandleBarType());
+        chosen[Dimension.BRAKE_STYLE.ordinal()] = index(Dimension.BRAKE_STYLE, bike.getBrakeType());
+        chosen[Dimension.FRONT_GEARS.ordinal()] = bike.getFrame() != null && bike.getFrame().getFrameStyle() == SINGLE_SPEED && bike.getNumberOfFrontGears() == 1
+                ? Dimension.FRONT_GEARS.indexOf(Gearing.SINGLE_SPEED) : index(Dimension.FRONT_GEARS, bike.getNumberOfFrontGears());
+        chosen[Dimension.REAR_GEARS.ordinal()] = index(Dimension.REAR_GEARS, bike.getNumberOfRearGears());
+        chosen[Dimension.WHEEL_PREFERENCE.ordinal()] = Dimension.WHEEL_PREFERENCE.indexOf(bike.getWheelPreference());
+        return chosen;
+    }
+
+    /**
+     * Gets the values of one dimension that go with everything chosen in the other dimensions.
+     * What is chosen in the dimension itself is ignored, so a choice can always be changed.
+     *
+     * @param dimension the dimension
+     * @param chosen    the value indexes chosen, by dimension ordinal
+     * @return the domain left
+     */
+    public static int domain(Dimension dimension, int[] chosen) {
+        int x = dimension.ordinal();
+        int domain = dimension.all();
+        for (int y = 0; y < chosen.length; y++) {
+            if (y != x && chosen[y] >= 0) {
+                domain &= MASKS[y][x][chosen[y]];
+            }
+        }
+        return domain;
+    }
+
+    /**
+     * Gets whether a partial design is a dead end, with no complete design that keeps everything chosen.
+     * A value outside its dimension's domain is always a dead end.
+     *
+     * @param chosen the value indexes chosen, by dimension ordinal
+     * @return true if the design cannot be completed
+     */
+    public static boolean isDeadEnd(int[] chosen) {
+        for (int c : chosen) {
+            if (c == OUT_OF_DOMAIN) {
+                return true;
+            }
+        }
+        for (int w = 0; w < (DESIGNS + 63) / 64; w++) {
+            long common = -1L;
+            for (int d = 0; d < chosen.length; d++) {
+                if (chosen[d] >= 0) {
+                    common &= SUPPORT[d][chosen[d]][w];
+                }
+            }
+            if (common != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the names of the values in a domain of an enum dimension, in the order they are offered.
+     * The same unmodifiable list is returned for the same domain every time.
+     *
+     * @param dimension the dimension
+     * @param domain    the domain
+     * @return the names
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> names(Dimension dimension, int domain) {
+        return (List<String>) LISTS[dimension.ordinal()][domain];
+    }
+
+    /**
+     * Gets the values in a domain of a gear dimension, in the order they are offered.
+     * The same unmodifiable list is returned for the same domain every time.
+     *
+     * @param dimension the dimension
+     * @param domain    the domain
+     * @return the numbers of gears
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Long> numbers(Dimension dimension, int domain) {
+        return (List<Long>) LISTS[dimension.ordinal()][domain];
+    }
+
+    /**
+     * Gets how many complete designs pass all the rules.
+     *
+     * @return the number of designs
+     */
+    public static int designs() {
+        return DESIGNS;
+    }
+
+    /**
+     * Gets one of the complete designs that pass all the rules.
+     *
+     * @param index the index of the design, from 0 to the number of designs
+     * @return the value index chosen in each dimension, by dimension ordinal
+     */
+    public static int[] design(int index) {
+        return DESIGNS_BY_INDEX[index].clone();
+    }
+
+    /**
+     * Makes a bike of one of the complete designs, with a Shimano groupset and no shifter style, ready to be normalized.
+     *
+     * @param design the value index chosen in each dimension, by dimension ordinal
+     * @return the bike
+     */
+    public static FullBike toBike(int[] design) {
+        FrameStyle frameStyle = (FrameStyle) Dimension.FRAME_STYLE.value(design[Dimension.FRAME_STYLE.ordinal()]);
+        Object gearing = Dimension.FRONT_GEARS.value(design[Dimension.FRONT_GEARS.ordinal()]);
+        long front = gearing == Gearing.SINGLE_SPEED ? 1L : (Long) gearing;
+        long rear = (Long) Dimension.REAR_GEARS.value(design[Dimension.REAR_GEARS.ordinal()]);
+        FullBike bike = new FullBike(frameStyle.getName() + " " + front + "x" + rear, new Frame(frameStyle, false, false, false),
+                (BrakeType) Dimension.BRAKE_STYLE.value(design[Dimension.BRAKE_STYLE.ordinal()]), SHIMANO,
+                (HandleBarType) Dimension.BAR_STYLE.value(design[Dimension.BAR_STYLE.ordinal()]), front, rear, ShifterStyle.NONE);
+        bike.setWheelPreference((String) Dimension.WHEEL_PREFERENCE.value(design[Dimension.WHEEL_PREFERENCE.ordinal()]));
+        return bike;
+    }
+
+    private static void allow(Dimension a, Object valueA, Dimension b, Object... valuesB) {
+        int x = a.ordinal();
+        int y = b.ordinal();
+        if (!CONSTRAINED[x][y]) {
+            CONSTRAINED[x][y] = true;
+            CONSTRAINED[y][x] = true;
+            Arrays.fill(MASKS[x][y], 0);
+            Arrays.fill(MASKS[y][x], 0);
+        }
+        int i = a.indexOf(valueA);
+        for (Object valueB : valuesB) {
+            int j = b.indexOf(valueB);
+            MASKS[x][y][i] |= 1 << j;
+            MASKS[y][x][j] |= 1 << i;
+        }
+    }
+
+    private static int index(Dimension dimension, Enum<?> value) {
+        return value == null ? NOT_CHOSEN : INDEXES[dimension.ordinal()][value.ordinal()];
+    }
+
+    private static int index(Dimension dimension, long gears) {
+        return gears < 0 || gears > MOST_GEARS ? OUT_OF_DOMAIN : INDEXES[dimension.ordinal()][(int) gears];
+    }
+
+    private static int key(Object value) {
+        return value instanceof Enum<?> e ? e.ordinal() : ((Long) value).intValue();
+    }
+
+    private static void addDesigns(int[] design, int d, List<int[]> designs) {
+        if (d == DIMENSIONS.length) {
+            designs.add(design.clone());
+            return;
+        }
+        for (int v = 0; v < DIMENSIONS[d].values.length; v++) {
+            boolean allowed = true;
+            for (int e = 0; e < d && allowed; e++) {
+                allowed = (MASKS[e][d][design[e]] & 1 << v) != 0;
+            }
+            if (allowed) {
+                design[d] = v;
+                addDesigns(design, d + 1, designs);
+            }
+        }
+    }
+
+    private static String name(Enum<?> value) {
+        if (value instanceof FrameStyle f) {
+            return f.getName();
+        } else if (value instanceof HandleBarType h) {
+            return h.getName();
+        } else if (value instanceof BrakeType b) {
+            return b.getName();
+        }
+        return value.name();
+    }
+}
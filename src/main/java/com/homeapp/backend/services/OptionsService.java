@@ -8,52 +8,39 @@ import com.homeapp.backend.models.logger.WarnLogger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
 import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
-import static com.homeapp.backend.models.bike.Enums.HandleBarType.*;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.services.OptionConstraints.Dimension.*;
+import static com.homeapp.backend.services.OptionConstraints.NOT_CHOSEN;
 
 /**
  * The Options Service class.
  * Used to control the available Options on the FE.
  * To only return things that can safely be selected.
+ * <p>
+ * The service holds no state. Which gears, bars, brakes and wheels are available comes from the Option Constraints, the values of each
+ * dimension are the ones the rules allow with everything the bike already has chosen, worked out as a few AND operations on bitsets.
+ * The lists returned are shared and cannot be changed, so calls cannot see each other's Options.
+ * The Options also say when the design is a dead end, when nothing left to choose can make it a valid bike.
  */
 @Service
 public class OptionsService {
 
-    private static OptionsService instance;
-    private Options options;
+    private static final List<String> GROUPSET_BRANDS = List.of(SHIMANO.getName());
+    private static final List<Long> FRAME_SIZES = List.of(48L, 50L, 52L, 54L, 56L);
+    private static final List<String> FRAME_STYLES = List.of(SINGLE_SPEED.getName(), GRAVEL.getName(), TOUR.getName(), ROAD.getName());
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
 
     /**
      * Instantiates a new Options Service.
-     * Sets a new Options object to the Instance.
      */
     @Autowired
     public OptionsService() {
-        this.options = new Options();
-    }
-
-    /**
-     * Gets options from the instance.
-     *
-     * @return the options
-     */
-    public Options getOptions() {
-        return options;
-    }
-
-    /**
-     * Sets options passed-in to instance.
-     *
-     * @param options the options
-     */
-    public void setOptions(Options options) {
-        this.options = options;
+        infoLogger.log("Option Constraints hold " + OptionConstraints.designs() + " valid designs");
     }
 
     /**
@@ -65,18 +52,11 @@ public class OptionsService {
     public Options startNewBike() {
         infoLogger.log("Getting Options for a new Bike!");
         Options o = new Options();
-        o.getGroupsetBrand().add(SHIMANO.getName());
+        o.setGroupsetBrand(GROUPSET_BRANDS);
         o.setShowGroupSetBrand(true);
-        o.getFrameSizes().add(48L);
-        o.getFrameSizes().add(50L);
-        o.getFrameSizes().add(52L);
-        o.getFrameSizes().add(54L);
-        o.getFrameSizes().add(56L);
+        o.setFrameSizes(FRAME_SIZES);
         o.setShowFrameSizes(true);
-        o.getFrameStyles().add(SINGLE_SPEED.getName());
-        o.getFrameStyles().add(GRAVEL.getName());
-        o.getFrameStyles().add(TOUR.getName());
-        o.getFrameStyles().add(ROAD.getName());
+        o.setFrameStyles(FRAME_STYLES);
         o.setShowFrameStyles(true);
         warnLogger.log("Returning options: " + o);
         return o;
@@ -86,129 +66,51 @@ public class OptionsService {
      * Update Options.
      * Takes in the combined Bike and Options object.
      * Uses the combination to ensure the Options returned are correct for the next steps available based on the design bike.
+     * The passed-in Options are left as they are; a show flag already set stays set.
+     * A new bike starts with a wheel preference already set, so the wheel preference is shown once a frame style is chosen, not only while unset.
      *
      * @param combinedData the combined data, a Full Bike and Options
      * @return the options
      */
     public Options updateOptions(CombinedData combinedData) {
         infoLogger.log("Updating Options available for Bike");
-        Options o = combinedData.getOptions();
-        setOptions(o);
-        if (!o.isShowFrameStyles()) {
-            getGearOptions(combinedData.getBike());
-            getBarOptions(combinedData.getBike());
-            getBrakeOptions(combinedData.getBike());
-            getWheelOptions(combinedData.getBike());
-        }
-        warnLogger.log("Returning options: " + o);
-        return o;
-    }
-
-    private void getWheelOptions(FullBike b) {
-        infoLogger.log("Getting Wheel Options");
-        List<String> wheelPreference = new ArrayList<>();
-        Options o = getOptions();
-        wheelPreference.add("Cheap");
-        wheelPreference.add("Expensive");
-        o.setWheelPreference(wheelPreference);
-        if (b.getWheelPreference() == null) {
-            o.setShowWheelPreference(true);
-        }
-    }
-
-    private void getGearOptions(FullBike b) {
-        infoLogger.log("Getting Gear Options");
-        List<Long> rearGears = new ArrayList<>();
-        List<Long> frontGears = new ArrayList<>();
-        Options o = getOptions();
-        if (!b.getHandleBarType().equals(FLAT)) {
-            switch (b.getFrame().getFrameStyle()) {
-                case ROAD -> {
-                    rearGears.add(9L);
-                    rearGears.add(10L);
-                    rearGears.add(11L);
-//                    rearGears.add(12L);
-                    frontGears.add(2L);
-                }
-                case TOUR -> {
-                    rearGears.add(11L);
-                    rearGears.add(10L);
-                    rearGears.add(9L);
-                    frontGears.add(2L);
-                    frontGears.add(3L);
-                }
-                case GRAVEL -> {
-                    rearGears.add(9L);
-                    rearGears.add(10L);
-                    rearGears.add(11L);
-                    frontGears.add(2L);
-                    //could not find active site for 1 by options
-//                    frontGears.add(1L);
-                }
-                default -> {
-                }
-            }
-        } else {
-            rearGears.add(10L);
-            rearGears.add(11L);
-            frontGears.add(1L);
+        Options current = combinedData.getOptions();
+        if (current.isShowFrameStyles()) {
+            warnLogger.log("Returning options: " + current);
+            return current;
         }
-        if (b.getBrakeType().equals(HYDRAULIC_DISC)) {
-            frontGears.removeIf(item -> item == 2L);
-            frontGears.removeIf(item -> item == 3L);
-        }
-        o.setNumberOfFrontGears(frontGears);
-        o.setNumberOfRearGears(rearGears);
-        if (!b.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
-            if (b.getNumberOfFrontGears() == 0) {
-                o.setShowFrontGears(true);
-            }
-            if (b.getNumberOfRearGears() == 0) {
-                o.setShowRearGears(true);
-            }
-        }
-    }
-
-    private void getBarOptions(FullBike b) {
-        infoLogger.log("Getting Bar Options");
-        List<String> bars = new ArrayList<>();
-        Options o = getOptions();
-        if (b.getHandleBarType().equals(NOT_SELECTED)) {
-            o.setShowBarStyles(true);
-        }
-        bars.add(DROPS.getName());
-        switch (b.getFrame().getFrameStyle()) {
-            case SINGLE_SPEED -> {
-                bars.add(BULLHORNS.getName());
-                bars.add(FLAT.getName());
-            }
-            case TOUR -> {
-                bars.add(FLARE.getName());
-                bars.add(FLAT.getName());
-            }
-            case GRAVEL -> {
-                bars.add(FLARE.getName());
-            }
-            default -> {
-            }
-        }
-        o.setBarStyles(bars);
-    }
-
-    private void getBrakeOptions(FullBike b) {
-        infoLogger.log("Getting Brake Options");
-        List<String> brakes = new ArrayList<>();
-        Options o = getOptions();
-        if (b.getBrakeType().equals(NO_SELECTION)) {
-            o.setShowBrakeStyles(true);
+        FullBike b = combinedData.getBike();
+        int[] chosen = OptionConstraints.chosen(b);
+        boolean gearsToChoose = b.getFrame() == null || b.getFrame().getFrameStyle() != SINGLE_SPEED;
+        Options o = new Options();
+        o.setGroupsetBrand(current.getGroupsetBrand());
+        o.setShowGroupSetBrand(current.isShowGroupSetBrand());
+        o.setFrameSizes(current.getFrameSizes());
+        o.setShowFrameSizes(current.isShowFrameSizes());
+        o.setFrameStyles(current.getFrameStyles());
+        o.setShowFrameStyles(false);
+        //until the bars are chosen the gears offered are those for drops, so a 1 by is only offered once bars that take one are
+        int[] gearsChosen = chosen;
+        if (chosen[BAR_STYLE.ordinal()] == NOT_CHOSEN) {
+            gearsChosen = chosen.clone();
+            gearsChosen[BAR_STYLE.ordinal()] = BAR_STYLE.indexOf(DROPS);
         }
-        brakes.add(RIM.getName());
-        if (!b.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
-            brakes.add(MECHANICAL_DISC.getName());
-            brakes.add(HYDRAULIC_DISC.getName());
-        } else {
-            brakes.add(NOT_REQUIRED.getName());
+        o.setNumberOfFrontGears(gearsToChoose ? OptionConstraints.numbers(FRONT_GEARS, OptionConstraints.domain(FRONT_GEARS, gearsChosen)) : List.of());
+        o.setShowFrontGears(current.isShowFrontGears() || gearsToChoose && chosen[FRONT_GEARS.ordinal()] == NOT_CHOSEN);
+        o.setNumberOfRearGears(gearsToChoose ? OptionConstraints.numbers(REAR_GEARS, OptionConstraints.domain(REAR_GEARS, gearsChosen)) : List.of());
+        o.setShowRearGears(current.isShowRearGears() || gearsToChoose && chosen[REAR_GEARS.ordinal()] == NOT_CHOSEN);
+        o.setBarStyles(OptionConstraints.names(BAR_STYLE, OptionConstraints.domain(BAR_STYLE, chosen)));
+        o.setShowBarStyles(current.isShowBarStyles() || chosen[BAR_STYLE.ordinal()] == NOT_CHOSEN);
+        o.setBrakeStyles(OptionConstraints.names(BRAKE_STYLE, OptionConstraints.domain(BRAKE_STYLE, chosen)));
+        o.setShowBrakeStyles(current.isShowBrakeStyles() || chosen[BRAKE_STYLE.ordinal()] == NOT_CHOSEN);
+        o.setWheelPreference(OptionConstraints.names(WHEEL_PREFERENCE, OptionConstraints.domain(WHEEL_PREFERENCE, chosen)));
+        o.setShowWheelPreference(current.isShowWheelPreference() || chosen[WHEEL_PREFERENCE.ordinal()] == NOT_CHOSEN
+                || chosen[FRAME_STYLE.ordinal()] != NOT_CHOSEN);
+        o.setDeadEnd(OptionConstraints.isDeadEnd(chosen));
+        if (o.isDeadEnd()) {
+            warnLogger.log("Design is a dead end, nothing left to choose completes it: " + b);
         }
-        o.setBrakeStyles(brakes);
+        warnLogger.log("Returning options: " + o);
+        return o;
     }
-}
\ No newline at end of file
+}
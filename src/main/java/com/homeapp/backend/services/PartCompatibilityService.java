@@ -0,0 +1,239 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.bike.PartSwap;
+import com.homeapp.backend.models.logger.InfoLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The Part Compatibility Service class.
+ * Answers which Parts of the catalog work together: which cassettes go with a chain, what else could take a Part's place in a build,
+ * and whether swapping one Part of a build for another leaves Parts that all work together.
+ * <p>
+ * Two Parts work together when the Shimano Groupset Service's rules choose both of them for the same design. Every complete design the
+ * Option Constraints allow is normalized and checked against the design rules once, and the groupset Parts its drivetrain gets are listed.
+ * From those lists each Part in the catalog gets a bitset of the Parts it works with, and each component a bitset of its Parts,
+ * so whether two Parts work together is one bit, and the Parts of a component that work with a whole build are an AND of bitsets.
+ * The bitsets are made again whenever the catalog version changes.
+ * <p>
+ * Parts are only known to work together in pairs: a build whose Parts all work with each other is not always one a single design would get.
+ */
+@Service
+public class PartCompatibilityService {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final PartsCatalogService partsCatalogService;
+    private final List<List<String>> drivetrains;
+    private volatile Graph graph;
+
+    /**
+     * The compatibility graph at one catalog version.
+     *
+     * @param version    the catalog version the graph was made from
+     * @param parts      the Parts, by node
+     * @param nodes      the node of each Part, by link
+     * @param adjacency  the nodes each node works with, by node
+     * @param components the nodes of each component, by component
+     */
+    private record Graph(long version, Part[] parts, Map<String, Integer> nodes, long[][] adjacency, Map<String, long[]> components) {
+
+        private boolean linked(int a, int b) {
+            return (adjacency[a][b >> 6] >>> b & 1) != 0;
+        }
+
+        private long[] component(int node) {
+            return components.get(parts[node].getComponent());
+        }
+
+        private List<Part> parts(long[] bits) {
+            List<Part> found = new ArrayList<>();
+            for (int w = 0; w < bits.length; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    found.add(parts[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Instantiates a new Part Compatibility Service.
+     * Autowires in the Design Rule Service, to list the groupset Parts of every design that passes the rules,
+     * and the Parts Catalog Service, to look those Parts up.
+     *
+     * @param designRuleService   the design rule service
+     * @param partsCatalogService the parts catalog service
+     */
+    @Autowired
+    public PartCompatibilityService(DesignRuleService designRuleService, PartsCatalogService partsCatalogService) {
+        this.partsCatalogService = partsCatalogService;
+        Set<List<String>> drivetrains = new LinkedHashSet<>();
+        for (int i = 0; i < OptionConstraints.designs(); i++) {
+            FullBike bike = OptionConstraints.toBike(OptionConstraints.design(i));
+            designRuleService.normalize(bike);
+            if (designRuleService.validate(bike).isEmpty()) {
+                drivetrains.add(ShimanoGroupsetService.groupsetRefs(bike.getBrakeType(), bike.getShifterStyle(),
+                        bike.getNumberOfFrontGears(), bike.getNumberOfRearGears()));
+            }
+        }
+        this.drivetrains = List.copyOf(drivetrains);
+    }
+
+    /**
+     * Checks whether two Parts work together.
+     *
+     * @param link      the link of one Part
+     * @param otherLink the link of the other Part
+     * @return whether a design gets both Parts, false if either is not in the catalog
+     */
+    public boolean isCompatible(String link, String otherLink) {
+        Graph g = graph();
+        Integer a = g.nodes().get(link);
+        Integer b = g.nodes().get(otherLink);
+        return a != null && b != null && g.linked(a, b);
+    }
+
+    /**
+     * Gets the Parts that work with a Part, e.g. every cassette that works with a chain.
+     *
+     * @param link      the link of the Part
+     * @param component only get Parts of this component, null for every component
+     * @return the Parts, empty if the Part is not in the compatibility graph
+     */
+    public Optional<List<Part>> getCompatibleParts(String link, String component) {
+        Graph g = graph();
+        Integer node = g.nodes().get(link);
+        if (node == null) {
+            return Optional.empty();
+        }
+        long[] found = g.adjacency()[node].clone();
+        if (component != null) {
+            and(found, g.components().getOrDefault(component, new long[found.length]));
+        }
+        return Optional.of(g.parts(found));
+    }
+
+    /**
+     * Gets the Parts of the same component that could take a Part's place in a build: those that work with every other Part of the build.
+     * Links in the build that are not in the compatibility graph, such as frames and handlebars, are left out of the check.
+     *
+     * @param link  the link of the Part
+     * @param build the links of the Parts of the build, empty for every Part of the same component
+     * @return the alternatives, empty if the Part is not in the compatibility graph
+     */
+    public Optional<List<Part>> getAlternatives(String link, Collection<String> build) {
+        Graph g = graph();
+        Integer node = g.nodes().get(link);
+        if (node == null) {
+            return Optional.empty();
+        }
+        long[] found = g.component(node).clone();
+        found[node >> 6] &= ~(1L << node);
+        for (String other : build) {
+            Integer o = g.nodes().get(other);
+            if (o != null && !o.equals(node)) {
+                and(found, g.adjacency()[o]);
+            }
+        }
+        return Optional.of(g.parts(found));
+    }
+
+    /**
+     * Checks whether one Part of a build can be swapped for another.
+     * The swap is compatible if the new Part is of the same component as the one taken out, and works with every other Part of the build.
+     * Links in the build that are not in the compatibility graph are left out of the check.
+     *
+     * @param from  the link of the Part taken out
+     * @param to    the link of the Part put in
+     * @param build the links of the Parts of the build, with the Part taken out
+     * @return the Part Swap, empty if the new Part is not in the compatibility graph
+     */
+    public Optional<PartSwap> checkSwap(String from, String to, Collection<String> build) {
+        Graph g = graph();
+        Integer node = g.nodes().get(to);
+        if (node == null) {
+            return Optional.empty();
+        }
+        Integer out = g.nodes().get(from);
+        List<Part> clashes = new ArrayList<>();
+        for (String other : new LinkedHashSet<>(build)) {
+            Integer o = g.nodes().get(other);
+            if (o != null && !o.equals(out) && !o.equals(node) && !g.linked(node, o)) {
+                clashes.add(g.parts()[o]);
+            }
+        }
+        boolean sameComponent = out != null && Objects.equals(g.parts()[out].getComponent(), g.parts()[node].getComponent());
+        return Optional.of(new PartSwap(out == null ? null : g.parts()[out], g.parts()[node], sameComponent && clashes.isEmpty(), clashes));
+    }
+
+    private Graph graph() {
+        long version = partsCatalogService.getVersion();
+        Graph g = graph;
+        if (g == null || g.version() != version) {
+            synchronized (this) {
+                if (graph == null || graph.version() != version) {
+                    graph = build(version);
+                }
+                g = graph;
+            }
+        }
+        return g;
+    }
+
+    private Graph build(long version) {
+        List<Part> parts = new ArrayList<>();
+        Map<String, Integer> nodes = new HashMap<>();
+        List<int[]> cliques = new ArrayList<>();
+        for (List<String> refs : drivetrains) {
+            int[] clique = refs.stream()
+                    .mapToInt(ref -> nodes.computeIfAbsent(ref, r -> partsCatalogService.findByLink(r)
+                            .map(p -> {
+                                parts.add(p);
+                                return parts.size() - 1;
+                            })
+                            .orElse(-1)))
+                    .filter(n -> n >= 0)
+                    .distinct()
+                    .toArray();
+            cliques.add(clique);
+        }
+        nodes.values().removeIf(n -> n < 0);
+        int words = (parts.size() + 63) / 64;
+        long[][] adjacency = new long[parts.size()][words];
+        for (int[] clique : cliques) {
+            for (int a : clique) {
+                for (int b : clique) {
+                    if (a != b) {
+                        adjacency[a][b >> 6] |= 1L << b;
+                    }
+                }
+            }
+        }
+        Map<String, long[]> components = new HashMap<>();
+        for (int n = 0; n < parts.size(); n++) {
+            components.computeIfAbsent(parts.get(n).getComponent(), c -> new long[words])[n >> 6] |= 1L << n;
+        }
+        infoLogger.log("Built part compatibility graph at catalog version " + version + ", Parts: " + parts.size()
+                + ", from designs: " + drivetrains.size());
+        return new Graph(version, parts.toArray(new Part[0]), Map.copyOf(nodes), adjacency, Collections.unmodifiableMap(components));
+    }
+
+    private static void and(long[] bits, long[] mask) {
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] &= mask[w];
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.scraper.PartChange;
+import com.homeapp.backend.store.PartStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The Parts Catalog Service class.
+ * An in memory copy of the Parts catalog, keyed by link, so looking up a Part no longer reads the whole catalog.
+ * The copy is loaded once, then kept up to date by applying the links journal from the last sequence number it saw.
+ * Changes journalled but never saved to the Part Store, because of a crash in between, are saved at startup before the copy is loaded.
+ */
+@Service
+public class PartsCatalogService {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final PartsJournalService partsJournalService;
+    private final PartStore partStore;
+    private volatile Map<String, Part> partsByLink;
+    private volatile long version;
+
+    /**
+     * Instantiates a new Parts Catalog Service.
+     * Autowires in a Parts Journal Service to catch up with refreshes made after the catalog was loaded,
+     * and replays any journalled changes not yet saved to the Part Store.
+     *
+     * @param partsJournalService the parts journal service
+     * @param partStore           the part store the catalog is loaded from
+     */
+    @Autowired
+    public PartsCatalogService(PartsJournalService partsJournalService, PartStore partStore) {
+        this.partsJournalService = partsJournalService;
+        this.partStore = partStore;
+        replayUnsaved();
+        load();
+        catchUp();
+    }
+
+    /**
+     * Finds a Part by its link, after applying any journalled changes not yet seen.
+     *
+     * @param link the link
+     * @return a copy of the Part, empty if no Part has that link
+     */
+    public Optional<Part> findByLink(String link) {
+        catchUp();
+        Part part = partsByLink.get(link);
+        return part == null ? Optional.empty() : Optional.of(new Part(part));
+    }
+
+    /**
+     * Gets the catalog version, the sequence number of the last journalled change applied.
+     * Anything cached from the catalog can be reused for as long as this is unchanged.
+     *
+     * @return the catalog version
+     */
+    public long getVersion() {
+        catchUp();
+        return version;
+    }
+
+    /**
+     * Saves to the Part Store every journalled change after the last checkpoint, then checkpoints the journal.
+     * Saving a change the store already has is harmless, the Part just gets the same fields again.
+     */
+    private void replayUnsaved() {
+        List<PartChange> unsaved = partsJournalService.readSince(partsJournalService.getAppliedSequence());
+        if (unsaved.isEmpty()) {
+            return;
+        }
+        List<Part> allParts = partStore.findAll();
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < allParts.size(); i++) {
+            index.putIfAbsent(allParts.get(i).getLink(), i);
+        }
+        Map<String, Part> changed = new HashMap<>();
+        for (PartChange change : unsaved) {
+            Integer i = index.get(change.getCurrent().getLink());
+            if (i == null) {
+                warnLogger.log("Journalled change for a Part no longer in the catalog: " + change.getCurrent().getLink());
+                continue;
+            }
+            Part part = new Part(change.getCurrent());
+            part.setPartId(allParts.get(i).getPartId());
+            allParts.set(i, part);
+            changed.put(part.getLink(), part);
+        }
+        try {
+            partStore.saveChanges(allParts, new ArrayList<>(changed.values()));
+            partsJournalService.checkpoint(unsaved.get(unsaved.size() - 1).getSequence());
+            infoLogger.log("Replayed " + unsaved.size() + " journalled Part changes not yet saved to the catalog");
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: replayUnsaved!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+    }
+
+    /**
+     * Loads the copy from the Part Store, at the version last checkpointed as saved.
+     */
+    private void load() {
+        long applied = partsJournalService.getAppliedSequence();
+        Map<String, Part> parts = new HashMap<>();
+        partStore.findAll().forEach(part -> parts.putIfAbsent(part.getLink(), part));
+        partsByLink = parts;
+        version = applied;
+    }
+
+    private void catchUp() {
+        if (partsJournalService.getLatestSequence() <= version) {
+            return;
+        }
+        synchronized (this) {
+            if (partsJournalService.getFirstSequence() > version + 1) {
+                warnLogger.log("Journalled Part changes after catalog version " + version + " were compacted away, reloading the catalog");
+                load();
+            }
+            List<PartChange> changes = partsJournalService.readSince(version);
+            if (changes.isEmpty()) {
+                return;
+            }
+            Map<String, Part> updated = new HashMap<>(partsByLink);
+            for (PartChange change : changes) {
+                updated.put(change.getCurrent().getLink(), change.getCurrent());
+            }
+            partsByLink = updated;
+            version = changes.get(changes.size() - 1).getSequence();
+            infoLogger.log("Applied " + changes.size() + " journalled Part changes, catalog now at version: " + version);
+        }
+    }
+}
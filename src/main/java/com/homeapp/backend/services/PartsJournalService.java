@@ -0,0 +1,201 @@
+package com.homeapp.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.scraper.PartChange;
+import com.homeapp.backend.store.AtomicFiles;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Parts Journal Service class.
+ * Keeps an append only, newline delimited JSON journal of every change a refresh makes to links.json.
+ * Each change gets the next sequence number, so caches of the catalog can catch up by reading only the changes since the last one they saw.
+ * <p>
+ * A checkpoint file next to the journal holds the sequence number of the last change saved to the Part Store,
+ * so changes journalled just before a crash, but never saved, can be replayed at startup.
+ * Each checkpoint also compacts the journal, keeping only the changes not yet saved and the most recent saved ones,
+ * so the journal, and every read of it, stays small.
+ */
+@Service
+public class PartsJournalService {
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final Path journalFile;
+    private final Path checkpointFile;
+    private final int retain;
+    private volatile long latestSequence;
+    private volatile long firstSequence;
+    private volatile long appliedSequence;
+
+    /**
+     * Instantiates a new Parts Journal Service.
+     * Reads the journal on File to carry on numbering from its last entry, and the checkpoint to know which changes were saved.
+     *
+     * @param journalFile the journal file
+     * @param retain      how many changes already saved to the Part Store to keep in the journal at each checkpoint, for the Changes API
+     */
+    public PartsJournalService(@Value("${parts.journal.file:src/main/resources/links_journal.ndjson}") String journalFile,
+                               @Value("${parts.journal.retain:500}") int retain) {
+        this.journalFile = Path.of(journalFile);
+        this.checkpointFile = Path.of(journalFile + ".checkpoint");
+        this.retain = retain;
+        List<PartChange> existing = read(0);
+        this.latestSequence = existing.isEmpty() ? readCheckpoint() : existing.get(existing.size() - 1).getSequence();
+        this.firstSequence = existing.isEmpty() ? latestSequence + 1 : existing.get(0).getSequence();
+        this.appliedSequence = Math.min(readCheckpoint(), latestSequence);
+        infoLogger.log("Parts journal opened at sequence: " + latestSequence + ", saved up to sequence: " + appliedSequence);
+    }
+
+    /**
+     * Numbers the changes and appends them to the journal, forcing them to disk before returning.
+     *
+     * @param changes the changes, in the order they were made
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void append(List<PartChange> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long sequence = latestSequence;
+        String changedAt = Instant.now().toString();
+        StringBuilder lines = new StringBuilder();
+        for (PartChange change : changes) {
+            change.setSequence(++sequence);
+            change.setChangedAt(changedAt);
+            lines.append(om.writeValueAsString(change)).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        latestSequence = sequence;
+        infoLogger.log("Journalled " + changes.size() + " Part changes, up to sequence: " + sequence);
+    }
+
+    /**
+     * Records that every change up to the passed-in sequence number has been saved to the Part Store, then compacts the journal.
+     * Compacting keeps every change after the checkpoint, and the last of the saved changes up to the retain count.
+     *
+     * @param sequence the sequence number of the last change saved
+     * @throws IOException if the checkpoint or the compacted journal cannot be written
+     */
+    public synchronized void checkpoint(long sequence) throws IOException {
+        if (sequence <= appliedSequence) {
+            return;
+        }
+        AtomicFiles.write(checkpointFile, Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+        appliedSequence = sequence;
+        long keepAfter = sequence - retain;
+        if (keepAfter < firstSequence) {
+            return;
+        }
+        List<PartChange> kept = read(keepAfter);
+        StringBuilder lines = new StringBuilder();
+        for (PartChange change : kept) {
+            lines.append(om.writeValueAsString(change)).append('\n');
+        }
+        AtomicFiles.write(journalFile, lines.toString().getBytes(StandardCharsets.UTF_8));
+        firstSequence = kept.isEmpty() ? latestSequence + 1 : kept.get(0).getSequence();
+        infoLogger.log("Parts journal checkpointed at sequence: " + sequence + ", compacted to start at sequence: " + firstSequence);
+    }
+
+    /**
+     * Gets every change after the passed-in sequence number, oldest first.
+     * A line left half written by a crash is skipped.
+     * Changes compacted away at a checkpoint are no longer returned, see getFirstSequence.
+     *
+     * @param sequence the last sequence number already seen, 0 for the whole journal
+     * @return the changes after it
+     */
+    public List<PartChange> readSince(long sequence) {
+        return sequence >= latestSequence ? new ArrayList<>() : read(sequence);
+    }
+
+    private List<PartChange> read(long sequence) {
+        List<PartChange> changes = new ArrayList<>();
+        if (!Files.exists(journalFile)) {
+            return changes;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    PartChange change = om.readValue(line, PartChange.class);
+                    if (change.getSequence() > sequence) {
+                        changes.add(change);
+                    }
+                } catch (JsonProcessingException e) {
+                    warnLogger.log("Skipping unreadable line in parts journal!!See error message: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: read!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+        return changes;
+    }
+
+    /**
+     * Gets the sequence number of the newest change in the journal.
+     *
+     * @return the latest sequence number, 0 if nothing has been journalled
+     */
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    /**
+     * Gets the sequence number of the oldest change still in the journal.
+     * A reader that last saw a sequence number below the one before this has missed changes, and must read the whole catalog again.
+     *
+     * @return the first sequence number, one past the latest if the journal is empty
+     */
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Gets the sequence number of the last change saved to the Part Store, as of the last checkpoint.
+     *
+     * @return the applied sequence number, 0 if nothing has been checkpointed
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    private long readCheckpoint() {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            errorLogger.log("An Exception occurred from method: readCheckpoint!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.scraper.PartChange;
+import com.homeapp.backend.store.PartStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Parts Refresh Service class.
+ * Keeps the prices in the Parts catalog up to date, a few Parts at a time.
+ * Each cycle only re-scrapes the Parts most in need of it: those not updated for the longest,
+ * those whose price has changed most often, and those the designer is asking for most.
+ * Parts on a host whose circuit breaker is open are passed over, and a Part that failed to scrape is left alone for a while,
+ * longer each time it fails again, so Parts that cannot be scraped do not take every cycle's places from those that can.
+ */
+@Service
+public class PartsRefreshService {
+
+    private static final long NEVER_UPDATED_AGE_DAYS = 365;
+    private static final int MAX_BACKOFF_DOUBLINGS = 4;
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final ScraperService scraperService;
+    private final PartsJournalService partsJournalService;
+    private final PartStore partStore;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration budget;
+    private final Duration fullBudget;
+    private final long minAgeDays;
+    private final Duration failureBackoff;
+
+    /**
+     * The failed scrapes of one Part since it was last scraped successfully.
+     *
+     * @param count the number of failed scrapes in a row
+     * @param last  when the last scrape failed
+     */
+    private record Failure(int count, Instant last) {
+    }
+
+    /**
+     * Instantiates a new Parts Refresh Service.
+     *
+     * @param scraperService      the scraper service
+     * @param partsJournalService the parts journal service
+     * @param partStore           the part store holding the catalog
+     * @param enabled             whether the scheduled refresh cycles should run
+     * @param batchSize           the most Parts to re-scrape in one cycle
+     * @param budget              the most time to spend re-scraping in one cycle
+     * @param fullBudget          the most time to spend re-scraping every Part in checkAllLinks
+     * @param minAgeDays          how many days old a Part's price must be before it is worth re-scraping
+     * @param failureBackoff      how long to leave a Part alone after it first fails to scrape, doubled for each failure in a row after that
+     */
+    public PartsRefreshService(ScraperService scraperService, PartsJournalService partsJournalService, PartStore partStore,
+                               @Value("${parts.refresh.enabled:false}") boolean enabled,
+                               @Value("${parts.refresh.batch-size:8}") int batchSize,
+                               @Value("${parts.refresh.budget:PT2M}") Duration budget,
+                               @Value("${parts.refresh.full-budget:PT15M}") Duration fullBudget,
+                               @Value("${parts.refresh.min-age-days:1}") long minAgeDays,
+                               @Value("${parts.refresh.failure-backoff:PT6H}") Duration failureBackoff) {
+        this.scraperService = scraperService;
+        this.partsJournalService = partsJournalService;
+        this.partStore = partStore;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.budget = budget;
+        this.fullBudget = fullBudget;
+        this.minAgeDays = minAgeDays;
+        this.failureBackoff = failureBackoff;
+    }
+
+    /**
+     * Records that a Part has been requested by the designer, raising its refresh priority.
+     *
+     * @param link the link of the requested Part
+     */
+    public void recordRequest(String link) {
+        requestCounts.computeIfAbsent(link, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Runs one refresh cycle on the configured schedule, if refreshing is enabled.
+     */
+    @Scheduled(initialDelayString = "${parts.refresh.initial-delay:PT1M}", fixedDelayString = "${parts.refresh.interval:PT1H}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refreshStalest(batchSize, budget);
+        }
+    }
+
+    /**
+     * Re-scrapes every Part in the catalog on the configured schedule, if refreshing is enabled.
+     */
+    @Scheduled(cron = "${parts.refresh.full-cron:0 0 3 * * SUN}")
+    public void scheduledFullCheck() {
+        if (enabled) {
+            checkAllLinks();
+        }
+    }
+
+    /**
+     * Re-scrapes every Part in the catalog, regardless of how recently it was updated, within the full refresh time budget.
+     * Parts that failed recently are tried again, but Parts on a host whose circuit breaker is open are not.
+     * Collects all problem links and sends these to reporter.
+     */
+    public void checkAllLinks() {
+        refresh(partStore.findAll(), Integer.MAX_VALUE, fullBudget, 0, false);
+    }
+
+    /**
+     * Re-scrapes the highest priority Parts in the catalog, stopping at whichever of the request or time budget runs out first.
+     *
+     * @param maxRequests the most Parts to re-scrape
+     * @param maxTime     the most time to spend re-scraping
+     * @return the Parts that were re-scraped successfully
+     */
+    public List<Part> refreshStalest(int maxRequests, Duration maxTime) {
+        return refresh(partStore.findAll(), maxRequests, maxTime, minAgeDays, true);
+    }
+
+    private List<Part> refresh(List<Part> allParts, int maxRequests, Duration maxTime, long minAge, boolean skipFailing) {
+        infoLogger.log("Refreshing up to " + Math.min(maxRequests, allParts.size()) + " of " + allParts.size() + " Parts");
+        long deadline = System.nanoTime() + maxTime.toNanos();
+        LocalDate today = LocalDate.now();
+        List<Part> refreshed = new ArrayList<>();
+        List<PartChange> changes = new ArrayList<>();
+        List<Part> changedParts = new ArrayList<>();
+        LinkedList<String> problemLinks = new LinkedList<>();
+        List<Part> candidates = skipFailing ? allParts : allParts.stream().filter(p -> !scraperService.isCircuitOpen(p.getLink())).toList();
+        List<Part> selected = skipFailing ? selectStalest(candidates, maxRequests, today, minAge)
+                : candidates.stream().sorted(Comparator.comparingDouble((Part p) -> priority(p, today)).reversed()).toList();
+        for (Part part : selected) {
+            if (System.nanoTime() > deadline) {
+                warnLogger.log("Refresh time budget used up after " + refreshed.size() + " Parts");
+                break;
+            }
+            if (scraperService.isCircuitOpen(part.getLink())) {
+                continue;
+            }
+            Part before = new Part(part);
+            if (scraperService.scrape(part, deadline)) {
+                PartChange change = PartChange.between(before, part);
+                if (change != null) {
+                    if (before.getPrice() != null && change.getChangedFields().contains("price")) {
+                        part.setPriceChanges(part.getPriceChanges() + 1);
+                    }
+                    changes.add(new PartChange(change.getChangedFields(), before, new Part(part)));
+                    changedParts.add(part);
+                }
+                refreshed.add(part);
+                failures.remove(part.getLink());
+            } else {
+                problemLinks.add(part.getLink());
+                if (System.nanoTime() <= deadline) {
+                    failures.merge(part.getLink(), new Failure(1, Instant.now()), (old, f) -> new Failure(old.count() + 1, f.last()));
+                }
+            }
+        }
+        saveChanges(allParts, changedParts, changes);
+        requestCounts.values().forEach(count -> count.updateAndGet(c -> c / 2));
+        if (!problemLinks.isEmpty()) {
+            errorLogger.log("**** Please check the following links ****");
+            errorLogger.log("You have " + problemLinks.size() + " links with issues");
+            problemLinks.forEach(entry -> errorLogger.log("Issue with link: " + entry));
+            errorLogger.log("**** Checking links complete ****");
+        }
+        infoLogger.log("Finished refreshing " + refreshed.size() + " Parts, " + changes.size() + " changed");
+        return refreshed;
+    }
+
+    /**
+     * Journals the changes, then saves them to the catalog, keeping every Part that could not be refreshed.
+     * Nothing is written at all when no Part changed.
+     * The journal is written first, so a crash in between leaves the change journalled, and applying it again is harmless.
+     * Once saved, the journal is checkpointed, so the changes are not replayed at the next startup.
+     *
+     * @param allParts     every Part in the catalog
+     * @param changedParts the Parts changed by this refresh
+     * @param changes      the changes made by this refresh
+     */
+    private void saveChanges(List<Part> allParts, List<Part> changedParts, List<PartChange> changes) {
+        if (changes.isEmpty()) {
+            infoLogger.log("No Parts changed, catalog left as it is");
+            return;
+        }
+        try {
+            partsJournalService.append(changes);
+            partStore.saveChanges(allParts, changedParts);
+            partsJournalService.checkpoint(changes.get(changes.size() - 1).getSequence());
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: saveChanges!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+    }
+
+    /**
+     * Selects the Parts most in need of a refresh, highest priority first.
+     * Parts updated more recently than the minimum age are never selected,
+     * nor are Parts on a host whose circuit breaker is open, or Parts still being left alone after failing to scrape.
+     *
+     * @param parts       the Parts to choose from
+     * @param maxRequests the most Parts to select
+     * @param today       the date to measure each Part's age against
+     * @param minAge      the minimum age, in days, of a Part worth refreshing
+     * @return the selected Parts, highest priority first
+     */
+    public List<Part> selectStalest(List<Part> parts, int maxRequests, LocalDate today, long minAge) {
+        PriorityQueue<Part> queue = new PriorityQueue<>(Comparator.comparingDouble((Part p) -> priority(p, today)).reversed());
+        Instant now = Instant.now();
+        parts.stream()
+                .filter(p -> ageInDays(p, today) >= minAge)
+                .filter(p -> !isBackingOff(p.getLink(), now) && !scraperService.isCircuitOpen(p.getLink()))
+                .forEach(queue::add);
+        List<Part> selected = new ArrayList<>();
+        while (!queue.isEmpty() && selected.size() < maxRequests) {
+            selected.add(queue.poll());
+        }
+        return selected;
+    }
+
+    /**
+     * Scores how much a Part needs refreshing.
+     * Age is the base of the score, so a Part refreshed today scores nothing however popular it is.
+     * A history of price changes and recent requests from the designer each multiply it.
+     *
+     * @param part  the part
+     * @param today the date to measure the Part's age against
+     * @return the refresh priority, higher is more urgent
+     */
+    public double priority(Part part, LocalDate today) {
+        AtomicLong requests = requestCounts.get(part.getLink());
+        return ageInDays(part, today)
+                * (1 + part.getPriceChanges())
+                * (1 + Math.log1p(requests == null ? 0 : requests.get()));
+    }
+
+    private boolean isBackingOff(String link, Instant now) {
+        Failure failure = failures.get(link);
+        if (failure == null) {
+            return false;
+        }
+        Duration backoff = failureBackoff.multipliedBy(1L << Math.min(failure.count() - 1, MAX_BACKOFF_DOUBLINGS));
+        return now.isBefore(failure.last().plus(backoff));
+    }
+
+    private long ageInDays(Part part, LocalDate today) {
+        if (part.getDateLastUpdated() == null || part.getPrice() == null) {
+            return NEVER_UPDATED_AGE_DAYS;
+        }
+        try {
+            return Math.max(0, ChronoUnit.DAYS.between(LocalDate.parse(part.getDateLastUpdated()), today));
+        } catch (DateTimeParseException e) {
+            return NEVER_UPDATED_AGE_DAYS;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.backend;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.scraper.HostStatus;
+import com.homeapp.backend.models.scraper.HostStatus.BreakerState;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.parser.StreamParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The Scraper Service class.
+ * Fetches retailer product pages for the parts refresh, guarding each retailer host with its own circuit breaker.
+ * Transient errors are retried with jittered exponential backoff, and a host that keeps failing is skipped until its cool-down ends,
+ * so one slow retailer cannot use up a whole refresh run.
+ */
+@Service
+public class ScraperService {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final Map<String, HostBreaker> breakers = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final int failureThreshold;
+    private final Duration coolDown;
+    private final boolean partialParsing;
+
+    /**
+     * Instantiates a new Scraper Service.
+     *
+     * @param timeout          the most time to wait on a single page
+     * @param maxAttempts      the most attempts at a page when the errors are transient
+     * @param baseBackoff      the backoff before the first retry, doubled for each retry after
+     * @param maxBackoff       the longest backoff between retries
+     * @param failureThreshold the consecutive failures that open a host's breaker
+     * @param coolDown         how long an open breaker skips its host
+     * @param partialParsing   whether to stop parsing each page once its product panel is complete
+     */
+    public ScraperService(@Value("${scraper.timeout:PT5S}") Duration timeout,
+                          @Value("${scraper.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${scraper.retry.base-backoff:PT0.5S}") Duration baseBackoff,
+                          @Value("${scraper.retry.max-backoff:PT5S}") Duration maxBackoff,
+                          @Value("${scraper.breaker.failure-threshold:3}") int failureThreshold,
+                          @Value("${scraper.breaker.cool-down:PT10M}") Duration coolDown,
+                          @Value("${scraper.partial-parsing:true}") boolean partialParsing) {
+        this.timeout = timeout;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.failureThreshold = failureThreshold;
+        this.coolDown = coolDown;
+        this.partialParsing = partialParsing;
+    }
+
+    /**
+     * Sets bike parts price and name on the part that is passed-in, from its link.
+     * Skips the part straight away if its host's breaker is open, and never waits past the deadline.
+     *
+     * @param part     the part that is to updated
+     * @param deadline the System.nanoTime() by which the scrape must finish
+     * @return true if the part was updated from its link
+     */
+    public boolean scrape(Part part, long deadline) {
+        String host = hostOf(part.getLink());
+        HostBreaker breaker = breakers.computeIfAbsent(host, HostBreaker::new);
+        if (!breaker.allowRequest()) {
+            warnLogger.log("Skipping link, circuit open for host: " + host + "!!Link: " + part.getLink());
+            return false;
+        }
+        for (int attempt = 1; ; attempt++) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                breaker.release();
+                warnLogger.log("Refresh time budget used up before link could be scraped: " + part.getLink());
+                return false;
+            }
+            try {
+                boolean found = fetchAndExtract(part, (int) Math.max(1, Math.min(timeout.toMillis(), Duration.ofNanos(remaining).toMillis())));
+                breaker.recordSuccess();
+                if (!found) {
+                    errorLogger.log("An Error occurred !!Connecting to link: " + part.getLink() + "!!For bike Component: " + part.getComponent());
+                    return false;
+                }
+                infoLogger.log("Found Part: " + part.getName() + "!!For price: " + part.getPrice() + "!!Part link: " + part.getLink());
+                return true;
+            } catch (IOException e) {
+                boolean transientError = isTransient(e);
+                if (!transientError || attempt >= maxAttempts) {
+                    if (transientError || e instanceof UnknownHostException) {
+                        breaker.recordFailure();
+                    } else {
+                        breaker.release();
+                    }
+                    errorLogger.log("An IOException occurred from: scrape!!See error message: " + e + "!!After attempts: " + attempt + "!!For bike Component: " + part.getComponent());
+                    return false;
+                }
+                long backoff = backoffNanos(attempt);
+                if (System.nanoTime() + backoff > deadline) {
+                    breaker.recordFailure();
+                    warnLogger.log("Not retrying link, backoff would pass the refresh time budget: " + part.getLink());
+                    return false;
+                }
+                warnLogger.log("Transient error, retrying link: " + part.getLink() + "!!Attempt: " + attempt + "!!Error: " + e);
+                try {
+                    Thread.sleep(Duration.ofNanos(backoff).toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    breaker.release();
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches the part's page and extracts its name and price.
+     * With partial parsing on, the body is streamed and parsing stops once the product panel is complete,
+     * otherwise the full page is parsed into a DOM first.
+     */
+    private boolean fetchAndExtract(Part part, int timeoutMillis) throws IOException {
+        Connection.Response response = Jsoup.connect(part.getLink()).timeout(timeoutMillis).execute();
+        if (!partialParsing) {
+            return backend.setPartAttributesFromDocument(part, response.parse());
+        }
+        try (StreamParser parser = response.streamParser()) {
+            return backend.setPartAttributesFromStream(part, parser);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Checks whether a link's host has its breaker open, so scraping the link now would be skipped.
+     * Unlike a scrape, checking does not use up the one trial request a host is allowed once its cool-down has passed.
+     *
+     * @param link the link
+     * @return true if the link's host is being skipped
+     */
+    public boolean isCircuitOpen(String link) {
+        HostBreaker breaker = breakers.get(hostOf(link));
+        return breaker != null && breaker.isOpen();
+    }
+
+    /**
+     * Gets the circuit breaker status of every host scraped so far.
+     *
+     * @return the host statuses, sorted by host
+     */
+    public List<HostStatus> getHostStatuses() {
+        return breakers.values().stream()
+                .map(HostBreaker::status)
+                .sorted(Comparator.comparing(HostStatus::getHost))
+                .toList();
+    }
+
+    /**
+     * Closes every host's breaker and clears its counts.
+     */
+    public void resetBreakers() {
+        infoLogger.log("Resetting all scraper circuit breakers");
+        breakers.clear();
+    }
+
+    /**
+     * Gets the full-jitter backoff before the next attempt: a random wait up to base * 2^(attempt - 1), capped at the max backoff.
+     */
+    private long backoffNanos(int attempt) {
+        long ceiling = Math.min(maxBackoff.toNanos(), baseBackoff.toNanos() << Math.min(attempt - 1, 30));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Timeouts, refused or reset connections, and 408, 429 or 5xx responses are worth retrying.
+     * Anything else, such as a 404 for a dead link, will fail the same way again.
+     */
+    private static boolean isTransient(IOException e) {
+        if (e instanceof HttpStatusException status) {
+            int code = status.getStatusCode();
+            return code == 408 || code == 429 || code >= 500;
+        }
+        return e instanceof SocketTimeoutException || e instanceof ConnectException || e instanceof SocketException;
+    }
+
+    private static String hostOf(String link) {
+        try {
+            String host = URI.create(link).getHost();
+            return host == null ? link : host;
+        } catch (IllegalArgumentException e) {
+            return link;
+        }
+    }
+
+    /**
+     * The circuit breaker for a single host.
+     * Opens after the failure threshold is reached in a row, then allows one trial request once the cool-down has passed.
+     */
+    private class HostBreaker {
+        private final String host;
+        private BreakerState state = BreakerState.CLOSED;
+        private int consecutiveFailures;
+        private long totalSuccesses;
+        private long totalFailures;
+        private Instant openUntil;
+        private boolean trialInFlight;
+
+        private HostBreaker(String host) {
+            this.host = host;
+        }
+
+        private synchronized boolean allowRequest() {
+            if (state == BreakerState.OPEN) {
+                if (Instant.now().isBefore(openUntil)) {
+                    return false;
+                }
+                state = BreakerState.HALF_OPEN;
+            }
+            if (state == BreakerState.HALF_OPEN) {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+            }
+            return true;
+        }
+
+        private synchronized void recordSuccess() {
+            totalSuccesses++;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            openUntil = null;
+            if (state != BreakerState.CLOSED) {
+                infoLogger.log("Circuit closed for host: " + host);
+            }
+            state = BreakerState.CLOSED;
+        }
+
+        private synchronized void recordFailure() {
+            totalFailures++;
+            consecutiveFailures++;
+            trialInFlight = false;
+            if (state == BreakerState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = BreakerState.OPEN;
+                openUntil = Instant.now().plus(coolDown);
+                errorLogger.log("Circuit opened for host: " + host + "!!Consecutive failures: " + consecutiveFailures + "!!Skipping until: " + openUntil);
+            }
+        }
+
+        private synchronized boolean isOpen() {
+            return state == BreakerState.OPEN && Instant.now().isBefore(openUntil);
+        }
+
+        /**
+         * Ends a request that says nothing about the host's health, such as a dead link or a used up budget.
+         */
+        private synchronized void release() {
+            trialInFlight = false;
+        }
+
+        private synchronized HostStatus status() {
+            BreakerState shown = state == BreakerState.OPEN && !Instant.now().isBefore(openUntil) ? BreakerState.HALF_OPEN : state;
+            return new HostStatus(host, shown, consecutiveFailures, totalSuccesses, totalFailures, openUntil == null ? null : openUntil.toString());
+        }
+    }
+}
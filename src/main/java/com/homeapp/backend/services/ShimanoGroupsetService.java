@@ -1,8 +1,8 @@
 package com.homeapp.backend.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.homeapp.backend.models.bike.BikeParts;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.ShifterStyle;
 import com.homeapp.backend.models.bike.Error;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.bike.Part;
@@ -10,383 +10,420 @@ import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
 import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
 
 /**
  * The type Shimano groupset service.
+ * The rules choosing each Part of the groupset are kept in static methods, so the Part Compatibility Service can read them too.
  */
 @Service
 public class ShimanoGroupsetService {
     private static final String chainReactionURL = "https://www.chainreactioncycles.com/p/";
     private static final String wiggleURL = "https://www.wiggle.com/p/";
-    private static FullBike bike;
-    private BikeParts bikeParts;
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
     private final ErrorLogger errorLogger = new ErrorLogger();
-    private final FullBikeService fullBikeService;
-    private static final String LINKS_FILE = "src/main/resources/links.json";
-    private final ObjectMapper om;
+    private final PartsRefreshService partsRefreshService;
+    private final PartsCatalogService partsCatalogService;
 
     /**
      * Instantiates a new Shimano Groupset Service.
-     * Autowires in a FullBike Service to allow for access to instance Bike in all methods within this class.
+     * Autowires in a Parts Refresh Service so that Parts asked for are refreshed sooner.
+     * Autowires in a Parts Catalog Service to look Parts up without reading the links file each time.
+     * No bike or parts are kept on the service, both are passed through every method, so calls for different bikes can run at the same time.
      *
-     * @param fullBikeService the full bike service
+     * @param partsRefreshService the parts refresh service
+     * @param partsCatalogService the parts catalog service
      */
     @Autowired
-    public ShimanoGroupsetService(@Lazy FullBikeService fullBikeService, ObjectMapper om) {
-        this.fullBikeService = fullBikeService;
-        this.om = om;
+    public ShimanoGroupsetService(PartsRefreshService partsRefreshService, PartsCatalogService partsCatalogService) {
+        this.partsRefreshService = partsRefreshService;
+        this.partsCatalogService = partsCatalogService;
     }
 
     /**
      * Gets shimano groupset.
-     * Sets the passed-in parts to the instance object, to be used throughout the class.
+     * Adds the groupset's Parts for the passed-in bike to the passed-in parts.
      * Runs each separate component method in parallel to improve efficiency.
+     * A 3 by bike is held to the rear gears its Parts allow before any component method runs, and every method is passed those rear gears,
+     * so none of them changes the bike while the others read it.
      * Each component method chooses the correct link based on design bike and then retrieves the individual part information from the web.
      *
-     * @param parts the parts
+     * @param bike  the design bike
+     * @param parts the parts, with lists that are safe to add to from several threads
      */
-    public void getShimanoGroupset(BikeParts parts) {
+    public void getShimanoGroupset(FullBike bike, BikeParts parts) {
         infoLogger.log("Getting Parts for Shimano Groupset.");
-        bikeParts = parts;
-        bike = fullBikeService.getBike();
+        long rearGears = rearGearsFor(bike.getNumberOfFrontGears(), bike.getNumberOfRearGears());
+        if (rearGears != bike.getNumberOfRearGears()) {
+            bike.setNumberOfRearGears(rearGears);
+            warnLogger.log("3 by Shimano Gears are restricted to a maximum of 10 at the back");
+        }
         if (!bike.getShifterStyle().equals(STI)) {
-            getLeverShifters();
-            getBrakeLevers();
+            getLeverShifters(rearGears, parts);
+            getBrakeLevers(bike, parts);
         } else {
             if ((bike.getBrakeType().equals(MECHANICAL_DISC)) || (bike.getBrakeType().equals(RIM))) {
-                getMechanicalSTIShifters();
+                getMechanicalSTIShifters(bike, rearGears, parts);
             } else if (bike.getBrakeType().equals(HYDRAULIC_DISC)) {
-                getHydraulicSTIShifters();
+                getHydraulicSTIShifters(bike, rearGears, parts);
             }
         }
-        CompletableFuture<Void> brakeFuture = CompletableFuture.runAsync(this::getBrakeCalipers);
-        CompletableFuture<Void> chainringFuture = CompletableFuture.runAsync(this::getChainring);
-        CompletableFuture<Void> cassetteFuture = CompletableFuture.runAsync(this::getCassette);
-        CompletableFuture<Void> chainFuture = CompletableFuture.runAsync(this::getChain);
-        CompletableFuture<Void> rearDerailleurFuture = CompletableFuture.runAsync(this::getRearDerailleur);
-        CompletableFuture<Void> frontDerailleurFuture = CompletableFuture.runAsync(this::getFrontDerailleur);
+        CompletableFuture<Void> brakeFuture = CompletableFuture.runAsync(() -> getBrakeCalipers(bike, rearGears, parts));
+        CompletableFuture<Void> chainringFuture = CompletableFuture.runAsync(() -> getChainring(bike, rearGears, parts));
+        CompletableFuture<Void> cassetteFuture = CompletableFuture.runAsync(() -> getCassette(rearGears, parts));
+        CompletableFuture<Void> chainFuture = CompletableFuture.runAsync(() -> getChain(rearGears, parts));
+        CompletableFuture<Void> rearDerailleurFuture = CompletableFuture.runAsync(() -> getRearDerailleur(rearGears, parts));
+        CompletableFuture<Void> frontDerailleurFuture = CompletableFuture.runAsync(() -> getFrontDerailleur(bike, rearGears, parts));
         CompletableFuture.allOf(brakeFuture, chainringFuture, cassetteFuture, chainFuture, rearDerailleurFuture, frontDerailleurFuture).join();
-        if (!bikeParts.getErrorMessages().isEmpty()) {
-            errorLogger.log("BikeParts has " + bikeParts.getErrorMessages().size() + " errors: " + bikeParts.getErrorMessages());
+        if (!parts.getErrorMessages().isEmpty()) {
+            errorLogger.log("BikeParts has " + parts.getErrorMessages().size() + " errors: " + parts.getErrorMessages());
         }
     }
 
-    private void getBrakeLevers() {
-        String ref = "";
+    private void getBrakeLevers(FullBike bike, BikeParts parts) {
         String component = "Brake-Levers";
-        String method = "getBrakeLevers";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        if (bike.getBrakeType().equals(HYDRAULIC_DISC)) {
-            ref = wiggleURL + "shimano-m6100-brake-2-piston-704288#colcode=70428803";
-            findPartFromInternalRef("Left-" + ref);
-            ref = wiggleURL + "shimano-m6100-brake-2-piston-704288#colcode=70428803";
-            findPartFromInternalRef("Right-" + ref);
-        } else {
-            ref = wiggleURL + "shimano-deore-t610-v-brake-levers-930835#colcode=93083503";
-            findPartFromInternalRef(ref);
-        }
+        brakeLeverRefs(bike.getBrakeType()).forEach(ref -> findPartFromInternalRef(ref, parts));
     }
 
-    private void getBrakeCalipers() {
-        String ref = "";
+    private void getBrakeCalipers(FullBike bike, long rearGears, BikeParts parts) {
         String component = "Brake-Caliper";
         String method = "getBrakeCalipers";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        switch (bike.getBrakeType()) {
-            case RIM -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = wiggleURL + "shimano-tiagra-r451-dual-pivot-brake-caliper-930477#colcode=93047703";
-                } else {
-                    ref = wiggleURL + "shimano-105-r7000-road-brake-caliper-932489#colcode=93248903";
-                }
-            }
-            case MECHANICAL_DISC -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = wiggleURL + "shimano-br-r317-rear-road-disc-brake-caliper-930854#colcode=93085403";
-                } else {
-                    ref = chainReactionURL + "trp-spyre-post-mount-caliper-837329#colcode=83732903";
-                }
-            }
-            default -> {
-                warnLogger.log("Not getting link for calipers as Hydraulic calipers and levers are together");
-            }
-        }
+        String ref = brakeCaliperRef(bike.getBrakeType(), rearGears);
         if (!ref.isEmpty()) {
-            findPartFromInternalRef("Front-" + ref);
-            findPartFromInternalRef("Rear-" + ref);
+            findPartFromInternalRef("Front-" + ref, parts);
+            findPartFromInternalRef("Rear-" + ref, parts);
         } else {
             if (!bike.getBrakeType().equals(HYDRAULIC_DISC)) {
-                bikeParts.getErrorMessages().add(new Error(component, method, ref));
+                parts.getErrorMessages().add(new Error(component, method, ref));
+            } else {
+                warnLogger.log("Not getting link for calipers as Hydraulic calipers and levers are together");
             }
         }
     }
 
-    private void getMechanicalSTIShifters() {
-        String ref = "";
+    private void getMechanicalSTIShifters(FullBike bike, long rearGears, BikeParts parts) {
         String component = "STI-Shifter";
         String method = "getMechanicalSTIShifters";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        switch ((int) bike.getNumberOfFrontGears()) {
-            //Could not find active site for 1 by components
-            //Below links are useless, have taken out option for Frontend selection
-            case 1 -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = chainReactionURL + "microshift-advent-m090-1x9-speed-gear-brake-levers";
-                } else if (bike.getNumberOfRearGears() == 10) {
-                    ref = chainReactionURL + "shimano-tiagra-4700-sti-shifter-set-2x10";
-                } else if (bike.getNumberOfRearGears() == 11) {
-                    ref = wiggleURL + "shimano-105-r7000-11-speed-levers";
-                } else {
-                    ref = wiggleURL + "shimano-ultegra-r8150-di2-12-speed-shifter-set";
-                }
-            }
-            case 2 -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = chainReactionURL + "shimano-sora-r3000-sti-mechanical-9-speed-shifter---for-double-912434#colcode=91243403";
-                } else if (bike.getNumberOfRearGears() == 10) {
-                    ref = wiggleURL + "shimano-tiagra-4700-double-sti-shifter-911771#colcode=91177103";
-                } else
-//                        if (bike.getNumberOfRearGears() == 11)
-                {
-                    ref = chainReactionURL + "shimano-105-r7000-mechanical-shifters--pair-913387#colcode=91338703";
-                }
-                //no website found for this option
-//                    else {
-//                        link = wiggleURL + "shimano-ultegra-r8150-di2-12-speed-shifter-set";
-//                    }
-            }
-            case 3 -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = chainReactionURL + "microshift-r9-3x9-speed-dual-control-levers";
-                } else {
-                    ref = wiggleURL + "shimano-tiagra-4700-3x10-speed-lever-set";
-                    bike.setNumberOfRearGears(10);
-                    warnLogger.log("3 by Shimano Gears are restricted to a maximum of 10 at the back");
-                }
-            }
-        }
+        String ref = mechanicalSTIShifterRef(bike.getNumberOfFrontGears(), rearGears);
         if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, parts);
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
+            parts.getErrorMessages().add(new Error(component, method, ref));
         }
     }
 
-    private void getHydraulicSTIShifters() {
-        String ref = "";
+    private void getHydraulicSTIShifters(FullBike bike, long rearGears, BikeParts parts) {
         String component = "Hydraulic-Shifter";
-        String method = "getHydraulicSTIShifters";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        if (bike.getNumberOfRearGears() == 10) {
-            ref = chainReactionURL + "shimano-tiagra-4725-2x10-speed-road-disc-brake";
-        } else if (bike.getNumberOfRearGears() == 11) {
-            ref = chainReactionURL + "shimano-105-r7025-hydraulic-disc-brake";
-        } else if (bike.getNumberOfRearGears() == 12) {
-            ref = wiggleURL + "shimano-105-r7170-di2-hydraulic-disc-brake";
-        } else {
-            ref = wiggleURL + "clarks-m2-hydraulic-disc-brake-with-rotor";
-        }
-        findPartFromInternalRef("Right-" + ref);
-        if (bike.getNumberOfFrontGears() == 1) {
-            ref = chainReactionURL + "shimano-grx-820-hydraulic-drop-bar-brake-lever";
-        }
-        findPartFromInternalRef("Left-" + ref);
+        hydraulicSTIShifterRefs(bike.getNumberOfFrontGears(), rearGears).forEach(ref -> findPartFromInternalRef(ref, parts));
     }
 
-    private void getLeverShifters() {
-        String ref = "";
+    private void getLeverShifters(long rearGears, BikeParts parts) {
         String component = "Trigger-Shifter";
-        String method = "getLeverShifters";
         infoLogger.log("Getting Parts for: " + component);
-        switch ((int) bike.getNumberOfRearGears()) {
-            case 10 -> ref = wiggleURL + "shimano-deore-m6000-10-speed-trigger-shifter";
-            case 11 -> ref = wiggleURL + "shimano-xt-m8000-11-speed-trigger-shifter";
-            default -> ref = chainReactionURL + "shimano-altus-m2010-9-speed-shifter";
-        }
-        if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
-        } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
-        }
+        findPartFromInternalRef(triggerShifterRef(rearGears), parts);
     }
 
-    private void getChainring() {
-        String ref = "";
+    private void getChainring(FullBike bike, long rearGears, BikeParts parts) {
         String component = "Chainring";
         String method = "getChainring";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        switch ((int) bike.getNumberOfFrontGears()) {
-            //Could not find active site for 1 by components
-            //Below links are useless, have taken out option for Frontend selection
-            case 1 -> {
-                if (bike.getNumberOfRearGears() == 10 || bike.getNumberOfRearGears() == 11) {
-                    ref = chainReactionURL + "shimano-m5100-deore-10-11-speed-single-chainset";
-                } else if (bike.getNumberOfRearGears() == 12) {
-                    ref = chainReactionURL + "shimano-m6100-deore-12-speed-mtb-single-chainset";
-                } else {
-                    ref = wiggleURL + "miche-primato-advanced-track-single-chainset";
-                }
-            }
-            case 2 -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = chainReactionURL + "shimano-claris-r2000-8-speed-double-chainset";
-                } else if (bike.getNumberOfRearGears() == 10) {
-                    ref = chainReactionURL + "shimano-tiagra-4700-10-speed-chainset";
-                } else if (bike.getNumberOfRearGears() == 11) {
-                    ref = chainReactionURL + "shimano-105-r7000-11-speed-road-double-chainset";
-                } else if (bike.getNumberOfRearGears() == 12) {
-                    ref = chainReactionURL + "shimano-105-r7100-12-speed-double-chainset";
-                }
-            }
-            case 3 -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = wiggleURL + "shimano-sora-r3030-9-speed-triple-chainset";
-                } else {
-                    ref = chainReactionURL + "shimano-tiagra-4703-10sp-road-triple-chainset";
-                    bike.setNumberOfRearGears(10);
-                }
-            }
-        }
+        String ref = chainringRef(bike.getNumberOfFrontGears(), rearGears);
         if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, parts);
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
+            parts.getErrorMessages().add(new Error(component, method, ref));
         }
     }
 
-    private void getCassette() {
-        String ref = "";
+    private void getCassette(long rearGears, BikeParts parts) {
         String component = "Cassette";
-        String method = "getCassette";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        switch ((int) bike.getNumberOfRearGears()) {
-            case 9 -> ref = wiggleURL + "shimano-sora-hg400-9-speed-cassette";
-            case 10 -> ref = chainReactionURL + "shimano-tiagra-hg500-10-speed-road-cassette-5360107149";
-            case 11 -> ref = chainReactionURL + "shimano-105-r7000-11-speed-cassette";
-            case 12 -> ref = chainReactionURL + "shimano-105-r7100-12-speed-cassette";
-            default -> ref = wiggleURL + "shimano-dx-single-speed-sprocket";
-        }
-        if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
-        } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
-        }
+        findPartFromInternalRef(cassetteRef(rearGears), parts);
     }
 
-    private void getChain() {
-        String ref = "";
+    private void getChain(long rearGears, BikeParts parts) {
         String component = "Chain";
-        String method = "getChain";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        switch ((int) bike.getNumberOfRearGears()) {
-            case 9 -> ref = wiggleURL + "shimano-xt-hg93-9-speed-chain";
-            case 10 -> ref = wiggleURL + "shimano-hg95-10-speed-chain";
-            case 11 -> ref = wiggleURL + "shimano-hg601q-105-5800-11-speed-chain";
-            case 12 -> ref = wiggleURL + "shimano-slx-m7100-12-speed-chain";
-            default -> ref = chainReactionURL + "shimano-nexus-single-speed-chain";
-        }
-        if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
-        } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
-        }
+        findPartFromInternalRef(chainRef(rearGears), parts);
     }
 
-    private void getRearDerailleur() {
-        String ref = "";
+    private void getRearDerailleur(long rearGears, BikeParts parts) {
         String component = "Rear-Derailleur";
         String method = "getRearDerailleur";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        switch ((int) bike.getNumberOfRearGears()) {
-            case 9 -> ref = wiggleURL + "shimano-sora-r3000-9-speed-rear-derailleur";
-            case 10 -> ref = wiggleURL + "shimano-tiagra-4700-10-speed-rear-derailleur-gs";
-            case 11 -> ref = chainReactionURL + "shimano-105-r7000-11-speed-rear-derailleur";
-            case 12 -> ref = chainReactionURL + "shimano-ultegra-r8150-di2-12-speed-rear-derailleur";
-            default -> {
-            }
-        }
-        if (!ref.isEmpty() && bike.getNumberOfRearGears() > 1) {
-            findPartFromInternalRef(ref);
+        String ref = rearDerailleurRef(rearGears);
+        if (!ref.isEmpty()) {
+            findPartFromInternalRef(ref, parts);
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
+            parts.getErrorMessages().add(new Error(component, method, ref));
         }
     }
 
-    private void getFrontDerailleur() {
-        String ref = "";
+    private void getFrontDerailleur(FullBike bike, long rearGears, BikeParts parts) {
         String component = "Front-Derailleur";
         String method = "getFrontDerailleur";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
-        switch ((int) bike.getNumberOfFrontGears()) {
+        if (bike.getNumberOfFrontGears() == 1) {
+            warnLogger.log("Front Derailleur not required, providing chain catcher");
+        }
+        String ref = frontDerailleurRef(bike.getNumberOfFrontGears(), rearGears);
+        if (!ref.isEmpty()) {
+            findPartFromInternalRef(ref, parts);
+        } else {
+            parts.getErrorMessages().add(new Error(component, method, ref));
+        }
+    }
+
+    /**
+     * Gets the links of every Part of a Shimano groupset for a drivetrain, as Get Shimano Groupset would look them up.
+     * The same rules choose the Parts here as there, so two Parts on this list are known to work together.
+     * A 3 by drivetrain is held to the rear gears its Parts allow first, as it is when the Parts are got.
+     *
+     * @param brakeType    the brake type
+     * @param shifterStyle the shifter style
+     * @param frontGears   the number of front gears
+     * @param rearGears    the number of rear gears
+     * @return the links, with the Left-, Right-, Front- and Rear- prefixes of Parts that come in pairs
+     */
+    public static List<String> groupsetRefs(BrakeType brakeType, ShifterStyle shifterStyle, long frontGears, long rearGears) {
+        long rear = rearGearsFor(frontGears, rearGears);
+        List<String> refs = new ArrayList<>();
+        if (shifterStyle != STI) {
+            refs.add(triggerShifterRef(rear));
+            refs.addAll(brakeLeverRefs(brakeType));
+        } else if (brakeType == MECHANICAL_DISC || brakeType == RIM) {
+            refs.add(mechanicalSTIShifterRef(frontGears, rear));
+        } else if (brakeType == HYDRAULIC_DISC) {
+            refs.addAll(hydraulicSTIShifterRefs(frontGears, rear));
+        }
+        String caliper = brakeCaliperRef(brakeType, rear);
+        if (!caliper.isEmpty()) {
+            refs.add("Front-" + caliper);
+            refs.add("Rear-" + caliper);
+        }
+        refs.add(chainringRef(frontGears, rear));
+        refs.add(cassetteRef(rear));
+        refs.add(chainRef(rear));
+        refs.add(rearDerailleurRef(rear));
+        refs.add(frontDerailleurRef(frontGears, rear));
+        refs.removeIf(String::isEmpty);
+        return refs;
+    }
+
+    /**
+     * Gets the links of every Part of a Shimano groupset for a drivetrain, as Group Set Refs does, if the groupset has every Part it needs.
+     * A groupset is missing a Part where Get Shimano Groupset would add an error for it, e.g. a derailleur for gears no derailleur has.
+     *
+     * @param brakeType    the brake type
+     * @param shifterStyle the shifter style
+     * @param frontGears   the number of front gears
+     * @param rearGears    the number of rear gears
+     * @return the links, empty if a Part the groupset needs has no link
+     */
+    public static Optional<List<String>> completeGroupsetRefs(BrakeType brakeType, ShifterStyle shifterStyle, long frontGears, long rearGears) {
+        long rear = rearGearsFor(frontGears, rearGears);
+        boolean missing = brakeType != HYDRAULIC_DISC && brakeCaliperRef(brakeType, rear).isEmpty()
+                || shifterStyle == STI && (brakeType == MECHANICAL_DISC || brakeType == RIM) && mechanicalSTIShifterRef(frontGears, rear).isEmpty()
+                || Stream.of(chainringRef(frontGears, rear), rearDerailleurRef(rear), frontDerailleurRef(frontGears, rear)).anyMatch(String::isEmpty);
+        return missing ? Optional.empty() : Optional.of(groupsetRefs(brakeType, shifterStyle, frontGears, rearGears));
+    }
+
+    /**
+     * Gets the rear gears a Shimano groupset allows with the front gears: a 3 by groupset is 9 or 10 speed, anything else 10.
+     *
+     * @param frontGears the number of front gears
+     * @param rearGears  the number of rear gears wanted
+     * @return the number of rear gears
+     */
+    static long rearGearsFor(long frontGears, long rearGears) {
+        return frontGears == 3 && rearGears != 9 ? 10 : rearGears;
+    }
+
+    private static List<String> brakeLeverRefs(BrakeType brakeType) {
+        if (brakeType == HYDRAULIC_DISC) {
+            String ref = wiggleURL + "shimano-m6100-brake-2-piston-704288#colcode=70428803";
+            return List.of("Left-" + ref, "Right-" + ref);
+        }
+        return List.of(wiggleURL + "shimano-deore-t610-v-brake-levers-930835#colcode=93083503");
+    }
+
+    private static String brakeCaliperRef(BrakeType brakeType, long rearGears) {
+        if (brakeType == RIM) {
+            return rearGears == 9
+                    ? wiggleURL + "shimano-tiagra-r451-dual-pivot-brake-caliper-930477#colcode=93047703"
+                    : wiggleURL + "shimano-105-r7000-road-brake-caliper-932489#colcode=93248903";
+        }
+        if (brakeType == MECHANICAL_DISC) {
+            return rearGears == 9
+                    ? wiggleURL + "shimano-br-r317-rear-road-disc-brake-caliper-930854#colcode=93085403"
+                    : chainReactionURL + "trp-spyre-post-mount-caliper-837329#colcode=83732903";
+        }
+        return "";
+    }
+
+    private static String mechanicalSTIShifterRef(long frontGears, long rearGears) {
+        return switch ((int) frontGears) {
+            //Could not find active site for 1 by components
+            //Below links are useless, have taken out option for Frontend selection
             case 1 -> {
-                ref = wiggleURL + "deda-dog-fang-chain-catcher";
-                warnLogger.log("Front Derailleur not required, providing chain catcher");
-            }
-            case 2 -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = wiggleURL + "shimano-sora-r3000-9-speed-double-front-derailleur";
-                } else if (bike.getNumberOfRearGears() == 10) {
-                    ref = wiggleURL + "shimano-tiagra-fd4700-10-speed-front-derailleur";
-                } else if (bike.getNumberOfRearGears() == 11) {
-                    ref = wiggleURL + "shimano-105-r7000-11-speed-front-derailleur";
-                } else if (bike.getNumberOfRearGears() == 12) {
-                    ref = wiggleURL + "shimano-105-r7150-di2-e-tube-front-derailleur";
+                if (rearGears == 9) {
+                    yield chainReactionURL + "microshift-advent-m090-1x9-speed-gear-brake-levers";
+                } else if (rearGears == 10) {
+                    yield chainReactionURL + "shimano-tiagra-4700-sti-shifter-set-2x10";
+                } else if (rearGears == 11) {
+                    yield wiggleURL + "shimano-105-r7000-11-speed-levers";
                 }
+                yield wiggleURL + "shimano-ultegra-r8150-di2-12-speed-shifter-set";
             }
-            case 3 -> {
-                if (bike.getNumberOfRearGears() == 9) {
-                    ref = wiggleURL + "shimano-sora-r3030-9-speed-triple-front-derailleur";
-                } else {
-                    ref = wiggleURL + "shimano-tiagra-4703-3x10sp-braze-on-front-mech";
+            case 2 -> {
+                if (rearGears == 9) {
+                    yield chainReactionURL + "shimano-sora-r3000-sti-mechanical-9-speed-shifter---for-double-912434#colcode=91243403";
+                } else if (rearGears == 10) {
+                    yield wiggleURL + "shimano-tiagra-4700-double-sti-shifter-911771#colcode=91177103";
                 }
+                //no website found for a 12 speed option
+                yield chainReactionURL + "shimano-105-r7000-mechanical-shifters--pair-913387#colcode=91338703";
             }
-        }
-        if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
+            case 3 -> rearGears == 9
+                    ? chainReactionURL + "microshift-r9-3x9-speed-dual-control-levers"
+                    : wiggleURL + "shimano-tiagra-4700-3x10-speed-lever-set";
+            default -> "";
+        };
+    }
+
+    private static List<String> hydraulicSTIShifterRefs(long frontGears, long rearGears) {
+        String ref;
+        if (rearGears == 10) {
+            ref = chainReactionURL + "shimano-tiagra-4725-2x10-speed-road-disc-brake";
+        } else if (rearGears == 11) {
+            ref = chainReactionURL + "shimano-105-r7025-hydraulic-disc-brake";
+        } else if (rearGears == 12) {
+            ref = wiggleURL + "shimano-105-r7170-di2-hydraulic-disc-brake";
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
+            ref = wiggleURL + "clarks-m2-hydraulic-disc-brake-with-rotor";
         }
+        String left = frontGears == 1 ? chainReactionURL + "shimano-grx-820-hydraulic-drop-bar-brake-lever" : ref;
+        return List.of("Right-" + ref, "Left-" + left);
     }
 
-    public void findPartFromInternalRef(String internalRef) {
-        infoLogger.log("Reading all Links from File");
-        try {
-            Optional<Part> part = retrievePartFromLinks(internalRef);
-            part.ifPresentOrElse(p -> {
-                        bikeParts.getListOfParts().add(p);
-                        infoLogger.log("Part found and added to bikeParts: " + p);
-                    },
-                    () -> errorLogger.log("No Part was found on File for Internal Ref: " + internalRef));
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from method: readLinksFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
-        }
+    private static String triggerShifterRef(long rearGears) {
+        return switch ((int) rearGears) {
+            case 10 -> wiggleURL + "shimano-deore-m6000-10-speed-trigger-shifter";
+            case 11 -> wiggleURL + "shimano-xt-m8000-11-speed-trigger-shifter";
+            default -> chainReactionURL + "shimano-altus-m2010-9-speed-shifter";
+        };
     }
 
-    private Optional<Part> retrievePartFromLinks(String ref) throws IOException {
-        LinkedList<Part> parts = om.readValue(new File(LINKS_FILE), new TypeReference<>() {
-        });
-        return parts.stream().filter(p -> p.getLink().equals(ref)).findFirst();
+    private static String chainringRef(long frontGears, long rearGears) {
+        return switch ((int) frontGears) {
+            //Could not find active site for 1 by components
+            //Below links are useless, have taken out option for Frontend selection
+            case 1 -> {
+                if (rearGears == 10 || rearGears == 11) {
+                    yield chainReactionURL + "shimano-m5100-deore-10-11-speed-single-chainset";
+                } else if (rearGears == 12) {
+                    yield chainReactionURL + "shimano-m6100-deore-12-speed-mtb-single-chainset";
+                }
+                yield wiggleURL + "miche-primato-advanced-track-single-chainset";
+            }
+            case 2 -> switch ((int) rearGears) {
+                case 9 -> chainReactionURL + "shimano-claris-r2000-8-speed-double-chainset";
+                case 10 -> chainReactionURL + "shimano-tiagra-4700-10-speed-chainset";
+                case 11 -> chainReactionURL + "shimano-105-r7000-11-speed-road-double-chainset";
+                case 12 -> chainReactionURL + "shimano-105-r7100-12-speed-double-chainset";
+                default -> "";
+            };
+            case 3 -> rearGears == 9
+                    ? wiggleURL + "shimano-sora-r3030-9-speed-triple-chainset"
+                    : chainReactionURL + "shimano-tiagra-4703-10sp-road-triple-chainset";
+            default -> "";
+        };
+    }
+
+    private static String cassetteRef(long rearGears) {
+        return switch ((int) rearGears) {
+            case 9 -> wiggleURL + "shimano-sora-hg400-9-speed-cassette";
+            case 10 -> chainReactionURL + "shimano-tiagra-hg500-10-speed-road-cassette-5360107149";
+            case 11 -> chainReactionURL + "shimano-105-r7000-11-speed-cassette";
+            case 12 -> chainReactionURL + "shimano-105-r7100-12-speed-cassette";
+            default -> wiggleURL + "shimano-dx-single-speed-sprocket";
+        };
+    }
+
+    private static String chainRef(long rearGears) {
+        return switch ((int) rearGears) {
+            case 9 -> wiggleURL + "shimano-xt-hg93-9-speed-chain";
+            case 10 -> wiggleURL + "shimano-hg95-10-speed-chain";
+            case 11 -> wiggleURL + "shimano-hg601q-105-5800-11-speed-chain";
+            case 12 -> wiggleURL + "shimano-slx-m7100-12-speed-chain";
+            default -> chainReactionURL + "shimano-nexus-single-speed-chain";
+        };
+    }
+
+    private static String rearDerailleurRef(long rearGears) {
+        return switch ((int) rearGears) {
+            case 9 -> wiggleURL + "shimano-sora-r3000-9-speed-rear-derailleur";
+            case 10 -> wiggleURL + "shimano-tiagra-4700-10-speed-rear-derailleur-gs";
+            case 11 -> chainReactionURL + "shimano-105-r7000-11-speed-rear-derailleur";
+            case 12 -> chainReactionURL + "shimano-ultegra-r8150-di2-12-speed-rear-derailleur";
+            default -> "";
+        };
+    }
+
+    private static String frontDerailleurRef(long frontGears, long rearGears) {
+        return switch ((int) frontGears) {
+            case 1 -> wiggleURL + "deda-dog-fang-chain-catcher";
+            case 2 -> switch ((int) rearGears) {
+                case 9 -> wiggleURL + "shimano-sora-r3000-9-speed-double-front-derailleur";
+                case 10 -> wiggleURL + "shimano-tiagra-fd4700-10-speed-front-derailleur";
+                case 11 -> wiggleURL + "shimano-105-r7000-11-speed-front-derailleur";
+                case 12 -> wiggleURL + "shimano-105-r7150-di2-e-tube-front-derailleur";
+                default -> "";
+            };
+            case 3 -> rearGears == 9
+                    ? wiggleURL + "shimano-sora-r3030-9-speed-triple-front-derailleur"
+                    : wiggleURL + "shimano-tiagra-4703-3x10sp-braze-on-front-mech";
+            default -> "";
+        };
+    }
+
+    /**
+     * Records a request for each Part in the parts catalog with one of the passed-in links, so the Parts Refresh Service refreshes them sooner.
+     * Links not in the catalog are passed over.
+     *
+     * @param links the links of the Parts asked for
+     */
+    public void recordRequests(List<String> links) {
+        links.forEach(link -> partsCatalogService.findByLink(link).ifPresent(p -> partsRefreshService.recordRequest(p.getLink())));
+    }
+
+    /**
+     * Finds the Part with the passed-in link in the parts catalog and adds it to the bike's parts.
+     * No request is recorded for the Part; callers asking for a bike's parts on a user's behalf record them with Record Requests.
+     *
+     * @param internalRef the link of the Part
+     * @param parts       the parts to add it to
+     */
+    public void findPartFromInternalRef(String internalRef, BikeParts parts) {
+        Optional<Part> part = partsCatalogService.findByLink(internalRef);
+        part.ifPresentOrElse(p -> {
+                    parts.getListOfParts().add(p);
+                    infoLogger.log("Part found and added to bikeParts: " + p);
+                },
+                () -> errorLogger.log("No Part was found on File for Internal Ref: " + internalRef));
     }
 }
\ No newline at end of file
@@ -6,58 +6,46 @@ import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.models.note.StickyNote;
+import com.homeapp.backend.store.NoteStore;
+import com.homeapp.backend.store.Page;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * The Sticky Note Service class.
+ * Notes are kept in the Note Store, the JSON notes file or the database depending on storage.mode.
  */
 @Service
 public class StickyNoteService {
 
     private static final ObjectMapper om = new ObjectMapper();
-    private static final String JSON_NOTES_FILE = "src/main/resources/notes.json";
     private static final String JSON_NOTES_FILE_BACKUP = "src/main/resources/notes_backup.json";
     private final InfoLogger infoLogger = new InfoLogger();
     private final WarnLogger warnLogger = new WarnLogger();
     private final ErrorLogger errorLogger = new ErrorLogger();
-    private List<StickyNote> notesList;
+    private final NoteStore noteStore;
 
     /**
      * Instantiates a new Sticky Note Service.
-     * Reads all the notes located on File.
+     *
+     * @param noteStore the note store
      */
     @Autowired
-    public StickyNoteService() {
-        this.notesList = readNotesFile();
-    }
-
-    private List<StickyNote> readNotesFile() {
-        infoLogger.log("Reading Sticky Notes From File");
-        try {
-            File file = new File(JSON_NOTES_FILE);
-            List<StickyNote> notes = om.readValue(file, new TypeReference<>() {
-            });
-            warnLogger.log("Returning Populated list of Sticky Notes from file, number of notes: " + notes.size());
-            return notes;
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from: readNotesFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
-        }
-        warnLogger.log("Returning Empty list of Sticky Notes from file");
-        return new ArrayList<>();
+    public StickyNoteService(NoteStore noteStore) {
+        this.noteStore = noteStore;
     }
 
     /**
      * Reload notes from backup.
      */
-    public void reloadNotesFromBackup() {
+    public synchronized void reloadNotesFromBackup() {
         infoLogger.log("Reloading Sticky Notes From Backup File");
         try {
             deleteAll();
@@ -71,18 +59,21 @@ public class StickyNoteService {
     }
 
     /**
-     * Write notes to file.
+     * Write notes to file, replacing every note with the passed-in list.
      *
      * @param list the list
      */
-    public void writeNotesToFile(List<StickyNote> list) {
+    public synchronized void writeNotesToFile(List<StickyNote> list) {
         infoLogger.log("Writing Sticky Notes back to File");
-        try {
-            om.writeValue(new File(JSON_NOTES_FILE), list);
-            notesList = list;
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from: writeNotesToFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
-        }
+        noteStore.replaceAll(list);
+    }
+
+    /**
+     * Waits until every change made to the notes so far is on disk.
+     * Edits are acknowledged once queued, so callers that must know a change is durable call this afterwards.
+     */
+    public void flush() {
+        noteStore.flush().join();
     }
 
     /**
@@ -111,42 +102,75 @@ public class StickyNoteService {
 
     /**
      * Create.
+     * The note is given the next ID, one more than the highest in use.
      *
      * @param note the note
      */
-    public void create(StickyNote note) {
+    public synchronized void create(StickyNote note) {
         infoLogger.log("Creating new Sticky Note");
-        if (checkNoteTitle(note.getTitle())) {
+        if (noteStore.findByTitle(note.getTitle()).isPresent()) {
             warnLogger.log("Sticky note with this title already exists, not creating a new one!");
         } else {
             warnLogger.log("Adding Sticky Note with title: " + note.getTitle());
-            long newId = notesList.size() + 1;
-            note.setStickyNoteId(newId);
-            notesList.add(note);
-            writeNotesToFile(notesList);
+            note.setStickyNoteId(noteStore.nextId());
+            noteStore.save(note);
         }
     }
 
-    private boolean checkNoteTitle(String title) {
-        return notesList.stream().anyMatch(n -> n.getTitle().equals(title));
-    }
-
-    private boolean checkNoteId(Long id) {
-        return notesList.stream().anyMatch(n -> n.getStickyNoteId() == id);
+    /**
+     * Saves a batch of imported notes and waits until the batch is on disk.
+     * Notes keep their ID, replacing any note with the same ID. Notes without an ID are numbered on from the highest ID in use or in the batch.
+     *
+     * @param notes the notes
+     */
+    public synchronized void importNotes(List<StickyNote> notes) {
+        long nextId = Math.max(noteStore.nextId(), notes.stream().mapToLong(StickyNote::getStickyNoteId).max().orElse(0) + 1);
+        for (StickyNote note : notes) {
+            if (note.getStickyNoteId() <= 0) {
+                note.setStickyNoteId(nextId++);
+            }
+        }
+        noteStore.saveAll(notes).join();
+        warnLogger.log("Imported batch of notes, number saved: " + notes.size());
     }
 
     /**
-     * Retrieve all notes list.
+     * Retrieve all notes list, notes still to do first.
      *
      * @return the list
      */
     public List<StickyNote> retrieveAllNotes() {
         infoLogger.log("Getting all notes");
-        notesList.sort((o1, o2) -> Boolean.compare(o1.isComplete(), o2.isComplete()));
+        List<StickyNote> notesList = noteStore.findAll();
+        notesList.sort(Comparator.comparing(StickyNote::isComplete));
         warnLogger.log("Number of notes found: " + notesList.size());
         return notesList;
     }
 
+    /**
+     * Gets the version of the saved notes, which goes up on every change to them.
+     *
+     * @return the notes version
+     */
+    public long getNotesVersion() {
+        return noteStore.version();
+    }
+
+    /**
+     * Retrieve a page of notes in ID order, optionally only those complete or still to do.
+     *
+     * @param after    the cursor, only notes with a higher ID are returned
+     * @param limit    the most notes to return, at least 1
+     * @param complete true for only complete notes, false for only notes still to do, null for any
+     * @return the page of notes
+     */
+    public Page<StickyNote> retrieveNotesPage(long after, int limit, Boolean complete) {
+        infoLogger.log("Getting page of notes after ID: " + after);
+        Page<StickyNote> page = noteStore.findPage(after, limit, complete);
+        warnLogger.log("Number of notes found: " + page.items().size());
+        return page;
+    }
+
     /**
      * Retrieve by title sticky note.
      *
@@ -155,8 +179,8 @@ public class StickyNoteService {
      */
     public StickyNote retrieveByTitle(String title) {
         infoLogger.log("Retrieving by Title, Sticky Note with Title: " + title);
-        StickyNote noteFromFile = notesList.stream().filter(note -> note.getTitle().equals(title)).toList().get(0);
-        if (checkNoteTitle(title)) {
+        StickyNote noteFromFile = noteStore.findByTitle(title).orElse(null);
+        if (noteFromFile != null) {
             warnLogger.log("Retrieving by Title, Sticky Note: " + noteFromFile);
             return noteFromFile;
         } else {
@@ -173,8 +197,8 @@ public class StickyNoteService {
      */
     public StickyNote retrieveById(Long id) {
         infoLogger.log("Retrieving by ID, Sticky Note with ID: " + id);
-        StickyNote noteFromFile = notesList.stream().filter(note -> note.getStickyNoteId() == id).toList().get(0);
-        if (checkNoteId(id)) {
+        StickyNote noteFromFile = noteStore.findById(id).orElse(null);
+        if (noteFromFile != null) {
             warnLogger.log("Retrieving by ID, Sticky Note: " + noteFromFile);
             return noteFromFile;
         } else {
@@ -185,20 +209,21 @@ public class StickyNoteService {
 
     /**
      * Edit sticky note.
+     * The edited note replaces the note with the same ID.
      *
      * @param note the note
      */
-    public void editStickyNote(StickyNote note) {
+    public synchronized void editStickyNote(StickyNote note) {
         infoLogger.log("Editing Sticky Note: " + note.getTitle());
         StickyNote noteFromFile = retrieveById(note.getStickyNoteId());
+        if (noteFromFile == null) {
+            warnLogger.log("No Sticky Note to edit with ID: " + note.getStickyNoteId());
+            return;
+        }
         warnLogger.log("Note Before edit: " + noteFromFile);
-        noteFromFile.setTitle(note.getTitle());
-        noteFromFile.setMessageMap(note.getMessageMap());
-        noteFromFile = updateNoteComplete(note);
-        warnLogger.log("Note After edit: " + noteFromFile);
-        notesList.removeIf(n -> n.getTitle().equals(note.getTitle()));
-        notesList.add(noteFromFile);
-        writeNotesToFile(notesList);
+        StickyNote edited = updateNoteComplete(note);
+        warnLogger.log("Note After edit: " + edited);
+        noteStore.save(edited);
     }
 
     /**
@@ -206,16 +231,15 @@ public class StickyNoteService {
      *
      * @param note the note
      */
-    public void deleteNote(StickyNote note) {
-        notesList.removeIf(n -> n.getStickyNoteId() == note.getStickyNoteId());
-        writeNotesToFile(notesList);
+    public synchronized void deleteNote(StickyNote note) {
+        noteStore.delete(note.getStickyNoteId());
     }
 
     /**
      * Delete all.
      */
-    public void deleteAll() {
-        writeNotesToFile(new ArrayList<>());
+    public synchronized void deleteAll() {
+        noteStore.replaceAll(List.of());
     }
 
     private StickyNote updateNoteComplete(StickyNote note) {
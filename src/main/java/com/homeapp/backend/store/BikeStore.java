@@ -0,0 +1,151 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.FullBike;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The Bike Store.
+ * Where the Full Bike Service keeps its bikes. Which store is used is chosen by the storage.mode property,
+ * see the Storage Config.
+ */
+public interface BikeStore {
+
+    /**
+     * Finds a bike by its ID.
+     *
+     * @param bikeId the bike id
+     * @return the bike, empty if there is none with that ID
+     */
+    Optional<FullBike> findById(long bikeId);
+
+    /**
+     * Finds a bike by its name.
+     *
+     * @param bikeName the bike name
+     * @return the first bike with that name, empty if there is none
+     */
+    Optional<FullBike> findByName(String bikeName);
+
+    /**
+     * Finds every bike with the passed-in name.
+     *
+     * @param bikeName the bike name
+     * @return the bikes with that name
+     */
+    List<FullBike> findAllByName(String bikeName);
+
+    /**
+     * Gets every bike.
+     *
+     * @return the bikes
+     */
+    List<FullBike> findAll();
+
+    /**
+     * Gets a page of bikes in ID order, optionally only those with a frame style and/or brake type.
+     *
+     * @param after      the cursor, only bikes with a higher ID are read
+     * @param limit      the most bikes to put on the page, at least 1
+     * @param frameStyle the frame style to keep, null for any
+     * @param brakeType  the brake type to keep, null for any
+     * @return the page
+     */
+    Page<FullBike> findPage(long after, int limit, FrameStyle frameStyle, BrakeType brakeType);
+
+    /**
+     * Gets the store's version, which goes up on every change to the bikes.
+     * Anything built from the bikes can be reused for as long as this is unchanged.
+     *
+     * @return the version
+     */
+    long version();
+
+    /**
+     * Gets how many bikes are saved.
+     *
+     * @return the number of bikes
+     */
+    int size();
+
+    /**
+     * Gets a new, never used, bike ID.
+     *
+     * @return the bike id
+     */
+    long nextId();
+
+    /**
+     * Saves the bike, replacing any bike with the same ID.
+     *
+     * @param bike the bike
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    CompletableFuture<Void> save(FullBike bike) throws IOException;
+
+    /**
+     * Saves a patched bike in place of the bike with the same ID, storing only the fields that changed where the store can.
+     *
+     * @param bike  the bike with the patch applied
+     * @param patch the JSON Merge Patch from the stored bike to the patched one
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    CompletableFuture<Void> patch(FullBike bike, JsonNode patch) throws IOException;
+
+    /**
+     * Saves a batch of bikes together, each replacing any bike with the same ID.
+     *
+     * @param bikes the bikes
+     * @return a future completed once the whole batch is on disk
+     * @throws IOException if the batch cannot be saved
+     */
+    CompletableFuture<Void> saveAll(List<FullBike> bikes) throws IOException;
+
+    /**
+     * Deletes the bike with the passed-in ID, if there is one.
+     *
+     * @param bikeId the bike id
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    CompletableFuture<Void> delete(long bikeId) throws IOException;
+
+    /**
+     * Deletes every bike.
+     *
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    CompletableFuture<Void> clear() throws IOException;
+
+    /**
+     * Replaces every bike with the passed-in bikes.
+     *
+     * @param bikes the bikes
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    CompletableFuture<Void> replaceAll(List<FullBike> bikes) throws IOException;
+
+    /**
+     * Gets a future completed once every change made so far is on disk.
+     *
+     * @return the future
+     */
+    CompletableFuture<Void> flush();
+
+    /**
+     * Saves anything outstanding, ready for shutdown.
+     *
+     * @throws IOException if the store cannot be saved
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,154 @@
+package com.homeapp.backend.store;
+
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * The Design Session Store.
+ * Holds the bike each user is designing, keyed by their design token or session, in memory only.
+ * Each user only ever reads and replaces their own entry, so users designing at the same time never see each other's bike.
+ * <p>
+ * An entry expires once it has not been used for the session timeout, and the store is bounded: when it is full,
+ * expired entries are dropped first, then the least recently used. Expired entries are also swept on a schedule.
+ * Entries are kept in the order they were last used, so both the expired and the least recently used are at the front,
+ * and making room never looks past the entries it drops. Every read and write holds the store's lock for that one step.
+ */
+@Component
+public class DesignSessionStore {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final LinkedHashMap<String, Entry> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final long timeoutNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+
+    /**
+     * A design bike and when it was last used.
+     */
+    private record Entry(FullBike bike, long lastUsed) {
+    }
+
+    /**
+     * Instantiates a new Design Session Store.
+     *
+     * @param timeout     how long an unused design bike is kept, the same as the HTTP session timeout
+     * @param maxSessions the most design bikes kept at once
+     */
+    @Autowired
+    public DesignSessionStore(@Value("${server.servlet.session.timeout:15m}") Duration timeout,
+                              @Value("${design.sessions.max:10000}") int maxSessions) {
+        this(timeout, maxSessions, System::nanoTime);
+    }
+
+    /**
+     * Instantiates a new Design Session Store with its own clock, for tests.
+     *
+     * @param timeout     how long an unused design bike is kept
+     * @param maxSessions the most design bikes kept at once
+     * @param clock       the current time in nanoseconds
+     */
+    public DesignSessionStore(Duration timeout, int maxSessions, LongSupplier clock) {
+        this.timeoutNanos = timeout.toNanos();
+        this.maxSessions = Math.max(1, maxSessions);
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the bike being designed in a session, counting as a use of the session.
+     *
+     * @param key the session key
+     * @return the design bike, empty if there is none or it has expired
+     */
+    public synchronized Optional<FullBike> get(String key) {
+        long now = clock.getAsLong();
+        Entry entry = sessions.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (isExpired(entry, now)) {
+            sessions.remove(key);
+            return Optional.empty();
+        }
+        sessions.put(key, new Entry(entry.bike(), now));
+        return Optional.of(entry.bike());
+    }
+
+    /**
+     * Sets the bike being designed in a session, replacing any bike it had before.
+     *
+     * @param key  the session key
+     * @param bike the design bike
+     */
+    public synchronized void put(String key, FullBike bike) {
+        long now = clock.getAsLong();
+        if (sessions.put(key, new Entry(bike, now)) == null && sessions.size() > maxSessions) {
+            makeRoom(now);
+        }
+    }
+
+    /**
+     * Removes the bike being designed in a session.
+     *
+     * @param key the session key
+     */
+    public synchronized void remove(String key) {
+        sessions.remove(key);
+    }
+
+    /**
+     * Gets how many sessions have a design bike.
+     *
+     * @return the number of sessions, including any expired but not yet swept
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Drops every expired design bike.
+     * Runs on a schedule, so sessions that are never used again do not hold on to memory until the store fills.
+     */
+    @Scheduled(initialDelayString = "${design.sessions.sweep-interval:PT1M}", fixedDelayString = "${design.sessions.sweep-interval:PT1M}")
+    public synchronized void sweep() {
+        long now = clock.getAsLong();
+        int before = sessions.size();
+        dropExpired(now);
+        int swept = before - sessions.size();
+        if (swept > 0) {
+            infoLogger.log("Swept " + swept + " expired design sessions, " + sessions.size() + " left");
+        }
+    }
+
+    private void makeRoom(long now) {
+        dropExpired(now);
+        Iterator<Entry> oldest = sessions.values().iterator();
+        while (sessions.size() > maxSessions) {
+            oldest.next();
+            oldest.remove();
+            warnLogger.log("Design sessions full, dropped the least recently used");
+        }
+    }
+
+    private void dropExpired(long now) {
+        Iterator<Entry> oldest = sessions.values().iterator();
+        while (oldest.hasNext() && isExpired(oldest.next(), now)) {
+            oldest.remove();
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.lastUsed() > timeoutNanos;
+    }
+}
@@ -0,0 +1,202 @@
+package com.homeapp.backend.store;
+
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The Group Commit Writer.
+ * The single writer thread for the JSON-backed stores. Writes are queued and acknowledged straight away,
+ * then everything queued within a short window is written together: appends to a file in one write and one fsync,
+ * and a full replace of a file only once, with the latest contents, as an atomic temp-file-plus-rename.
+ * Each write returns a future that completes once it is durable, for callers that need to wait.
+ */
+@Component
+public class GroupCommitWriter {
+
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final LinkedBlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final long windowNanos;
+    private final Thread writerThread;
+    private final Write stop = new Write(null, false, null, new CompletableFuture<>());
+    private volatile boolean running = true;
+
+    /**
+     * A queued write, either an append to a file or a full replace of it.
+     */
+    private record Write(Path file, boolean replace, Supplier<byte[]> contents, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * Instantiates a new Group Commit Writer and starts its writer thread.
+     *
+     * @param window how long to keep collecting writes after the first one in a batch arrives
+     */
+    public GroupCommitWriter(@Value("${store.group-commit.window:PT0.005S}") Duration window) {
+        this.windowNanos = window.toNanos();
+        this.writerThread = new Thread(this::run, "group-commit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues bytes to be appended to the file.
+     *
+     * @param file  the file
+     * @param bytes the bytes to append
+     * @return a future completed once the bytes are on disk
+     */
+    public CompletableFuture<Void> append(Path file, byte[] bytes) {
+        return submit(new Write(file, false, () -> bytes, new CompletableFuture<>()));
+    }
+
+    /**
+     * Queues a full replace of the file. Any earlier write to the same file still queued is dropped, as this one supersedes it.
+     * The contents are only produced when the batch is written, so a burst of replaces serializes the data once.
+     * The supplier runs on the writer thread, so it must take its own copy of any shared state.
+     *
+     * @param file     the file
+     * @param contents produces the new contents of the file
+     * @return a future completed once the new contents are on disk
+     */
+    public CompletableFuture<Void> replace(Path file, Supplier<byte[]> contents) {
+        return submit(new Write(file, true, contents, new CompletableFuture<>()));
+    }
+
+    /**
+     * Gets a future completed once everything queued so far is on disk.
+     *
+     * @return the future
+     */
+    public CompletableFuture<Void> flush() {
+        return submit(new Write(null, false, null, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> submit(Write write) {
+        if (!running) {
+            write.done().completeExceptionally(new IllegalStateException("Group commit writer is closed"));
+            return write.done();
+        }
+        queue.add(write);
+        return write.done();
+    }
+
+    /**
+     * Writes out everything still queued and stops the writer thread.
+     */
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        queue.add(stop);
+        try {
+            stop.done().get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            errorLogger.log("Group commit writer did not finish writing before shutdown!!See error message: " + e + "!!From: " + getClass());
+        }
+        infoLogger.log("Group commit writer closed");
+    }
+
+    private void run() {
+        boolean stopping = false;
+        while (!stopping) {
+            List<Write> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                long remaining;
+                while (!batch.contains(stop) && (remaining = deadline - System.nanoTime()) > 0) {
+                    Write next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopping = true;
+            }
+            if (batch.contains(stop)) {
+                queue.drainTo(batch);
+                stopping = true;
+            }
+            commit(batch);
+        }
+    }
+
+    /**
+     * Writes one batch in the order it was queued, after dropping any write superseded by a later replace of the same file.
+     * Appends go through one open channel per file, each forced to disk once at the end.
+     */
+    private void commit(List<Write> batch) {
+        Map<Path, Integer> lastReplace = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Write write = batch.get(i);
+            if (write.replace()) {
+                lastReplace.put(write.file(), i);
+            }
+        }
+        Map<Path, FileChannel> channels = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Write write = batch.get(i);
+                if (write.file() == null || lastReplace.getOrDefault(write.file(), -1) > i) {
+                    continue;
+                }
+                if (write.replace()) {
+                    FileChannel open = channels.remove(write.file());
+                    if (open != null) {
+                        open.force(false);
+                        open.close();
+                    }
+                    AtomicFiles.write(write.file(), write.contents().get());
+                } else {
+                    FileChannel channel = channels.get(write.file());
+                    if (channel == null) {
+                        channel = FileChannel.open(write.file(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                        channels.put(write.file(), channel);
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(write.contents().get());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            }
+            for (FileChannel channel : channels.values()) {
+                channel.force(false);
+            }
+            batch.forEach(write -> write.done().complete(null));
+        } catch (IOException | RuntimeException e) {
+            errorLogger.log("An IOException occurred from method: commit!!See error message: " + e.getMessage() + "!!Writes in batch: " + batch.size() + "!!From: " + getClass());
+            batch.forEach(write -> write.done().completeExceptionally(e));
+        } finally {
+            for (FileChannel channel : channels.values()) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    errorLogger.log("An IOException occurred closing a channel!!See error message: " + e.getMessage() + "!!From: " + getClass());
+                }
+            }
+        }
+    }
+}
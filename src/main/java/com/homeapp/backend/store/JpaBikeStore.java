@@ -0,0 +1,249 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.repository.FullBikeRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The JPA Bike Store.
+ * The Bike Store used when storage.mode is jpa, keeping bikes in the FullBike table.
+ * Lookups by name use the index on the BikeName column. Each change is committed before returning, so is already durable.
+ * The version is kept in memory, going up after each change is committed; this application is the only writer to the table.
+ */
+public class JpaBikeStore implements BikeStore {
+
+    private final FullBikeRepository fullBikeRepository;
+    private final AtomicLong lastId;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Instantiates a new JPA Bike Store, carrying on IDs from the highest in the table.
+     *
+     * @param fullBikeRepository the full bike repository
+     */
+    public JpaBikeStore(FullBikeRepository fullBikeRepository) {
+        this.fullBikeRepository = fullBikeRepository;
+        this.lastId = new AtomicLong(fullBikeRepository.findMaxFullBikeId());
+    }
+
+    /**
+     * Finds a bike by its ID.
+     *
+     * @param bikeId the bike id
+     * @return the bike, empty if there is none with that ID
+     */
+    @Override
+    public Optional<FullBike> findById(long bikeId) {
+        return fullBikeRepository.findById(bikeId);
+    }
+
+    /**
+     * Finds a bike by its name.
+     *
+     * @param bikeName the bike name
+     * @return the bike with that name and the lowest ID, empty if there is none
+     */
+    @Override
+    public Optional<FullBike> findByName(String bikeName) {
+        return bikeName == null ? Optional.empty() : fullBikeRepository.findFirstByBikeNameOrderByFullBikeIdAsc(bikeName);
+    }
+
+    /**
+     * Finds every bike with the passed-in name.
+     *
+     * @param bikeName the bike name
+     * @return the bikes with that name, lowest ID first
+     */
+    @Override
+    public List<FullBike> findAllByName(String bikeName) {
+        return bikeName == null ? List.of() : fullBikeRepository.findAllByBikeNameOrderByFullBikeIdAsc(bikeName);
+    }
+
+    /**
+     * Gets every bike.
+     *
+     * @return the bikes, lowest ID first
+     */
+    @Override
+    public List<FullBike> findAll() {
+        return fullBikeRepository.findAll(Sort.by("fullBikeId"));
+    }
+
+    /**
+     * Gets a page of bikes in ID order, optionally only those with a frame style and/or brake type.
+     * One more bike than the page holds is read, to tell whether there is a next page.
+     *
+     * @param after      the cursor, only bikes with a higher ID are read
+     * @param limit      the most bikes to put on the page, at least 1
+     * @param frameStyle the frame style to keep, null for any
+     * @param brakeType  the brake type to keep, null for any
+     * @return the page
+     */
+    @Override
+    public Page<FullBike> findPage(long after, int limit, FrameStyle frameStyle, BrakeType brakeType) {
+        List<FullBike> found = fullBikeRepository.findPage(after, frameStyle, brakeType, PageRequest.of(0, limit + 1));
+        if (found.size() <= limit) {
+            return new Page<>(found, null);
+        }
+        List<FullBike> items = found.subList(0, limit);
+        return new Page<>(items, items.get(limit - 1).getFullBikeId());
+    }
+
+    /**
+     * Gets the store's version, which goes up on every change to the bikes.
+     *
+     * @return the version
+     */
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets how many bikes are saved.
+     *
+     * @return the number of bikes
+     */
+    @Override
+    public int size() {
+        return (int) fullBikeRepository.count();
+    }
+
+    /**
+     * Gets a new, never used, bike ID.
+     *
+     * @return the bike id
+     */
+    @Override
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * Saves the bike, replacing any bike with the same ID.
+     *
+     * @param bike the bike
+     * @return a completed future, the change is committed
+     */
+    @Override
+    public CompletableFuture<Void> save(FullBike bike) {
+        lastId.accumulateAndGet(bike.getFullBikeId(), Math::max);
+        fullBikeRepository.save(bike);
+        version.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Saves a patched bike in place of the bike with the same ID.
+     * The row is updated from the patched bike, the patch itself is not needed.
+     *
+     * @param bike  the bike with the patch applied
+     * @param patch the JSON Merge Patch from the stored bike to the patched one
+     * @return a completed future, the change is committed
+     */
+    @Override
+    public CompletableFuture<Void> patch(FullBike bike, JsonNode patch) {
+        return save(bike);
+    }
+
+    /**
+     * Saves a batch of bikes in one transaction.
+     *
+     * @param bikes the bikes
+     * @return a completed future, the batch is committed
+     */
+    @Override
+    @Transactional
+    public CompletableFuture<Void> saveAll(List<FullBike> bikes) {
+        bikes.forEach(bike -> lastId.accumulateAndGet(bike.getFullBikeId(), Math::max));
+        fullBikeRepository.saveAll(bikes);
+        versionAfterCommit();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Deletes the bike with the passed-in ID, if there is one.
+     *
+     * @param bikeId the bike id
+     * @return a completed future, the change is committed
+     */
+    @Override
+    public CompletableFuture<Void> delete(long bikeId) {
+        if (fullBikeRepository.existsById(bikeId)) {
+            fullBikeRepository.deleteById(bikeId);
+            version.incrementAndGet();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Deletes every bike.
+     *
+     * @return a completed future, the change is committed
+     */
+    @Override
+    public CompletableFuture<Void> clear() {
+        fullBikeRepository.deleteAll();
+        version.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Replaces every bike with the passed-in bikes, in one transaction.
+     *
+     * @param bikes the bikes
+     * @return a completed future, the change is committed
+     */
+    @Override
+    @Transactional
+    public CompletableFuture<Void> replaceAll(List<FullBike> bikes) {
+        fullBikeRepository.deleteAll();
+        fullBikeRepository.flush();
+        bikes.forEach(bike -> lastId.accumulateAndGet(bike.getFullBikeId(), Math::max));
+        fullBikeRepository.saveAll(bikes);
+        versionAfterCommit();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Gets a completed future, every change is committed before returning.
+     *
+     * @return the future
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Does nothing, there is nothing outstanding to save.
+     */
+    @Override
+    public void close() {
+    }
+
+    private void versionAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package com.homeapp.backend.store;
+
+import com.homeapp.backend.models.note.StickyNote;
+import com.homeapp.backend.repository.StickyNoteRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The JPA Note Store.
+ * The Note Store used when storage.mode is jpa, keeping notes in the stickynote table.
+ * Lookups by title use the index on the title column. Each change is committed before returning, so is already durable.
+ * The version is kept in memory, going up after each change is committed; this application is the only writer to the table.
+ */
+public class JpaNoteStore implements NoteStore {
+
+    private final StickyNoteRepository stickyNoteRepository;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Instantiates a new JPA Note Store.
+     *
+     * @param stickyNoteRepository the sticky note repository
+     */
+    public JpaNoteStore(StickyNoteRepository stickyNoteRepository) {
+        this.stickyNoteRepository = stickyNoteRepository;
+    }
+
+    /**
+     * Finds a note by its ID.
+     *
+     * @param id the note id
+     * @return the note, empty if there is none with that ID
+     */
+    @Override
+    public Optional<StickyNote> findById(long id) {
+        return stickyNoteRepository.findById(id);
+    }
+
+    /**
+     * Finds a note by its title.
+     *
+     * @param title the title
+     * @return the note with that title and the lowest ID, empty if there is none
+     */
+    @Override
+    public Optional<StickyNote> findByTitle(String title) {
+        return title == null ? Optional.empty() : stickyNoteRepository.findFirstByTitleOrderByStickyNoteIdAsc(title);
+    }
+
+    /**
+     * Gets every note.
+     *
+     * @return the notes, lowest ID first
+     */
+    @Override
+    public List<StickyNote> findAll() {
+        return stickyNoteRepository.findAll(Sort.by("stickyNoteId"));
+    }
+
+    /**
+     * Gets a page of notes in ID order, optionally only those complete or still to do.
+     * One more note than the page holds is read, to tell whether there is a next page.
+     *
+     * @param after    the cursor, only notes with a higher ID are read
+     * @param limit    the most notes to put on the page, at least 1
+     * @param complete true for only complete notes, false for only notes still to do, null for any
+     * @return the page
+     */
+    @Override
+    public Page<StickyNote> findPage(long after, int limit, Boolean complete) {
+        List<StickyNote> found = stickyNoteRepository.findPage(after, complete, PageRequest.of(0, limit + 1));
+        if (found.size() <= limit) {
+            return new Page<>(found, null);
+        }
+        List<StickyNote> items = found.subList(0, limit);
+        return new Page<>(items, items.get(limit - 1).getStickyNoteId());
+    }
+
+    /**
+     * Gets the store's version, which goes up on every change to the notes.
+     *
+     * @return the version
+     */
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets the ID for a new note, one more than the highest in use.
+     *
+     * @return the note id
+     */
+    @Override
+    public long nextId() {
+        return stickyNoteRepository.findMaxStickyNoteId() + 1;
+    }
+
+    /**
+     * Saves the note, replacing any note with the same ID.
+     *
+     * @param note the note
+     * @return a completed future, the change is committed
+     */
+    @Override
+    public CompletableFuture<Void> save(StickyNote note) {
+        stickyNoteRepository.save(note);
+        version.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Saves a batch of notes in one transaction.
+     *
+     * @param notes the notes
+     * @return a completed future, the batch is committed
+     */
+    @Override
+    @Transactional
+    public CompletableFuture<Void> saveAll(List<StickyNote> notes) {
+        stickyNoteRepository.saveAll(notes);
+        versionAfterCommit();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Deletes the note with the passed-in ID, if there is one.
+     *
+     * @param id the note id
+     * @return a completed future, the change is committed
+     */
+    @Override
+    public CompletableFuture<Void> delete(long id) {
+        if (stickyNoteRepository.existsById(id)) {
+            stickyNoteRepository.deleteById(id);
+            version.incrementAndGet();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Replaces every note with the passed-in notes, in one transaction.
+     *
+     * @param notes the notes
+     * @return a completed future, the change is committed
+     */
+    @Override
+    @Transactional
+    public CompletableFuture<Void> replaceAll(List<StickyNote> notes) {
+        stickyNoteRepository.deleteAll();
+        stickyNoteRepository.flush();
+        stickyNoteRepository.saveAll(notes);
+        versionAfterCommit();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Gets a completed future, every change is committed before returning.
+     *
+     * @return the future
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void versionAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.homeapp.backend.store;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.repository.PartRepository;
+
+import java.util.List;
+
+/**
+ * The JPA Part Store.
+ * The Part Store used when storage.mode is jpa, keeping the catalog in the Part table.
+ * A refresh only updates the rows of the Parts it changed.
+ */
+public class JpaPartStore implements PartStore {
+
+    private final PartRepository partRepository;
+
+    /**
+     * Instantiates a new JPA Part Store.
+     *
+     * @param partRepository the part repository
+     */
+    public JpaPartStore(PartRepository partRepository) {
+        this.partRepository = partRepository;
+    }
+
+    /**
+     * Gets every Part in the catalog.
+     *
+     * @return the Parts, in the order they were added
+     */
+    @Override
+    public List<Part> findAll() {
+        return partRepository.findAllByOrderByPartIdAsc();
+    }
+
+    /**
+     * Saves only the changed Parts, in one transaction.
+     *
+     * @param allParts     every Part in the catalog, not needed here
+     * @param changedParts the Parts that changed
+     */
+    @Override
+    public void saveChanges(List<Part> allParts, List<Part> changedParts) {
+        partRepository.saveAll(changedParts);
+    }
+}
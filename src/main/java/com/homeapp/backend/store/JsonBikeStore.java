@@ -0,0 +1,420 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.logger.ErrorLogger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The JSON Bike Store.
+ * The Bike Store used when storage.mode is json. Keeps every Full Bike indexed by ID and by name, and in ID order,
+ * overall and for each frame style and each brake type, so a filtered page starts from the smallest matching index and only reads as far as the page needs.
+ * The indexes are never changed once they are in use: writers take turns, save the change to the backing store, then build new indexes
+ * from the last ones with the change made and put them in place in one step. A read takes the indexes in use once and reads only from them,
+ * so it never locks, never waits on a writer, and sees every bike of one version, never a bike half way through being replaced.
+ * A write copies the indexes, so its cost grows with the number of bikes; a batch is saved with one copy.
+ * <p>
+ * The store keeps its own copy of every bike saved, and hands out copies, so a caller changing a bike it was given
+ * changes nothing here until it saves the bike.
+ * <p>
+ * The version goes up after each change is in the indexes, so a version read before the bikes never claims a newer change than was read.
+ * <p>
+ * IDs come from a counter that only goes up, so a deleted bike's ID is never given out again.
+ * The counter is written to the ID file whenever a bike is deleted, and on start carries on from whichever is higher,
+ * that or the highest ID on file, so a deleted bike's ID is not given out again after a restart either.
+ */
+public class JsonBikeStore implements BikeStore {
+
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final WalStore<FullBike> store;
+    private final Path idFile;
+    private final AtomicLong lastId;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Indexes indexes = new Indexes();
+    private long saves;
+    private long savedLastId;
+
+    /**
+     * Instantiates a new JSON Bike Store over the bikes already in the store.
+     *
+     * @param store  the store the bikes are saved in
+     * @param idFile the file the ID counter is kept in
+     */
+    public JsonBikeStore(WalStore<FullBike> store, Path idFile) {
+        this.store = store;
+        this.idFile = idFile;
+        List<FullBike> bikes = store.values();
+        Indexes loaded = new Indexes();
+        bikes.forEach(bike -> loaded.index(bike, ++saves));
+        this.indexes = loaded;
+        this.savedLastId = readLastId();
+        this.lastId = new AtomicLong(Math.max(savedLastId, highestId(bikes)));
+    }
+
+    /**
+     * Finds a bike by its ID.
+     *
+     * @param bikeId the bike id
+     * @return a copy of the bike, empty if there is none with that ID
+     */
+    @Override
+    public Optional<FullBike> findById(long bikeId) {
+        return Optional.ofNullable(indexes.byId.get(bikeId)).map(FullBike::new);
+    }
+
+    /**
+     * Finds a bike by its name.
+     *
+     * @param bikeName the bike name
+     * @return a copy of the first bike saved with that name, empty if there is none
+     */
+    @Override
+    public Optional<FullBike> findByName(String bikeName) {
+        return bikeName == null ? Optional.empty() : indexes.byName.getOrDefault(bikeName, List.of()).stream().findFirst().map(FullBike::new);
+    }
+
+    /**
+     * Finds every bike with the passed-in name.
+     *
+     * @param bikeName the bike name
+     * @return an unmodifiable list of copies of the bikes with that name, in the order they were last saved
+     */
+    @Override
+    public List<FullBike> findAllByName(String bikeName) {
+        return bikeName == null ? List.of() : copies(indexes.byName.getOrDefault(bikeName, List.of()));
+    }
+
+    /**
+     * Gets every bike, in the order they were last saved.
+     *
+     * @return an unmodifiable list of copies of the bikes
+     */
+    @Override
+    public List<FullBike> findAll() {
+        return copies(indexes.saveOrder.values());
+    }
+
+    /**
+     * Gets a page of bikes in ID order, optionally only those with a frame style and/or brake type.
+     * Reads from the smaller of the matching indexes, checking the other filter on each bike read.
+     *
+     * @param after      the cursor, only bikes with a higher ID are read
+     * @param limit      the most bikes to put on the page, at least 1
+     * @param frameStyle the frame style to keep, null for any
+     * @param brakeType  the brake type to keep, null for any
+     * @return the page, of copies of the bikes
+     */
+    @Override
+    public Page<FullBike> findPage(long after, int limit, FrameStyle frameStyle, BrakeType brakeType) {
+        Indexes read = indexes;
+        NavigableMap<Long, FullBike> candidates = read.idOrder;
+        if (frameStyle != null) {
+            candidates = read.byFrameStyle.get(frameStyle);
+        }
+        if (brakeType != null && read.byBrakeType.get(brakeType).size() < candidates.size()) {
+            candidates = read.byBrakeType.get(brakeType);
+        }
+        Page<FullBike> page = Page.after(candidates, after, limit, bike ->
+                (frameStyle == null || (bike.getFrame() != null && bike.getFrame().getFrameStyle() == frameStyle))
+                        && (brakeType == null || bike.getBrakeType() == brakeType));
+        return new Page<>(copies(page.items()), page.nextCursor());
+    }
+
+    /**
+     * Gets the store's version, which goes up on every change to the bikes.
+     *
+     * @return the version
+     */
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets how many bikes are saved.
+     *
+     * @return the number of bikes
+     */
+    @Override
+    public int size() {
+        return indexes.byId.size();
+    }
+
+    /**
+     * Gets a new, never used, bike ID.
+     *
+     * @return the bike id
+     */
+    @Override
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * Saves a copy of the bike, replacing any bike with the same ID.
+     * A bike saved with an ID above the counter moves the counter up, so that ID is never given out.
+     *
+     * @param bike the bike
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    @Override
+    public synchronized CompletableFuture<Void> save(FullBike bike) throws IOException {
+        lastId.accumulateAndGet(bike.getFullBikeId(), Math::max);
+        FullBike saved = new FullBike(bike);
+        CompletableFuture<Void> written = store.put(saved);
+        Indexes next = new Indexes(indexes);
+        next.unindex(saved.getFullBikeId());
+        next.index(saved, ++saves);
+        publish(next);
+        return written;
+    }
+
+    /**
+     * Saves a copy of a patched bike in place of the bike with the same ID, keeping its place in the saved order.
+     * Only the patch is written to the log.
+     *
+     * @param bike  the bike with the patch applied
+     * @param patch the JSON Merge Patch from the stored bike to the patched one
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    @Override
+    public synchronized CompletableFuture<Void> patch(FullBike bike, JsonNode patch) throws IOException {
+        FullBike patched = new FullBike(bike);
+        CompletableFuture<Void> written = store.patch(patched, patch);
+        Indexes next = new Indexes(indexes);
+        Long at = next.savedAt.get(patched.getFullBikeId());
+        next.unindex(patched.getFullBikeId());
+        next.index(patched, at == null ? ++saves : at);
+        publish(next);
+        return written;
+    }
+
+    /**
+     * Saves copies of a batch of bikes with one log append.
+     * The indexes are copied once for the whole batch, so a large import saved batch by batch costs less than saving each bike.
+     *
+     * @param bikes the bikes
+     * @return a future completed once the whole batch is on disk
+     * @throws IOException if the batch cannot be saved
+     */
+    @Override
+    public synchronized CompletableFuture<Void> saveAll(List<FullBike> bikes) throws IOException {
+        lastId.accumulateAndGet(highestId(bikes), Math::max);
+        List<FullBike> saved = copies(bikes);
+        CompletableFuture<Void> written = store.putAll(saved);
+        Indexes next = new Indexes(indexes);
+        for (FullBike bike : saved) {
+            next.unindex(bike.getFullBikeId());
+            next.index(bike, ++saves);
+        }
+        publish(next);
+        return written;
+    }
+
+    /**
+     * Deletes the bike with the passed-in ID, if there is one, and saves the ID counter so the ID is not given out after a restart.
+     *
+     * @param bikeId the bike id
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    @Override
+    public synchronized CompletableFuture<Void> delete(long bikeId) throws IOException {
+        if (!indexes.byId.containsKey(bikeId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        saveLastId();
+        CompletableFuture<Void> written = store.delete(String.valueOf(bikeId));
+        Indexes next = new Indexes(indexes);
+        next.unindex(bikeId);
+        publish(next);
+        return written;
+    }
+
+    /**
+     * Deletes every bike. The ID counter is left where it is, and saved.
+     *
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    @Override
+    public synchronized CompletableFuture<Void> clear() throws IOException {
+        saveLastId();
+        CompletableFuture<Void> written = store.clear();
+        publish(new Indexes());
+        return written;
+    }
+
+    /**
+     * Replaces every bike with copies of the passed-in bikes. The ID counter is saved, as bikes may have been dropped.
+     *
+     * @param bikes the bikes
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be saved
+     */
+    @Override
+    public synchronized CompletableFuture<Void> replaceAll(List<FullBike> bikes) throws IOException {
+        lastId.accumulateAndGet(highestId(bikes), Math::max);
+        saveLastId();
+        List<FullBike> saved = copies(bikes);
+        CompletableFuture<Void> written = store.replaceAll(saved);
+        Indexes next = new Indexes();
+        saved.forEach(bike -> next.index(bike, ++saves));
+        publish(next);
+        return written;
+    }
+
+    /**
+     * Gets a future completed once every change made so far is on disk.
+     *
+     * @return the future
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return store.flush();
+    }
+
+    /**
+     * Checkpoints the backing store and waits for everything queued to be on disk.
+     *
+     * @throws IOException if the store cannot be saved
+     */
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private void publish(Indexes next) {
+        indexes = next;
+        version.incrementAndGet();
+    }
+
+    private void saveLastId() throws IOException {
+        long id = lastId.get();
+        if (id > savedLastId) {
+            AtomicFiles.write(idFile, Long.toString(id).getBytes(StandardCharsets.UTF_8));
+            savedLastId = id;
+        }
+    }
+
+    private long readLastId() {
+        if (!Files.exists(idFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(idFile, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            errorLogger.log("An Exception occurred from method: readLastId!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            return 0;
+        }
+    }
+
+    private static List<FullBike> copies(Collection<FullBike> bikes) {
+        return bikes.stream().map(FullBike::new).toList();
+    }
+
+    private static long highestId(List<FullBike> bikes) {
+        return bikes.stream().mapToLong(FullBike::getFullBikeId).max().orElse(0);
+    }
+
+    /**
+     * The indexes of every bike. A writer fills in a new one, and once it is put in place it is never changed.
+     */
+    private static final class Indexes {
+
+        private final Map<Long, FullBike> byId;
+        private final Map<String, List<FullBike>> byName;
+        private final NavigableMap<Long, FullBike> idOrder;
+        private final NavigableMap<Long, FullBike> saveOrder;
+        private final Map<Long, Long> savedAt;
+        private final Map<FrameStyle, NavigableMap<Long, FullBike>> byFrameStyle = new EnumMap<>(FrameStyle.class);
+        private final Map<BrakeType, NavigableMap<Long, FullBike>> byBrakeType = new EnumMap<>(BrakeType.class);
+
+        private Indexes() {
+            byId = new HashMap<>();
+            byName = new HashMap<>();
+            idOrder = new TreeMap<>();
+            saveOrder = new TreeMap<>();
+            savedAt = new HashMap<>();
+            for (FrameStyle frameStyle : FrameStyle.values()) {
+                byFrameStyle.put(frameStyle, new TreeMap<>());
+            }
+            for (BrakeType brakeType : BrakeType.values()) {
+                byBrakeType.put(brakeType, new TreeMap<>());
+            }
+        }
+
+        private Indexes(Indexes from) {
+            byId = new HashMap<>(from.byId);
+            byName = new HashMap<>(from.byName);
+            idOrder = new TreeMap<>(from.idOrder);
+            saveOrder = new TreeMap<>(from.saveOrder);
+            savedAt = new HashMap<>(from.savedAt);
+            from.byFrameStyle.forEach((frameStyle, bikes) -> byFrameStyle.put(frameStyle, new TreeMap<>(bikes)));
+            from.byBrakeType.forEach((brakeType, bikes) -> byBrakeType.put(brakeType, new TreeMap<>(bikes)));
+        }
+
+        private void index(FullBike bike, long at) {
+            long id = bike.getFullBikeId();
+            byId.put(id, bike);
+            idOrder.put(id, bike);
+            savedAt.put(id, at);
+            saveOrder.put(at, bike);
+            if (bike.getBikeName() != null) {
+                List<FullBike> named = new ArrayList<>(byName.getOrDefault(bike.getBikeName(), List.of()));
+                named.add(bike);
+                named.sort(Comparator.comparingLong(b -> savedAt.get(b.getFullBikeId())));
+                byName.put(bike.getBikeName(), List.copyOf(named));
+            }
+            if (bike.getFrame() != null && bike.getFrame().getFrameStyle() != null) {
+                byFrameStyle.get(bike.getFrame().getFrameStyle()).put(id, bike);
+            }
+            if (bike.getBrakeType() != null) {
+                byBrakeType.get(bike.getBrakeType()).put(id, bike);
+            }
+        }
+
+        private void unindex(long id) {
+            FullBike bike = byId.remove(id);
+            if (bike == null) {
+                return;
+            }
+            idOrder.remove(id);
+            saveOrder.remove(savedAt.remove(id));
+            if (bike.getBikeName() != null) {
+                List<FullBike> named = byName.get(bike.getBikeName()).stream().filter(b -> b.getFullBikeId() != id).toList();
+                if (named.isEmpty()) {
+                    byName.remove(bike.getBikeName());
+                } else {
+                    byName.put(bike.getBikeName(), named);
+                }
+            }
+            if (bike.getFrame() != null && bike.getFrame().getFrameStyle() != null) {
+                byFrameStyle.get(bike.getFrame().getFrameStyle()).remove(id);
+            }
+            if (bike.getBrakeType() != null) {
+                byBrakeType.get(bike.getBrakeType()).remove(id);
+            }
+        }
+    }
+}
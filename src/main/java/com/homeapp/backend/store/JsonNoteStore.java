@@ -0,0 +1,231 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.note.StickyNote;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The JSON Note Store.
+ * The Note Store used when storage.mode is json, keeping every note in memory and in the notes file.
+ * Each change queues a replace of the whole file on the Group Commit Writer. The notes are only serialized when the writer gets to it,
+ * so a burst of changes is saved with one write of the latest notes.
+ * Pages are read from an immutable view of the notes in ID order, split into complete and still to do, rebuilt on each change,
+ * so paging never waits on a writer.
+ */
+public class JsonNoteStore implements NoteStore {
+
+    private final ObjectMapper om;
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final Path notesFile;
+    private final GroupCommitWriter groupCommitWriter;
+    private final LinkedHashMap<Long, StickyNote> notes = new LinkedHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile PageIndex pageIndex;
+
+    /**
+     * The notes lowest ID first, all of them, those complete and those still to do.
+     */
+    private record PageIndex(List<StickyNote> idOrder, List<StickyNote> complete, List<StickyNote> toDo) {
+
+        private static PageIndex of(Iterable<StickyNote> notes) {
+            List<StickyNote> idOrder = new ArrayList<>();
+            notes.forEach(idOrder::add);
+            idOrder.sort(Comparator.comparingLong(StickyNote::getStickyNoteId));
+            return new PageIndex(List.copyOf(idOrder), idOrder.stream().filter(StickyNote::isComplete).toList(),
+                    idOrder.stream().filter(note -> !note.isComplete()).toList());
+        }
+    }
+
+    /**
+     * Instantiates a new JSON Note Store, reading every note in the notes file.
+     *
+     * @param om                the object mapper for the notes
+     * @param notesFile         the notes file
+     * @param groupCommitWriter the writer changes to the notes file are queued on
+     */
+    public JsonNoteStore(ObjectMapper om, Path notesFile, GroupCommitWriter groupCommitWriter) {
+        this.om = om;
+        this.notesFile = notesFile;
+        this.groupCommitWriter = groupCommitWriter;
+        readNotesFile().forEach(note -> notes.put(note.getStickyNoteId(), note));
+        pageIndex = PageIndex.of(notes.values());
+    }
+
+    private List<StickyNote> readNotesFile() {
+        infoLogger.log("Reading Sticky Notes From File");
+        try {
+            List<StickyNote> fromFile = om.readValue(notesFile.toFile(), new TypeReference<>() {
+            });
+            warnLogger.log("Returning Populated list of Sticky Notes from file, number of notes: " + fromFile.size());
+            return fromFile;
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from: readNotesFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+        warnLogger.log("Returning Empty list of Sticky Notes from file");
+        return new ArrayList<>();
+    }
+
+    /**
+     * Finds a note by its ID.
+     *
+     * @param id the note id
+     * @return the note, empty if there is none with that ID
+     */
+    @Override
+    public synchronized Optional<StickyNote> findById(long id) {
+        return Optional.ofNullable(notes.get(id));
+    }
+
+    /**
+     * Finds a note by its title.
+     *
+     * @param title the title
+     * @return the first note with that title, empty if there is none
+     */
+    @Override
+    public synchronized Optional<StickyNote> findByTitle(String title) {
+        return notes.values().stream().filter(note -> note.getTitle().equals(title)).findFirst();
+    }
+
+    /**
+     * Gets every note, in the order they were last saved.
+     *
+     * @return a copy of the notes
+     */
+    @Override
+    public synchronized List<StickyNote> findAll() {
+        return new ArrayList<>(notes.values());
+    }
+
+    /**
+     * Gets a page of notes in ID order, optionally only those complete or still to do.
+     *
+     * @param after    the cursor, only notes with a higher ID are read
+     * @param limit    the most notes to put on the page, at least 1
+     * @param complete true for only complete notes, false for only notes still to do, null for any
+     * @return the page
+     */
+    @Override
+    public Page<StickyNote> findPage(long after, int limit, Boolean complete) {
+        PageIndex current = pageIndex;
+        List<StickyNote> candidates = complete == null ? current.idOrder() : complete ? current.complete() : current.toDo();
+        return Page.after(candidates, StickyNote::getStickyNoteId, after, limit, note -> true);
+    }
+
+    /**
+     * Gets the store's version, which goes up on every change to the notes.
+     *
+     * @return the version
+     */
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets the ID for a new note, one more than the highest in use.
+     *
+     * @return the note id
+     */
+    @Override
+    public synchronized long nextId() {
+        return notes.keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+    }
+
+    /**
+     * Saves the note, replacing any note with the same ID and moving it to the end.
+     *
+     * @param note the note
+     * @return a future completed once the notes file is written
+     */
+    @Override
+    public synchronized CompletableFuture<Void> save(StickyNote note) {
+        notes.remove(note.getStickyNoteId());
+        notes.put(note.getStickyNoteId(), note);
+        return queueWrite();
+    }
+
+    /**
+     * Saves a batch of notes, queueing one write of the notes file for the whole batch.
+     *
+     * @param newNotes the notes
+     * @return a future completed once the notes file is written
+     */
+    @Override
+    public synchronized CompletableFuture<Void> saveAll(List<StickyNote> newNotes) {
+        for (StickyNote note : newNotes) {
+            notes.remove(note.getStickyNoteId());
+            notes.put(note.getStickyNoteId(), note);
+        }
+        return queueWrite();
+    }
+
+    /**
+     * Deletes the note with the passed-in ID, if there is one.
+     *
+     * @param id the note id
+     * @return a future completed once the notes file is written
+     */
+    @Override
+    public synchronized CompletableFuture<Void> delete(long id) {
+        if (notes.remove(id) == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return queueWrite();
+    }
+
+    /**
+     * Replaces every note with the passed-in notes.
+     *
+     * @param newNotes the notes
+     * @return a future completed once the notes file is written
+     */
+    @Override
+    public synchronized CompletableFuture<Void> replaceAll(List<StickyNote> newNotes) {
+        notes.clear();
+        newNotes.forEach(note -> notes.put(note.getStickyNoteId(), note));
+        return queueWrite();
+    }
+
+    /**
+     * Gets a future completed once every change made so far is on disk.
+     *
+     * @return the future
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return groupCommitWriter.flush();
+    }
+
+    private CompletableFuture<Void> queueWrite() {
+        pageIndex = PageIndex.of(notes.values());
+        version.incrementAndGet();
+        infoLogger.log("Queueing Sticky Notes to be written back to File");
+        return groupCommitWriter.replace(notesFile, this::serializeNotes);
+    }
+
+    private synchronized byte[] serializeNotes() {
+        try {
+            return om.writeValueAsBytes(notes.values());
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from: serializeNotes!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
+        }
+    }
+}
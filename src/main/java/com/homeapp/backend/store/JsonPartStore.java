@@ -0,0 +1,65 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The JSON Part Store.
+ * The Part Store used when storage.mode is json, keeping the catalog in the links file.
+ */
+public class JsonPartStore implements PartStore {
+
+    private final ObjectMapper om;
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final Path linksFile;
+
+    /**
+     * Instantiates a new JSON Part Store.
+     *
+     * @param om        the object mapper for the Parts
+     * @param linksFile the links file
+     */
+    public JsonPartStore(ObjectMapper om, Path linksFile) {
+        this.om = om;
+        this.linksFile = linksFile;
+    }
+
+    /**
+     * Reads every Part in the links file.
+     *
+     * @return the Parts, empty if the file cannot be read
+     */
+    @Override
+    public List<Part> findAll() {
+        infoLogger.log("Reading all Links from File");
+        try {
+            return om.readValue(linksFile.toFile(), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: findAll!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Writes every Part back to the links file, replacing it atomically so it is never seen half written.
+     *
+     * @param allParts     every Part in the catalog
+     * @param changedParts the Parts that changed, all saved as part of the whole file
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void saveChanges(List<Part> allParts, List<Part> changedParts) throws IOException {
+        infoLogger.log("Writing updated Bike Parts to file");
+        AtomicFiles.write(linksFile, om.writerWithDefaultPrettyPrinter().writeValueAsBytes(allParts));
+    }
+}
@@ -0,0 +1,129 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.note.StickyNote;
+import com.homeapp.backend.repository.FullBikeRepository;
+import com.homeapp.backend.repository.PartRepository;
+import com.homeapp.backend.repository.StickyNoteRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The JSON to JPA Migrator.
+ * Copies the bikes, notes and Parts from the JSON files into the database, the first time the application starts with storage.mode jpa.
+ * Each table is only filled while it is empty, so the migration runs once and later starts leave the database alone.
+ * The JSON files are only read, so switching back to storage.mode json picks up where they were left.
+ */
+public class JsonToJpaMigrator {
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final FullBikeRepository fullBikeRepository;
+    private final StickyNoteRepository stickyNoteRepository;
+    private final PartRepository partRepository;
+
+    /**
+     * Instantiates a new JSON to JPA Migrator.
+     *
+     * @param fullBikeRepository   the full bike repository
+     * @param stickyNoteRepository the sticky note repository
+     * @param partRepository       the part repository
+     */
+    public JsonToJpaMigrator(FullBikeRepository fullBikeRepository, StickyNoteRepository stickyNoteRepository, PartRepository partRepository) {
+        this.fullBikeRepository = fullBikeRepository;
+        this.stickyNoteRepository = stickyNoteRepository;
+        this.partRepository = partRepository;
+    }
+
+    /**
+     * Migrates the bikes, from the bike file with the changes in its write-ahead log replayed over it.
+     * The log is only read, not checkpointed into the bike file, so both files are left as they were.
+     *
+     * @param bikesFile the bike file
+     * @param walFile   the write-ahead log of changes to the bike file
+     * @return the number of bikes migrated, 0 if the table already had bikes
+     * @throws IOException if the bikes cannot be read
+     */
+    public int migrateBikes(Path bikesFile, Path walFile) throws IOException {
+        if (fullBikeRepository.count() > 0) {
+            infoLogger.log("FullBike table already populated, not migrating bikes");
+            return 0;
+        }
+        List<FullBike> fromFile = WalStore.read(om, bikesFile, walFile, FullBike.class, b -> String.valueOf(b.getFullBikeId()));
+        fullBikeRepository.saveAll(fromFile);
+        infoLogger.log("Migrated " + fromFile.size() + " bikes from JSON to the database");
+        return fromFile.size();
+    }
+
+    /**
+     * Migrates the notes from the notes file.
+     * Older versions of the notes file can hold two notes with the same ID, the later one is given a new ID rather than overwrite the first.
+     *
+     * @param notesFile the notes file
+     * @return the number of notes migrated, 0 if the table already had notes
+     */
+    public int migrateNotes(Path notesFile) {
+        if (stickyNoteRepository.count() > 0) {
+            infoLogger.log("stickynote table already populated, not migrating notes");
+            return 0;
+        }
+        List<StickyNote> fromFile = read(notesFile, new TypeReference<>() {
+        });
+        long highestId = fromFile.stream().mapToLong(StickyNote::getStickyNoteId).max().orElse(0);
+        Set<Long> usedIds = new HashSet<>();
+        for (StickyNote note : fromFile) {
+            if (!usedIds.add(note.getStickyNoteId())) {
+                warnLogger.log("Sticky Note ID used twice, giving note a new ID!!Note: " + note.getTitle());
+                note.setStickyNoteId(++highestId);
+                usedIds.add(highestId);
+            }
+        }
+        stickyNoteRepository.saveAll(fromFile);
+        infoLogger.log("Migrated " + fromFile.size() + " notes from JSON to the database");
+        return fromFile.size();
+    }
+
+    /**
+     * Migrates the Parts catalog from the links file.
+     *
+     * @param linksFile the links file
+     * @return the number of Parts migrated, 0 if the table already had Parts
+     */
+    public int migrateParts(Path linksFile) {
+        if (partRepository.count() > 0) {
+            infoLogger.log("Part table already populated, not migrating Parts");
+            return 0;
+        }
+        List<Part> fromFile = read(linksFile, new TypeReference<>() {
+        });
+        partRepository.saveAll(fromFile);
+        infoLogger.log("Migrated " + fromFile.size() + " Parts from JSON to the database");
+        return fromFile.size();
+    }
+
+    private <T> List<T> read(Path file, TypeReference<List<T>> type) {
+        if (!Files.exists(file)) {
+            warnLogger.log("No JSON file to migrate from!!File: " + file);
+            return List.of();
+        }
+        try {
+            return om.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: read!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+        return List.of();
+    }
+}
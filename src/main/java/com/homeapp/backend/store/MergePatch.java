@@ -0,0 +1,103 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch, RFC 7386.
+ * A patch is a JSON object holding only the fields to change: a field set to null is removed, an object is merged into the
+ * object already there, and anything else replaces the value. Applying the same patch twice gives the same result as applying it once.
+ */
+public final class MergePatch {
+
+    private MergePatch() {
+    }
+
+    /**
+     * Applies a patch to a JSON value, leaving the value as it was.
+     *
+     * @param target the value to patch
+     * @param patch  the patch
+     * @return the patched value
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch.deepCopy();
+        }
+        ObjectNode result = target != null && target.isObject() ? ((ObjectNode) target).deepCopy() : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), apply(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the patch that turns one JSON object into another, holding only the fields that differ.
+     *
+     * @param before the object before
+     * @param after  the object after
+     * @return the patch, an empty object if nothing differs
+     */
+    public static ObjectNode diff(JsonNode before, JsonNode after) {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+        Iterator<String> removed = before.fieldNames();
+        while (removed.hasNext()) {
+            String name = removed.next();
+            if (!after.has(name)) {
+                patch.putNull(name);
+            }
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = after.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode was = before.get(field.getKey());
+            JsonNode now = field.getValue();
+            if (was != null && was.isObject() && now.isObject()) {
+                ObjectNode nested = diff(was, now);
+                if (!nested.isEmpty()) {
+                    patch.set(field.getKey(), nested);
+                }
+            } else if (!now.equals(was)) {
+                patch.set(field.getKey(), now.deepCopy());
+            }
+        }
+        return patch;
+    }
+
+    /**
+     * Gets the paths of every value a patch changes, nested fields joined with dots, e.g. frame.frameStyle.
+     *
+     * @param patch the patch
+     * @return the paths, in the order they are in the patch
+     */
+    public static Set<String> paths(JsonNode patch) {
+        Set<String> paths = new LinkedHashSet<>();
+        addPaths("", patch, paths);
+        return paths;
+    }
+
+    private static void addPaths(String prefix, JsonNode patch, Set<String> paths) {
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String path = prefix + field.getKey();
+            if (field.getValue().isObject() && !field.getValue().isEmpty()) {
+                addPaths(path + ".", field.getValue(), paths);
+            } else {
+                paths.add(path);
+            }
+        }
+    }
+}
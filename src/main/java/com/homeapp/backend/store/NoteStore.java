@@ -0,0 +1,102 @@
+package com.homeapp.backend.store;
+
+import com.homeapp.backend.models.note.StickyNote;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The Note Store.
+ * Where the Sticky Note Service keeps its notes. Which store is used is chosen by the storage.mode property,
+ * see the Storage Config.
+ */
+public interface NoteStore {
+
+    /**
+     * Finds a note by its ID.
+     *
+     * @param id the note id
+     * @return the note, empty if there is none with that ID
+     */
+    Optional<StickyNote> findById(long id);
+
+    /**
+     * Finds a note by its title.
+     *
+     * @param title the title
+     * @return the note, empty if there is none with that title
+     */
+    Optional<StickyNote> findByTitle(String title);
+
+    /**
+     * Gets every note.
+     *
+     * @return the notes
+     */
+    List<StickyNote> findAll();
+
+    /**
+     * Gets a page of notes in ID order, optionally only those complete or still to do.
+     *
+     * @param after    the cursor, only notes with a higher ID are read
+     * @param limit    the most notes to put on the page, at least 1
+     * @param complete true for only complete notes, false for only notes still to do, null for any
+     * @return the page
+     */
+    Page<StickyNote> findPage(long after, int limit, Boolean complete);
+
+    /**
+     * Gets the store's version, which goes up on every change to the notes.
+     * Anything built from the notes can be reused for as long as this is unchanged.
+     *
+     * @return the version
+     */
+    long version();
+
+    /**
+     * Gets the ID for a new note, one more than the highest in use.
+     *
+     * @return the note id
+     */
+    long nextId();
+
+    /**
+     * Saves the note, replacing any note with the same ID.
+     *
+     * @param note the note
+     * @return a future completed once the change is on disk
+     */
+    CompletableFuture<Void> save(StickyNote note);
+
+    /**
+     * Saves a batch of notes together, each replacing any note with the same ID.
+     *
+     * @param notes the notes
+     * @return a future completed once the whole batch is on disk
+     */
+    CompletableFuture<Void> saveAll(List<StickyNote> notes);
+
+    /**
+     * Deletes the note with the passed-in ID, if there is one.
+     *
+     * @param id the note id
+     * @return a future completed once the change is on disk
+     */
+    CompletableFuture<Void> delete(long id);
+
+    /**
+     * Replaces every note with the passed-in notes.
+     *
+     * @param notes the notes
+     * @return a future completed once the change is on disk
+     */
+    CompletableFuture<Void> replaceAll(List<StickyNote> notes);
+
+    /**
+     * Gets a future completed once every change made so far is on disk.
+     *
+     * @return the future
+     */
+    CompletableFuture<Void> flush();
+}
@@ -0,0 +1,85 @@
+package com.homeapp.backend.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a list read with a cursor.
+ * Pages are in ID order, and the cursor is the ID of the last item on the page: the next page starts after it.
+ *
+ * @param <T>        the type of item
+ * @param items      the items on this page
+ * @param nextCursor the cursor for the next page, null if this is the last page
+ */
+public record Page<T>(List<T> items, Long nextCursor) {
+
+    /**
+     * Reads a page from a list already sorted by ID.
+     * The start is found with a binary search, then only as many items as the page needs are looked at,
+     * plus those the filter turns down along the way.
+     *
+     * @param <T>       the type of item
+     * @param sortedById the items, lowest ID first
+     * @param id         gets the ID of an item
+     * @param after      the cursor, only items with a higher ID are read
+     * @param limit      the most items to put on the page
+     * @param filter     the items to keep
+     * @return the page
+     */
+    public static <T> Page<T> after(List<T> sortedById, ToLongFunction<T> id, long after, int limit, Predicate<T> filter) {
+        int low = 0;
+        int high = sortedById.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (id.applyAsLong(sortedById.get(mid)) <= after) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<T> items = new ArrayList<>(Math.min(limit, sortedById.size() - low));
+        for (int i = low; i < sortedById.size(); i++) {
+            T item = sortedById.get(i);
+            if (!filter.test(item)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new Page<>(items, id.applyAsLong(items.get(limit - 1)));
+            }
+            items.add(item);
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Reads a page from a map keyed by ID.
+     * The start is found in the map, then only as many items as the page needs are looked at,
+     * plus those the filter turns down along the way.
+     *
+     * @param <T>    the type of item
+     * @param byId   the items, by ID
+     * @param after  the cursor, only items with a higher ID are read
+     * @param limit  the most items to put on the page
+     * @param filter the items to keep
+     * @return the page
+     */
+    public static <T> Page<T> after(NavigableMap<Long, T> byId, long after, int limit, Predicate<T> filter) {
+        List<T> items = new ArrayList<>();
+        long last = after;
+        for (Map.Entry<Long, T> entry : byId.tailMap(after, false).entrySet()) {
+            if (!filter.test(entry.getValue())) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new Page<>(items, last);
+            }
+            items.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new Page<>(items, null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.homeapp.backend.store;
+
+import com.homeapp.backend.models.bike.Part;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The Part Store.
+ * Where the parts catalog is kept. Which store is used is chosen by the storage.mode property, see the Storage Config.
+ */
+public interface PartStore {
+
+    /**
+     * Gets every Part in the catalog.
+     *
+     * @return the Parts, in the order they were added
+     */
+    List<Part> findAll();
+
+    /**
+     * Saves the Parts changed by a refresh.
+     * A store that can only save the whole catalog at once saves every Part passed in, the others save just the changed ones.
+     *
+     * @param allParts     every Part in the catalog, as read by findAll and then changed
+     * @param changedParts the Parts that changed
+     * @throws IOException if the Parts cannot be saved
+     */
+    void saveChanges(List<Part> allParts, List<Part> changedParts) throws IOException;
+}
@@ -0,0 +1,342 @@
+package com.homeapp.backend.store;
+
+import com.homeapp.backend.models.bike.FullBike;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The Similar Bike Index.
+ * Finds the saved bikes most like a bike, without looking at every saved bike.
+ * <p>
+ * Each bike is packed into a long of features: one bit per choice of frame style, brake type, handle bars, shifter style,
+ * groupset brand and wheel preference, one bit per gear (so 2 and 3 front gears differ by one bit), and one bit for each frame flag.
+ * How far apart two bikes are is the weighted Hamming distance of their features: the differing bits of each field, times the field's weight.
+ * <p>
+ * Bikes with the same features are kept together in a group, and each group keeps a list of the groups nearest to it, long enough to hold
+ * the number of neighbours the index is built for. The lists are kept up to date as bikes are saved and deleted: a new group is put into
+ * the lists it is near enough for, and a list left too short by a deletion is worked out again the next time it is read.
+ * A bike with features no saved bike has, or a request for more neighbours than the lists hold, is answered by looking at every group.
+ */
+public final class SimilarBikeIndex {
+
+    private static final int FRAME_STYLE = 0;
+    private static final int BRAKE_TYPE = 5;
+    private static final int HANDLE_BAR_TYPE = 10;
+    private static final int SHIFTER_STYLE = 15;
+    private static final int GROUPSET_BRAND = 18;
+    private static final int WHEEL_PREFERENCE = 22;
+    private static final int FRONT_GEARS = 24;
+    private static final int MAX_FRONT_GEARS = 6;
+    private static final int REAR_GEARS = 30;
+    private static final int MAX_REAR_GEARS = 14;
+    private static final int DISC_BRAKE_COMPATIBLE = 44;
+    private static final int REQUIRES_FRONT_GEAR_CABLE = 45;
+    private static final int REQUIRES_REAR_GEAR_CABLE = 46;
+    private static final int FEATURE_BITS = 47;
+    private static final long[] FIELD_MASKS = {
+            mask(FRAME_STYLE, 5), mask(BRAKE_TYPE, 5), mask(HANDLE_BAR_TYPE, 5), mask(SHIFTER_STYLE, 3), mask(GROUPSET_BRAND, 4),
+            mask(WHEEL_PREFERENCE, 2), mask(FRONT_GEARS, MAX_FRONT_GEARS), mask(REAR_GEARS, MAX_REAR_GEARS),
+            mask(DISC_BRAKE_COMPATIBLE, 3)};
+    private static final int[] FIELD_WEIGHTS = {4, 2, 2, 1, 2, 1, 1, 1, 1};
+
+    private final int neighbours;
+    private final Map<Long, Group> groups = new HashMap<>();
+    private final Map<Long, Long> featuresById = new HashMap<>();
+
+    /**
+     * The bikes sharing one set of features, and the groups nearest to them, nearest first.
+     */
+    private static final class Group {
+        private final long features;
+        private final TreeSet<Long> bikeIds = new TreeSet<>();
+        private final List<Group> nearest = new ArrayList<>();
+        private final List<Long> ranks = new ArrayList<>();
+        private final Set<Group> listedBy = new HashSet<>();
+        private boolean stale = true;
+
+        private Group(long features) {
+            this.features = features;
+        }
+    }
+
+    /**
+     * Instantiates a new Similar Bike Index.
+     *
+     * @param neighbours the number of neighbours each group's list holds enough bikes for
+     */
+    public SimilarBikeIndex(int neighbours) {
+        this.neighbours = Math.max(1, neighbours);
+    }
+
+    /**
+     * Packs a bike into its features. Fields the bike does not have set no bits.
+     *
+     * @param bike the bike
+     * @return the features
+     */
+    public static long features(FullBike bike) {
+        long features = 0;
+        if (bike.getFrame() != null) {
+            features |= oneHot(FRAME_STYLE, bike.getFrame().getFrameStyle());
+            features |= bit(DISC_BRAKE_COMPATIBLE, bike.getFrame().isDiscBrakeCompatible());
+            features |= bit(REQUIRES_FRONT_GEAR_CABLE, bike.getFrame().isRequiresFrontGearCable());
+            features |= bit(REQUIRES_REAR_GEAR_CABLE, bike.getFrame().isRequiresRearGearCable());
+        }
+        features |= oneHot(BRAKE_TYPE, bike.getBrakeType());
+        features |= oneHot(HANDLE_BAR_TYPE, bike.getHandleBarType());
+        features |= oneHot(SHIFTER_STYLE, bike.getShifterStyle());
+        features |= oneHot(GROUPSET_BRAND, bike.getGroupsetBrand());
+        features |= bit(WHEEL_PREFERENCE, "Cheap".equals(bike.getWheelPreference()));
+        features |= bit(WHEEL_PREFERENCE + 1, "Expensive".equals(bike.getWheelPreference()));
+        features |= gears(FRONT_GEARS, bike.getNumberOfFrontGears(), MAX_FRONT_GEARS);
+        features |= gears(REAR_GEARS, bike.getNumberOfRearGears(), MAX_REAR_GEARS);
+        return features;
+    }
+
+    /**
+     * Gets how far apart two sets of features are, 0 if they are the same.
+     *
+     * @param a the first features
+     * @param b the second features
+     * @return the weighted Hamming distance
+     */
+    public static int distance(long a, long b) {
+        long differ = a ^ b;
+        int distance = 0;
+        for (int i = 0; i < FIELD_MASKS.length; i++) {
+            distance += FIELD_WEIGHTS[i] * Long.bitCount(differ & FIELD_MASKS[i]);
+        }
+        return distance;
+    }
+
+    /**
+     * Adds a saved bike, or moves it if it is already in the index and its features have changed.
+     *
+     * @param bike the bike, with its ID
+     */
+    public synchronized void put(FullBike bike) {
+        long id = bike.getFullBikeId();
+        long features = features(bike);
+        Long old = featuresById.put(id, features);
+        if (old != null) {
+            if (old == features) {
+                return;
+            }
+            leave(groups.get(old), id);
+        }
+        Group group = groups.get(features);
+        if (group == null) {
+            group = new Group(features);
+            groups.put(features, group);
+            group.bikeIds.add(id);
+            introduce(group);
+        } else {
+            group.bikeIds.add(id);
+        }
+    }
+
+    /**
+     * Removes a bike, if it is in the index.
+     *
+     * @param bikeId the bike id
+     */
+    public synchronized void remove(long bikeId) {
+        Long features = featuresById.remove(bikeId);
+        if (features != null) {
+            leave(groups.get(features), bikeId);
+        }
+    }
+
+    /**
+     * Replaces every bike in the index with the passed in bikes.
+     *
+     * @param bikes the bikes, with their IDs
+     */
+    public synchronized void replaceAll(List<FullBike> bikes) {
+        groups.clear();
+        featuresById.clear();
+        bikes.forEach(this::put);
+    }
+
+    /**
+     * Gets the number of bikes in the index.
+     *
+     * @return the number of bikes
+     */
+    public synchronized int size() {
+        return featuresById.size();
+    }
+
+    /**
+     * Gets the IDs of the bikes most like the passed in bike, nearest first.
+     * Bikes equally near are in the order of their features, then ID.
+     * The bike itself is left out, if it is saved; a bike with no ID above 0 is not saved, so leaves out no bike.
+     *
+     * @param bike  the bike
+     * @param limit the most IDs to return
+     * @return the bike IDs
+     */
+    public synchronized List<Long> nearest(FullBike bike, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, featuresById.size()));
+        long self = bike.getFullBikeId() > 0 ? bike.getFullBikeId() : Long.MIN_VALUE;
+        long features = features(bike);
+        Group group = groups.get(features);
+        if (group == null || limit > neighbours) {
+            for (Group near : byDistance(features, null)) {
+                if (!collect(near, self, limit, ids)) {
+                    break;
+                }
+            }
+            return ids;
+        }
+        if (group.stale) {
+            rebuild(group);
+        }
+        if (collect(group, self, limit, ids)) {
+            for (Group near : group.nearest) {
+                if (!collect(near, self, limit, ids)) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static boolean collect(Group group, long self, int limit, List<Long> ids) {
+        for (long id : group.bikeIds) {
+            if (ids.size() >= limit) {
+                return false;
+            }
+            if (id != self) {
+                ids.add(id);
+            }
+        }
+        return ids.size() < limit;
+    }
+
+    private void introduce(Group group) {
+        for (Group other : groups.values()) {
+            if (other == group || other.stale) {
+                continue;
+            }
+            long rank = rank(other.features, group.features);
+            int size = other.ranks.size();
+            if (covered(other) && size > 0 && rank > other.ranks.get(size - 1)) {
+                continue;
+            }
+            int at = size;
+            while (at > 0 && other.ranks.get(at - 1) > rank) {
+                at--;
+            }
+            other.nearest.add(at, group);
+            other.ranks.add(at, rank);
+            group.listedBy.add(other);
+            trim(other);
+        }
+    }
+
+    private void leave(Group group, long bikeId) {
+        group.bikeIds.remove(bikeId);
+        if (group.bikeIds.isEmpty()) {
+            groups.remove(group.features);
+            for (Group near : group.nearest) {
+                near.listedBy.remove(group);
+            }
+            for (Group lister : group.listedBy) {
+                int at = lister.nearest.indexOf(group);
+                lister.nearest.remove(at);
+                lister.ranks.remove(at);
+                lister.stale |= !covered(lister);
+            }
+            return;
+        }
+        group.stale |= !covered(group);
+        for (Group lister : group.listedBy) {
+            lister.stale |= !covered(lister);
+        }
+    }
+
+    private void rebuild(Group group) {
+        for (Group near : group.nearest) {
+            near.listedBy.remove(group);
+        }
+        group.nearest.clear();
+        group.ranks.clear();
+        int held = group.bikeIds.size();
+        for (Group near : byDistance(group.features, group)) {
+            if (held > neighbours) {
+                break;
+            }
+            group.nearest.add(near);
+            group.ranks.add(rank(group.features, near.features));
+            near.listedBy.add(group);
+            held += near.bikeIds.size();
+        }
+        group.stale = false;
+    }
+
+    private void trim(Group group) {
+        int held = held(group);
+        int last = group.nearest.size() - 1;
+        while (last >= 0 && held - group.nearest.get(last).bikeIds.size() > neighbours) {
+            Group dropped = group.nearest.remove(last);
+            group.ranks.remove(last);
+            dropped.listedBy.remove(group);
+            held -= dropped.bikeIds.size();
+            last--;
+        }
+    }
+
+    private boolean covered(Group group) {
+        return held(group) > neighbours;
+    }
+
+    private static int held(Group group) {
+        int held = group.bikeIds.size();
+        for (Group near : group.nearest) {
+            held += near.bikeIds.size();
+        }
+        return held;
+    }
+
+    private List<Group> byDistance(long features, Group skip) {
+        List<Group> sorted = new ArrayList<>(groups.size());
+        for (Group group : groups.values()) {
+            if (group != skip) {
+                sorted.add(group);
+            }
+        }
+        sorted.sort(Comparator.comparingLong(g -> rank(features, g.features)));
+        return sorted;
+    }
+
+    /**
+     * Orders groups by their distance from some features, and groups equally far by their own features, so every list has the same order.
+     */
+    private static long rank(long from, long features) {
+        return (long) distance(from, features) << FEATURE_BITS | features;
+    }
+
+    private static long mask(int from, int bits) {
+        return ((1L << bits) - 1) << from;
+    }
+
+    private static long oneHot(int from, Enum<?> value) {
+        return value == null ? 0 : 1L << (from + value.ordinal());
+    }
+
+    private static long bit(int at, boolean value) {
+        return value ? 1L << at : 0;
+    }
+
+    private static long gears(int from, long gears, int max) {
+        return mask(from, (int) Math.max(0, Math.min(gears, max)));
+    }
+}
@@ -0,0 +1,167 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.repository.FullBikeRepository;
+import com.homeapp.backend.repository.PartRepository;
+import com.homeapp.backend.repository.StickyNoteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The Storage Config.
+ * Chooses where bikes, notes and Parts are kept, from the storage.mode property:
+ * json, the default, keeps them in the JSON files under resources; jpa keeps them in the embedded H2 database.
+ * Starting in jpa mode for the first time copies everything across from the JSON files.
+ * The database is only opened in jpa mode: Spring Boot's own DataSource is turned off in application.properties,
+ * and the one here is conditional on the mode, so json mode creates no database file.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class StorageConfig {
+
+    /**
+     * The bike file.
+     */
+    public static final String BIKES_FILE = "src/main/resources/bikes.json";
+    /**
+     * The notes file.
+     */
+    public static final String NOTES_FILE = "src/main/resources/notes.json";
+    /**
+     * The links file, the Parts catalog.
+     */
+    public static final String LINKS_FILE = "src/main/resources/links.json";
+
+    /**
+     * Opens the bikes store over the bike file and its write-ahead log.
+     *
+     * @param groupCommitWriter the writer changes are queued on
+     * @param walFile           the write-ahead log of changes to the bike file
+     * @param checkpointEvery   the number of logged changes after which the bike file is rewritten
+     * @param idFile            the file the bike ID counter is kept in
+     * @return the JSON Bike Store
+     * @throws IOException if the bike file or log cannot be read
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "json", matchIfMissing = true)
+    public BikeStore jsonBikeStore(GroupCommitWriter groupCommitWriter,
+                                   @Value("${bikes.wal.file:src/main/resources/bikes_wal.ndjson}") String walFile,
+                                   @Value("${bikes.wal.checkpoint-every:50}") int checkpointEvery,
+                                   @Value("${bikes.id.file:src/main/resources/bikes_last_id.txt}") String idFile) throws IOException {
+        return new JsonBikeStore(openBikesWal(groupCommitWriter, walFile, checkpointEvery), Path.of(idFile));
+    }
+
+    /**
+     * Opens the embedded H2 database, from the spring.datasource properties.
+     *
+     * @param dataSourceProperties the spring.datasource properties
+     * @return the Data Source
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "jpa")
+    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().build();
+    }
+
+    /**
+     * Opens the notes store over the notes file.
+     *
+     * @param groupCommitWriter the writer changes are queued on
+     * @return the JSON Note Store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "json", matchIfMissing = true)
+    public NoteStore jsonNoteStore(GroupCommitWriter groupCommitWriter) {
+        return new JsonNoteStore(new ObjectMapper(), Path.of(NOTES_FILE), groupCommitWriter);
+    }
+
+    /**
+     * Opens the Parts store over the links file.
+     *
+     * @return the JSON Part Store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "json", matchIfMissing = true)
+    public PartStore jsonPartStore() {
+        return new JsonPartStore(new ObjectMapper(), Path.of(LINKS_FILE));
+    }
+
+    /**
+     * Copies anything not yet in the database across from the JSON files, before any of the JPA stores are opened.
+     *
+     * @param fullBikeRepository   the full bike repository
+     * @param stickyNoteRepository the sticky note repository
+     * @param partRepository       the part repository
+     * @param migrateOnStart       whether to migrate at all
+     * @param walFile              the write-ahead log of changes to the bike file
+     * @return the JSON to JPA Migrator
+     * @throws IOException if the bike file or log cannot be read
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "jpa")
+    public JsonToJpaMigrator jsonToJpaMigrator(FullBikeRepository fullBikeRepository, StickyNoteRepository stickyNoteRepository,
+                                               PartRepository partRepository,
+                                               @Value("${storage.migrate-on-start:true}") boolean migrateOnStart,
+                                               @Value("${bikes.wal.file:src/main/resources/bikes_wal.ndjson}") String walFile) throws IOException {
+        JsonToJpaMigrator migrator = new JsonToJpaMigrator(fullBikeRepository, stickyNoteRepository, partRepository);
+        if (migrateOnStart) {
+            migrator.migrateBikes(Path.of(BIKES_FILE), Path.of(walFile));
+            migrator.migrateNotes(Path.of(NOTES_FILE));
+            migrator.migrateParts(Path.of(LINKS_FILE));
+        }
+        return migrator;
+    }
+
+    /**
+     * Opens the bikes store over the FullBike table.
+     *
+     * @param fullBikeRepository the full bike repository
+     * @param jsonToJpaMigrator  the migrator, which must have run first
+     * @return the JPA Bike Store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "jpa")
+    public BikeStore jpaBikeStore(FullBikeRepository fullBikeRepository, JsonToJpaMigrator jsonToJpaMigrator) {
+        return new JpaBikeStore(fullBikeRepository);
+    }
+
+    /**
+     * Opens the notes store over the stickynote table.
+     *
+     * @param stickyNoteRepository the sticky note repository
+     * @param jsonToJpaMigrator    the migrator, which must have run first
+     * @return the JPA Note Store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "jpa")
+    public NoteStore jpaNoteStore(StickyNoteRepository stickyNoteRepository, JsonToJpaMigrator jsonToJpaMigrator) {
+        return new JpaNoteStore(stickyNoteRepository);
+    }
+
+    /**
+     * Opens the Parts store over the Part table.
+     *
+     * @param partRepository    the part repository
+     * @param jsonToJpaMigrator the migrator, which must have run first
+     * @return the JPA Part Store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.mode", havingValue = "jpa")
+    public PartStore jpaPartStore(PartRepository partRepository, JsonToJpaMigrator jsonToJpaMigrator) {
+        return new JpaPartStore(partRepository);
+    }
+
+    private WalStore<FullBike> openBikesWal(GroupCommitWriter groupCommitWriter, String walFile, int checkpointEvery) throws IOException {
+        return new WalStore<>(new ObjectMapper(), Path.of(BIKES_FILE), Path.of(walFile), FullBike.class,
+                b -> String.valueOf(b.getFullBikeId()), checkpointEvery, groupCommitWriter);
+    }
+}
@@ -0,0 +1,360 @@
+package com.homeapp.backend.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * The Write-Ahead Log Store.
+ * A keyed collection kept in memory, saved as a JSON snapshot file plus an append only log of the changes made since.
+ * Each change appends one line to the log, so its cost does not grow with the size of the collection.
+ * Every so many changes the snapshot is rewritten and the log emptied, and on startup the log is replayed over the snapshot.
+ * Writes go through the shared Group Commit Writer, so each change is acknowledged once queued,
+ * and the returned future completes once it is on disk.
+ * <p>
+ * Replaying is idempotent: a PUT removes then re-adds its key, a PATCH merges just the changed fields into the value under its key,
+ * a DELETE removes it and a CLEAR empties the store.
+ * So if a crash lands between writing a new snapshot and emptying the log, replaying the old log over the new snapshot gives the same result.
+ *
+ * @param <T> the type of value stored
+ */
+public class WalStore<T> {
+
+    /**
+     * The kinds of change written to the log.
+     */
+    public enum Op {
+        PUT, PATCH, DELETE, CLEAR
+    }
+
+    private final ObjectMapper om;
+    private final InfoLogger infoLogger = new InfoLogger();
+    private final WarnLogger warnLogger = new WarnLogger();
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final JavaType valueType;
+    private final Function<T, String> keyOf;
+    private final int checkpointEvery;
+    private final GroupCommitWriter writer;
+    private final LinkedHashMap<String, T> values = new LinkedHashMap<>();
+    private long sequence;
+    private int entriesSinceCheckpoint;
+
+    /**
+     * Opens a store, loading the snapshot and replaying the log over it.
+     * If the log had any entries, they are checkpointed into the snapshot straight away.
+     *
+     * @param om              the object mapper for the values
+     * @param snapshotFile    the JSON snapshot file, a list of values
+     * @param logFile         the newline delimited JSON log file
+     * @param valueClass      the class of value stored
+     * @param keyOf           gets the key of a value
+     * @param checkpointEvery the number of log entries after which the snapshot is rewritten
+     * @param writer          the writer all changes are queued on
+     * @throws IOException if the snapshot or log cannot be read
+     */
+    public WalStore(ObjectMapper om, Path snapshotFile, Path logFile, Class<T> valueClass, Function<T, String> keyOf, int checkpointEvery,
+                    GroupCommitWriter writer) throws IOException {
+        this.om = om;
+        this.snapshotFile = snapshotFile;
+        this.logFile = logFile;
+        this.valueType = om.getTypeFactory().constructType(valueClass);
+        this.keyOf = keyOf;
+        this.checkpointEvery = checkpointEvery;
+        this.writer = writer;
+        if (replay() > 0) {
+            checkpoint().join();
+        }
+    }
+
+    private WalStore(ObjectMapper om, Path snapshotFile, Path logFile, Class<T> valueClass, Function<T, String> keyOf) throws IOException {
+        this.om = om;
+        this.snapshotFile = snapshotFile;
+        this.logFile = logFile;
+        this.valueType = om.getTypeFactory().constructType(valueClass);
+        this.keyOf = keyOf;
+        this.checkpointEvery = Integer.MAX_VALUE;
+        this.writer = null;
+        replay();
+    }
+
+    /**
+     * Reads the values a store over the files would open with, the snapshot with the log replayed over it, without opening the store.
+     * Nothing is written, the log is not checkpointed, so the files are left exactly as they were for a store opened later.
+     *
+     * @param <T>          the type of value stored
+     * @param om           the object mapper for the values
+     * @param snapshotFile the JSON snapshot file, a list of values
+     * @param logFile      the newline delimited JSON log file
+     * @param valueClass   the class of value stored
+     * @param keyOf        gets the key of a value
+     * @return the values, in the order they were last put
+     * @throws IOException if the snapshot or log cannot be read
+     */
+    public static <T> List<T> read(ObjectMapper om, Path snapshotFile, Path logFile, Class<T> valueClass, Function<T, String> keyOf) throws IOException {
+        return new WalStore<>(om, snapshotFile, logFile, valueClass, keyOf).values();
+    }
+
+    /**
+     * Loads the snapshot and replays the log over it.
+     *
+     * @return the number of log entries replayed
+     * @throws IOException if the snapshot or log cannot be read
+     */
+    private int replay() throws IOException {
+        if (Files.exists(snapshotFile)) {
+            List<T> snapshot = om.readValue(snapshotFile.toFile(), om.getTypeFactory().constructCollectionType(List.class, valueType));
+            snapshot.forEach(value -> values.put(keyOf.apply(value), value));
+        }
+        int replayed = 0;
+        if (Files.exists(logFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        JsonNode entry = om.readTree(line);
+                        Op op = Op.valueOf(entry.get("op").asText());
+                        String key = entry.path("key").asText(null);
+                        T value = entry.hasNonNull("value") ? om.treeToValue(entry.get("value"), valueType) : null;
+                        if (op == Op.PATCH && values.containsKey(key)) {
+                            value = om.treeToValue(MergePatch.apply(om.valueToTree(values.get(key)), entry.get("patch")), valueType);
+                        }
+                        apply(op, key, value);
+                        sequence = entry.get("seq").asLong();
+                        replayed++;
+                    } catch (JsonProcessingException | IllegalArgumentException | NullPointerException e) {
+                        warnLogger.log("Stopping log replay at unreadable entry, a write was cut short!!File: " + logFile + "!!Entry: " + line);
+                        break;
+                    }
+                }
+            }
+        }
+        infoLogger.log("Recovered " + values.size() + " entries from " + snapshotFile + ", replayed " + replayed + " log entries");
+        return replayed;
+    }
+
+    /**
+     * Adds the value, or replaces the value with the same key, moving it to the end of the store.
+     *
+     * @param value the value
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be serialized
+     */
+    public synchronized CompletableFuture<Void> put(T value) throws IOException {
+        String key = keyOf.apply(value);
+        CompletableFuture<Void> written = append(Op.PUT, key, value);
+        apply(Op.PUT, key, value);
+        return checkpointIfDue(written);
+    }
+
+    /**
+     * Replaces the value with the same key by its patched version, logging only the fields that changed.
+     * Unlike a put, the value keeps its place in the store.
+     *
+     * @param patched the value with the patch applied
+     * @param patch   the JSON Merge Patch from the old value to the patched one
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be serialized
+     */
+    public synchronized CompletableFuture<Void> patch(T patched, JsonNode patch) throws IOException {
+        String key = keyOf.apply(patched);
+        ObjectNode entry = entryNode(Op.PATCH, key, null);
+        entry.set("patch", patch);
+        CompletableFuture<Void> written = writer.append(logFile, (om.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        apply(Op.PATCH, key, patched);
+        return checkpointIfDue(written);
+    }
+
+    /**
+     * Adds or replaces each of the passed-in values, logging them all with a single append.
+     *
+     * @param newValues the values
+     * @return a future completed once every change is on disk
+     * @throws IOException if a change cannot be serialized
+     */
+    public synchronized CompletableFuture<Void> putAll(List<T> newValues) throws IOException {
+        if (newValues.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        StringBuilder entries = new StringBuilder();
+        for (T value : newValues) {
+            entries.append(entry(Op.PUT, keyOf.apply(value), value));
+        }
+        CompletableFuture<Void> written = writer.append(logFile, entries.toString().getBytes(StandardCharsets.UTF_8));
+        newValues.forEach(value -> apply(Op.PUT, keyOf.apply(value), value));
+        return checkpointIfDue(written);
+    }
+
+    /**
+     * Removes the value with the passed-in key, if there is one.
+     *
+     * @param key the key
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be serialized
+     */
+    public synchronized CompletableFuture<Void> delete(String key) throws IOException {
+        if (!values.containsKey(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> written = append(Op.DELETE, key, null);
+        apply(Op.DELETE, key, null);
+        return checkpointIfDue(written);
+    }
+
+    /**
+     * Removes every value.
+     *
+     * @return a future completed once the change is on disk
+     * @throws IOException if the change cannot be serialized
+     */
+    public synchronized CompletableFuture<Void> clear() throws IOException {
+        CompletableFuture<Void> written = append(Op.CLEAR, null, null);
+        apply(Op.CLEAR, null, null);
+        return checkpointIfDue(written);
+    }
+
+    /**
+     * Replaces every value with the passed-in values, then checkpoints, as a bulk load is cheaper to save as a fresh snapshot.
+     * The replacement is logged first, so a crash part way through still replays to the new values.
+     *
+     * @param newValues the new values
+     * @return a future completed once the new snapshot is on disk
+     * @throws IOException if the change cannot be serialized
+     */
+    public synchronized CompletableFuture<Void> replaceAll(List<T> newValues) throws IOException {
+        append(Op.CLEAR, null, null);
+        apply(Op.CLEAR, null, null);
+        for (T value : newValues) {
+            String key = keyOf.apply(value);
+            append(Op.PUT, key, value);
+            apply(Op.PUT, key, value);
+        }
+        return checkpoint();
+    }
+
+    /**
+     * Gets the value with the passed-in key.
+     *
+     * @param key the key
+     * @return the value, null if there is none
+     */
+    public synchronized T get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Gets every value, in the order they were last put.
+     *
+     * @return a copy of the values
+     */
+    public synchronized List<T> values() {
+        return new ArrayList<>(values.values());
+    }
+
+    /**
+     * Gets how many values are stored.
+     *
+     * @return the number of values
+     */
+    public synchronized int size() {
+        return values.size();
+    }
+
+    /**
+     * Queues a new snapshot of every value, then an empty log.
+     * Both are written in order by the writer, and any log entries still queued are dropped, as the snapshot holds them.
+     *
+     * @return a future completed once the snapshot is on disk and the log emptied
+     * @throws IOException if the values cannot be serialized
+     */
+    public synchronized CompletableFuture<Void> checkpoint() throws IOException {
+        byte[] snapshot = om.writerWithDefaultPrettyPrinter().writeValueAsBytes(values.values());
+        writer.replace(snapshotFile, () -> snapshot);
+        CompletableFuture<Void> written = writer.replace(logFile, () -> new byte[0]);
+        entriesSinceCheckpoint = 0;
+        infoLogger.log("Checkpointed " + values.size() + " entries to " + snapshotFile + " at log sequence: " + sequence);
+        return written;
+    }
+
+    /**
+     * Gets a future completed once every change made so far is on disk.
+     *
+     * @return the future
+     */
+    public CompletableFuture<Void> flush() {
+        return writer.flush();
+    }
+
+    /**
+     * Checkpoints any outstanding log entries and waits for everything queued to be on disk.
+     *
+     * @throws IOException if the values cannot be serialized
+     */
+    public void close() throws IOException {
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            written = entriesSinceCheckpoint > 0 ? checkpoint() : writer.flush();
+        }
+        written.join();
+    }
+
+    private void apply(Op op, String key, T value) {
+        switch (op) {
+            case PUT -> {
+                values.remove(key);
+                values.put(key, value);
+            }
+            case PATCH -> {
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            case DELETE -> values.remove(key);
+            case CLEAR -> values.clear();
+        }
+    }
+
+    private CompletableFuture<Void> append(Op op, String key, T value) throws IOException {
+        return writer.append(logFile, entry(op, key, value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String entry(Op op, String key, T value) throws IOException {
+        return om.writeValueAsString(entryNode(op, key, value)) + "\n";
+    }
+
+    private ObjectNode entryNode(Op op, String key, T value) {
+        ObjectNode entry = om.createObjectNode();
+        entry.put("seq", ++sequence);
+        entry.put("op", op.name());
+        if (key != null) {
+            entry.put("key", key);
+        }
+        if (value != null) {
+            entry.set("value", om.valueToTree(value));
+        }
+        entriesSinceCheckpoint++;
+        return entry;
+    }
+
+    private CompletableFuture<Void> checkpointIfDue(CompletableFuture<Void> written) throws IOException {
+        return entriesSinceCheckpoint >= checkpointEvery ? checkpoint() : written;
+    }
+}
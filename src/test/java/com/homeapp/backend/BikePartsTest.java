@@ -127,8 +127,7 @@ public class BikePartsTest {
                         b.setNumberOfRearGears(rg);
                         for (String wp : o.getWheelPreference()) {
                             b.setWheelPreference(wp);
-                            fullBikeService.setBike(b);
-                            BikeParts parts = bikePartsService.getBikePartsForBike();
+                            BikeParts parts = bikePartsService.getBikePartsForBike(b);
                             assertNotNull(parts.getTotalBikePrice());
                             assertTrue(parts.getTotalBikePrice().compareTo(new BigDecimal(500)) > 0);
                             numberOfLoops = numberOfLoops + 1;
@@ -165,8 +164,7 @@ public class BikePartsTest {
                         b.setNumberOfRearGears(rg);
                         for (String wp : o.getWheelPreference()) {
                             b.setWheelPreference(wp);
-                            fullBikeService.setBike(b);
-                            BikeParts parts = bikePartsService.getBikePartsForBike();
+                            BikeParts parts = bikePartsService.getBikePartsForBike(b);
                             BigDecimal bikePrice = parts.getTotalBikePrice();
                             assertTrue(bikePrice.compareTo(new BigDecimal(500)) > 0);
                             assertNotNull(bikePrice);
@@ -204,8 +202,7 @@ public class BikePartsTest {
                         b.setNumberOfRearGears(rg);
                         for (String wp : o.getWheelPreference()) {
                             b.setWheelPreference(wp);
-                            fullBikeService.setBike(b);
-                            BikeParts parts = bikePartsService.getBikePartsForBike();
+                            BikeParts parts = bikePartsService.getBikePartsForBike(b);
                             BigDecimal bikePrice = parts.getTotalBikePrice();
                             assertTrue(bikePrice.compareTo(new BigDecimal(500)) > 0);
                             assertNotNull(bikePrice);
@@ -243,8 +240,7 @@ public class BikePartsTest {
                         b.setNumberOfRearGears(rg);
                         for (String wp : o.getWheelPreference()) {
                             b.setWheelPreference(wp);
-                            fullBikeService.setBike(b);
-                            BikeParts parts = bikePartsService.getBikePartsForBike();
+                            BikeParts parts = bikePartsService.getBikePartsForBike(b);
                             BigDecimal bikePrice = parts.getTotalBikePrice();
                             assertTrue(bikePrice.compareTo(new BigDecimal(500)) > 0);
                             assertNotNull(bikePrice);
@@ -263,8 +259,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Parts_Array_is_Populated() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         assertTrue(parts.getListOfParts().size() > 1);
     }
 
@@ -274,8 +269,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Cheaps() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice < 1500);
     }
@@ -286,8 +280,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Heaps1() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike1").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice > 1500);
     }
@@ -298,8 +291,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Cheaps2() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike2").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice < 1500);
     }
@@ -310,8 +302,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Heaps3() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike3").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice > 1500);
     }
@@ -322,8 +313,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Cheaps4() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike4").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice < 1500);
     }
@@ -334,8 +324,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Heaps5() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike5").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         System.out.println(parts.getTotalPriceAsString());
         assertTrue(bikePrice > 1500);
@@ -347,8 +336,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Heaps6() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike6").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice > 1500);
     }
@@ -359,8 +347,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Heaps7() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike7").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice > 1500);
     }
@@ -371,8 +358,7 @@ public class BikePartsTest {
     @Test
     public void test_That_The_Full_Price_is_Heaps8() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike8").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         long bikePrice = parts.getTotalBikePrice().longValue();
         assertTrue(bikePrice > 1500);
     }
@@ -383,8 +369,7 @@ public class BikePartsTest {
     @Test
     public void test_That_Gravel_Bike_Has_Price_With_Two_decimals() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("Gravel").get();
-        fullBikeService.setBike(bikeBefore);
-        BikeParts parts = bikePartsService.getBikePartsForBike();
+        BikeParts parts = bikePartsService.getBikePartsForBike(bikeBefore);
         String bikePrice = parts.getTotalPriceAsString();
         assertTrue(bikePrice.matches("£\\d{1,3}(,\\d{3})*(\\.\\d{2})"));
     }
@@ -395,12 +380,10 @@ public class BikePartsTest {
     @Test
     public void test_That_Different_Bikes_Get_Different_Price() {
         FullBike bike1Before = fullBikeService.getBikeUsingName("bike").get();
-        fullBikeService.setBike(bike1Before);
-        BikeParts parts1 = bikePartsService.getBikePartsForBike();
+        BikeParts parts1 = bikePartsService.getBikePartsForBike(bike1Before);
         long bike1Price = parts1.getTotalBikePrice().longValue();
         FullBike bike2Before = fullBikeService.getBikeUsingName("bike3").get();
-        fullBikeService.setBike(bike2Before);
-        BikeParts parts2 = bikePartsService.getBikePartsForBike();
+        BikeParts parts2 = bikePartsService.getBikePartsForBike(bike2Before);
         long bike2Price = parts2.getTotalBikePrice().longValue();
         assertNotSame(bike1Price, bike2Price);
     }
@@ -411,8 +394,7 @@ public class BikePartsTest {
     @Test
     public void test_That_Bike_Part_Details_Not_Null() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike").get();
-        fullBikeService.setBike(bikeBefore);
-        List<Part> bParts = bikePartsService.getBikePartsForBike().getListOfParts();
+        List<Part> bParts = bikePartsService.getBikePartsForBike(bikeBefore).getListOfParts();
         for (Part part : bParts) {
             assertNotNull(part);
             assertNotNull(part.getName());
@@ -427,8 +409,7 @@ public class BikePartsTest {
     @Test
     public void test_That_Bike5_Part_Details_Not_Null() {
         FullBike bikeBefore = fullBikeService.getBikeUsingName("bike5").get();
-        fullBikeService.setBike(bikeBefore);
-        List<Part> bParts = bikePartsService.getBikePartsForBike().getListOfParts();
+        List<Part> bParts = bikePartsService.getBikePartsForBike(bikeBefore).getListOfParts();
         for (Part part : bParts) {
             assertNotNull(part);
             assertNotNull(part.getName());
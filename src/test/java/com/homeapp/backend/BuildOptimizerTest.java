@@ -0,0 +1,174 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.bike.PricedBuild;
+import com.homeapp.backend.services.*;
+import com.homeapp.backend.store.JsonPartStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.HYDRAULIC_DISC;
+import static com.homeapp.backend.models.bike.Enums.BrakeType.NO_SELECTION;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.GRAVEL;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.NONE_SELECTED;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.TOUR;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.NOT_SELECTED;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.NONE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Build Optimizer tests.
+ * The services are built by hand over a copy of the links file, with a Part added for every link a design gets that the file does not
+ * have, and a price on every Part, so every design can be priced.
+ * The designs are priced once, for all the tests.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BuildOptimizerTest {
+
+    private static final String GRAVEL_FRAME = "https://www.dolan-bikes.com/dolan-gxa2020-aluminium-gravel-frameset/";
+    private final ObjectMapper om = new ObjectMapper();
+    private List<Part> parts;
+    private BikePartsService bikePartsService;
+    private BuildOptimizerService buildOptimizerService;
+    private Path dir;
+
+    /**
+     * Adds a Part to a copy of the links file for every link a design gets that is not in it, gives every Part a different price,
+     * and builds the services over it.
+     *
+     * @param dir a temporary folder for the links files and parts journals
+     * @throws IOException if the links file cannot be copied
+     */
+    @BeforeAll
+    public void setup(@TempDir Path dir) throws IOException {
+        this.dir = dir;
+        parts = om.readValue(new File("src/main/resources/links.json"), new TypeReference<>() {
+        });
+        open("links", parts);
+        DesignRuleService designRuleService = new DesignRuleService();
+        Set<String> links = new HashSet<>(parts.stream().map(Part::getLink).toList());
+        for (int i = 0; i < OptionConstraints.designs(); i++) {
+            FullBike bike = OptionConstraints.toBike(OptionConstraints.design(i));
+            designRuleService.normalize(bike);
+            bikePartsService.getPartLinks(bike).orElse(List.of()).stream()
+                    .filter(links::add)
+                    .forEach(link -> parts.add(new Part("Added", link, link)));
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            parts.get(i).setPrice((i * 37 % 101 + 10) + ".99");
+        }
+        buildOptimizerService = open("complete", parts);
+    }
+
+    private BuildOptimizerService open(String name, List<Part> catalog) throws IOException {
+        om.writeValue(dir.resolve(name + ".json").toFile(), catalog);
+        JsonPartStore partStore = new JsonPartStore(om, dir.resolve(name + ".json"));
+        PartsJournalService partsJournalService = new PartsJournalService(dir.resolve(name + "_journal.ndjson").toString(), 500);
+        PartsCatalogService partsCatalogService = new PartsCatalogService(partsJournalService, partStore);
+        PartsRefreshService partsRefreshService = new PartsRefreshService(new ScraperService(Duration.ofSeconds(5), 3, Duration.ofMillis(500), Duration.ofSeconds(5), 3, Duration.ofMinutes(10), true),
+                partsJournalService, partStore, false, 8, Duration.ofMinutes(2), Duration.ofMinutes(15), 1, Duration.ofHours(6));
+        bikePartsService = new BikePartsService(new ShimanoGroupsetService(partsRefreshService, partsCatalogService));
+        return new BuildOptimizerService(new DesignRuleService(), bikePartsService, partsCatalogService);
+    }
+
+    private BigDecimal price(PricedBuild build) {
+        return build.getBikeParts().getTotalBikePrice();
+    }
+
+    /**
+     * Test that the cheapest builds keep the design's choices, come cheapest first, and are the cheapest of all the builds with those choices.
+     */
+    @Test
+    public void test_That_The_Cheapest_Builds_Are_Found_For_A_Partial_Design() {
+        FullBike partial = new FullBike("partial", new Frame(TOUR, true, true, true), HYDRAULIC_DISC, SHIMANO, NOT_SELECTED, 0L, 0L, NONE);
+        List<PricedBuild> cheapest = buildOptimizerService.getBuilds(partial, 3, null);
+        assertFalse(cheapest.isEmpty());
+        assertTrue(cheapest.size() <= 3);
+        for (int i = 0; i < cheapest.size(); i++) {
+            assertEquals(TOUR, cheapest.get(i).getBike().getFrame().getFrameStyle());
+            assertEquals(HYDRAULIC_DISC, cheapest.get(i).getBike().getBrakeType());
+            if (i > 0) {
+                assertTrue(price(cheapest.get(i - 1)).compareTo(price(cheapest.get(i))) <= 0);
+            }
+        }
+        FullBike anything = new FullBike("anything", new Frame(NONE_SELECTED, false, false, false), NO_SELECTION, SHIMANO, NOT_SELECTED, 0L, 0L, NONE);
+        List<BigDecimal> allMatching = buildOptimizerService.getBuilds(anything, Integer.MAX_VALUE, null).stream()
+                .filter(b -> b.getBike().getFrame().getFrameStyle() == TOUR && b.getBike().getBrakeType() == HYDRAULIC_DISC)
+                .map(this::price)
+                .toList();
+        assertEquals(allMatching.subList(0, cheapest.size()), cheapest.stream().map(this::price).toList());
+    }
+
+    /**
+     * Test that with a budget the most expensive builds within it are found, most expensive first.
+     */
+    @Test
+    public void test_That_The_Best_Builds_Within_A_Budget_Are_Found() {
+        FullBike anything = new FullBike("anything", new Frame(NONE_SELECTED, false, false, false), NO_SELECTION, SHIMANO, NOT_SELECTED, 0L, 0L, NONE);
+        List<PricedBuild> all = buildOptimizerService.getBuilds(anything, Integer.MAX_VALUE, null);
+        BigDecimal budget = price(all.get(all.size() / 2));
+        List<PricedBuild> best = buildOptimizerService.getBuilds(anything, 4, budget);
+        assertEquals(4, best.size());
+        assertEquals(0, price(best.get(0)).compareTo(all.stream().map(this::price).filter(p -> p.compareTo(budget) <= 0).max(BigDecimal::compareTo).get()));
+        for (int i = 1; i < best.size(); i++) {
+            assertTrue(price(best.get(i)).compareTo(budget) <= 0);
+            assertTrue(price(best.get(i - 1)).compareTo(price(best.get(i))) >= 0);
+        }
+    }
+
+    /**
+     * Test that a design with a choice no build can have gets no builds.
+     */
+    @Test
+    public void test_That_An_Impossible_Design_Gets_No_Builds() {
+        FullBike tooManyGears = new FullBike("impossible", new Frame(TOUR, true, true, true), HYDRAULIC_DISC, SHIMANO, NOT_SELECTED, 2L, 0L, NONE);
+        assertTrue(buildOptimizerService.getBuilds(tooManyGears, 5, null).isEmpty());
+        FullBike outOfDomain = new FullBike("impossible", new Frame(TOUR, true, true, true), HYDRAULIC_DISC, SHIMANO, NOT_SELECTED, 0L, 7L, NONE);
+        assertTrue(buildOptimizerService.getBuilds(outOfDomain, 5, null).isEmpty());
+    }
+
+    /**
+     * Test that every build is priced from exactly the Parts its bike gets, so no build is a design the groupset holds to other gears.
+     */
+    @Test
+    public void test_That_Every_Build_Is_Priced_From_The_Parts_Its_Bike_Gets() {
+        FullBike anything = new FullBike("anything", new Frame(NONE_SELECTED, false, false, false), NO_SELECTION, SHIMANO, NOT_SELECTED, 0L, 0L, NONE);
+        List<PricedBuild> all = buildOptimizerService.getBuilds(anything, Integer.MAX_VALUE, null);
+        assertFalse(all.isEmpty());
+        for (PricedBuild build : all) {
+            FullBike bike = build.getBike();
+            assertFalse(bike.getNumberOfFrontGears() == 3 && bike.getNumberOfRearGears() == 11);
+            assertEquals(bikePartsService.getPartLinks(bike).get().stream().sorted().toList(),
+                    build.getBikeParts().getListOfParts().stream().map(Part::getLink).sorted().toList());
+        }
+    }
+
+    /**
+     * Test that a design with a Part not in the catalog gets no build, rather than one priced without that Part.
+     *
+     * @throws IOException if the links file cannot be written
+     */
+    @Test
+    public void test_That_A_Design_With_A_Part_Not_In_The_Catalog_Is_Not_Priced() throws IOException {
+        BuildOptimizerService withoutFrame = open("without_frame", parts.stream().filter(p -> !p.getLink().equals(GRAVEL_FRAME)).toList());
+        FullBike gravel = new FullBike("gravel", new Frame(GRAVEL, true, true, true), NO_SELECTION, SHIMANO, NOT_SELECTED, 0L, 0L, NONE);
+        assertFalse(buildOptimizerService.getBuilds(gravel, 5, null).isEmpty());
+        assertTrue(withoutFrame.getBuilds(gravel, 5, null).isEmpty());
+    }
+}
@@ -2,9 +2,11 @@ package com.homeapp.backend;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.homeapp.backend.controller.StickyNoteController;
+import com.homeapp.backend.models.bike.CombinedData;
 import com.homeapp.backend.models.bike.Frame;
 import com.homeapp.backend.models.bike.FrontGears;
 import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Options;
 import com.homeapp.backend.models.bike.RearGears;
 import com.homeapp.backend.models.note.DTOnote;
 import com.homeapp.backend.models.note.StickyNote;
@@ -16,21 +18,37 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.test.web.servlet.setup.SharedHttpSessionConfigurer;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayInputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.GRAVEL;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.ROAD;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.TOUR;
 import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
 import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SRAM;
 import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.NOT_SELECTED;
 import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -57,6 +75,14 @@ public class ControllerTest {
      * The constant OPTIONS_URL.
      */
     final static String OPTIONS_URL = "/Options/";
+    /**
+     * The constant SCRAPER_URL.
+     */
+    final static String SCRAPER_URL = "/Scraper/";
+    /**
+     * The constant PARTS_URL.
+     */
+    final static String PARTS_URL = "/Parts/";
     private static boolean isSetupDone = false;
     @Autowired
     private WebApplicationContext webApplicationContext;
@@ -130,6 +156,155 @@ public class ControllerTest {
                 .andExpect(status().isOk());
     }
 
+    /**
+     * Test that sending back the version of the Options held gets only what changed, and an empty patch when nothing did.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Options_can_be_sent_as_Deltas() throws Exception {
+        Options options = new Options();
+        options.setShowFrameStyles(false);
+        FullBike bike = new FullBike("delta bike", new Frame(ROAD, false, true, true), NO_SELECTION, SHIMANO, NOT_SELECTED, 0L, 0L, STI);
+        CombinedData cd = new CombinedData();
+        cd.setBike(bike);
+        cd.setOptions(options);
+        String version = this.mockMvc.perform(post(OPTIONS_URL + "GetOptions")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cd)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$.brakeStyles", hasSize(3)))
+                .andReturn().getResponse().getHeader("X-Options-Version");
+        assertNotNull(version);
+        bike.setNumberOfFrontGears(2L);
+        cd.setOptions(null);
+        String next = this.mockMvc.perform(post(OPTIONS_URL + "GetOptions")
+                        .header("X-Options-Base", version)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cd)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/merge-patch+json"))
+                .andExpect(jsonPath("$.brakeStyles", hasSize(2)))
+                .andExpect(jsonPath("$.numberOfFrontGears").doesNotExist())
+                .andExpect(jsonPath("$.barStyles").doesNotExist())
+                .andExpect(header().string("X-Options-Version", not(version)))
+                .andReturn().getResponse().getHeader("X-Options-Version");
+        this.mockMvc.perform(post(OPTIONS_URL + "GetOptions")
+                        .header("X-Options-Base", next)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cd)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{}"));
+        this.mockMvc.perform(post(OPTIONS_URL + "GetOptions")
+                        .header("X-Options-Base", "options-unknown")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cd)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    /**
+     * Test that Images for a bike configuration already asked for are sent from the response cache, gzipped when the FE accepts it.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Images_are_sent_from_the_Response_Cache() throws Exception {
+        FullBike bike = new FullBike("cached bike", new Frame(GRAVEL, true, true, true), MECHANICAL_DISC, SHIMANO, DROPS, 2L, 11L, STI);
+        bike.setWheelPreference("Expensive");
+        String body = objectMapper.writeValueAsString(bike);
+        byte[] first = this.mockMvc.perform(post("/Image/GetImages").contentType("application/json").content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
+                .andReturn().getResponse().getContentAsByteArray();
+        long hits = objectMapper.readTree(this.mockMvc.perform(get(TEST_API_URL + "ResponseCache"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("hits").asLong();
+        this.mockMvc.perform(post("/Image/GetImages").contentType("application/json").content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(first));
+        this.mockMvc.perform(get(TEST_API_URL + "ResponseCache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", is((int) hits + 1)));
+        byte[] gzipped = this.mockMvc.perform(post("/Image/GetImages").header("Accept-Encoding", "gzip").contentType("application/json").content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(first, new GZIPInputStream(new ByteArrayInputStream(gzipped)).readAllBytes());
+    }
+
+    /**
+     * Test that a Design Snapshot holds the normalized bike with its Options and Images, and its Parts when asked for.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_a_Design_Snapshot_is_returned() throws Exception {
+        Options options = new Options();
+        FullBike bike = new FullBike("snapshot bike", new Frame(GRAVEL, true, true, true), MECHANICAL_DISC, SHIMANO, DROPS, 2L, 11L, STI);
+        bike.setWheelPreference("Cheap");
+        CombinedData cd = new CombinedData();
+        cd.setBike(bike);
+        cd.setOptions(options);
+        MvcResult snapshot = this.mockMvc.perform(post("/Design/Snapshot").param("parts", "false")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cd)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(snapshot))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bike.bikeName", is("snapshot bike")))
+                .andExpect(jsonPath("$.options.barStyles", hasSize(2)))
+                .andExpect(jsonPath("$.images", hasSize(10)))
+                .andExpect(jsonPath("$.parts").doesNotExist());
+        MvcResult withParts = this.mockMvc.perform(post("/Design/Snapshot")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cd)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(withParts))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.images", hasSize(10)))
+                .andExpect(jsonPath("$.parts").exists());
+        bike.getFrame().setFrameStyle(TOUR);
+        bike.setNumberOfFrontGears(3L);
+        MvcResult tour = this.mockMvc.perform(post("/Design/Snapshot")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cd)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(tour))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bike.numberOfFrontGears", is(3)))
+                .andExpect(jsonPath("$.bike.numberOfRearGears", is(10)));
+    }
+
+    /**
+     * Test scraper Status API returns HTTP - status OK
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Scraper_Status_is_returned() throws Exception {
+        this.mockMvc.perform(get(SCRAPER_URL + "Status"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the Parts compatible with a Part are returned, and a Part not in the compatibility graph is not found.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Compatible_Parts_are_returned() throws Exception {
+        this.mockMvc.perform(get(PARTS_URL + "Compatible").param("link", "https://www.wiggle.com/p/shimano-hg601q-105-5800-11-speed-chain")
+                        .param("component", "Cassette"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].link").value("https://www.chainreactioncycles.com/p/shimano-105-r7000-11-speed-cassette"));
+        this.mockMvc.perform(get(PARTS_URL + "Compatible").param("link", "no such part"))
+                .andExpect(status().isNotFound());
+    }
+
     /**
      * Test that the front can send a log back.
      *
@@ -175,6 +350,19 @@ public class ControllerTest {
                 .andExpect(status().isAccepted());
     }
 
+    /**
+     * Test that notes can be filtered by complete, and cut down to only the fields asked for.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Notes_can_be_filtered_and_projected() throws Exception {
+        this.mockMvc.perform(get(STICKY_NOTE_URL + "GetAll").param("complete", "true").param("fields", "stickyNoteId,complete"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$[*].complete", everyItem(is(true))))
+                .andExpect(jsonPath("$[0].title").doesNotExist());
+    }
+
     /**
      * Test that a single note can be deleted.
      *
@@ -225,6 +413,107 @@ public class ControllerTest {
                 .andExpect(status().isAccepted());
     }
 
+    /**
+     * Test that each design token keeps its own design bike.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Design_Bikes_are_kept_per_Design_Token() throws Exception {
+        this.mockMvc.perform(get(FULL_BIKE_URL + "DesignBike").header("X-Design-Token", "rider-a"))
+                .andExpect(status().isNoContent());
+        this.mockMvc.perform(get(FULL_BIKE_URL + "StartNewBike").header("X-Design-Token", "rider-a"))
+                .andExpect(status().isAccepted());
+        this.mockMvc.perform(get(FULL_BIKE_URL + "DesignBike").header("X-Design-Token", "rider-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bikeName", is("Your Custom Bike")));
+        this.mockMvc.perform(get(FULL_BIKE_URL + "DesignBike").header("X-Design-Token", "rider-b"))
+                .andExpect(status().isNoContent());
+    }
+
+    /**
+     * Test that a bike can be patched with just the changed field, and comes back normalized.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_a_Full_Bike_can_be_Patched() throws Exception {
+        FullBike bike = new FullBike("patch bike", new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+        fullBikeService.create(bike);
+        this.mockMvc.perform(patch(FULL_BIKE_URL + "PatchBike/" + bike.getFullBikeId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"brakeType\": \"HYDRAULIC_DISC\", \"numberOfFrontGears\": 1}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.bikeName", is("patch bike")))
+                .andExpect(jsonPath("$.brakeType", is("HYDRAULIC_DISC")))
+                .andExpect(jsonPath("$.frame.discBrakeCompatible", is(true)))
+                .andExpect(jsonPath("$.frame.requiresFrontGearCable", is(false)));
+        assertEquals(1, fullBikeService.getBikeUsingName("patch bike").get().getNumberOfFrontGears());
+        this.mockMvc.perform(patch(FULL_BIKE_URL + "PatchBike/" + bike.getFullBikeId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"brakeType\": null}"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(patch(FULL_BIKE_URL + "PatchBike/999999")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"bikeName\": \"nobody\"}"))
+                .andExpect(status().isNotFound());
+        fullBikeService.deleteBike(bike.getFullBikeId());
+    }
+
+    /**
+     * Test that sending back the ETag of the bike list gets Not Modified, until a bike changes.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_an_unchanged_list_of_Full_Bikes_is_Not_Modified() throws Exception {
+        String etag = this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader("ETag");
+        this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        FullBike bike = new FullBike("etag bike", new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+        fullBikeService.create(bike);
+        this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll").header("If-None-Match", etag))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("ETag", not(etag)));
+        fullBikeService.deleteBike(bike.getFullBikeId());
+    }
+
+    /**
+     * Test that the ETag of one query of the bike list does not get Not Modified for another whose query has the same hash code.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_the_ETag_of_one_query_does_not_match_another() throws Exception {
+        String etag = this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll").param("fields", "Aa"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader("ETag");
+        this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll").param("fields", "Aa").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll").param("fields", "BB").header("If-None-Match", etag))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    /**
+     * Test that bikes can be paged through with the next cursor header, filtered by frame style and projected.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Full_Bikes_can_be_paged_filtered_and_projected() throws Exception {
+        this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll").param("limit", "1"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().exists("X-Next-Cursor"));
+        this.mockMvc.perform(get(FULL_BIKE_URL + "GetAll").param("frameStyle", "GRAVEL").param("fields", "fullBikeId,bikeName"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$[0].bikeName").value("bike"))
+                .andExpect(jsonPath("$[0].frame").doesNotExist());
+    }
+
     /**
      * Test that a single bike can be deleted.
      *
@@ -278,4 +567,50 @@ public class ControllerTest {
         this.mockMvc.perform(post(FULL_BIKE_URL + "AddFullBike").session(session).contentType("application/json")
                 .content(objectMapper.writeValueAsString(testBike))).andExpect(status().isCreated());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that exported bikes can be imported again, one bike per line, each keeping its ID.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Bikes_can_be_exported_and_imported_as_NDJSON() throws Exception {
+        MvcResult export = this.mockMvc.perform(get(FULL_BIKE_URL + "Export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = this.mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        int bikes = fullBikeService.getAllFullBikes().size();
+        assertEquals(bikes, ndjson.lines().count());
+        this.mockMvc.perform(post(FULL_BIKE_URL + "Import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(bikes))
+                .andExpect(jsonPath("$.state").value("DONE"));
+        assertEquals(bikes, fullBikeService.getAllFullBikes().size());
+    }
+
+    /**
+     * Test that a note failing its checks is skipped and reported, while the good notes around it are imported.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void test_That_Bad_Notes_are_Rejected_on_Import() throws Exception {
+        String ndjson = """
+                {"title":"Imported note","messageMap":{"Imported":false},"complete":false}
+                {"title":"","messageMap":{},"complete":false}
+                """;
+        this.mockMvc.perform(post(STICKY_NOTE_URL + "Import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1));
+        this.mockMvc.perform(get(STICKY_NOTE_URL + "ImportProgress"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("DONE"));
+        StickyNote imported = stickyNoteService.retrieveByTitle("Imported note");
+        assertNotNull(imported);
+        stickyNoteService.deleteNote(imported);
+    }
+}
@@ -0,0 +1,125 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.BikeConfigCache;
+import com.homeapp.backend.models.bike.BikeConfigKey;
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.services.DesignRuleService;
+import com.homeapp.backend.services.DesignRuleService.Field;
+import com.homeapp.backend.services.DesignRuleService.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.*;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Design Rule tests.
+ * Each test builds its own Design Rule Service, no Spring context is needed.
+ */
+public class DesignRuleTest {
+
+    private final DesignRuleService designRuleService = new DesignRuleService();
+
+    /**
+     * Test that a bike config key unpacks to the same configuration it was packed from.
+     */
+    @Test
+    public void test_That_A_Config_Key_Round_Trips() {
+        FullBike bike = new FullBike("bike", new Frame(TOUR, true, false, true), HYDRAULIC_DISC, SHIMANO, FLARE, 3L, 11L, STI);
+        bike.setWheelPreference("Expensive");
+        int key = BikeConfigKey.of(bike);
+        assertNotEquals(BikeConfigKey.NONE, key);
+        assertEquals(key, BikeConfigKey.of(BikeConfigKey.toBike(key)));
+        assertEquals(TOUR, BikeConfigKey.frameStyle(key));
+        assertEquals(11, BikeConfigKey.rearGears(key));
+        bike.setNumberOfRearGears(16);
+        assertEquals(BikeConfigKey.NONE, BikeConfigKey.of(bike));
+    }
+
+    /**
+     * Test that the shifters are chosen after the gear cables are set, whatever order the rules were given in.
+     */
+    @Test
+    public void test_That_Shifters_Follow_The_Gear_Cables() {
+        List<String> order = designRuleService.getRules().stream().map(Rule::name).toList();
+        assertTrue(order.indexOf("Gear cables are needed for more than one gear") < order.indexOf("Shifters suit the handlebars and gear cables"));
+        FullBike bike = new FullBike("bike", new Frame(ROAD, false, false, false), RIM, SHIMANO, FLAT, 1L, 10L, NONE);
+        designRuleService.normalize(bike);
+        assertTrue(bike.getFrame().isRequiresRearGearCable());
+        assertEquals(TRIGGER, bike.getShifterStyle());
+    }
+
+    /**
+     * Test that a bike normalized from the remembered result matches one normalized by running the rules.
+     */
+    @Test
+    public void test_That_Remembered_Results_Match_Running_The_Rules() {
+        FullBike first = new FullBike("first", new Frame(SINGLE_SPEED, true, true, true), RIM, SHIMANO, BULLHORNS, 2L, 10L, STI);
+        FullBike second = new FullBike("second", new Frame(SINGLE_SPEED, true, true, true), RIM, SHIMANO, BULLHORNS, 2L, 10L, STI);
+        designRuleService.normalize(first);
+        designRuleService.normalize(second);
+        assertEquals(BikeConfigKey.of(first), BikeConfigKey.of(second));
+        assertEquals(1, second.getNumberOfRearGears());
+        assertFalse(second.getFrame().isRequiresRearGearCable());
+        assertFalse(second.getFrame().isDiscBrakeCompatible());
+        assertEquals(NONE, second.getShifterStyle());
+    }
+
+    /**
+     * Test that a bike that cannot be built fails the checks, and one that can passes them.
+     */
+    @Test
+    public void test_That_Checks_Report_Bikes_That_Cannot_Be_Built() {
+        FullBike bike = new FullBike("bike", new Frame(GRAVEL, true, true, true), HYDRAULIC_DISC, SHIMANO, BULLHORNS, 2L, 11L, STI);
+        assertEquals(List.of("Hydraulic disc brakes only come with a single chainring", "The handlebars do not suit the frame style"),
+                designRuleService.validate(bike));
+        bike.setNumberOfFrontGears(1);
+        bike.setHandleBarType(FLARE);
+        assertTrue(designRuleService.validate(bike).isEmpty());
+    }
+
+    /**
+     * Test that rules depending on each other in a cycle are turned down.
+     */
+    @Test
+    public void test_That_Cyclic_Rules_Are_Turned_Down() {
+        Rule gears = new Rule("gears", EnumSet.of(Field.REQUIRES_REAR_GEAR_CABLE), EnumSet.of(Field.REAR_GEARS), bike -> {
+        });
+        Rule cables = new Rule("cables", EnumSet.of(Field.REAR_GEARS), EnumSet.of(Field.REQUIRES_REAR_GEAR_CABLE), bike -> {
+        });
+        assertThrows(IllegalStateException.class, () -> new DesignRuleService(List.of(gears, cables), List.of()));
+    }
+
+    /**
+     * Test that the config cache works a value out once per key, keeps every key apart as it grows, and stops keeping values when full.
+     */
+    @Test
+    public void test_That_The_Config_Cache_Keeps_One_Value_Per_Key() {
+        BikeConfigCache<String> cache = new BikeConfigCache<>(50);
+        int[] computed = new int[1];
+        for (int round = 0; round < 2; round++) {
+            for (int key = 0; key < 1 << 25; key += 1 << 19) {
+                int k = key;
+                assertEquals("value " + k, cache.computeIfAbsent(k, x -> {
+                    computed[0]++;
+                    return "value " + x;
+                }));
+            }
+        }
+        assertEquals(50, cache.size());
+        assertEquals(64 + 64 - 50, computed[0]);
+        assertNull(cache.get(BikeConfigKey.NONE));
+        FullBike bike = new FullBike("bike", new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 11L, STI);
+        bike.setWheelPreference("Cheap");
+        assertTrue(BikeConfigKey.isCheapWheels(BikeConfigKey.of(bike)));
+        bike.setWheelPreference(null);
+        assertFalse(BikeConfigKey.isCheapWheels(BikeConfigKey.of(bike)));
+    }
+}
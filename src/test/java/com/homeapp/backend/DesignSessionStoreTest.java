@@ -0,0 +1,80 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.store.DesignSessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Design Session Store tests.
+ * Each test uses its own store with a clock the test moves on by hand.
+ */
+public class DesignSessionStoreTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private DesignSessionStore store;
+
+    /**
+     * Sets up a store holding two sessions for a minute each.
+     */
+    @BeforeEach
+    public void setup() {
+        now.set(0);
+        store = new DesignSessionStore(Duration.ofMinutes(1), 2, now::get);
+    }
+
+    /**
+     * Test that each session only sees its own design bike.
+     */
+    @Test
+    public void test_That_Sessions_Only_See_Their_Own_Bike() {
+        FullBike a = new FullBike();
+        a.setBikeName("a");
+        FullBike b = new FullBike();
+        b.setBikeName("b");
+        store.put("a", a);
+        store.put("b", b);
+        assertSame(a, store.get("a").orElseThrow());
+        assertSame(b, store.get("b").orElseThrow());
+        assertTrue(store.get("c").isEmpty());
+    }
+
+    /**
+     * Test that a design bike not used for the timeout expires, and a used one does not.
+     */
+    @Test
+    public void test_That_Unused_Bikes_Expire() {
+        store.put("a", new FullBike());
+        store.put("b", new FullBike());
+        now.addAndGet(Duration.ofSeconds(40).toNanos());
+        assertTrue(store.get("a").isPresent());
+        now.addAndGet(Duration.ofSeconds(40).toNanos());
+        assertTrue(store.get("a").isPresent());
+        assertTrue(store.get("b").isEmpty());
+        store.sweep();
+        assertEquals(1, store.size());
+    }
+
+    /**
+     * Test that a full store drops the least recently used design bike.
+     */
+    @Test
+    public void test_That_A_Full_Store_Drops_The_Least_Recently_Used() {
+        store.put("a", new FullBike());
+        now.incrementAndGet();
+        store.put("b", new FullBike());
+        now.incrementAndGet();
+        store.get("a");
+        now.incrementAndGet();
+        store.put("c", new FullBike());
+        assertEquals(2, store.size());
+        assertTrue(store.get("a").isPresent());
+        assertTrue(store.get("b").isEmpty());
+        assertTrue(store.get("c").isPresent());
+    }
+}
@@ -1,5 +1,6 @@
 package com.homeapp.backend;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.homeapp.backend.models.bike.Frame;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.services.FullBikeService;
@@ -11,13 +12,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
 import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
 import static com.homeapp.backend.models.bike.Enums.HandleBarType.BULLHORNS;
 import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.FLAT;
 import static com.homeapp.backend.models.bike.Enums.ShifterStyle.NONE;
 import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.TRIGGER;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -111,6 +118,62 @@ public class FullBikeTest {
         assertNotEquals(gearsBefore, gearsAfter);
     }
 
+    /**
+     * Test that the saved bike most like a design is suggested, and a saved bike is not suggested for itself.
+     */
+    @Test
+    public void test_That_Similar_Bikes_are_returned() {
+        FullBike saved = new FullBike("similar bike", new Frame(TOUR, true, true, true), MECHANICAL_DISC, SHIMANO, FLAT, 3L, 9L, TRIGGER);
+        fullBikeService.create(saved);
+        FullBike design = new FullBike("design", new Frame(TOUR, true, true, true), MECHANICAL_DISC, SHIMANO, FLAT, 3L, 8L, TRIGGER);
+        List<FullBike> similar = fullBikeService.getSimilarBikes(design, 1);
+        assertEquals(1, similar.size());
+        assertEquals("similar bike", similar.get(0).getBikeName());
+        assertTrue(fullBikeService.getSimilarBikes(saved, 5).stream().noneMatch(b -> b.getFullBikeId() == saved.getFullBikeId()));
+    }
+
+    /**
+     * Test that imported bikes are normalized, and replace bikes of the same name, on file or earlier in the batch.
+     *
+     * @throws IOException if the batch cannot be saved
+     */
+    @Test
+    public void test_That_Imported_Bikes_are_Normalized_and_Replace_Bikes_of_the_same_Name() throws IOException {
+        FullBike first = new FullBike("imported", new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+        FullBike second = new FullBike("imported", new Frame(SINGLE_SPEED, false, true, true), RIM, SHIMANO, DROPS, 2L, 11L, STI);
+        FullBike renamed = new FullBike("bike2", new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 11L, STI);
+        fullBikeService.importBikes(List.of(first, second, renamed));
+        List<FullBike> imported = fullBikeService.getAllFullBikes().stream().filter(b -> b.getBikeName().equals("imported")).toList();
+        assertEquals(1, imported.size());
+        assertEquals(SINGLE_SPEED, imported.get(0).getFrame().getFrameStyle());
+        assertEquals(1L, imported.get(0).getNumberOfRearGears());
+        assertFalse(imported.get(0).getFrame().isRequiresRearGearCable());
+        List<FullBike> bike2 = fullBikeService.getAllFullBikes().stream().filter(b -> b.getBikeName().equals("bike2")).toList();
+        assertEquals(1, bike2.size());
+        assertEquals(ROAD, bike2.get(0).getFrame().getFrameStyle());
+    }
+
+    /**
+     * Test that patches to different fields of the same bike made at the same time are all kept.
+     */
+    @Test
+    public void test_That_Patches_made_at_the_same_Time_are_all_Kept() {
+        ObjectMapper om = new ObjectMapper();
+        for (int round = 0; round < 20; round++) {
+            FullBike bike = new FullBike("patched " + round, new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+            bike.setWheelPreference("Cheap");
+            fullBikeService.create(bike);
+            long id = bike.getFullBikeId();
+            String name = "renamed " + round;
+            CompletableFuture<Void> rename = CompletableFuture.runAsync(() -> fullBikeService.patchBike(id, om.createObjectNode().put("bikeName", name)));
+            CompletableFuture<Void> wheels = CompletableFuture.runAsync(() -> fullBikeService.patchBike(id, om.createObjectNode().put("wheelPreference", "Expensive")));
+            CompletableFuture.allOf(rename, wheels).join();
+            FullBike patched = fullBikeService.getBikeUsingName(name).get();
+            assertEquals(id, patched.getFullBikeId());
+            assertEquals("Expensive", patched.getWheelPreference());
+        }
+    }
+
     /**
      * Test that all bikes can be deleted.
      */
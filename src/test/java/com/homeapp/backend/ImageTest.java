@@ -121,4 +121,33 @@ public class ImageTest {
             assertNotNull(image);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that images are in place order and the same configuration gets the same list.
+     */
+    @Test
+    public void test_That_Images_Are_In_Place_Order_And_Shared() {
+        FullBike bike = fullBikeService.getBikeUsingName("bike4").get();
+        List<Image> images = imageService.getImages(bike);
+        for (int i = 1; i < images.size(); i++) {
+            assertTrue(images.get(i - 1).getPlace() < images.get(i).getPlace());
+        }
+        FullBike copy = new FullBike("copy", new Frame(TOUR, false, true, true), RIM, SHIMANO, FLAT, 3L, 11L, TRIGGER);
+        copy.setWheelPreference("Expensive");
+        assertSame(images, imageService.getImages(copy));
+        assertSame(imageService.getImagesJson(bike), imageService.getImagesJson(copy));
+        assertThrows(UnsupportedOperationException.class, () -> images.add(images.get(0)));
+    }
+
+    /**
+     * Test that a bike with no brakes required gets no brake image, and a bike with nothing chosen still gets images.
+     */
+    @Test
+    public void test_That_Unchosen_Parts_Get_Default_Images() {
+        FullBike bike = fullBikeService.getBikeUsingName("bike2").get();
+        Image brakes = imageService.getImages(bike).stream().filter(i -> i.getPlace() == 2).findFirst().get();
+        assertEquals("no_image.png", brakes.getSrc());
+        FullBike empty = new FullBike();
+        assertFalse(imageService.getImages(empty).isEmpty());
+    }
+}
@@ -0,0 +1,145 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.note.StickyNote;
+import com.homeapp.backend.services.FullBikeService;
+import com.homeapp.backend.services.StickyNoteService;
+import com.homeapp.backend.store.BikeStore;
+import com.homeapp.backend.store.JpaBikeStore;
+import com.homeapp.backend.store.JsonToJpaMigrator;
+import com.homeapp.backend.store.Page;
+import com.homeapp.backend.store.PartStore;
+import com.homeapp.backend.store.StorageConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.MECHANICAL_DISC;
+import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.ROAD;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.TOUR;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The JPA Storage tests.
+ * Starts the application with storage.mode jpa on its own in memory database, so the JSON files are only read, by the migration.
+ */
+@SpringBootTest(properties = {"storage.mode=jpa", "spring.datasource.url=jdbc:h2:mem:jpastorage"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class JpaStorageTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+    @Autowired
+    private BikeStore bikeStore;
+    @Autowired
+    private PartStore partStore;
+    @Autowired
+    private JsonToJpaMigrator jsonToJpaMigrator;
+    @Autowired
+    private FullBikeService fullBikeService;
+    @Autowired
+    private StickyNoteService stickyNoteService;
+
+    /**
+     * Test that the JPA stores are used, and start with everything in the JSON files.
+     *
+     * @throws IOException if a JSON file cannot be read
+     */
+    @Test
+    public void test_That_JSON_Files_Are_Migrated_On_Start() throws IOException {
+        assertInstanceOf(JpaBikeStore.class, bikeStore);
+        assertEquals(om.readTree(new File(StorageConfig.BIKES_FILE)).size(), bikeStore.findAll().size());
+        assertEquals(om.readTree(new File(StorageConfig.LINKS_FILE)).size(), partStore.findAll().size());
+        assertEquals(om.readTree(new File(StorageConfig.NOTES_FILE)).size(), stickyNoteService.retrieveAllNotes().size());
+    }
+
+    /**
+     * Test that the migration does nothing once the tables are populated.
+     */
+    @Test
+    public void test_That_Migration_Only_Runs_Once() {
+        assertEquals(0, jsonToJpaMigrator.migrateParts(Path.of(StorageConfig.LINKS_FILE)));
+        assertEquals(0, jsonToJpaMigrator.migrateNotes(Path.of(StorageConfig.NOTES_FILE)));
+    }
+
+    /**
+     * Test that bikes are found by name and a deleted bike's ID is not given out again.
+     */
+    @Test
+    public void test_That_Bikes_Are_Saved_And_Found_By_Name() {
+        FullBike bike = new FullBike("jpa bike", new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+        fullBikeService.create(bike);
+        FullBike found = fullBikeService.getBikeUsingName("jpa bike").orElseThrow();
+        assertEquals(bike.getFullBikeId(), found.getFullBikeId());
+        assertEquals(ROAD, found.getFrame().getFrameStyle());
+        fullBikeService.deleteBike(found.getFullBikeId());
+        assertTrue(fullBikeService.getBikeUsingName("jpa bike").isEmpty());
+        FullBike next = new FullBike("jpa bike 2", new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+        fullBikeService.create(next);
+        assertTrue(next.getFullBikeId() > found.getFullBikeId());
+        fullBikeService.deleteBike(next.getFullBikeId());
+    }
+
+    /**
+     * Test that a filtered page of bikes is read from the table, with a cursor only while there are more. Starts after the migrated bikes.
+     */
+    @Test
+    public void test_That_Bikes_Are_Paged_And_Filtered() {
+        FullBike first = new FullBike("jpa tour 1", new Frame(TOUR, true, true, true), MECHANICAL_DISC, SHIMANO, DROPS, 2L, 10L, STI);
+        FullBike second = new FullBike("jpa tour 2", new Frame(TOUR, true, true, true), MECHANICAL_DISC, SHIMANO, DROPS, 2L, 10L, STI);
+        fullBikeService.create(first);
+        fullBikeService.create(second);
+        Page<FullBike> page = bikeStore.findPage(first.getFullBikeId() - 1, 1, TOUR, MECHANICAL_DISC);
+        assertEquals(first.getFullBikeId(), page.items().get(0).getFullBikeId());
+        assertEquals(first.getFullBikeId(), page.nextCursor());
+        Page<FullBike> last = bikeStore.findPage(page.nextCursor(), 10, TOUR, MECHANICAL_DISC);
+        assertEquals(List.of(second.getFullBikeId()), last.items().stream().map(FullBike::getFullBikeId).toList());
+        assertNull(last.nextCursor());
+        fullBikeService.deleteBike(first.getFullBikeId());
+        fullBikeService.deleteBike(second.getFullBikeId());
+    }
+
+    /**
+     * Test that notes can be created, found by title, edited and deleted.
+     */
+    @Test
+    public void test_That_Notes_Are_Saved_And_Found_By_Title() {
+        stickyNoteService.create(new StickyNote("JPA note", Map.of("Save me", false), false));
+        StickyNote note = stickyNoteService.retrieveByTitle("JPA note");
+        assertNotNull(note);
+        note.setMessageMap(Map.of("Save me", true));
+        stickyNoteService.editStickyNote(note);
+        assertTrue(stickyNoteService.retrieveById(note.getStickyNoteId()).isComplete());
+        stickyNoteService.deleteNote(note);
+        assertNull(stickyNoteService.retrieveByTitle("JPA note"));
+    }
+
+    /**
+     * Test that saving a refresh's changes updates those Parts in place.
+     *
+     * @throws IOException never, the database store does not write files
+     */
+    @Test
+    public void test_That_Changed_Parts_Are_Updated_In_Place() throws IOException {
+        List<Part> parts = partStore.findAll();
+        Part changed = parts.get(0);
+        changed.setPrice("123.45");
+        partStore.saveChanges(parts, List.of(changed));
+        List<Part> after = partStore.findAll();
+        assertEquals(parts.size(), after.size());
+        assertEquals("123.45", after.get(0).getPrice());
+    }
+}
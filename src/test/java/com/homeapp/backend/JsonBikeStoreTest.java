@@ -0,0 +1,230 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.store.GroupCommitWriter;
+import com.homeapp.backend.store.JsonBikeStore;
+import com.homeapp.backend.store.Page;
+import com.homeapp.backend.store.WalStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.MECHANICAL_DISC;
+import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.GRAVEL;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.ROAD;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The JSON Bike Store tests.
+ * Each test works on its own store in a temporary folder.
+ */
+public class JsonBikeStoreTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+    @TempDir
+    Path dir;
+    private GroupCommitWriter writer;
+    private Path snapshot;
+
+    /**
+     * Sets up an empty snapshot file and a writer before each test.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        snapshot = dir.resolve("bikes.json");
+        Files.writeString(snapshot, "[]");
+        writer = new GroupCommitWriter(Duration.ofMillis(5));
+    }
+
+    /**
+     * Stops the writer after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        writer.close();
+    }
+
+    private JsonBikeStore open() throws IOException {
+        return new JsonBikeStore(new WalStore<>(om, snapshot, dir.resolve("bikes_wal.ndjson"), FullBike.class,
+                b -> String.valueOf(b.getFullBikeId()), 50, writer), dir.resolve("bikes_last_id.txt"));
+    }
+
+    private FullBike bike(long id, String name) {
+        FullBike bike = new FullBike(name, new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+        bike.setFullBikeId(id);
+        return bike;
+    }
+
+    /**
+     * Test that a deleted bike's ID is not given out again, where counting the bikes would reuse it.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Ids_Are_Not_Reused_After_A_Delete() throws IOException {
+        JsonBikeStore repository = open();
+        repository.save(bike(repository.nextId(), "one"));
+        repository.save(bike(repository.nextId(), "two"));
+        repository.delete(1);
+        long id = repository.nextId();
+        assertEquals(3, id);
+        assertTrue(repository.findById(2).isPresent());
+        assertTrue(repository.findById(1).isEmpty());
+    }
+
+    /**
+     * Test that the ID counter carries on from the highest ID on file when reopened.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Ids_Carry_On_From_The_Highest_On_File() throws IOException {
+        JsonBikeStore repository = open();
+        repository.save(bike(7, "seven")).join();
+        repository.close();
+        assertEquals(8, open().nextId());
+    }
+
+    /**
+     * Test that deleting the bike with the highest ID does not let that ID be given out again after a restart.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_A_Deleted_Highest_Id_Is_Not_Reused_After_A_Restart() throws IOException {
+        JsonBikeStore repository = open();
+        repository.save(bike(repository.nextId(), "one"));
+        repository.save(bike(repository.nextId(), "two"));
+        repository.delete(2).join();
+        repository.close();
+        assertEquals(3, open().nextId());
+    }
+
+    /**
+     * Test that changing a bike after saving it, or a bike read back, does not change the stored bike.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Stored_Bikes_Are_Not_Shared_With_Callers() throws IOException {
+        JsonBikeStore repository = open();
+        FullBike saved = bike(1, "one");
+        repository.save(saved);
+        saved.setBikeName("changed");
+        saved.getFrame().setFrameStyle(GRAVEL);
+        repository.findById(1).get().setBikeName("changed too");
+        repository.findAll().get(0).setNumberOfRearGears(12L);
+        FullBike stored = repository.findById(1).get();
+        assertEquals("one", stored.getBikeName());
+        assertEquals(ROAD, stored.getFrame().getFrameStyle());
+        assertEquals(10L, stored.getNumberOfRearGears());
+        assertTrue(repository.findPage(Long.MIN_VALUE, 10, GRAVEL, null).items().isEmpty());
+    }
+
+    /**
+     * Test that the name index follows a rename and a delete, and keeps every bike sharing a name.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Name_Index_Follows_Changes() throws IOException {
+        JsonBikeStore repository = open();
+        repository.save(bike(1, "same"));
+        repository.save(bike(2, "same"));
+        assertEquals(List.of(1L, 2L), repository.findAllByName("same").stream().map(FullBike::getFullBikeId).toList());
+        repository.save(bike(1, "renamed"));
+        assertEquals(2, repository.findByName("same").get().getFullBikeId());
+        assertEquals(1, repository.findByName("renamed").get().getFullBikeId());
+        repository.delete(2);
+        assertTrue(repository.findByName("same").isEmpty());
+        assertTrue(repository.findByName(null).isEmpty());
+    }
+
+    /**
+     * Test that a snapshot already read is unchanged by later writes.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_A_Read_Snapshot_Is_Not_Changed_By_Writes() throws IOException {
+        JsonBikeStore repository = open();
+        repository.save(bike(1, "one"));
+        List<FullBike> before = repository.findAll();
+        repository.save(bike(2, "two"));
+        repository.clear();
+        assertEquals(1, before.size());
+        assertEquals(0, repository.size());
+        assertThrows(UnsupportedOperationException.class, () -> before.add(bike(3, "three")));
+    }
+
+    /**
+     * Test that pages follow the cursor in ID order, only hold bikes matching every filter, and the last page has no cursor.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Filtered_Pages_Follow_The_Cursor() throws IOException {
+        JsonBikeStore repository = open();
+        for (long id = 6; id >= 1; id--) {
+            FullBike bike = bike(id, "bike" + id);
+            if (id % 2 == 0) {
+                bike.getFrame().setFrameStyle(GRAVEL);
+            }
+            if (id > 3) {
+                bike.setBrakeType(MECHANICAL_DISC);
+            }
+            repository.save(bike);
+        }
+        Page<FullBike> first = repository.findPage(Long.MIN_VALUE, 1, GRAVEL, MECHANICAL_DISC);
+        assertEquals(List.of(4L), first.items().stream().map(FullBike::getFullBikeId).toList());
+        assertEquals(4L, first.nextCursor());
+        Page<FullBike> second = repository.findPage(first.nextCursor(), 1, GRAVEL, MECHANICAL_DISC);
+        assertEquals(List.of(6L), second.items().stream().map(FullBike::getFullBikeId).toList());
+        assertNull(second.nextCursor());
+        assertEquals(List.of(1L, 2L, 3L), repository.findPage(Long.MIN_VALUE, 3, null, null).items().stream().map(FullBike::getFullBikeId).toList());
+    }
+
+    /**
+     * Test that a bike being saved again is never missing to a read running at the same time.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Reads_Never_Miss_A_Bike_Being_Saved() throws IOException {
+        JsonBikeStore repository = open();
+        repository.saveAll(List.of(bike(1, "one"), bike(2, "two"))).join();
+        AtomicBoolean saving = new AtomicBoolean(true);
+        CompletableFuture<Integer> misses = CompletableFuture.supplyAsync(() -> {
+            int missed = 0;
+            while (saving.get()) {
+                if (repository.findById(1).isEmpty() || repository.findAllByName("one").isEmpty()
+                        || repository.findPage(0, 10, ROAD, RIM).items().size() != 2) {
+                    missed++;
+                }
+            }
+            return missed;
+        });
+        for (int i = 0; i < 2000; i++) {
+            repository.save(bike(1, "one"));
+        }
+        saving.set(false);
+        assertEquals(0, misses.join());
+    }
+}
@@ -0,0 +1,143 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Options;
+import com.homeapp.backend.services.OptionConstraints;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.*;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.NONE;
+import static com.homeapp.backend.services.OptionConstraints.Dimension.*;
+
+/**
+ * The Options benchmark. Compares working out the gear, bar, brake and wheel options for partial designs with the hand-coded switch
+ * blocks the Options Service used to have, against the Option Constraints masks, which also check for a dead end.
+ * The loggers are left out of both, so only the working out is measured.
+ * Run with: mvn -Pbenchmark test -Djmh.include=OptionsBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OptionsBenchmark {
+
+    private final FullBike[] bikes = {
+            new FullBike("road", new Frame(ROAD, false, true, true), NO_SELECTION, SHIMANO, NOT_SELECTED, 0L, 0L, NONE),
+            new FullBike("road", new Frame(ROAD, true, true, true), HYDRAULIC_DISC, SHIMANO, DROPS, 0L, 0L, NONE),
+            new FullBike("gravel", new Frame(GRAVEL, true, true, true), MECHANICAL_DISC, SHIMANO, FLARE, 2L, 0L, NONE),
+            new FullBike("tour", new Frame(TOUR, true, true, true), RIM, SHIMANO, FLAT, 1L, 10L, NONE),
+            new FullBike("single speed", new Frame(SINGLE_SPEED, false, false, false), NO_SELECTION, SHIMANO, BULLHORNS, 0L, 0L, NONE)
+    };
+    private int next;
+
+    /**
+     * Works out the options the way the switch blocks did.
+     *
+     * @return the options
+     */
+    @Benchmark
+    public Options handCodedSwitches() {
+        FullBike b = nextBike();
+        Options o = new Options();
+        List<Long> rearGears = new ArrayList<>();
+        List<Long> frontGears = new ArrayList<>();
+        if (!b.getHandleBarType().equals(FLAT)) {
+            switch (b.getFrame().getFrameStyle()) {
+                case ROAD -> {
+                    rearGears.add(9L);
+                    rearGears.add(10L);
+                    rearGears.add(11L);
+                    frontGears.add(2L);
+                }
+                case TOUR -> {
+                    rearGears.add(11L);
+                    rearGears.add(10L);
+                    rearGears.add(9L);
+                    frontGears.add(2L);
+                    frontGears.add(3L);
+                }
+                case GRAVEL -> {
+                    rearGears.add(9L);
+                    rearGears.add(10L);
+                    rearGears.add(11L);
+                    frontGears.add(2L);
+                }
+                default -> {
+                }
+            }
+        } else {
+            rearGears.add(10L);
+            rearGears.add(11L);
+            frontGears.add(1L);
+        }
+        if (b.getBrakeType().equals(HYDRAULIC_DISC)) {
+            frontGears.removeIf(item -> item == 2L);
+            frontGears.removeIf(item -> item == 3L);
+        }
+        o.setNumberOfFrontGears(frontGears);
+        o.setNumberOfRearGears(rearGears);
+        List<String> bars = new ArrayList<>();
+        bars.add(DROPS.getName());
+        switch (b.getFrame().getFrameStyle()) {
+            case SINGLE_SPEED -> {
+                bars.add(BULLHORNS.getName());
+                bars.add(FLAT.getName());
+            }
+            case TOUR -> {
+                bars.add(FLARE.getName());
+                bars.add(FLAT.getName());
+            }
+            case GRAVEL -> bars.add(FLARE.getName());
+            default -> {
+            }
+        }
+        o.setBarStyles(bars);
+        List<String> brakes = new ArrayList<>();
+        brakes.add(RIM.getName());
+        if (!b.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
+            brakes.add(MECHANICAL_DISC.getName());
+            brakes.add(HYDRAULIC_DISC.getName());
+        } else {
+            brakes.add(NOT_REQUIRED.getName());
+        }
+        o.setBrakeStyles(brakes);
+        List<String> wheelPreference = new ArrayList<>();
+        wheelPreference.add("Cheap");
+        wheelPreference.add("Expensive");
+        o.setWheelPreference(wheelPreference);
+        return o;
+    }
+
+    /**
+     * Works out the options from the constraint masks, including whether the design is a dead end.
+     *
+     * @return the options
+     */
+    @Benchmark
+    public Options constraintMasks() {
+        int[] chosen = OptionConstraints.chosen(nextBike());
+        Options o = new Options();
+        o.setNumberOfFrontGears(OptionConstraints.numbers(FRONT_GEARS, OptionConstraints.domain(FRONT_GEARS, chosen)));
+        o.setNumberOfRearGears(OptionConstraints.numbers(REAR_GEARS, OptionConstraints.domain(REAR_GEARS, chosen)));
+        o.setBarStyles(OptionConstraints.names(BAR_STYLE, OptionConstraints.domain(BAR_STYLE, chosen)));
+        o.setBrakeStyles(OptionConstraints.names(BRAKE_STYLE, OptionConstraints.domain(BRAKE_STYLE, chosen)));
+        o.setWheelPreference(OptionConstraints.names(WHEEL_PREFERENCE, OptionConstraints.domain(WHEEL_PREFERENCE, chosen)));
+        o.setDeadEnd(OptionConstraints.isDeadEnd(chosen));
+        return o;
+    }
+
+    private FullBike nextBike() {
+        next = next == bikes.length - 1 ? 0 : next + 1;
+        return bikes[next];
+    }
+}
@@ -1,6 +1,7 @@
 package com.homeapp.backend;
 
 import com.homeapp.backend.models.bike.CombinedData;
+import com.homeapp.backend.models.bike.Frame;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.bike.Options;
 import com.homeapp.backend.services.FullBikeService;
@@ -9,9 +10,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.List;
+
 import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
 import static com.homeapp.backend.models.bike.Enums.HandleBarType.*;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.NONE;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -167,4 +172,94 @@ public class OptionsTest {
         assertTrue(options.getWheelPreference().contains("Cheap"));
         assertTrue(options.getWheelPreference().contains("Expensive"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that Options worked out for one bike are not changed by working out Options for another.
+     */
+    @Test
+    public void test_That_Options_For_Different_Bikes_Do_Not_Share_State() {
+        Options o = optionsService.startNewBike();
+        o.setShowFrameStyles(false);
+        FullBike singleSpeed = new FullBike("single speed", new Frame(SINGLE_SPEED, false, false, false), NO_SELECTION, SHIMANO, NOT_SELECTED, 0L, 0L, NONE);
+        CombinedData first = new CombinedData();
+        first.setBike(singleSpeed);
+        first.setOptions(o);
+        Options singleSpeedOptions = optionsService.updateOptions(first);
+        FullBike road = new FullBike("road", new Frame(ROAD, false, false, false), RIM, SHIMANO, DROPS, 0L, 0L, NONE);
+        CombinedData second = new CombinedData();
+        second.setBike(road);
+        second.setOptions(o);
+        Options roadOptions = optionsService.updateOptions(second);
+        assertNotSame(singleSpeedOptions, roadOptions);
+        assertEquals(2, singleSpeedOptions.getBrakeStyles().size());
+        assertTrue(singleSpeedOptions.getNumberOfRearGears().isEmpty());
+        assertEquals(3, roadOptions.getBrakeStyles().size());
+        assertFalse(o.isShowBrakeStyles());
+        assertThrows(UnsupportedOperationException.class, () -> roadOptions.getBrakeStyles().add("Coaster"));
+    }
+
+    /**
+     * Test that a road bike with hydraulic brakes is a dead end, as no front gears go with both.
+     */
+    @Test
+    public void test_That_Hydraulic_Brakes_On_A_Road_Bike_Are_A_Dead_End() {
+        Options o = optionsService.startNewBike();
+        o.setShowFrameStyles(false);
+        FullBike road = new FullBike("road", new Frame(ROAD, true, true, true), RIM, SHIMANO, DROPS, 0L, 0L, NONE);
+        CombinedData cd = new CombinedData();
+        cd.setBike(road);
+        cd.setOptions(o);
+        assertFalse(optionsService.updateOptions(cd).isDeadEnd());
+        road.setBrakeType(HYDRAULIC_DISC);
+        Options options = optionsService.updateOptions(cd);
+        assertTrue(options.isDeadEnd());
+        assertTrue(options.getNumberOfFrontGears().isEmpty());
+        assertTrue(options.getBrakeStyles().contains(RIM.getName()));
+        assertEquals(options.getBrakeStyles().size(), 3);
+    }
+
+    /**
+     * Test that choosing gears narrows the other options down to the ones that go with them.
+     */
+    @Test
+    public void test_That_Choosing_Gears_Narrows_The_Other_Options() {
+        Options o = optionsService.startNewBike();
+        o.setShowFrameStyles(false);
+        FullBike tour = new FullBike("tour", new Frame(TOUR, true, true, true), NO_SELECTION, SHIMANO, NOT_SELECTED, 2L, 0L, NONE);
+        CombinedData cd = new CombinedData();
+        cd.setBike(tour);
+        cd.setOptions(o);
+        Options options = optionsService.updateOptions(cd);
+        assertFalse(options.isDeadEnd());
+        assertFalse(options.isShowFrontGears());
+        assertFalse(options.getBrakeStyles().contains(HYDRAULIC_DISC.getName()));
+        assertFalse(options.getBarStyles().contains(FLAT.getName()));
+        assertEquals(options.getBarStyles().size(), 2);
+        tour.setNumberOfFrontGears(1L);
+        tour.setHandleBarType(FLAT);
+        options = optionsService.updateOptions(cd);
+        assertTrue(options.getBrakeStyles().contains(HYDRAULIC_DISC.getName()));
+        assertEquals(options.getNumberOfRearGears(), List.of(10L, 11L));
+        tour.setNumberOfRearGears(12L);
+        assertTrue(optionsService.updateOptions(cd).isDeadEnd());
+    }
+
+    /**
+     * Test that the one gear of a single speed does not open a 1 by to a geared bike with bars a 1 by cannot be got for.
+     */
+    @Test
+    public void test_That_A_Geared_Bike_With_Drops_Gets_No_1_By() {
+        Options o = optionsService.startNewBike();
+        o.setShowFrameStyles(false);
+        FullBike tour = new FullBike("tour", new Frame(TOUR, true, true, true), NO_SELECTION, SHIMANO, DROPS, 0L, 0L, NONE);
+        CombinedData cd = new CombinedData();
+        cd.setBike(tour);
+        cd.setOptions(o);
+        assertEquals(optionsService.updateOptions(cd).getNumberOfFrontGears(), List.of(2L, 3L));
+        tour.setNumberOfFrontGears(1L);
+        assertTrue(optionsService.updateOptions(cd).isDeadEnd());
+        FullBike singleSpeed = new FullBike("single speed", new Frame(SINGLE_SPEED, false, false, false), NO_SELECTION, SHIMANO, DROPS, 1L, 1L, NONE);
+        cd.setBike(singleSpeed);
+        assertFalse(optionsService.updateOptions(cd).isDeadEnd());
+    }
+}
@@ -0,0 +1,144 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.BikeParts;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.bike.PartSwap;
+import com.homeapp.backend.services.DesignRuleService;
+import com.homeapp.backend.services.OptionConstraints;
+import com.homeapp.backend.services.PartCompatibilityService;
+import com.homeapp.backend.services.PartsCatalogService;
+import com.homeapp.backend.services.PartsJournalService;
+import com.homeapp.backend.services.PartsRefreshService;
+import com.homeapp.backend.services.ScraperService;
+import com.homeapp.backend.services.ShimanoGroupsetService;
+import com.homeapp.backend.store.JsonPartStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Part Compatibility tests.
+ * The service is built by hand over a copy of the links file.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PartCompatibilityTest {
+
+    private static final String CHAIN_9 = "https://www.wiggle.com/p/shimano-xt-hg93-9-speed-chain";
+    private static final String CHAIN_11 = "https://www.wiggle.com/p/shimano-hg601q-105-5800-11-speed-chain";
+    private static final String CASSETTE_9 = "https://www.wiggle.com/p/shimano-sora-hg400-9-speed-cassette";
+    private static final String CASSETTE_11 = "https://www.chainreactioncycles.com/p/shimano-105-r7000-11-speed-cassette";
+    private static final String REAR_DERAILLEUR_11 = "https://www.chainreactioncycles.com/p/shimano-105-r7000-11-speed-rear-derailleur";
+    private static final String FRAME = "https://www.dolan-bikes.com/dolan-gxa2020-aluminium-gravel-frameset/";
+    private PartCompatibilityService partCompatibilityService;
+    private PartsCatalogService partsCatalogService;
+    private ShimanoGroupsetService shimanoGroupsetService;
+
+    /**
+     * Builds the service over a copy of the links file.
+     *
+     * @param dir a temporary folder for the links file and parts journal
+     * @throws IOException if the links file cannot be copied
+     */
+    @BeforeAll
+    public void setup(@TempDir Path dir) throws IOException {
+        Files.copy(Path.of("src/main/resources/links.json"), dir.resolve("links.json"));
+        JsonPartStore partStore = new JsonPartStore(new ObjectMapper(), dir.resolve("links.json"));
+        PartsJournalService partsJournalService = new PartsJournalService(dir.resolve("links_journal.ndjson").toString(), 500);
+        partsCatalogService = new PartsCatalogService(partsJournalService, partStore);
+        partCompatibilityService = new PartCompatibilityService(new DesignRuleService(), partsCatalogService);
+        PartsRefreshService partsRefreshService = new PartsRefreshService(new ScraperService(Duration.ofSeconds(5), 3, Duration.ofMillis(500), Duration.ofSeconds(5), 3, Duration.ofMinutes(10), true),
+                partsJournalService, partStore, false, 8, Duration.ofMinutes(2), Duration.ofMinutes(15), 1, Duration.ofHours(6));
+        shimanoGroupsetService = new ShimanoGroupsetService(partsRefreshService, partsCatalogService);
+    }
+
+    private List<String> links(List<Part> parts) {
+        return parts.stream().map(Part::getLink).toList();
+    }
+
+    /**
+     * Test that for every design that passes the rules, the groupset links the compatibility graph is made from are the Parts
+     * Get Shimano Groupset gets for it, so the graph and the parts sent for a bike always agree.
+     */
+    @Test
+    public void test_That_The_Groupset_Links_Agree_With_The_Parts_Got_For_Each_Design() {
+        DesignRuleService designRuleService = new DesignRuleService();
+        for (int i = 0; i < OptionConstraints.designs(); i++) {
+            FullBike bike = OptionConstraints.toBike(OptionConstraints.design(i));
+            designRuleService.normalize(bike);
+            if (!designRuleService.validate(bike).isEmpty()) {
+                continue;
+            }
+            List<String> refs = ShimanoGroupsetService.groupsetRefs(bike.getBrakeType(), bike.getShifterStyle(),
+                    bike.getNumberOfFrontGears(), bike.getNumberOfRearGears());
+            BikeParts parts = new BikeParts();
+            parts.setListOfParts(Collections.synchronizedList(new ArrayList<>()));
+            parts.setErrorMessages(Collections.synchronizedList(new ArrayList<>()));
+            shimanoGroupsetService.getShimanoGroupset(bike, parts);
+            assertEquals(refs.stream().filter(ref -> partsCatalogService.findByLink(ref).isPresent()).sorted().toList(),
+                    links(parts.getListOfParts()).stream().sorted().toList());
+        }
+    }
+
+    /**
+     * Test that Parts of the same speed work together, and Parts of different speeds do not.
+     */
+    @Test
+    public void test_That_Parts_of_the_same_Speed_are_Compatible() {
+        assertTrue(partCompatibilityService.isCompatible(CHAIN_11, CASSETTE_11));
+        assertTrue(partCompatibilityService.isCompatible(CASSETTE_9, CHAIN_9));
+        assertFalse(partCompatibilityService.isCompatible(CHAIN_9, CASSETTE_11));
+        assertFalse(partCompatibilityService.isCompatible(CHAIN_9, CHAIN_11));
+        assertFalse(partCompatibilityService.isCompatible(CHAIN_11, FRAME));
+    }
+
+    /**
+     * Test that the Parts of a component compatible with a Part are returned, and a Part not in the graph is not found.
+     */
+    @Test
+    public void test_That_Compatible_Cassettes_are_returned_for_a_Chain() {
+        assertEquals(List.of(CASSETTE_11), links(partCompatibilityService.getCompatibleParts(CHAIN_11, "Cassette").get()));
+        List<Part> all = partCompatibilityService.getCompatibleParts(CHAIN_11, null).get();
+        assertTrue(links(all).contains(REAR_DERAILLEUR_11));
+        assertTrue(all.stream().noneMatch(p -> p.getComponent().equals("Chain")));
+        assertTrue(partCompatibilityService.getCompatibleParts(FRAME, null).isEmpty());
+    }
+
+    /**
+     * Test that the alternatives to a Part are the Parts of its component that work with the rest of the build.
+     */
+    @Test
+    public void test_That_Alternatives_work_with_the_rest_of_the_Build() {
+        List<String> alternatives = links(partCompatibilityService.getAlternatives(CASSETTE_11, List.of()).get());
+        assertTrue(alternatives.contains(CASSETTE_9));
+        assertFalse(alternatives.contains(CASSETTE_11));
+        assertTrue(partCompatibilityService.getAlternatives(CASSETTE_11, List.of(CASSETTE_11, CHAIN_11, REAR_DERAILLEUR_11, FRAME)).get().isEmpty());
+        assertEquals(List.of(CASSETTE_9), links(partCompatibilityService.getAlternatives(CASSETTE_11, List.of(CHAIN_9)).get()));
+    }
+
+    /**
+     * Test that a swap is only compatible when the new Part works with every other Part of the build, and the clashes are returned.
+     */
+    @Test
+    public void test_That_a_Part_Swap_is_Checked() {
+        PartSwap swap = partCompatibilityService.checkSwap(CASSETTE_11, CASSETTE_9, List.of(CASSETTE_11, CHAIN_11, FRAME)).get();
+        assertFalse(swap.isCompatible());
+        assertEquals(List.of(CHAIN_11), links(swap.getClashes()));
+        swap = partCompatibilityService.checkSwap(CHAIN_11, CHAIN_9, List.of(CHAIN_11, CASSETTE_9)).get();
+        assertTrue(swap.isCompatible());
+        assertTrue(swap.getClashes().isEmpty());
+        assertFalse(partCompatibilityService.checkSwap(CHAIN_11, CASSETTE_11, List.of(CHAIN_11)).get().isCompatible());
+    }
+}
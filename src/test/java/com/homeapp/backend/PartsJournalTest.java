@@ -0,0 +1,152 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.scraper.PartChange;
+import com.homeapp.backend.services.PartsCatalogService;
+import com.homeapp.backend.services.PartsJournalService;
+import com.homeapp.backend.store.AtomicFiles;
+import com.homeapp.backend.store.JsonPartStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Parts Journal tests.
+ * Covers the diff of a refreshed Part, the numbered change journal and its checkpoints, and the atomic rewrite of the links file.
+ */
+public class PartsJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private Part part(String price, String dateLastUpdated) {
+        return new Part("Chain", "ChainRef", "Shimano Chain", price, "https://www.wiggle.com/p/chain", dateLastUpdated);
+    }
+
+    private PartChange change(String oldPrice, String newPrice) {
+        return PartChange.between(part(oldPrice, "2024-05-01"), part(newPrice, "2024-06-01"));
+    }
+
+    /**
+     * Test that a refresh which finds nothing new is not a change.
+     */
+    @Test
+    public void test_That_Unchanged_Part_Has_No_Change() {
+        assertNull(PartChange.between(part("10.00", "2024-06-01"), part("10.00", "2024-06-01")));
+    }
+
+    /**
+     * Test that only the fields that differ are listed as changed.
+     */
+    @Test
+    public void test_That_Only_Changed_Fields_Are_Listed() {
+        assertEquals(List.of("dateLastUpdated"), change("10.00", "10.00").getChangedFields());
+        assertEquals(List.of("price", "dateLastUpdated"), change("10.00", "12.50").getChangedFields());
+    }
+
+    /**
+     * Test that changes are numbered in order and can be read back from any point.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void test_That_Changes_Can_Be_Read_Since_A_Sequence() throws IOException {
+        PartsJournalService journal = new PartsJournalService(dir.resolve("journal.ndjson").toString(), 500);
+        assertEquals(0, journal.getLatestSequence());
+        journal.append(List.of(change("10.00", "11.00"), change("11.00", "12.00")));
+        journal.append(List.of(change("12.00", "13.00")));
+        assertEquals(3, journal.getLatestSequence());
+        assertEquals(3, journal.readSince(0).size());
+        List<PartChange> since = journal.readSince(2);
+        assertEquals(1, since.size());
+        assertEquals(3, since.get(0).getSequence());
+        assertEquals("13.00", since.get(0).getCurrent().getPrice());
+        assertEquals("12.00", since.get(0).getPrevious().getPrice());
+    }
+
+    /**
+     * Test that reopening the journal carries on the numbering, skipping a line left half written.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void test_That_Reopened_Journal_Carries_On_Numbering() throws IOException {
+        Path file = dir.resolve("journal.ndjson");
+        new PartsJournalService(file.toString(), 500).append(List.of(change("10.00", "11.00"), change("11.00", "12.00")));
+        Files.writeString(file, "{\"sequence\":3,\"chang", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        PartsJournalService reopened = new PartsJournalService(file.toString(), 500);
+        assertEquals(2, reopened.getLatestSequence());
+        Files.writeString(file, "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        reopened.append(List.of(change("12.00", "13.00")));
+        assertEquals(List.of(1L, 2L, 3L), reopened.readSince(0).stream().map(PartChange::getSequence).toList());
+    }
+
+    /**
+     * Test that a checkpoint compacts the journal to the retained changes, and is remembered when the journal is reopened.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void test_That_Checkpoint_Compacts_The_Journal() throws IOException {
+        Path file = dir.resolve("journal.ndjson");
+        PartsJournalService journal = new PartsJournalService(file.toString(), 1);
+        journal.append(List.of(change("10.00", "11.00"), change("11.00", "12.00"), change("12.00", "13.00")));
+        journal.checkpoint(3);
+        assertEquals(List.of(3L), journal.readSince(0).stream().map(PartChange::getSequence).toList());
+        assertEquals(3, journal.getFirstSequence());
+        PartsJournalService reopened = new PartsJournalService(file.toString(), 1);
+        assertEquals(3, reopened.getLatestSequence());
+        assertEquals(3, reopened.getAppliedSequence());
+        reopened.append(List.of(change("13.00", "14.00")));
+        assertEquals(4, reopened.getLatestSequence());
+    }
+
+    /**
+     * Test that changes journalled but never saved to the links file, as after a crash, are saved when the catalog starts up.
+     *
+     * @throws IOException if the links file or journal cannot be written
+     */
+    @Test
+    public void test_That_Unsaved_Changes_Are_Replayed_At_Startup() throws IOException {
+        ObjectMapper om = new ObjectMapper();
+        Path linksFile = dir.resolve("links.json");
+        om.writeValue(linksFile.toFile(), List.of(part("10.00", "2024-05-01")));
+        Path file = dir.resolve("journal.ndjson");
+        new PartsJournalService(file.toString(), 500).append(List.of(change("10.00", "11.00")));
+        PartsJournalService journal = new PartsJournalService(file.toString(), 500);
+        assertEquals(0, journal.getAppliedSequence());
+        PartsCatalogService catalog = new PartsCatalogService(journal, new JsonPartStore(om, linksFile));
+        assertEquals(1, catalog.getVersion());
+        assertEquals("11.00", catalog.findByLink("https://www.wiggle.com/p/chain").orElseThrow().getPrice());
+        List<Part> saved = om.readValue(linksFile.toFile(), new TypeReference<>() {
+        });
+        assertEquals("11.00", saved.get(0).getPrice());
+        assertEquals(1, journal.getAppliedSequence());
+    }
+
+    /**
+     * Test that an atomic write replaces the whole file and leaves no temp files behind.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void test_That_Atomic_Write_Replaces_File() throws IOException {
+        Path file = dir.resolve("links.json");
+        Files.writeString(file, "[\"old\", \"and longer than the new contents\"]");
+        AtomicFiles.write(file, "[\"new\"]".getBytes(StandardCharsets.UTF_8));
+        assertEquals("[\"new\"]", Files.readString(file));
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
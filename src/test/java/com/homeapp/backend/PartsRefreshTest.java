@@ -0,0 +1,149 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.services.PartsJournalService;
+import com.homeapp.backend.services.PartsRefreshService;
+import com.homeapp.backend.services.ScraperService;
+import com.homeapp.backend.store.JsonPartStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Parts Refresh tests.
+ * Mostly the choice of which Parts to refresh is tested here.
+ * Only links to a closed local port are scraped, to see failed Parts and hosts with an open circuit passed over.
+ */
+public class PartsRefreshTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+    private static final String UNREACHABLE = "http://127.0.0.1:1/";
+    private PartsRefreshService partsRefreshService;
+    private Path journalDir;
+
+    /**
+     * Creates a fresh service before each test, so request counts do not carry over.
+     *
+     * @param journalDir a temporary folder for the parts journal and links file
+     */
+    @BeforeEach
+    public void setup(@TempDir Path journalDir) {
+        this.journalDir = journalDir;
+        partsRefreshService = new PartsRefreshService(new ScraperService(Duration.ofSeconds(5), 3, Duration.ofMillis(500), Duration.ofSeconds(5), 3, Duration.ofMinutes(10), true),
+                new PartsJournalService(journalDir.resolve("links_journal.ndjson").toString(), 500),
+                new JsonPartStore(new ObjectMapper(), journalDir.resolve("links.json")), false, 8, Duration.ofMinutes(2), Duration.ofMinutes(15), 1, Duration.ofHours(6));
+    }
+
+    private Part part(String link, String dateLastUpdated, int priceChanges) {
+        Part part = new Part("Chain", link, "Chain " + link, "10.00", link, dateLastUpdated);
+        part.setPriceChanges(priceChanges);
+        return part;
+    }
+
+    private PartsRefreshService serviceScraping(List<Part> catalog, int breakerThreshold) throws IOException {
+        Path linksFile = journalDir.resolve("links.json");
+        new ObjectMapper().writeValue(linksFile.toFile(), catalog);
+        return new PartsRefreshService(new ScraperService(Duration.ofSeconds(2), 1, Duration.ofMillis(1), Duration.ofMillis(5), breakerThreshold, Duration.ofMinutes(10), true),
+                new PartsJournalService(journalDir.resolve("links_journal.ndjson").toString(), 500),
+                new JsonPartStore(new ObjectMapper(), linksFile), false, 8, Duration.ofMinutes(2), Duration.ofMinutes(15), 1, Duration.ofHours(6));
+    }
+
+    /**
+     * Test that the oldest Parts are chosen first.
+     */
+    @Test
+    public void test_That_Oldest_Parts_Are_Refreshed_First() {
+        Part week = part("week", TODAY.minusDays(7).toString(), 0);
+        Part month = part("month", TODAY.minusDays(30).toString(), 0);
+        Part day = part("day", TODAY.minusDays(1).toString(), 0);
+        List<Part> selected = partsRefreshService.selectStalest(List.of(week, month, day), 2, TODAY, 1);
+        assertEquals(List.of(month, week), selected);
+    }
+
+    /**
+     * Test that Parts never scraped, or without a price, are chosen ahead of dated Parts.
+     */
+    @Test
+    public void test_That_Never_Updated_Parts_Are_Refreshed_First() {
+        Part month = part("month", TODAY.minusDays(30).toString(), 0);
+        Part never = part("never", null, 0);
+        Part noPrice = part("noPrice", TODAY.minusDays(2).toString(), 0);
+        noPrice.setPrice(null);
+        List<Part> selected = partsRefreshService.selectStalest(List.of(month, never, noPrice), 2, TODAY, 1);
+        assertTrue(selected.containsAll(List.of(never, noPrice)));
+    }
+
+    /**
+     * Test that Parts updated today are never chosen, however popular.
+     */
+    @Test
+    public void test_That_Parts_Updated_Today_Are_Not_Refreshed() {
+        Part today = part("today", TODAY.toString(), 5);
+        for (int i = 0; i < 100; i++) {
+            partsRefreshService.recordRequest("today");
+        }
+        assertTrue(partsRefreshService.selectStalest(List.of(today), 8, TODAY, 1).isEmpty());
+    }
+
+    /**
+     * Test that a Part whose price changes often is chosen ahead of an older, stable one.
+     */
+    @Test
+    public void test_That_Volatile_Parts_Are_Refreshed_Before_Stable_Ones() {
+        Part stable = part("stable", TODAY.minusDays(10).toString(), 0);
+        Part volatilePart = part("volatile", TODAY.minusDays(4).toString(), 3);
+        List<Part> selected = partsRefreshService.selectStalest(List.of(stable, volatilePart), 1, TODAY, 1);
+        assertEquals(List.of(volatilePart), selected);
+    }
+
+    /**
+     * Test that a Part the designer keeps asking for is chosen ahead of an older, unused one.
+     */
+    @Test
+    public void test_That_Requested_Parts_Are_Refreshed_Before_Unused_Ones() {
+        Part unused = part("unused", TODAY.minusDays(10).toString(), 0);
+        Part popular = part("popular", TODAY.minusDays(5).toString(), 0);
+        for (int i = 0; i < 20; i++) {
+            partsRefreshService.recordRequest("popular");
+        }
+        List<Part> selected = partsRefreshService.selectStalest(List.of(unused, popular), 1, TODAY, 1);
+        assertEquals(List.of(popular), selected);
+    }
+
+    /**
+     * Test that a Part that failed to scrape is left alone, and does not keep its place ahead of Parts that can be scraped.
+     *
+     * @throws IOException if the links file cannot be written
+     */
+    @Test
+    public void test_That_Failed_Parts_Are_Backed_Off() throws IOException {
+        Part failing = part(UNREACHABLE + "failing", null, 0);
+        PartsRefreshService service = serviceScraping(List.of(failing), 100);
+        assertTrue(service.refreshStalest(8, Duration.ofSeconds(30)).isEmpty());
+        Part healthy = part("healthy", TODAY.minusDays(2).toString(), 0);
+        assertEquals(List.of(healthy), service.selectStalest(List.of(failing, healthy), 2, TODAY, 1));
+    }
+
+    /**
+     * Test that Parts on a host whose circuit breaker is open are passed over, even those not tried yet.
+     *
+     * @throws IOException if the links file cannot be written
+     */
+    @Test
+    public void test_That_Parts_On_An_Open_Circuit_Host_Are_Passed_Over() throws IOException {
+        PartsRefreshService service = serviceScraping(List.of(part(UNREACHABLE + "failing", null, 0)), 1);
+        service.refreshStalest(8, Duration.ofSeconds(30));
+        Part untried = part(UNREACHABLE + "untried", null, 0);
+        Part healthy = part("healthy", TODAY.minusDays(2).toString(), 0);
+        assertEquals(List.of(healthy), service.selectStalest(List.of(untried, healthy), 2, TODAY, 1));
+    }
+}
@@ -0,0 +1,99 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.Part;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Scraper benchmark. Measures the cost of pulling a name and price out of a saved product page, with no network involved.
+ * Run with: mvn -Pbenchmark test -Djmh.include=ScraperBenchmark
+ * The benchmark profile adds the GC profiler, which reports the allocation per page alongside the latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScraperBenchmark {
+
+    @Param({
+            "www.dolan-bikes.com/adx-titanium-road-frameset/",
+            "www.genesisbikes.co.uk/genesis-fugio-frameset-vargn22330/",
+            "www.wiggle.com/mavic-allroad-disc-650b-wheelset-845223",
+            "www.chainreactioncycles.com/thomson-alloy-road-drop-bar-aero-top-837837",
+            "www.halowheels.com/shop/wheels/aerorage-track-700c-wheels/"
+    })
+    private String fixtureKey;
+    private String link;
+    private byte[] page;
+    private Document document;
+
+    /**
+     * Loads the fixture page for this run.
+     *
+     * @throws IOException if the fixture cannot be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        ScraperFixtures.Fixture fixture = ScraperFixtures.readManifest().get(fixtureKey);
+        link = fixture.getLink();
+        page = ScraperFixtures.readPage(fixture);
+        document = parse();
+    }
+
+    /**
+     * Parses the page and extracts the name and price, the full per-page cost once the page has been downloaded.
+     *
+     * @return the updated part
+     * @throws IOException never, the page is in memory
+     */
+    @Benchmark
+    public Part parseAndExtract() throws IOException {
+        Part part = new Part("Benchmark", "Benchmark", link);
+        backend.setPartAttributesFromDocument(part, parse());
+        return part;
+    }
+
+    /**
+     * Streams the page and extracts the name and price, stopping once the product panel has closed.
+     * Compare against parseAndExtract for the saving from not building the rest of the page.
+     *
+     * @return the updated part
+     * @throws IOException never, the page is in memory
+     */
+    @Benchmark
+    public Part streamAndExtract() throws IOException {
+        Part part = new Part("Benchmark", "Benchmark", link);
+        try (StreamParser parser = new StreamParser(Parser.htmlParser())
+                .parse(new InputStreamReader(new ByteArrayInputStream(page), StandardCharsets.UTF_8), link)) {
+            backend.setPartAttributesFromStream(part, parser);
+        }
+        return part;
+    }
+
+    /**
+     * Extracts the name and price from an already parsed page.
+     *
+     * @return the updated part
+     */
+    @Benchmark
+    public Part extractOnly() {
+        Part part = new Part("Benchmark", "Benchmark", link);
+        backend.setPartAttributesFromDocument(part, document);
+        return part;
+    }
+
+    private Document parse() throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(page), null, link);
+    }
+}
@@ -0,0 +1,55 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.Part;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Scraper Fixture Capture tool. Saves the live product page for each link in links.json as a fixture.
+ * The name and price the scraper finds on each page are recorded in the manifest as the expected values, so check them by eye before committing.
+ * This is the only part of the scraper test suite that needs a network. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.homeapp.backend.ScraperFixtureCapture -Dexec.args=wiggle
+ * With no argument only links without a fixture are captured, with an argument every link containing it is re-captured.
+ */
+public class ScraperFixtureCapture {
+
+    /**
+     * Captures the fixtures.
+     *
+     * @param args optional filter on the links to capture
+     * @throws IOException if the links file or the manifest cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        List<Part> parts = ScraperFixtures.readLinksFile();
+        Map<String, ScraperFixtures.Fixture> fixtures = ScraperFixtures.readManifest();
+        Files.createDirectories(ScraperFixtures.FIXTURE_DIR.resolve("fixtures"));
+        for (Part part : parts) {
+            String link = part.getLink();
+            boolean wanted = args.length == 0 ? !fixtures.containsKey(ScraperFixtures.keyOf(link)) : link.contains(args[0]);
+            if (!wanted) {
+                continue;
+            }
+            try {
+                Connection.Response response = Jsoup.connect(link).timeout(10000).execute();
+                byte[] page = response.bodyAsBytes();
+                String file = ScraperFixtures.fileNameOf(link);
+                Files.write(ScraperFixtures.FIXTURE_DIR.resolve("fixtures").resolve(file), page);
+                Part captured = new Part(part.getComponent(), part.getInternalReference(), link);
+                if (!backend.setPartAttributesFromDocument(captured, Jsoup.parse(new ByteArrayInputStream(page), null, link))) {
+                    System.err.println("Captured page has no product panel, expected values left empty: " + link);
+                }
+                fixtures.put(ScraperFixtures.keyOf(link), new ScraperFixtures.Fixture(link, file, captured.getName(), captured.getPrice()));
+                System.out.println("Captured " + link + " -> " + captured.getName() + " @ " + captured.getPrice());
+            } catch (IOException e) {
+                System.err.println("Could not capture " + link + ": " + e.getMessage());
+            }
+        }
+        ScraperFixtures.writeManifest(fixtures);
+    }
+}
@@ -0,0 +1,206 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.homeapp.backend.models.bike.Part;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Scraper Fixtures, saved copies of retailer product pages used to exercise the scraper without a network.
+ * Each fixture is keyed by its link, without the scheme and the fragment, as that is all a web server ever sees of it.
+ */
+public class ScraperFixtures {
+
+    /**
+     * The folder holding the fixture manifest and the saved pages.
+     */
+    static final Path FIXTURE_DIR = Path.of("src/test/resources/scraper");
+    private static final Path MANIFEST_FILE = FIXTURE_DIR.resolve("fixtures.json");
+    private static final String LINKS_FILE = "src/main/resources/links.json";
+    private static final ObjectMapper om = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private ScraperFixtures() {
+    }
+
+    /**
+     * Reads every Part from the links file, the same file the scraper refreshes.
+     *
+     * @return the list of Parts
+     * @throws IOException if the links file cannot be read
+     */
+    static List<Part> readLinksFile() throws IOException {
+        return om.readValue(new File(LINKS_FILE), new TypeReference<>() {
+        });
+    }
+
+    /**
+     * Reads the fixture manifest, keyed by fixture key.
+     *
+     * @return the fixtures, in manifest order
+     * @throws IOException if the manifest cannot be read
+     */
+    static Map<String, Fixture> readManifest() throws IOException {
+        Map<String, Fixture> fixtures = new LinkedHashMap<>();
+        if (Files.exists(MANIFEST_FILE)) {
+            List<Fixture> list = om.readValue(MANIFEST_FILE.toFile(), new TypeReference<>() {
+            });
+            list.forEach(f -> fixtures.put(keyOf(f.getLink()), f));
+        }
+        return fixtures;
+    }
+
+    /**
+     * Writes the fixture manifest back to file.
+     *
+     * @param fixtures the fixtures
+     * @throws IOException if the manifest cannot be written
+     */
+    static void writeManifest(Map<String, Fixture> fixtures) throws IOException {
+        om.writeValue(MANIFEST_FILE.toFile(), new ArrayList<>(fixtures.values()));
+    }
+
+    /**
+     * Reads the saved page for a fixture.
+     *
+     * @param fixture the fixture
+     * @return the page bytes
+     * @throws IOException if the page cannot be read
+     */
+    static byte[] readPage(Fixture fixture) throws IOException {
+        return Files.readAllBytes(FIXTURE_DIR.resolve("fixtures").resolve(fixture.getFile()));
+    }
+
+    /**
+     * Gets the fixture key for a link, the host and path with no scheme or fragment.
+     *
+     * @param link the link
+     * @return the key
+     */
+    static String keyOf(String link) {
+        String key = link.replaceFirst("^https?://", "");
+        int fragment = key.indexOf('#');
+        return fragment < 0 ? key : key.substring(0, fragment);
+    }
+
+    /**
+     * Gets the file name a captured page for this link is saved under.
+     *
+     * @param link the link
+     * @return the file name
+     */
+    static String fileNameOf(String link) {
+        return keyOf(link).replaceAll("[^A-Za-z0-9.-]+", "_").replaceAll("_+$", "") + ".html";
+    }
+
+    /**
+     * A single saved page, along with the name and price the scraper is expected to find on it.
+     */
+    public static class Fixture {
+        private String link;
+        private String file;
+        private String name;
+        private String price;
+
+        /**
+         * Zero argument Constructor to Instantiate a new Fixture.
+         */
+        public Fixture() {
+        }
+
+        /**
+         * Instantiates a new Fixture.
+         *
+         * @param link  the link
+         * @param file  the saved page file name
+         * @param name  the expected name
+         * @param price the expected price
+         */
+        public Fixture(String link, String file, String name, String price) {
+            this.link = link;
+            this.file = file;
+            this.name = name;
+            this.price = price;
+        }
+
+        /**
+         * Gets link.
+         *
+         * @return the link
+         */
+        public String getLink() {
+            return link;
+        }
+
+        /**
+         * Sets link.
+         *
+         * @param link the link
+         */
+        public void setLink(String link) {
+            this.link = link;
+        }
+
+        /**
+         * Gets saved page file name.
+         *
+         * @return the saved page file name
+         */
+        public String getFile() {
+            return file;
+        }
+
+        /**
+         * Sets saved page file name.
+         *
+         * @param file the saved page file name
+         */
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        /**
+         * Gets expected name.
+         *
+         * @return the expected name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Sets expected name.
+         *
+         * @param name the expected name
+         */
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets expected price.
+         *
+         * @return the expected price
+         */
+        public String getPrice() {
+            return price;
+        }
+
+        /**
+         * Sets expected price.
+         *
+         * @param price the expected price
+         */
+        public void setPrice(String price) {
+            this.price = price;
+        }
+    }
+}
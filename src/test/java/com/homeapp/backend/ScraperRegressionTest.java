@@ -0,0 +1,191 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.services.ScraperService;
+import org.jsoup.Jsoup;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Scraper regression tests.
+ * Links in links.json are scraped by the Scraper Service, as a parts refresh scrapes them, from their saved fixture pages through a local
+ * replay server, so no network is needed.
+ * Only links with a fixture get a test; run ScraperFixtureCapture to capture pages for more of them.
+ * The fixtures on file are small hand-written pages copying each retailer's product panel markup, one per layout, not captured pages.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ScraperRegressionTest {
+
+    private Map<String, ScraperFixtures.Fixture> fixtures;
+    private ScraperReplayServer server;
+
+    /**
+     * Sets up the test suite, reads the fixture manifest and starts the replay server.
+     *
+     * @throws IOException if the manifest cannot be read or the server cannot start
+     */
+    @BeforeAll
+    public void setup() throws IOException {
+        fixtures = ScraperFixtures.readManifest();
+        server = new ScraperReplayServer(fixtures);
+    }
+
+    /**
+     * Stops the replay server after tests complete.
+     */
+    @AfterAll
+    public void clearup() {
+        server.close();
+    }
+
+    /**
+     * Test that every link with a fixture scrapes the expected name and price from it, streamed as a parts refresh scrapes it.
+     *
+     * @return a test for each link on file with a fixture
+     * @throws IOException if the links file cannot be read
+     */
+    @TestFactory
+    public Stream<DynamicTest> test_That_Every_Link_Scrapes_Correctly_From_Its_Fixture() throws IOException {
+        return scrapesFromFixtures(scraperService(true));
+    }
+
+    /**
+     * Test that every link with a fixture scrapes the expected name and price from it with partial parsing off, parsing the whole page.
+     *
+     * @return a test for each link on file with a fixture
+     * @throws IOException if the links file cannot be read
+     */
+    @TestFactory
+    public Stream<DynamicTest> test_That_Every_Link_Scrapes_Correctly_From_Its_Whole_Fixture() throws IOException {
+        return scrapesFromFixtures(scraperService(false));
+    }
+
+    private Stream<DynamicTest> scrapesFromFixtures(ScraperService scraperService) throws IOException {
+        return ScraperFixtures.readLinksFile().stream()
+                .filter(part -> fixtures.containsKey(ScraperFixtures.keyOf(part.getLink())))
+                .map(part -> DynamicTest.dynamicTest(part.getInternalReference() + " " + part.getLink(), () -> {
+                    ScraperFixtures.Fixture fixture = fixtures.get(ScraperFixtures.keyOf(part.getLink()));
+                    Part replayed = new Part(part.getComponent(), part.getInternalReference(), server.replayLink(part.getLink()));
+                    assertTrue(scraperService.scrape(replayed, System.nanoTime() + Duration.ofSeconds(10).toNanos()));
+                    assertEquals(fixture.getName(), replayed.getName());
+                    assertEquals(fixture.getPrice(), replayed.getPrice());
+                    assertNotNull(replayed.getDateLastUpdated());
+                }));
+    }
+
+    private static ScraperService scraperService(boolean partialParsing) {
+        return new ScraperService(Duration.ofSeconds(5), 1, Duration.ofMillis(1), Duration.ofMillis(1), 100, Duration.ofMillis(1), partialParsing);
+    }
+
+    /**
+     * Test that streaming each fixture, stopping at the product panel, scrapes the same name and price as parsing the whole page.
+     *
+     * @return a test for each fixture
+     */
+    @TestFactory
+    public Stream<DynamicTest> test_That_Streamed_Pages_Scrape_The_Same_As_Full_Pages() {
+        return fixtures.values().stream().map(fixture -> DynamicTest.dynamicTest(fixture.getLink(), () -> {
+            Part streamed = new Part("Stream", "Stream", fixture.getLink());
+            try (StreamParser parser = streamParserOf(fixture)) {
+                assertTrue(backend.setPartAttributesFromStream(streamed, parser));
+            }
+            assertEquals(fixture.getName(), streamed.getName());
+            assertEquals(fixture.getPrice(), streamed.getPrice());
+        }));
+    }
+
+    /**
+     * Test that streaming stops once the product panel has closed, leaving the rest of the page unparsed.
+     *
+     * @throws IOException if the fixture cannot be read
+     */
+    @Test
+    public void test_That_Streaming_Stops_After_The_Product_Panel() throws IOException {
+        ScraperFixtures.Fixture fixture = fixtures.get("www.dolan-bikes.com/adx-titanium-road-frameset/");
+        try (StreamParser parser = streamParserOf(fixture)) {
+            assertTrue(backend.setPartAttributesFromStream(new Part("Stream", "Stream", fixture.getLink()), parser));
+            assertNull(parser.document().selectFirst("div.productDescription"));
+            assertNull(parser.document().selectFirst("footer"));
+        }
+    }
+
+    /**
+     * Test that a stream without a product panel falls back to the whole page, and leaves the part untouched.
+     *
+     * @throws IOException never, the page is in memory
+     */
+    @Test
+    public void test_That_A_Streamed_Page_Without_A_Product_Panel_Leaves_Part_Untouched() throws IOException {
+        Part part = new Part("Frame", "FrameRoadRim", "https://www.dolan-bikes.com/adx-titanium-road-frameset/");
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse("<html><body><p>Out of stock</p></body></html>", part.getLink())) {
+            assertFalse(backend.setPartAttributesFromStream(part, parser));
+            assertNotNull(parser.document().selectFirst("p"));
+        }
+        assertNull(part.getName());
+        assertNull(part.getPrice());
+    }
+
+    private StreamParser streamParserOf(ScraperFixtures.Fixture fixture) throws IOException {
+        Reader page = new InputStreamReader(new ByteArrayInputStream(ScraperFixtures.readPage(fixture)), StandardCharsets.UTF_8);
+        return new StreamParser(Parser.htmlParser()).parse(page, fixture.getLink());
+    }
+
+    /**
+     * Test that every fixture is for a link on file, so a link removed from links.json does not leave its fixture untested.
+     *
+     * @throws IOException if the links file cannot be read
+     */
+    @Test
+    public void test_That_Every_Fixture_Is_For_A_Link_On_File() throws IOException {
+        List<String> onFile = ScraperFixtures.readLinksFile().stream().map(part -> ScraperFixtures.keyOf(part.getLink())).toList();
+        for (String key : fixtures.keySet()) {
+            assertTrue(onFile.contains(key), "No link on file for fixture: " + key);
+        }
+    }
+
+    /**
+     * Test that there is a fixture for every retailer layout the scraper knows.
+     */
+    @Test
+    public void test_That_Every_Retailer_Has_A_Fixture() {
+        for (String retailer : new String[]{"dolan-bikes", "genesisbikes", "wiggle", "chainreactioncycles", "halo"}) {
+            assertTrue(fixtures.keySet().stream().anyMatch(key -> key.contains(retailer)), "No fixture for: " + retailer);
+        }
+    }
+
+    /**
+     * Test that a page without a product panel leaves the part untouched.
+     */
+    @Test
+    public void test_That_A_Page_Without_A_Product_Panel_Leaves_Part_Untouched() {
+        Part part = new Part("Frame", "FrameRoadRim", "https://www.dolan-bikes.com/adx-titanium-road-frameset/");
+        assertFalse(backend.setPartAttributesFromDocument(part, Jsoup.parse("<html><body><p>Out of stock</p></body></html>")));
+        assertNull(part.getName());
+        assertNull(part.getPrice());
+        assertNull(part.getDateLastUpdated());
+    }
+
+    /**
+     * Test that prices are formatted to two decimals.
+     */
+    @Test
+    public void test_That_Prices_Are_Formatted_To_Two_Decimals() {
+        assertEquals("1299.99", backend.formatPrice("£1,299.99"));
+        assertEquals("1299.00", backend.formatPrice("£1,299"));
+        assertEquals("5.50", backend.formatPrice("£5.5"));
+        assertEquals("24.99", backend.formatPrice("£24.999"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.homeapp.backend;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * The Scraper Replay Server, a local stand-in for the retailer sites that serves the saved fixture pages.
+ * Replayed links keep the original host inside the path, so the scraper still picks the right retailer layout.
+ */
+public class ScraperReplayServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    /**
+     * Starts a new replay server on a free local port.
+     *
+     * @param fixtures the fixtures to serve, keyed by fixture key
+     * @throws IOException if the server cannot be started
+     */
+    public ScraperReplayServer(Map<String, ScraperFixtures.Fixture> fixtures) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            ScraperFixtures.Fixture fixture = fixtures.get(exchange.getRequestURI().getPath().substring(1));
+            if (fixture == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                byte[] page = ScraperFixtures.readPage(fixture);
+                exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(200, page.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(page);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    /**
+     * Gets the link that replays the passed-in retailer link from this server.
+     *
+     * @param link the retailer link
+     * @return the local link
+     */
+    public String replayLink(String link) {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + "/" + ScraperFixtures.keyOf(link);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,181 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.scraper.HostStatus;
+import com.homeapp.backend.models.scraper.HostStatus.BreakerState;
+import com.homeapp.backend.services.ScraperService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Scraper resilience tests.
+ * A local server stands in for a retailer, failing on demand, to check the retries and circuit breakers without the network.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ScraperResilienceTest {
+
+    private static final String DOLAN_LINK = "https://www.dolan-bikes.com/adx-titanium-road-frameset/";
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int failureStatus = 503;
+    private ScraperFixtures.Fixture fixture;
+    private HttpServer server;
+    private ScraperService scraperService;
+
+    /**
+     * Sets up the test suite, starts the stand-in retailer server.
+     *
+     * @throws IOException if the fixtures cannot be read or the server cannot start
+     */
+    @BeforeAll
+    public void setup() throws IOException {
+        fixture = ScraperFixtures.readManifest().get(ScraperFixtures.keyOf(DOLAN_LINK));
+        byte[] page = ScraperFixtures.readPage(fixture);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                exchange.sendResponseHeaders(failureStatus, -1);
+            } else {
+                exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(200, page.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(page);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    /**
+     * Resets the stand-in server and creates a fresh service, with short backoffs and cool-down, before each test.
+     */
+    @BeforeEach
+    public void reset() {
+        failuresLeft.set(0);
+        requests.set(0);
+        failureStatus = 503;
+        scraperService = new ScraperService(Duration.ofSeconds(2), 3, Duration.ofMillis(1), Duration.ofMillis(5), 2, Duration.ofMillis(200), true);
+    }
+
+    /**
+     * Stops the stand-in server after tests complete.
+     */
+    @AfterAll
+    public void clearup() {
+        server.stop(0);
+    }
+
+    private Part localPart() {
+        InetSocketAddress address = server.getAddress();
+        return new Part("Frame", "frame", "http://" + address.getHostString() + ":" + address.getPort() + "/" + ScraperFixtures.keyOf(DOLAN_LINK));
+    }
+
+    private long deadline() {
+        return System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    }
+
+    private HostStatus onlyStatus() {
+        assertEquals(1, scraperService.getHostStatuses().size());
+        return scraperService.getHostStatuses().get(0);
+    }
+
+    /**
+     * Test that transient errors are retried until the page is scraped.
+     */
+    @Test
+    public void test_That_Transient_Errors_Are_Retried() {
+        failuresLeft.set(2);
+        Part part = localPart();
+        assertTrue(scraperService.scrape(part, deadline()));
+        assertEquals(3, requests.get());
+        assertEquals(fixture.getPrice(), part.getPrice());
+        assertEquals(BreakerState.CLOSED, onlyStatus().getState());
+    }
+
+    /**
+     * Test that a dead link is not retried and does not count against its host.
+     */
+    @Test
+    public void test_That_Not_Found_Is_Not_Retried() {
+        failuresLeft.set(1);
+        failureStatus = 404;
+        assertFalse(scraperService.scrape(localPart(), deadline()));
+        assertEquals(1, requests.get());
+        assertEquals(0, onlyStatus().getConsecutiveFailures());
+        assertEquals(BreakerState.CLOSED, onlyStatus().getState());
+    }
+
+    /**
+     * Test that a host failing past the threshold is skipped without being contacted.
+     */
+    @Test
+    public void test_That_Failing_Host_Opens_Breaker_And_Is_Skipped() {
+        failuresLeft.set(100);
+        assertFalse(scraperService.scrape(localPart(), deadline()));
+        assertFalse(scraperService.scrape(localPart(), deadline()));
+        assertEquals(BreakerState.OPEN, onlyStatus().getState());
+        assertNotNull(onlyStatus().getOpenUntil());
+        int sent = requests.get();
+        assertFalse(scraperService.scrape(localPart(), deadline()));
+        assertEquals(sent, requests.get());
+    }
+
+    /**
+     * Test that after the cool-down a single successful trial closes the breaker again.
+     *
+     * @throws InterruptedException if the wait for the cool-down is interrupted
+     */
+    @Test
+    public void test_That_Breaker_Closes_After_Cool_Down_And_Success() throws InterruptedException {
+        failuresLeft.set(6);
+        scraperService.scrape(localPart(), deadline());
+        scraperService.scrape(localPart(), deadline());
+        assertEquals(BreakerState.OPEN, onlyStatus().getState());
+        Thread.sleep(250);
+        assertEquals(BreakerState.HALF_OPEN, onlyStatus().getState());
+        assertTrue(scraperService.scrape(localPart(), deadline()));
+        assertEquals(BreakerState.CLOSED, onlyStatus().getState());
+        assertEquals(0, onlyStatus().getConsecutiveFailures());
+    }
+
+    /**
+     * Test that refused connections count against the host as well.
+     *
+     * @throws IOException if a free port cannot be found
+     */
+    @Test
+    public void test_That_Refused_Connections_Open_Breaker() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        Part part = new Part("Frame", "frame", "http://127.0.0.1:" + port + "/www.dolan-bikes.com/closed");
+        scraperService.scrape(part, deadline());
+        scraperService.scrape(part, deadline());
+        HostStatus status = onlyStatus();
+        assertEquals(BreakerState.OPEN, status.getState());
+        assertEquals(2, status.getTotalFailures());
+    }
+
+    /**
+     * Test that nothing is fetched once the refresh time budget has run out.
+     */
+    @Test
+    public void test_That_Used_Up_Budget_Stops_Scraping() {
+        assertFalse(scraperService.scrape(localPart(), System.nanoTime() - 1));
+        assertEquals(0, requests.get());
+        assertEquals(BreakerState.CLOSED, onlyStatus().getState());
+    }
+}
@@ -0,0 +1,127 @@
+package com.homeapp.backend;
+
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.GroupsetBrand;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
+import com.homeapp.backend.models.bike.Enums.ShifterStyle;
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.store.SimilarBikeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.HYDRAULIC_DISC;
+import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.GRAVEL;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.ROAD;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.FLAT;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Similar Bike Index tests.
+ * The index is checked against looking at every bike, as bikes are saved, changed and deleted.
+ */
+public class SimilarBikeIndexTest {
+
+    private FullBike bike(long id, FrameStyle frameStyle, BrakeType brakeType, HandleBarType handleBarType, long frontGears, long rearGears) {
+        FullBike bike = new FullBike("Bike " + id, new Frame(frameStyle, brakeType == HYDRAULIC_DISC, true, true), brakeType, SHIMANO, handleBarType, frontGears, rearGears, STI);
+        bike.setFullBikeId(id);
+        bike.setWheelPreference("Cheap");
+        return bike;
+    }
+
+    private FullBike randomBike(long id, Random random) {
+        FullBike bike = new FullBike("Bike " + id,
+                new Frame(pick(FrameStyle.values(), random), random.nextBoolean(), random.nextBoolean(), random.nextBoolean()),
+                pick(BrakeType.values(), random), pick(GroupsetBrand.values(), random), pick(HandleBarType.values(), random),
+                random.nextInt(4), random.nextInt(13), pick(ShifterStyle.values(), random));
+        bike.setFullBikeId(id);
+        bike.setWheelPreference(random.nextBoolean() ? "Cheap" : "Expensive");
+        return bike;
+    }
+
+    private <E> E pick(E[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private List<Long> lookAtEveryBike(Map<Long, FullBike> saved, FullBike bike, int limit) {
+        long features = SimilarBikeIndex.features(bike);
+        return saved.values().stream()
+                .filter(b -> b.getFullBikeId() != bike.getFullBikeId())
+                .sorted(Comparator.comparingInt((FullBike b) -> SimilarBikeIndex.distance(features, SimilarBikeIndex.features(b)))
+                        .thenComparingLong(SimilarBikeIndex::features)
+                        .thenComparingLong(FullBike::getFullBikeId))
+                .limit(limit)
+                .map(FullBike::getFullBikeId)
+                .toList();
+    }
+
+    /**
+     * Test that the nearest bikes are the ones differing in the fewest and least important choices, the bike itself left out.
+     */
+    @Test
+    public void test_That_The_Most_Alike_Bikes_Come_First() {
+        SimilarBikeIndex index = new SimilarBikeIndex(3);
+        FullBike road = bike(1, ROAD, RIM, DROPS, 2, 11);
+        index.put(road);
+        index.put(bike(2, ROAD, RIM, DROPS, 2, 10));
+        index.put(bike(3, ROAD, RIM, FLAT, 2, 11));
+        index.put(bike(4, GRAVEL, HYDRAULIC_DISC, FLAT, 1, 11));
+        index.put(bike(5, ROAD, RIM, DROPS, 2, 11));
+        assertEquals(List.of(5L, 2L, 3L, 4L), index.nearest(road, 10));
+        assertEquals(List.of(5L, 2L), index.nearest(road, 2));
+        assertEquals(List.of(1L, 5L, 2L), index.nearest(bike(0, ROAD, RIM, DROPS, 2, 11), 3));
+        index.remove(5);
+        assertEquals(List.of(2L, 3L), index.nearest(road, 2));
+        index.put(bike(2, GRAVEL, HYDRAULIC_DISC, FLAT, 1, 11));
+        assertEquals(List.of(3L, 2L, 4L), index.nearest(road, 3));
+        assertEquals(4, index.size());
+    }
+
+    /**
+     * Test that the neighbour lists, kept up to date bike by bike, give the same bikes as looking at every bike.
+     */
+    @Test
+    public void test_That_The_Index_Matches_Looking_At_Every_Bike() {
+        Random random = new Random(49);
+        SimilarBikeIndex index = new SimilarBikeIndex(10);
+        Map<Long, FullBike> saved = new HashMap<>();
+        for (long id = 1; id <= 3000; id++) {
+            FullBike bike = randomBike(id, random);
+            saved.put(id, bike);
+            index.put(bike);
+        }
+        List<Long> ids = new ArrayList<>(saved.keySet());
+        for (int step = 0; step < 4000; step++) {
+            long id = ids.get(random.nextInt(ids.size()));
+            int change = random.nextInt(3);
+            if (change == 0 && saved.containsKey(id)) {
+                saved.remove(id);
+                index.remove(id);
+            } else {
+                FullBike bike = randomBike(id, random);
+                saved.put(id, bike);
+                index.put(bike);
+            }
+            if (step % 20 == 0) {
+                FullBike query = saved.getOrDefault(id, randomBike(id, random));
+                int limit = 1 + random.nextInt(12);
+                assertEquals(lookAtEveryBike(saved, query, limit), index.nearest(query, limit));
+            }
+        }
+        assertEquals(saved.size(), index.size());
+        for (FullBike bike : saved.values().stream().limit(200).toList()) {
+            assertEquals(lookAtEveryBike(saved, bike, 10), index.nearest(bike, 10));
+        }
+    }
+}
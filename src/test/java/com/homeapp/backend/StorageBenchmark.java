@@ -0,0 +1,146 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.repository.FullBikeRepository;
+import com.homeapp.backend.store.BikeStore;
+import com.homeapp.backend.store.GroupCommitWriter;
+import com.homeapp.backend.store.JpaBikeStore;
+import com.homeapp.backend.store.JsonBikeStore;
+import com.homeapp.backend.store.WalStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.ROAD;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
+
+/**
+ * The Storage benchmark. Compares saving bikes in each storage mode, with several threads saving at once.
+ * Both modes work in a temporary folder, the JSON files and database under resources are not touched.
+ * Run with: mvn -Pbenchmark test -Djmh.include=StorageBenchmark
+ * The json mode waits for each save to be on disk, as the jpa mode does, so the two are compared like for like.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StorageBenchmark {
+
+    @Param({"json", "jpa"})
+    private String mode;
+    @Param({"100"})
+    private int bikesOnFile;
+    private final AtomicLong ids = new AtomicLong();
+    private Path dir;
+    private GroupCommitWriter writer;
+    private ConfigurableApplicationContext context;
+    private BikeStore bikeStore;
+
+    /**
+     * Just the JPA side of the application, the entities and repositories, for the jpa mode.
+     * Not a configuration class, so the application's component scan and the tests' search for one both pass it by.
+     */
+    @EnableAutoConfiguration
+    @EntityScan("com.homeapp.backend.models")
+    @EnableJpaRepositories("com.homeapp.backend.repository")
+    static class JpaOnly {
+    }
+
+    /**
+     * Opens the store for this mode in a temporary folder, holding the starting bikes.
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("storage-benchmark");
+        if (mode.equals("json")) {
+            Files.writeString(dir.resolve("bikes.json"), "[]");
+            writer = new GroupCommitWriter(Duration.ofMillis(5));
+            bikeStore = new JsonBikeStore(new WalStore<>(new ObjectMapper(), dir.resolve("bikes.json"), dir.resolve("bikes_wal.ndjson"),
+                    FullBike.class, b -> String.valueOf(b.getFullBikeId()), 50, writer), dir.resolve("bikes_last_id.txt"));
+        } else {
+            context = new SpringApplicationBuilder(JpaOnly.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.autoconfigure.exclude=", "--spring.datasource.url=jdbc:h2:file:" + dir.resolve("homeapp").toAbsolutePath(),
+                            "--spring.jpa.hibernate.ddl-auto=create", "--logging.level.root=WARN");
+            bikeStore = new JpaBikeStore(context.getBean(FullBikeRepository.class));
+        }
+        for (int i = 0; i < bikesOnFile; i++) {
+            bikeStore.save(bike());
+        }
+        bikeStore.flush().join();
+    }
+
+    /**
+     * Closes the store and deletes the temporary folder.
+     *
+     * @throws IOException if the store cannot be closed
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        bikeStore.close();
+        if (writer != null) {
+            writer.close();
+        }
+        if (context != null) {
+            context.close();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private FullBike bike() {
+        return bike(ids.incrementAndGet());
+    }
+
+    private FullBike bike(long id) {
+        FullBike bike = new FullBike("bike" + id, new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, 10L, STI);
+        bike.setFullBikeId(id);
+        return bike;
+    }
+
+    /**
+     * Saves a new bike and waits for it to be durable.
+     *
+     * @throws IOException if the bike cannot be saved
+     */
+    @Benchmark
+    public void saveDurable() throws IOException {
+        bikeStore.save(bike()).join();
+    }
+
+    /**
+     * Replaces one of the starting bikes with an edited copy and waits for it to be durable.
+     *
+     * @throws IOException if the bike cannot be saved
+     */
+    @Benchmark
+    public void editDurable() throws IOException {
+        FullBike bike = bike(1 + Math.floorMod(ids.getAndIncrement(), bikesOnFile));
+        bike.setNumberOfRearGears(11);
+        bikeStore.save(bike).join();
+    }
+}
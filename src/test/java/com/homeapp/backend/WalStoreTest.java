@@ -0,0 +1,236 @@
+package com.homeapp.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Frame;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.store.GroupCommitWriter;
+import com.homeapp.backend.store.WalStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.ROAD;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.HandleBarType.DROPS;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Write-Ahead Log Store tests.
+ * Each test works on its own snapshot and log in a temporary folder, reopening the store to check what survives a restart.
+ * Writes are queued on a Group Commit Writer, so each test flushes it before looking at the files.
+ */
+public class WalStoreTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+    @TempDir
+    Path dir;
+    private Path snapshot;
+    private Path log;
+    private GroupCommitWriter writer;
+
+    /**
+     * Sets up an empty snapshot file and a writer before each test.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @BeforeEach
+    public void setup() throws IOException {
+        snapshot = dir.resolve("bikes.json");
+        log = dir.resolve("bikes_wal.ndjson");
+        Files.writeString(snapshot, "[]");
+        writer = new GroupCommitWriter(Duration.ofMillis(5));
+    }
+
+    /**
+     * Stops the writer after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        writer.close();
+    }
+
+    private WalStore<FullBike> open(int checkpointEvery) throws IOException {
+        return new WalStore<>(om, snapshot, log, FullBike.class, b -> String.valueOf(b.getFullBikeId()), checkpointEvery, writer);
+    }
+
+    private FullBike bike(long id, String name, long rearGears) {
+        FullBike bike = new FullBike(name, new Frame(ROAD, false, true, true), RIM, SHIMANO, DROPS, 2L, rearGears, STI);
+        bike.setFullBikeId(id);
+        return bike;
+    }
+
+    private List<String> names(WalStore<FullBike> store) {
+        return store.values().stream().map(FullBike::getBikeName).toList();
+    }
+
+    /**
+     * Test that an edit only appends to the log, leaving the snapshot alone.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_An_Edit_Appends_To_The_Log_Only() throws IOException {
+        WalStore<FullBike> store = open(50);
+        store.put(bike(1, "one", 10));
+        store.put(bike(2, "two", 10)).join();
+        assertEquals("[]", Files.readString(snapshot));
+        assertEquals(2, Files.readAllLines(log).size());
+    }
+
+    /**
+     * Test that changes only in the log are replayed when the store is reopened, and checkpointed straight away.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Log_Is_Replayed_On_Open() throws IOException {
+        WalStore<FullBike> store = open(50);
+        store.put(bike(1, "one", 10));
+        store.put(bike(2, "two", 10));
+        store.put(bike(1, "one", 11));
+        store.delete("2");
+        store.put(bike(3, "three", 9)).join();
+        WalStore<FullBike> reopened = open(50);
+        assertEquals(List.of("one", "three"), names(reopened));
+        assertEquals(11, reopened.get("1").getNumberOfRearGears());
+        assertEquals(0, Files.size(log));
+        assertEquals(2, om.readTree(snapshot.toFile()).size());
+    }
+
+    /**
+     * Test that reading the store without opening it replays the log, but leaves the snapshot and log as they were.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Reading_Without_Opening_Writes_Nothing() throws IOException {
+        WalStore<FullBike> store = open(50);
+        store.put(bike(1, "one", 10));
+        store.put(bike(2, "two", 10));
+        store.delete("1").join();
+        List<FullBike> read = WalStore.read(om, snapshot, log, FullBike.class, b -> String.valueOf(b.getFullBikeId()));
+        assertEquals(List.of("two"), read.stream().map(FullBike::getBikeName).toList());
+        assertEquals("[]", Files.readString(snapshot));
+        assertEquals(3, Files.readAllLines(log).size());
+    }
+
+    /**
+     * Test that a patch logs only the changed fields, and is merged back into the bike when the log is replayed.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_A_Patch_Logs_Only_The_Change() throws IOException {
+        WalStore<FullBike> store = open(50);
+        store.put(bike(1, "one", 10));
+        store.put(bike(2, "two", 10));
+        FullBike patched = bike(1, "one", 11);
+        store.patch(patched, om.readTree("{\"numberOfRearGears\": 11}")).join();
+        List<String> lines = Files.readAllLines(log);
+        assertEquals("{\"numberOfRearGears\":11}", om.readTree(lines.get(2)).get("patch").toString());
+        assertFalse(lines.get(2).contains("bikeName"));
+        assertEquals(List.of("one", "two"), names(store));
+        WalStore<FullBike> reopened = open(50);
+        assertEquals(List.of("one", "two"), names(reopened));
+        assertEquals(11, reopened.get("1").getNumberOfRearGears());
+        assertEquals(2, reopened.get("1").getNumberOfFrontGears());
+    }
+
+    /**
+     * Test that the snapshot is rewritten and the log emptied once enough changes are logged.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Checkpoint_Happens_After_Enough_Changes() throws IOException {
+        WalStore<FullBike> store = open(3);
+        store.put(bike(1, "one", 10));
+        store.put(bike(2, "two", 10));
+        store.put(bike(3, "three", 10)).join();
+        assertEquals(0, Files.size(log));
+        assertEquals(3, om.readTree(snapshot.toFile()).size());
+        store.clear().join();
+        assertEquals(1, Files.readAllLines(log).size());
+        assertEquals(0, open(3).size());
+    }
+
+    /**
+     * Test that replaying a log over a snapshot that already holds its changes gives the same result,
+     * as happens after a crash between writing the snapshot and emptying the log.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_Replay_Over_A_Checkpointed_Snapshot_Is_Idempotent() throws IOException {
+        WalStore<FullBike> store = open(50);
+        store.put(bike(1, "one", 10));
+        store.clear();
+        store.put(bike(2, "two", 10));
+        store.put(bike(1, "one", 12)).join();
+        byte[] pendingLog = Files.readAllBytes(log);
+        store.checkpoint().join();
+        Files.write(log, pendingLog);
+        WalStore<FullBike> reopened = open(50);
+        assertEquals(List.of("two", "one"), names(reopened));
+        assertEquals(12, reopened.get("1").getNumberOfRearGears());
+    }
+
+    /**
+     * Test that a log entry cut short by a crash is ignored, keeping every entry before it.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_A_Torn_Log_Entry_Is_Ignored() throws IOException {
+        WalStore<FullBike> store = open(50);
+        store.put(bike(1, "one", 10)).join();
+        Files.writeString(log, "{\"seq\":2,\"op\":\"PUT\",\"key\":\"2\",\"val", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(List.of("one"), names(open(50)));
+    }
+
+    /**
+     * Test that a burst of edits queued within one window is written to the log in order, every one acknowledged once durable.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Test
+    public void test_That_A_Burst_Of_Edits_Is_Group_Committed_In_Order() throws IOException {
+        WalStore<FullBike> store = open(1000);
+        CompletableFuture<?>[] written = new CompletableFuture<?>[100];
+        for (int i = 0; i < written.length; i++) {
+            written[i] = store.put(bike(i + 1, "bike" + i, 10));
+        }
+        CompletableFuture.allOf(written).join();
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(100, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(i + 1, om.readTree(lines.get(i)).get("seq").asLong());
+        }
+    }
+
+    /**
+     * Test that a full replace of a file queued after appends to it supersedes them, so only the replace is written.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    @Test
+    public void test_That_A_Replace_Supersedes_Earlier_Queued_Writes() throws IOException {
+        Path file = dir.resolve("notes.json");
+        writer.append(file, "stale\n".getBytes(StandardCharsets.UTF_8));
+        writer.replace(file, () -> "first".getBytes(StandardCharsets.UTF_8));
+        writer.replace(file, () -> "latest".getBytes(StandardCharsets.UTF_8)).join();
+        assertEquals("latest", Files.readString(file));
+    }
+}